@@ -0,0 +1,90 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.benchmarks;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.Role;
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.domainca.DomainCA;
+import com.google.openthread.thread.ConstantsThread;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Certificate path validation of a Pledge's IDevID against the MASA CA, and LDevID issuance by the
+ * domain CA for an enrollment CSR, including its proof-of-possession check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateBenchmark {
+
+  private X509Certificate pledgeCert;
+  private List<X509Certificate> masaCa;
+  private DomainCA domainCa;
+  private PKCS10CertificationRequest csr;
+
+  @Setup
+  public void setup() throws Exception {
+    Credentials pledge = Fixtures.credentials(Role.Pledge, CredentialsSet.PLEDGE_ALIAS);
+    pledgeCert = pledge.getCertificate();
+    masaCa = List.of(pledge.getCaCertificate());
+    domainCa =
+        new DomainCA(
+            ConstantsThread.THREAD_DOMAIN_NAME_DEFAULT,
+            Fixtures.credentials(Role.Registrar, CredentialsSet.DOMAIN_CA_ALIAS));
+    csr = Fixtures.csr();
+  }
+
+  @Benchmark
+  public boolean chainsTo() {
+    return SecurityUtils.chainsTo(pledgeCert, masaCa);
+  }
+
+  @Benchmark
+  public X509Certificate signCertificate() throws Exception {
+    return domainCa.signCertificate(csr);
+  }
+}
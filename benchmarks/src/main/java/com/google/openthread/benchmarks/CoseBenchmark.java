@@ -0,0 +1,93 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.benchmarks;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.Role;
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.brski.CBORSerializer;
+import java.security.PrivateKey;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * COSE_Sign1 signing of a voucher request as the Pledge does it, and stripping the unprotected
+ * headers (x5bag) of a signed voucher as the Registrar does before relaying it to a Pledge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoseBenchmark {
+
+  private PrivateKey pledgeKey;
+  private byte[] voucherRequest;
+  private byte[] signedVoucher;
+
+  @Setup
+  public void setup() throws Exception {
+    Credentials pledge = Fixtures.credentials(Role.Pledge, CredentialsSet.PLEDGE_ALIAS);
+    Credentials masa = Fixtures.credentials(Role.Masa, CredentialsSet.MASA_ALIAS);
+    Credentials registrar = Fixtures.credentials(Role.Registrar, CredentialsSet.REGISTRAR_ALIAS);
+    Credentials domainCa = Fixtures.credentials(Role.Registrar, CredentialsSet.DOMAIN_CA_ALIAS);
+
+    pledgeKey = pledge.getPrivateKey();
+    voucherRequest =
+        new CBORSerializer().serialize(Fixtures.voucherRequest(registrar.getCertificate(), true));
+    signedVoucher =
+        SecurityUtils.genCoseSign1Message(
+            masa.getPrivateKey(),
+            SecurityUtils.COSE_SIGNATURE_ALGORITHM,
+            new CBORSerializer().serialize(Fixtures.voucher(domainCa.getCertificate(), true)),
+            masa.getCertificateChain());
+  }
+
+  @Benchmark
+  public byte[] signVoucherRequest() throws Exception {
+    return SecurityUtils.genCoseSign1Message(
+        pledgeKey, SecurityUtils.COSE_SIGNATURE_ALGORITHM, voucherRequest);
+  }
+
+  @Benchmark
+  public byte[] stripUnprotectedHeaders() {
+    return SecurityUtils.stripCoseSign1UnprotectedHeaders(signedVoucher);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.benchmarks;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.Role;
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.brski.Voucher;
+import com.google.openthread.brski.VoucherRequest;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+
+/**
+ * Fixtures shared by the benchmarks: the default credentials in {@code credentials/}, loaded
+ * relative to the working directory, and messages as a Pledge, Registrar and MASA exchange them.
+ */
+final class Fixtures {
+
+  static final String VENDOR = "default";
+
+  private Fixtures() {}
+
+  static Credentials credentials(Role role, String alias) throws Exception {
+    return new CredentialsSet(VENDOR, role).getCredentials(alias);
+  }
+
+  /**
+   * A voucher request with the Registrar's certificate: constrained as the Pledge sends it, or
+   * not as the Registrar sends it to a MASA in JSON.
+   */
+  static Voucher voucherRequest(X509Certificate registrarCert, boolean isConstrained)
+      throws Exception {
+    Voucher vr = new VoucherRequest();
+    vr.setConstrained(isConstrained);
+    vr.setAssertion(Voucher.Assertion.PROXIMITY);
+    vr.setSerialNumber("OT-9527");
+    vr.setCreatedOn(new Date());
+    vr.setNonce(new byte[8]);
+    vr.setProximityRegistrarCert(registrarCert.getEncoded());
+    return vr;
+  }
+
+  /** A voucher as the MASA issues it, pinning the domain CA certificate. */
+  static Voucher voucher(X509Certificate domainCaCert, boolean isConstrained) throws Exception {
+    Voucher v = new Voucher();
+    v.setConstrained(isConstrained);
+    v.setAssertion(Voucher.Assertion.LOGGED);
+    v.setSerialNumber("OT-9527");
+    v.setCreatedOn(new Date());
+    v.setExpiresOn(new Date(System.currentTimeMillis() + 24 * 3600 * 1000L));
+    v.setNonce(new byte[8]);
+    v.setPinnedDomainCert(domainCaCert.getEncoded());
+    return v;
+  }
+
+  /** A CSR for a new LDevID key pair, signed by that key pair as the Pledge's is. */
+  static PKCS10CertificationRequest csr() throws Exception {
+    KeyPair keyPair = SecurityUtils.genKeyPair();
+    ContentSigner signer =
+        new JcaContentSignerBuilder(SecurityUtils.SIGNATURE_ALGORITHM)
+            .build(keyPair.getPrivate());
+    return new JcaPKCS10CertificationRequestBuilder(
+            new X500Name("CN=OT-9527"), keyPair.getPublic())
+        .build(signer);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one cBRSKI or EST request handled by the Registrar or the MASA, from
+ * its arrival at the resource to the response. In a recording, the events of a slow join can be
+ * lined up with the GC pauses, lock contention and other JVM events of the same time.
+ *
+ * <p>A handler creates the event and only fills it in if {@link #shouldCommit()} holds, so that it
+ * costs next to nothing while no recording is enabling it.
+ */
+@Name("com.google.openthread.BrskiExchange")
+@Label("BRSKI Exchange")
+@Category({"OpenThread Registrar", "BRSKI"})
+@Description("A cBRSKI or EST request handled by the Registrar or the MASA")
+@StackTrace(false)
+public final class BrskiExchangeEvent extends Event {
+
+  @Label("Server")
+  @Description("Registrar or MASA")
+  private String server;
+
+  @Label("Resource")
+  private String resource;
+
+  @Label("Pledge Serial Number")
+  private String pledgeSerial;
+
+  @Label("Content Format")
+  @Description("The media type of the request")
+  private String contentFormat;
+
+  @Label("Request Size")
+  @DataAmount
+  private long requestSize;
+
+  @Label("Response Size")
+  @DataAmount
+  private long responseSize;
+
+  @Label("MASA URI")
+  @Description("The MASA that the Registrar requested a voucher from, if any")
+  private String masaUri;
+
+  @Label("Result")
+  @Description("The CoAP or HTTP response code")
+  private String result;
+
+  public BrskiExchangeEvent(String server) {
+    this.server = server;
+  }
+
+  public void setResource(String resource) {
+    this.resource = resource;
+  }
+
+  public void setPledgeSerial(String pledgeSerial) {
+    this.pledgeSerial = pledgeSerial;
+  }
+
+  public void setContentFormat(String contentFormat) {
+    this.contentFormat = contentFormat;
+  }
+
+  public void setRequestSize(long requestSize) {
+    this.requestSize = requestSize;
+  }
+
+  public void setResponseSize(long responseSize) {
+    this.responseSize = responseSize;
+  }
+
+  public void setMasaUri(String masaUri) {
+    this.masaUri = masaUri;
+  }
+
+  public void setResult(String result) {
+    this.result = result;
+  }
+}
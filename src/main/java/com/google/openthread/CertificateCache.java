@@ -0,0 +1,153 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded, concurrent cache of parsed X509 certificates, keyed by the SHA-256 hash of their DER
+ * encoding. The same Registrar, Pledge and CA certificates are carried in the x5bag / CMS
+ * certificate bag of every voucher request, so with this cache each of them gets parsed once per
+ * process instead of once per request. When full, the oldest entries are evicted first.
+ */
+public final class CertificateCache {
+
+  public static final int DEFAULT_CAPACITY = 512;
+
+  private static final CertificateCache INSTANCE = new CertificateCache(DEFAULT_CAPACITY);
+
+  private static final ObjectPool<MessageDigest> SHA256 =
+      new ObjectPool<>(
+          () -> {
+            try {
+              return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
+  private static final ObjectPool<CertificateFactory> CERT_FACTORIES =
+      new ObjectPool<>(
+          () -> {
+            try {
+              return CertificateFactory.getInstance("X.509");
+            } catch (CertificateException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
+  private final int capacity;
+  private final Map<ByteBuffer, X509Certificate> cache = new ConcurrentHashMap<>();
+  private final Queue<ByteBuffer> insertionOrder = new ConcurrentLinkedQueue<>();
+
+  public CertificateCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.capacity = capacity;
+  }
+
+  /** @return the process-wide cache shared by the COSE and CMS decoding paths. */
+  public static CertificateCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Get the certificate with the given DER encoding, parsing it only if not already cached.
+   *
+   * @param der the DER-encoded certificate
+   * @return the parsed certificate
+   * @throws CertificateException if the encoding can't be parsed
+   */
+  public X509Certificate get(byte[] der) throws CertificateException {
+    return get(der, 0, der.length);
+  }
+
+  /**
+   * Get the certificate DER-encoded in the given range of a buffer, parsing it only if not already
+   * cached. The buffer is not copied.
+   *
+   * @param buf buffer containing the DER-encoded certificate
+   * @param offset start of the encoding in buf
+   * @param length length of the encoding
+   * @return the parsed certificate
+   * @throws CertificateException if the encoding can't be parsed
+   */
+  public X509Certificate get(byte[] buf, int offset, int length) throws CertificateException {
+    MessageDigest md = SHA256.acquire();
+    md.update(buf, offset, length);
+    // digest() resets the digest for its next use.
+    ByteBuffer key = ByteBuffer.wrap(md.digest());
+    SHA256.release(md);
+
+    X509Certificate cert = cache.get(key);
+    if (cert != null) {
+      return cert;
+    }
+    CertificateFactory factory = CERT_FACTORIES.acquire();
+    try {
+      cert =
+          (X509Certificate)
+              factory.generateCertificate(new ByteArrayInputStream(buf, offset, length));
+    } finally {
+      CERT_FACTORIES.release(factory);
+    }
+    if (cache.putIfAbsent(key, cert) == null) {
+      insertionOrder.add(key);
+      while (cache.size() > capacity) {
+        ByteBuffer eldest = insertionOrder.poll();
+        if (eldest == null) {
+          break;
+        }
+        cache.remove(eldest);
+      }
+    }
+    return cert;
+  }
+
+  /** @return the number of cached certificates. */
+  public int size() {
+    return cache.size();
+  }
+
+  public void clear() {
+    cache.clear();
+    insertionOrder.clear();
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.io.IOException;
+import java.security.PrivateKey;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.SignerInfoGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.DigestCalculatorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+/**
+ * A prepared CMS signer, bound to a signing key, its certificate and a fixed set of certificates to
+ * include in every message. Unlike {@link SecurityUtils#genCMSSignedMessage}, the digest provider
+ * and certificate holders are built only once, and the {@link SignerInfoGenerator}s, which wrap a
+ * stateful {@code Signature}, are kept in a pool for reuse across messages.
+ *
+ * <p>Verification of the generated signature is off by default; it doubles the ECDSA cost per
+ * message and is only useful as a debug check of the signing setup.
+ */
+public final class CmsSigner {
+
+  private final PrivateKey signingKey;
+  private final String signingAlg;
+  private final X509CertificateHolder signingCertHolder;
+  private final X509CertificateHolder[] certHolders;
+  private final DigestCalculatorProvider digestProvider;
+  private final ObjectPool<SignerInfoGenerator> signerInfoGenerators =
+      new ObjectPool<>(this::newSignerInfoGenerator);
+
+  private volatile boolean isSelfVerification = false;
+
+  /**
+   * @param signingKey  the private key to sign with
+   * @param signingCert the certificate of the signing key
+   * @param signingAlg  the signature algorithm, e.g. {@link SecurityUtils#SIGNATURE_ALGORITHM}
+   * @param certs       certificates to include in every signed message, or null if none
+   */
+  public CmsSigner(
+      PrivateKey signingKey, X509Certificate signingCert, String signingAlg, X509Certificate[] certs)
+      throws CertificateEncodingException, OperatorCreationException {
+    this.signingKey = signingKey;
+    this.signingAlg = signingAlg;
+    this.signingCertHolder = new JcaX509CertificateHolder(signingCert);
+    this.certHolders = toHolders(certs);
+    this.digestProvider = new JcaDigestCalculatorProviderBuilder().build();
+    // fail early on an unusable key/algorithm, rather than on first use.
+    signerInfoGenerators.release(signerInfoGenerators.acquire());
+  }
+
+  /**
+   * Set whether each signed message is verified again before it is returned. Meant as a debug
+   * check; off by default.
+   */
+  public void setSelfVerification(boolean isSelfVerification) {
+    this.isSelfVerification = isSelfVerification;
+  }
+
+  public boolean isSelfVerification() {
+    return isSelfVerification;
+  }
+
+  /**
+   * Sign the content, including the fixed certificates and the given per-message certificates.
+   *
+   * @param content    the content to encapsulate and sign
+   * @param extraCerts additional certificates for this message only, or null if none
+   * @return the encoded CMS SignedData
+   * @throws CMSException if signing, or the optional self-verification, fails
+   */
+  public byte[] sign(byte[] content, X509Certificate[] extraCerts)
+      throws CMSException, CertificateEncodingException {
+    CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+    SignerInfoGenerator signerInfoGenerator = signerInfoGenerators.acquire();
+    generator.addSignerInfoGenerator(signerInfoGenerator);
+    for (X509CertificateHolder holder : certHolders) {
+      generator.addCertificate(holder);
+    }
+    for (X509CertificateHolder holder : toHolders(extraCerts)) {
+      generator.addCertificate(holder);
+    }
+
+    // a generator that failed halfway may hold part of a signature input, so it is not reused.
+    CMSSignedData signedData = generator.generate(new CMSProcessableByteArray(content), true);
+    signerInfoGenerators.release(signerInfoGenerator);
+    if (isSelfVerification) {
+      boolean isValid;
+      try {
+        isValid = SecurityUtils.validateCMSSignedMessage(signedData);
+      } catch (Exception e) {
+        throw new CMSException("validation of CMSSignedData failed: " + e.getMessage(), e);
+      }
+      if (!isValid) {
+        throw new CMSException("validation of CMSSignedData failed");
+      }
+    }
+    try {
+      return signedData.getEncoded();
+    } catch (IOException e) {
+      throw new CMSException("encoding of CMSSignedData failed", e);
+    }
+  }
+
+  private SignerInfoGenerator newSignerInfoGenerator() {
+    try {
+      return new JcaSignerInfoGeneratorBuilder(digestProvider)
+          .build(new JcaContentSignerBuilder(signingAlg).build(signingKey), signingCertHolder);
+    } catch (OperatorCreationException e) {
+      throw new IllegalStateException("cannot create CMS signer: " + e.getMessage(), e);
+    }
+  }
+
+  private static X509CertificateHolder[] toHolders(X509Certificate[] certs)
+      throws CertificateEncodingException {
+    if (certs == null) {
+      return new X509CertificateHolder[0];
+    }
+    X509CertificateHolder[] holders = new X509CertificateHolder[certs.length];
+    for (int i = 0; i < certs.length; i++) {
+      holders[i] = new JcaX509CertificateHolder(certs[i]);
+    }
+    return holders;
+  }
+}
@@ -42,6 +42,8 @@ public final class Constants {
   public static final String DEFAULT_MASA_URI =
       "localhost:" + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT;
   public static final String HELLO_PATH = "hello";
+  // CoAP resource of the Registrar and HTTP path of the MASA serving their metrics.
+  public static final String METRICS_PATH = "metrics";
 
   // --- Other items
   public static final String KEY_STORE_FORMAT = "PKCS12";
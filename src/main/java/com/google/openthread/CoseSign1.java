@@ -0,0 +1,521 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import COSE.CoseException;
+import com.upokecenter.cbor.CBORObject;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A COSE_Sign1 message (RFC 9052) decoded in place. Decoding only records the offsets of the four
+ * array elements inside the encoded message; no object graph is built and nothing is re-encoded.
+ * Signature verification builds the ToBeSigned (Sig_structure) bytes in a single pre-sized buffer
+ * and uses a {@link Signature} verifier taken from a per-algorithm {@link ObjectPool}, so that
+ * verifiers are reused across threads rather than created per message. Supported algorithms are
+ * ES256 (-7), ES384 (-35) and ES512 (-36), as used by cBRSKI.
+ *
+ * <p>Only definite-length CBOR encoding is accepted, and the payload must be attached.
+ */
+public final class CoseSign1 {
+
+  /** The CBOR tag for a COSE_Sign1 message (RFC 9052). */
+  public static final int TAG = 18;
+
+  /** COSE header parameter label 'alg'. */
+  public static final int HEADER_ALG = 1;
+
+  /** COSE header parameter label 'x5bag' (RFC 9360). */
+  public static final int HEADER_X5BAG = 32;
+
+  public static final int ALG_ES256 = -7;
+  public static final int ALG_ES384 = -35;
+  public static final int ALG_ES512 = -36;
+
+  private static final int MAJOR_UINT = 0;
+  private static final int MAJOR_NINT = 1;
+  private static final int MAJOR_BSTR = 2;
+  private static final int MAJOR_TSTR = 3;
+  private static final int MAJOR_ARRAY = 4;
+  private static final int MAJOR_MAP = 5;
+  private static final int MAJOR_TAG = 6;
+  private static final int MAJOR_SIMPLE = 7;
+
+  private static final int MAX_NESTING = 32;
+
+  /** Encoded prefix of Sig_structure: array(4) followed by the text string "Signature1". */
+  private static final byte[] SIG_STRUCTURE_PREFIX;
+
+  static {
+    byte[] context = "Signature1".getBytes(StandardCharsets.US_ASCII);
+    SIG_STRUCTURE_PREFIX = new byte[2 + context.length];
+    SIG_STRUCTURE_PREFIX[0] = (byte) ((MAJOR_ARRAY << 5) | 4);
+    SIG_STRUCTURE_PREFIX[1] = (byte) ((MAJOR_TSTR << 5) | context.length);
+    System.arraycopy(context, 0, SIG_STRUCTURE_PREFIX, 2, context.length);
+  }
+
+  private static final ObjectPool<Signature> ES256_VERIFIERS =
+      new ObjectPool<>(() -> newSignature("SHA256withECDSAinP1363Format"));
+  private static final ObjectPool<Signature> ES384_VERIFIERS =
+      new ObjectPool<>(() -> newSignature("SHA384withECDSAinP1363Format"));
+  private static final ObjectPool<Signature> ES512_VERIFIERS =
+      new ObjectPool<>(() -> newSignature("SHA512withECDSAinP1363Format"));
+
+  private final byte[] encoded;
+  private final boolean tagged;
+
+  // offsets into 'encoded'; '*Start' is the first byte of the encoded item (its CBOR head),
+  // '*Offset' the first byte of the content of a byte string.
+  private final int arrayStart;
+  private final int protectedStart;
+  private final int protectedOffset;
+  private final int protectedLength;
+  private final int unprotectedStart;
+  private final int unprotectedEnd;
+  private final int payloadStart;
+  private final int payloadOffset;
+  private final int payloadLength;
+  private final int signatureOffset;
+  private final int signatureLength;
+
+  private CoseSign1(byte[] encoded) throws CoseException {
+    this.encoded = encoded;
+    Cursor c = new Cursor(encoded, 0, encoded.length);
+
+    c.readHead();
+    if (c.major == MAJOR_TAG) {
+      if (c.arg != TAG) {
+        throw new CoseException("unexpected CBOR tag " + c.arg + " for COSE_Sign1");
+      }
+      tagged = true;
+      arrayStart = c.pos;
+      c.readHead();
+    } else {
+      tagged = false;
+      arrayStart = 0;
+    }
+    if (c.major != MAJOR_ARRAY || c.arg != 4) {
+      throw new CoseException("not a COSE_Sign1 structure");
+    }
+
+    protectedStart = c.pos;
+    protectedLength = c.readByteString();
+    protectedOffset = c.pos - protectedLength;
+
+    unprotectedStart = c.pos;
+    c.readHead();
+    if (c.major != MAJOR_MAP) {
+      throw new CoseException("COSE_Sign1 unprotected header is not a map");
+    }
+    c.pos = unprotectedStart;
+    c.skipItem(0);
+    unprotectedEnd = c.pos;
+
+    payloadStart = c.pos;
+    if (c.pos < encoded.length && encoded[c.pos] == (byte) 0xf6) {
+      throw new CoseException("COSE_Sign1 with detached payload not supported");
+    }
+    payloadLength = c.readByteString();
+    payloadOffset = c.pos - payloadLength;
+
+    signatureLength = c.readByteString();
+    signatureOffset = c.pos - signatureLength;
+
+    if (c.pos != encoded.length) {
+      throw new CoseException("trailing bytes after COSE_Sign1 structure");
+    }
+  }
+
+  /**
+   * Decode a COSE_Sign1 message, tagged (18) or untagged. The given array is referenced, not
+   * copied, and must not be modified afterwards.
+   *
+   * @param encoded the encoded message
+   * @return the decoded message
+   * @throws CoseException if the input is not a well-formed COSE_Sign1 structure
+   */
+  public static CoseSign1 decode(byte[] encoded) throws CoseException {
+    if (encoded == null) {
+      throw new CoseException("null COSE_Sign1 message");
+    }
+    return new CoseSign1(encoded);
+  }
+
+  /** @return the encoded message this object was decoded from. */
+  public byte[] getEncoded() {
+    return encoded;
+  }
+
+  /** @return true if the message carries the COSE_Sign1 CBOR tag. */
+  public boolean isTagged() {
+    return tagged;
+  }
+
+  /** @return a copy of the payload (content) bytes. */
+  public byte[] getPayload() {
+    return Arrays.copyOfRange(encoded, payloadOffset, payloadOffset + payloadLength);
+  }
+
+  /** @return a copy of the signature bytes. */
+  public byte[] getSignature() {
+    return Arrays.copyOfRange(encoded, signatureOffset, signatureOffset + signatureLength);
+  }
+
+  /**
+   * Return this message with all unprotected header parameters removed. The signature only covers
+   * the protected header and payload (Sig_structure), so it stays valid. The result is a byte-level
+   * splice of the original encoding: everything up to the unprotected map, an empty map, and the
+   * payload and signature, copied into one exactly-sized array.
+   *
+   * @return the encoded message with an empty unprotected header, preserving the original tagging;
+   *     this is the original array if the unprotected header already was empty
+   */
+  public byte[] stripUnprotectedHeaders() {
+    if (unprotectedEnd - unprotectedStart == 1) {
+      return encoded;
+    }
+    int tailLength = encoded.length - unprotectedEnd;
+    byte[] out = new byte[unprotectedStart + 1 + tailLength];
+    System.arraycopy(encoded, 0, out, 0, unprotectedStart);
+    out[unprotectedStart] = (byte) (MAJOR_MAP << 5);
+    System.arraycopy(encoded, unprotectedEnd, out, unprotectedStart + 1, tailLength);
+    return out;
+  }
+
+  /**
+   * Get the 'alg' header parameter, from the protected header (tried first) or the unprotected
+   * header.
+   *
+   * @return the COSE algorithm identifier
+   * @throws CoseException if no integer 'alg' parameter is present
+   */
+  public int getAlgorithm() throws CoseException {
+    int[] range = findAttributeRange(HEADER_ALG);
+    if (range == null) {
+      throw new CoseException("no 'alg' header parameter in COSE_Sign1");
+    }
+    Cursor c = new Cursor(encoded, range[0], range[1]);
+    c.readHead();
+    if (c.major == MAJOR_UINT && c.arg <= Integer.MAX_VALUE) {
+      return (int) c.arg;
+    } else if (c.major == MAJOR_NINT && c.arg < Integer.MAX_VALUE) {
+      return (int) (-1 - c.arg);
+    }
+    throw new CoseException("unsupported 'alg' header parameter value");
+  }
+
+  /**
+   * Find a header parameter with an integer label, from the protected header (tried first) or the
+   * unprotected header.
+   *
+   * @param label the header parameter label
+   * @return the decoded parameter value, or null if not present
+   */
+  public CBORObject findAttribute(int label) throws CoseException {
+    int[] range = findAttributeRange(label);
+    if (range == null) {
+      return null;
+    }
+    return CBORObject.DecodeFromBytes(Arrays.copyOfRange(encoded, range[0], range[1]));
+  }
+
+  /**
+   * Get the X509 certificates in the 'x5bag' header parameter, either protected (tried first) or
+   * unprotected. The certificates are taken directly from the encoded message, through the
+   * {@link CertificateCache}. Per RFC 9360.
+   *
+   * @return List of X509Certificate, or null if there is no 'x5bag' header parameter.
+   */
+  public List<X509Certificate> getX5BagCertificates() throws CoseException, CertificateException {
+    int[] range = findAttributeRange(HEADER_X5BAG);
+    if (range == null) {
+      return null;
+    }
+    CertificateCache cache = CertificateCache.getInstance();
+    List<X509Certificate> certs = new ArrayList<>();
+    Cursor c = new Cursor(encoded, range[0], range[1]);
+    c.readHead();
+    if (c.major == MAJOR_ARRAY) {
+      long n = c.arg;
+      for (long i = 0; i < n; i++) {
+        int len = c.readByteString();
+        certs.add(cache.get(encoded, c.pos - len, len));
+      }
+    } else if (c.major == MAJOR_BSTR) {
+      certs.add(cache.get(encoded, range[1] - (int) c.arg, (int) c.arg));
+    }
+    return certs;
+  }
+
+  /**
+   * Verify the signature of this message.
+   *
+   * @param key the signer's public key
+   * @return true if the signature is valid, false otherwise
+   * @throws CoseException if the algorithm is unsupported or the key cannot be used with it
+   */
+  public boolean verify(PublicKey key) throws CoseException {
+    ObjectPool<Signature> verifiers = getVerifiers(getAlgorithm());
+    Signature verifier = verifiers.acquire();
+    try {
+      verifier.initVerify(key);
+      verifier.update(toBeSigned());
+      return verifier.verify(encoded, signatureOffset, signatureLength);
+    } catch (InvalidKeyException e) {
+      throw new CoseException("key not usable for COSE_Sign1 verification: " + e.getMessage());
+    } catch (SignatureException e) {
+      // e.g. signature of wrong length / encoding
+      return false;
+    } finally {
+      // initVerify resets the verifier on its next use, whatever state this one left it in.
+      verifiers.release(verifier);
+    }
+  }
+
+  /**
+   * Build the ToBeSigned bytes, i.e. the encoded Sig_structure ["Signature1", body_protected,
+   * external_aad = h'', payload], into a single buffer of exactly the right size.
+   */
+  byte[] toBeSigned() {
+    byte[] tbs =
+        new byte
+            [SIG_STRUCTURE_PREFIX.length
+                + headSize(protectedLength)
+                + protectedLength
+                + 1
+                + headSize(payloadLength)
+                + payloadLength];
+    System.arraycopy(SIG_STRUCTURE_PREFIX, 0, tbs, 0, SIG_STRUCTURE_PREFIX.length);
+    int p = putHead(tbs, SIG_STRUCTURE_PREFIX.length, MAJOR_BSTR, protectedLength);
+    System.arraycopy(encoded, protectedOffset, tbs, p, protectedLength);
+    p += protectedLength;
+    tbs[p++] = (byte) (MAJOR_BSTR << 5); // empty external_aad
+    p = putHead(tbs, p, MAJOR_BSTR, payloadLength);
+    System.arraycopy(encoded, payloadOffset, tbs, p, payloadLength);
+    return tbs;
+  }
+
+  /**
+   * Find the encoded value of a header parameter with an integer label.
+   *
+   * @return {start, end} offsets of the encoded value in the message, or null if not present
+   */
+  private int[] findAttributeRange(int label) throws CoseException {
+    int[] range = null;
+    if (protectedLength > 0) {
+      range = findInMap(protectedOffset, protectedOffset + protectedLength, label);
+    }
+    if (range == null) {
+      range = findInMap(unprotectedStart, unprotectedEnd, label);
+    }
+    return range;
+  }
+
+  private int[] findInMap(int start, int end, int label) throws CoseException {
+    Cursor c = new Cursor(encoded, start, end);
+    c.readHead();
+    if (c.major != MAJOR_MAP) {
+      throw new CoseException("COSE header is not a map");
+    }
+    long entries = c.arg;
+    for (long i = 0; i < entries; i++) {
+      int keyStart = c.pos;
+      c.readHead();
+      boolean match =
+          (c.major == MAJOR_UINT && label >= 0 && c.arg == label)
+              || (c.major == MAJOR_NINT && label < 0 && c.arg == -1L - label);
+      c.pos = keyStart;
+      c.skipItem(0);
+      int valueStart = c.pos;
+      c.skipItem(0);
+      if (match) {
+        return new int[] {valueStart, c.pos};
+      }
+    }
+    return null;
+  }
+
+  private static ObjectPool<Signature> getVerifiers(int alg) throws CoseException {
+    switch (alg) {
+      case ALG_ES256:
+        return ES256_VERIFIERS;
+      case ALG_ES384:
+        return ES384_VERIFIERS;
+      case ALG_ES512:
+        return ES512_VERIFIERS;
+      default:
+        throw new CoseException("unsupported COSE_Sign1 algorithm: " + alg);
+    }
+  }
+
+  private static Signature newSignature(String algorithm) {
+    try {
+      return Signature.getInstance(algorithm);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("signature algorithm not available: " + algorithm, e);
+    }
+  }
+
+  /** @return number of bytes of a definite-length CBOR head encoding the given argument. */
+  static int headSize(int arg) {
+    if (arg < 24) {
+      return 1;
+    } else if (arg < 0x100) {
+      return 2;
+    } else if (arg < 0x10000) {
+      return 3;
+    }
+    return 5;
+  }
+
+  /**
+   * Write a shortest-form CBOR head into buf at the given position.
+   *
+   * @return the position after the head
+   */
+  static int putHead(byte[] buf, int pos, int major, int arg) {
+    int mt = major << 5;
+    if (arg < 24) {
+      buf[pos++] = (byte) (mt | arg);
+    } else if (arg < 0x100) {
+      buf[pos++] = (byte) (mt | 24);
+      buf[pos++] = (byte) arg;
+    } else if (arg < 0x10000) {
+      buf[pos++] = (byte) (mt | 25);
+      buf[pos++] = (byte) (arg >>> 8);
+      buf[pos++] = (byte) arg;
+    } else {
+      buf[pos++] = (byte) (mt | 26);
+      buf[pos++] = (byte) (arg >>> 24);
+      buf[pos++] = (byte) (arg >>> 16);
+      buf[pos++] = (byte) (arg >>> 8);
+      buf[pos++] = (byte) arg;
+    }
+    return pos;
+  }
+
+  /** Minimal reader of definite-length CBOR item heads within a bounded range of a buffer. */
+  private static final class Cursor {
+
+    private final byte[] buf;
+    private final int end;
+    int pos;
+    int major;
+    long arg;
+
+    Cursor(byte[] buf, int start, int end) {
+      this.buf = buf;
+      this.pos = start;
+      this.end = end;
+    }
+
+    void readHead() throws CoseException {
+      need(1);
+      int ib = buf[pos++] & 0xff;
+      major = ib >>> 5;
+      int ai = ib & 0x1f;
+      if (ai < 24) {
+        arg = ai;
+      } else if (ai <= 27) {
+        int n = 1 << (ai - 24);
+        need(n);
+        long v = 0;
+        for (int i = 0; i < n; i++) {
+          v = (v << 8) | (buf[pos++] & 0xff);
+        }
+        arg = v;
+      } else {
+        throw new CoseException("indefinite-length or malformed CBOR not supported in COSE_Sign1");
+      }
+    }
+
+    /** Read a byte string head, skip over its content and return the content length. */
+    int readByteString() throws CoseException {
+      readHead();
+      if (major != MAJOR_BSTR) {
+        throw new CoseException("expected CBOR byte string in COSE_Sign1");
+      }
+      int len = checkedLength(arg);
+      pos += len;
+      return len;
+    }
+
+    void skipItem(int depth) throws CoseException {
+      if (depth > MAX_NESTING) {
+        throw new CoseException("CBOR nesting too deep in COSE_Sign1");
+      }
+      readHead();
+      switch (major) {
+        case MAJOR_BSTR:
+        case MAJOR_TSTR:
+          pos += checkedLength(arg);
+          break;
+        case MAJOR_ARRAY:
+        case MAJOR_MAP:
+          long items = (major == MAJOR_MAP) ? 2 * checkedLength(arg) : checkedLength(arg);
+          for (long i = 0; i < items; i++) {
+            skipItem(depth + 1);
+          }
+          break;
+        case MAJOR_TAG:
+          skipItem(depth + 1);
+          break;
+        default:
+          // MAJOR_UINT, MAJOR_NINT, MAJOR_SIMPLE: argument is the whole item
+          break;
+      }
+    }
+
+    /**
+     * Check a length or count argument against the remaining bytes (each item takes >= 1). An
+     * 8-byte argument of 2^63 or more is negative as a long.
+     */
+    private int checkedLength(long len) throws CoseException {
+      if (len < 0 || len > end - pos) {
+        throw new CoseException("truncated CBOR in COSE_Sign1");
+      }
+      return (int) len;
+    }
+
+    private void need(int n) throws CoseException {
+      if (end - pos < n) {
+        throw new CoseException("truncated CBOR in COSE_Sign1");
+      }
+    }
+  }
+}
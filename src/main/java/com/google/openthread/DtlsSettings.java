@@ -0,0 +1,500 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings of a CoAPS endpoint and its DTLS connector. The retransmission timers apply to both
+ * client and server endpoints; the Connection ID, threading and connection store settings only to
+ * a server endpoint, i.e. the Registrar's. Settings not covered here keep the Californium defaults.
+ */
+public final class DtlsSettings {
+
+  /** Default length of the Connection IDs that the server assigns (RFC 9146). */
+  public static final int DEFAULT_CONNECTION_ID_LENGTH = 6;
+
+  /**
+   * The largest node ID: the Connection ID generator encodes the node ID in one byte of each
+   * Connection ID.
+   */
+  public static final int MAX_CONNECTION_ID_NODE_ID = 255;
+
+  /** The smallest size of the connector's job queues that Californium accepts. */
+  public static final int MIN_PENDING_JOBS = 64;
+
+  /** Default sustained rate of handshakes that a server endpoint starts, per second. */
+  public static final double DEFAULT_HANDSHAKE_RATE = 50;
+
+  /** Default number of handshakes that a server endpoint starts at once, after a quiet period. */
+  public static final int DEFAULT_HANDSHAKE_BURST = 100;
+
+  /** Default number of source addresses whose handshake rates are tracked. */
+  public static final int DEFAULT_SOURCE_TABLE_SIZE = 16384;
+
+  /** The largest number of source addresses whose handshake rates can be tracked. */
+  public static final int MAX_SOURCE_TABLE_SIZE = 1 << 24;
+
+  /**
+   * Predefined settings for typical deployments. Each profile is a starting point: individual
+   * settings can still be changed on the {@link DtlsSettings} it creates.
+   */
+  public enum Profile {
+    /** The Californium defaults. */
+    DEFAULT,
+    /**
+     * A Registrar on a Thread Border Router, serving the Pledges of one Thread Network: a single
+     * connector thread and small, bounded connection store and queues to keep the memory footprint
+     * low. Idle sessions are evicted after 10 minutes, which is enough for enrollment.
+     */
+    EMBEDDED,
+    /**
+     * A dedicated Registrar serving many Thread Networks, e.g. at a commissioning site: one
+     * connector thread per core and two receiver threads, so that handshake cryptography and
+     * datagram reception proceed in parallel, with the Californium defaults for store and queues.
+     */
+    SERVER
+  }
+
+  private int connectionIdLength = DEFAULT_CONNECTION_ID_LENGTH;
+  private int connectionIdNodeId = 0;
+  private int sockets = 1;
+  private int connectorThreads = 1;
+  private int receiverThreads = 1;
+  private int maxConnections = 150000;
+  private Duration staleConnectionThreshold = Duration.ofMinutes(30);
+  private int maxPendingOutboundMessages = 100000;
+  private int maxPendingOutboundJobs = 50000;
+  private int maxPendingInboundJobs = 50000;
+  private int maxPendingHandshakeResultJobs = 5000;
+  private Duration retransmissionTimeout = Duration.ofSeconds(2);
+  private Duration maxRetransmissionTimeout = Duration.ofSeconds(60);
+  private Duration eccTimeout = Duration.ofSeconds(8);
+  private Duration ackTimeout = Duration.ofSeconds(2);
+  private Duration maxAckTimeout = Duration.ofSeconds(60);
+  private boolean isCongestionControl = true;
+  private double handshakeRate = DEFAULT_HANDSHAKE_RATE;
+  private int handshakeBurst = DEFAULT_HANDSHAKE_BURST;
+  private double sourceHandshakeRate = 0;
+  private int sourceHandshakeBurst = 0;
+  private int sourceTableSize = DEFAULT_SOURCE_TABLE_SIZE;
+
+  /**
+   * Create settings with the default values: the Californium defaults, except for the
+   * retransmission timers and CoAP congestion control.
+   */
+  public DtlsSettings() {}
+
+  /** Create settings for the given deployment profile. */
+  public static DtlsSettings forProfile(Profile profile) {
+    DtlsSettings settings = new DtlsSettings();
+    switch (Objects.requireNonNull(profile, "profile")) {
+      case EMBEDDED:
+        settings
+            .setMaxConnections(1000)
+            .setStaleConnectionThreshold(Duration.ofMinutes(10))
+            .setMaxPendingOutboundMessages(1000)
+            .setMaxPendingOutboundJobs(1000)
+            .setMaxPendingInboundJobs(1000)
+            .setMaxPendingHandshakeResultJobs(100);
+        break;
+      case SERVER:
+        settings
+            .setConnectorThreads(Runtime.getRuntime().availableProcessors())
+            .setReceiverThreads(2);
+        break;
+      default:
+        break;
+    }
+    return settings;
+  }
+
+  /**
+   * Set the length of the Connection IDs that the server assigns to its peers. With a Connection
+   * ID, a peer's records are matched to its session also when its address or port changes, e.g.
+   * after NAT rebinding or a border router failover. Zero disables server-assigned Connection IDs.
+   */
+  public DtlsSettings setConnectionIdLength(int length) {
+    if (length != 0 && length < 2) {
+      throw new IllegalArgumentException("Connection ID length must be 0, or at least 2");
+    }
+    this.connectionIdLength = length;
+    return this;
+  }
+
+  public int getConnectionIdLength() {
+    return connectionIdLength;
+  }
+
+  /**
+   * Set the node ID encoded in each Connection ID. In a deployment with several Registrar nodes
+   * behind one address, each node gets its own node ID, so that a load balancer can route a
+   * record to the node that holds its session by the Connection ID alone.
+   */
+  public DtlsSettings setConnectionIdNodeId(int nodeId) {
+    if (nodeId < 0 || nodeId > MAX_CONNECTION_ID_NODE_ID) {
+      throw new IllegalArgumentException(
+          "Connection ID node ID must be in [0, " + MAX_CONNECTION_ID_NODE_ID + "]");
+    }
+    this.connectionIdNodeId = nodeId;
+    return this;
+  }
+
+  public int getConnectionIdNodeId() {
+    return connectionIdNodeId;
+  }
+
+  /**
+   * Set the number of UDP sockets that the server binds to its port. With more than one, each
+   * socket gets its own connector, with its own threads and connection store, and they are bound
+   * with SO_REUSEPORT: the kernel spreads the peers over the sockets by a hash of their address,
+   * so datagram reception and decryption scale across cores. The thread and connection store
+   * settings apply to each connector. A peer whose address changes may then land on another
+   * connector, which does not know its Connection ID: the connectors share their sessions, so the
+   * peer can resume its session there with an abbreviated handshake.
+   */
+  public DtlsSettings setSockets(int sockets) {
+    this.sockets = requirePositive(sockets, "sockets");
+    return this;
+  }
+
+  public int getSockets() {
+    return sockets;
+  }
+
+  /**
+   * Set the number of connector threads, which process the handshakes and records of all
+   * connections. Handshakes are CPU bound (ECDHE and ECDSA), so more threads than cores do not
+   * add handshake throughput.
+   */
+  public DtlsSettings setConnectorThreads(int threads) {
+    this.connectorThreads = requirePositive(threads, "connector threads");
+    return this;
+  }
+
+  public int getConnectorThreads() {
+    return connectorThreads;
+  }
+
+  /** Set the number of threads receiving datagrams from the socket. */
+  public DtlsSettings setReceiverThreads(int threads) {
+    this.receiverThreads = requirePositive(threads, "receiver threads");
+    return this;
+  }
+
+  public int getReceiverThreads() {
+    return receiverThreads;
+  }
+
+  /**
+   * Set the maximum number of connections (sessions and ongoing handshakes) kept. When the store is
+   * full, a new handshake is only accepted if a stale connection can be evicted for it.
+   */
+  public DtlsSettings setMaxConnections(int maxConnections) {
+    this.maxConnections = requirePositive(maxConnections, "max connections");
+    return this;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /** Set the idle time after which a connection is stale, i.e. may be evicted from a full store. */
+  public DtlsSettings setStaleConnectionThreshold(Duration threshold) {
+    if (threshold.isNegative() || threshold.isZero()) {
+      throw new IllegalArgumentException("stale connection threshold must be positive");
+    }
+    this.staleConnectionThreshold = threshold;
+    return this;
+  }
+
+  public Duration getStaleConnectionThreshold() {
+    return staleConnectionThreshold;
+  }
+
+  /** Set the maximum number of outbound messages buffered per connection while it handshakes. */
+  public DtlsSettings setMaxPendingOutboundMessages(int max) {
+    this.maxPendingOutboundMessages = requirePositive(max, "max pending outbound messages");
+    return this;
+  }
+
+  public int getMaxPendingOutboundMessages() {
+    return maxPendingOutboundMessages;
+  }
+
+  /** Set the maximum number of outbound jobs queued for the connector threads. */
+  public DtlsSettings setMaxPendingOutboundJobs(int max) {
+    this.maxPendingOutboundJobs = requireJobs(max, "max pending outbound jobs");
+    return this;
+  }
+
+  public int getMaxPendingOutboundJobs() {
+    return maxPendingOutboundJobs;
+  }
+
+  /**
+   * Set the maximum number of inbound jobs queued for the connector threads. Datagrams received
+   * while the queue is full are dropped, so under a handshake storm this bounds memory use at the
+   * cost of retransmissions.
+   */
+  public DtlsSettings setMaxPendingInboundJobs(int max) {
+    this.maxPendingInboundJobs = requireJobs(max, "max pending inbound jobs");
+    return this;
+  }
+
+  public int getMaxPendingInboundJobs() {
+    return maxPendingInboundJobs;
+  }
+
+  /** Set the maximum number of queued jobs processing the results of certificate verification. */
+  public DtlsSettings setMaxPendingHandshakeResultJobs(int max) {
+    this.maxPendingHandshakeResultJobs = requireJobs(max, "max pending handshake result jobs");
+    return this;
+  }
+
+  public int getMaxPendingHandshakeResultJobs() {
+    return maxPendingHandshakeResultJobs;
+  }
+
+  /**
+   * Set the bounds of the DTLS handshake retransmission timer: the initial timeout of a flight,
+   * doubled on each retransmission up to the maximum. RFC 6347 recommends 1 s initial and 60 s
+   * maximum; the 2 s default matches the CoAP ACK timeout.
+   */
+  public DtlsSettings setRetransmissionTimeout(Duration initial, Duration max) {
+    requireBounds(initial, max, "retransmission timeout");
+    this.retransmissionTimeout = initial;
+    this.maxRetransmissionTimeout = max;
+    return this;
+  }
+
+  public Duration getRetransmissionTimeout() {
+    return retransmissionTimeout;
+  }
+
+  public Duration getMaxRetransmissionTimeout() {
+    return maxRetransmissionTimeout;
+  }
+
+  /**
+   * Set the time added to the initial retransmission timeout of a flight to which the peer replies
+   * only after ECDHE and ECDSA computations. A constrained Pledge may take seconds for these, and
+   * retransmitting a flight of certificates to it over a Thread link only adds load. The default of
+   * 8 s keeps these flights at the 10 s timeout used before, while other flights are retransmitted
+   * after the initial timeout.
+   */
+  public DtlsSettings setEccTimeout(Duration timeout) {
+    if (timeout.isNegative()) {
+      throw new IllegalArgumentException("ECC timeout must not be negative");
+    }
+    this.eccTimeout = timeout;
+    return this;
+  }
+
+  public Duration getEccTimeout() {
+    return eccTimeout;
+  }
+
+  /**
+   * Set the bounds of the CoAP retransmission timer for confirmable messages. With congestion
+   * control, the initial timeout is only used for a peer until its RTT has been measured.
+   */
+  public DtlsSettings setAckTimeout(Duration initial, Duration max) {
+    requireBounds(initial, max, "ACK timeout");
+    this.ackTimeout = initial;
+    this.maxAckTimeout = max;
+    return this;
+  }
+
+  public Duration getAckTimeout() {
+    return ackTimeout;
+  }
+
+  public Duration getMaxAckTimeout() {
+    return maxAckTimeout;
+  }
+
+  /**
+   * Set whether the CoAP layer adapts its retransmission timeout to each peer's measured RTT, using
+   * CoCoA (draft-ietf-core-cocoa). Otherwise the fixed ACK timeout applies to every peer.
+   */
+  public DtlsSettings setCongestionControl(boolean isCongestionControl) {
+    this.isCongestionControl = isCongestionControl;
+    return this;
+  }
+
+  public boolean isCongestionControl() {
+    return isCongestionControl;
+  }
+
+  /**
+   * Set the rate at which a server endpoint starts handshakes, shared by all peers and all sockets
+   * of the endpoint. A ClientHello that would exceed it is dropped, and the peer retransmits it
+   * after its retransmission timeout; see {@link HandshakeRateLimiter}. This keeps a burst of
+   * Pledges from queueing more handshakes than the connector threads can complete before the
+   * Pledges time out. A rate of zero disables the limit.
+   */
+  public DtlsSettings setHandshakeRateLimit(double perSecond, int burst) {
+    requireRateLimit(perSecond, burst, "handshake");
+    this.handshakeRate = perSecond;
+    this.handshakeBurst = burst;
+    return this;
+  }
+
+  /** The rate at which handshakes start, per second; zero if unlimited. */
+  public double getHandshakeRate() {
+    return handshakeRate;
+  }
+
+  public int getHandshakeBurst() {
+    return handshakeBurst;
+  }
+
+  /**
+   * Set the rate at which a server endpoint starts handshakes with any one source address, on top
+   * of the rate shared by all. This keeps a single misbehaving client from making the Registrar
+   * repeat the ECDHE and certificate verification. Pledges behind one NAT, or the Pledges of a load
+   * test on one host, share an address, so this is disabled by default. A rate of zero disables the
+   * limit.
+   */
+  public DtlsSettings setSourceHandshakeRateLimit(double perSecond, int burst) {
+    requireRateLimit(perSecond, burst, "source handshake");
+    this.sourceHandshakeRate = perSecond;
+    this.sourceHandshakeBurst = burst;
+    return this;
+  }
+
+  /** The rate at which handshakes start per source address, per second; zero if unlimited. */
+  public double getSourceHandshakeRate() {
+    return sourceHandshakeRate;
+  }
+
+  public int getSourceHandshakeBurst() {
+    return sourceHandshakeBurst;
+  }
+
+  /**
+   * Set the number of source addresses whose handshake rates are tracked, which fixes the memory
+   * used: about 24 bytes per address. When more sources are active, the least recently seen ones
+   * are forgotten.
+   */
+  public DtlsSettings setSourceTableSize(int size) {
+    if (size < 1 || size > MAX_SOURCE_TABLE_SIZE) {
+      throw new IllegalArgumentException(
+          "source table size must be in [1, " + MAX_SOURCE_TABLE_SIZE + "]");
+    }
+    this.sourceTableSize = size;
+    return this;
+  }
+
+  public int getSourceTableSize() {
+    return sourceTableSize;
+  }
+
+  private static void requireRateLimit(double perSecond, int burst, String name) {
+    if (perSecond < 0 || Double.isNaN(perSecond)) {
+      throw new IllegalArgumentException(name + " rate must not be negative");
+    }
+    if (perSecond > 0) {
+      requirePositive(burst, name + " burst");
+    }
+  }
+
+  private static void requireBounds(Duration initial, Duration max, String name) {
+    if (initial.isNegative() || initial.isZero()) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+    if (max.compareTo(initial) < 0) {
+      throw new IllegalArgumentException("maximum " + name + " must not be below the initial one");
+    }
+  }
+
+  private static int requirePositive(int value, String name) {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be at least 1");
+    }
+    return value;
+  }
+
+  private static int requireJobs(int value, String name) {
+    if (value < MIN_PENDING_JOBS) {
+      throw new IllegalArgumentException(name + " must be at least " + MIN_PENDING_JOBS);
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "cid-length="
+        + connectionIdLength
+        + " cid-node-id="
+        + connectionIdNodeId
+        + " sockets="
+        + sockets
+        + " connector-threads="
+        + connectorThreads
+        + " receiver-threads="
+        + receiverThreads
+        + " max-connections="
+        + maxConnections
+        + " stale-threshold="
+        + staleConnectionThreshold.getSeconds()
+        + "s outbound-messages="
+        + maxPendingOutboundMessages
+        + " outbound-jobs="
+        + maxPendingOutboundJobs
+        + " inbound-jobs="
+        + maxPendingInboundJobs
+        + " handshake-result-jobs="
+        + maxPendingHandshakeResultJobs
+        + " retransmission-timeout="
+        + retransmissionTimeout.toMillis()
+        + "-"
+        + maxRetransmissionTimeout.toMillis()
+        + "ms ecc-timeout="
+        + eccTimeout.toMillis()
+        + "ms ack-timeout="
+        + ackTimeout.toMillis()
+        + "-"
+        + maxAckTimeout.toMillis()
+        + "ms congestion-control="
+        + isCongestionControl
+        + " handshake-rate="
+        + handshakeRate
+        + "/s handshake-burst="
+        + handshakeBurst
+        + " source-handshake-rate="
+        + sourceHandshakeRate
+        + "/s source-handshake-burst="
+        + sourceHandshakeBurst
+        + " source-table-size="
+        + sourceTableSize;
+  }
+}
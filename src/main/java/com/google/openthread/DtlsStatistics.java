@@ -0,0 +1,165 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the DTLS handshakes and datagram traffic of one or more DTLS connectors, e.g. all
+ * endpoints a Pledge used during its onboarding. A full handshake is an ECDHE handshake with
+ * certificate exchange; an abbreviated handshake resumes an earlier session without either.
+ *
+ * <p>A round trip is counted each time a datagram is received after one or more were sent. For
+ * the request/response traffic of a Pledge this counts the handshake flights and CoAP exchanges.
+ *
+ * <p>The duration of each successful handshake is recorded as well, from its start to its
+ * completion. For a server, the start is the peer's verified ClientHello.
+ */
+public final class DtlsStatistics {
+
+  private final AtomicLong fullHandshakes = new AtomicLong();
+  private final AtomicLong abbreviatedHandshakes = new AtomicLong();
+  private final AtomicLong failedHandshakes = new AtomicLong();
+  private final AtomicLong throttledHandshakes = new AtomicLong();
+  private final AtomicLong datagramsSent = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong datagramsReceived = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong roundTrips = new AtomicLong();
+  // set by a send, cleared by the next receive, which then completes a round trip.
+  private final AtomicBoolean isAwaitingReply = new AtomicBoolean();
+  private final LatencyHistogram fullHandshakeTimes = new LatencyHistogram();
+  private final LatencyHistogram abbreviatedHandshakeTimes = new LatencyHistogram();
+
+  void handshakeCompleted(boolean isAbbreviated, long nanos) {
+    (isAbbreviated ? abbreviatedHandshakes : fullHandshakes).incrementAndGet();
+    if (nanos > 0) {
+      (isAbbreviated ? abbreviatedHandshakeTimes : fullHandshakeTimes).record(nanos);
+    }
+  }
+
+  void handshakeFailed() {
+    failedHandshakes.incrementAndGet();
+  }
+
+  void handshakeThrottled() {
+    throttledHandshakes.incrementAndGet();
+  }
+
+  void datagramSent(int length) {
+    datagramsSent.incrementAndGet();
+    bytesSent.addAndGet(length);
+    isAwaitingReply.set(true);
+  }
+
+  void datagramReceived(int length) {
+    datagramsReceived.incrementAndGet();
+    bytesReceived.addAndGet(length);
+    if (isAwaitingReply.compareAndSet(true, false)) {
+      roundTrips.incrementAndGet();
+    }
+  }
+
+  public long getFullHandshakes() {
+    return fullHandshakes.get();
+  }
+
+  public long getAbbreviatedHandshakes() {
+    return abbreviatedHandshakes.get();
+  }
+
+  public long getFailedHandshakes() {
+    return failedHandshakes.get();
+  }
+
+  /** @return the number of ClientHellos dropped by a {@link HandshakeRateLimiter} */
+  public long getThrottledHandshakes() {
+    return throttledHandshakes.get();
+  }
+
+  public long getDatagramsSent() {
+    return datagramsSent.get();
+  }
+
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  public long getDatagramsReceived() {
+    return datagramsReceived.get();
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  public long getRoundTrips() {
+    return roundTrips.get();
+  }
+
+  public LatencyHistogram getFullHandshakeTimes() {
+    return fullHandshakeTimes;
+  }
+
+  public LatencyHistogram getAbbreviatedHandshakeTimes() {
+    return abbreviatedHandshakeTimes;
+  }
+
+  /** Set all counters to zero. */
+  public void reset() {
+    fullHandshakes.set(0);
+    abbreviatedHandshakes.set(0);
+    failedHandshakes.set(0);
+    throttledHandshakes.set(0);
+    datagramsSent.set(0);
+    bytesSent.set(0);
+    datagramsReceived.set(0);
+    bytesReceived.set(0);
+    roundTrips.set(0);
+    isAwaitingReply.set(false);
+    fullHandshakeTimes.reset();
+    abbreviatedHandshakeTimes.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "handshakes full=%d abbreviated=%d failed=%d, sent %d datagrams/%d bytes,"
+            + " received %d datagrams/%d bytes, %d round trips",
+        getFullHandshakes(),
+        getAbbreviatedHandshakes(),
+        getFailedHandshakes(),
+        getDatagramsSent(),
+        getBytesSent(),
+        getDatagramsReceived(),
+        getBytesReceived(),
+        getRoundTrips());
+  }
+}
@@ -0,0 +1,321 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import com.upokecenter.cbor.CBORObject;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.management.ObjectName;
+
+/**
+ * A flight recorder of the last exchanges handled by a server: a fixed-size ring buffer keeping
+ * each exchange's raw request and response payloads, timing and peer. Recording is lock-free and
+ * costs one small allocation, without any formatting or logging; the payloads are referenced, not
+ * copied. The kept exchanges can be dumped on demand, e.g. through the MXBean, as a CBOR sequence
+ * (RFC 8742) of maps with these keys, absent ones being unknown:
+ *
+ * <ul>
+ *   <li>"seq": sequence number of the exchange, counting from 0
+ *   <li>"time": arrival time, in milliseconds since the epoch
+ *   <li>"duration": handling time in nanoseconds
+ *   <li>"resource": the resource path or URI
+ *   <li>"peer": the peer's address, "peer-id": its authenticated identity
+ *   <li>"request-format", "request": the request's content format and payload
+ *   <li>"result": the response code
+ *   <li>"response-format", "response": the response's content format and payload
+ *   <li>"response-size": the response payload's size, in place of a payload left out because it
+ *       holds key material
+ * </ul>
+ *
+ * <p>When more exchanges than the capacity complete concurrently, a slot may keep an older exchange
+ * than the one it should; the dump leaves such exchanges out.
+ */
+public final class ExchangeRecorder implements ExchangeRecorderMXBean {
+
+  /** The default number of exchanges kept. */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  /** A recorded exchange. Its fields are not modified once recorded. */
+  public static final class Entry {
+
+    private long sequence;
+    private final long timeMillis;
+    private final long durationNanos;
+    private final String resource;
+    private final InetSocketAddress peer;
+    private final Principal peerIdentity;
+    private final String requestFormat;
+    private final byte[] request;
+    private final String result;
+    private final String responseFormat;
+    private final byte[] response;
+    private final int responseSize;
+
+    /**
+     * @param timeMillis     the arrival time, in milliseconds since the epoch
+     * @param durationNanos  the handling time
+     * @param resource       the resource path or URI
+     * @param peer           the peer's address, or null
+     * @param peerIdentity   the peer's authenticated identity, or null
+     * @param requestFormat  the request's content format, or null
+     * @param request        the request payload, or null; not copied
+     * @param result         the response code, or null if there was no response
+     * @param responseFormat the response's content format, or null
+     * @param response       the response payload, or null; not copied
+     */
+    public Entry(
+        long timeMillis,
+        long durationNanos,
+        String resource,
+        InetSocketAddress peer,
+        Principal peerIdentity,
+        String requestFormat,
+        byte[] request,
+        String result,
+        String responseFormat,
+        byte[] response) {
+      this(
+          timeMillis,
+          durationNanos,
+          resource,
+          peer,
+          peerIdentity,
+          requestFormat,
+          request,
+          result,
+          responseFormat,
+          response,
+          -1);
+    }
+
+    /**
+     * Create an entry whose response payload is left out, keeping only its size.
+     *
+     * @param responseSize the response payload's size
+     * @see #Entry(long, long, String, InetSocketAddress, Principal, String, byte[], String, String,
+     *     byte[])
+     */
+    public Entry(
+        long timeMillis,
+        long durationNanos,
+        String resource,
+        InetSocketAddress peer,
+        Principal peerIdentity,
+        String requestFormat,
+        byte[] request,
+        String result,
+        String responseFormat,
+        int responseSize) {
+      this(
+          timeMillis,
+          durationNanos,
+          resource,
+          peer,
+          peerIdentity,
+          requestFormat,
+          request,
+          result,
+          responseFormat,
+          null,
+          responseSize);
+    }
+
+    private Entry(
+        long timeMillis,
+        long durationNanos,
+        String resource,
+        InetSocketAddress peer,
+        Principal peerIdentity,
+        String requestFormat,
+        byte[] request,
+        String result,
+        String responseFormat,
+        byte[] response,
+        int responseSize) {
+      this.timeMillis = timeMillis;
+      this.durationNanos = durationNanos;
+      this.resource = resource;
+      this.peer = peer;
+      this.peerIdentity = peerIdentity;
+      this.requestFormat = requestFormat;
+      this.request = request;
+      this.result = result;
+      this.responseFormat = responseFormat;
+      this.response = response;
+      this.responseSize = responseSize;
+    }
+
+    public long getSequence() {
+      return sequence;
+    }
+
+    public String getResource() {
+      return resource;
+    }
+
+    public byte[] getRequest() {
+      return request;
+    }
+
+    public String getResult() {
+      return result;
+    }
+
+    public byte[] getResponse() {
+      return response;
+    }
+
+    /** Get the size of a response payload that was left out, or -1 if it was kept or absent. */
+    public int getResponseSize() {
+      return responseSize;
+    }
+
+    CBORObject toCbor() {
+      CBORObject map = CBORObject.NewOrderedMap();
+      map.Add("seq", sequence);
+      map.Add("time", timeMillis);
+      map.Add("duration", durationNanos);
+      addIfPresent(map, "resource", resource);
+      addIfPresent(map, "peer", peer == null ? null : peer.toString());
+      addIfPresent(map, "peer-id", peerIdentity == null ? null : peerIdentity.getName());
+      addIfPresent(map, "request-format", requestFormat);
+      if (request != null) {
+        map.Add("request", request);
+      }
+      addIfPresent(map, "result", result);
+      addIfPresent(map, "response-format", responseFormat);
+      if (response != null) {
+        map.Add("response", response);
+      } else if (responseSize >= 0) {
+        map.Add("response-size", responseSize);
+      }
+      return map;
+    }
+
+    private static void addIfPresent(CBORObject map, String key, String value) {
+      if (value != null) {
+        map.Add(key, value);
+      }
+    }
+  }
+
+  private final AtomicReferenceArray<Entry> slots;
+  private final int mask;
+  private final AtomicLong nextSequence = new AtomicLong();
+  private ObjectName objectName;
+
+  /**
+   * @param capacity the number of exchanges to keep, rounded up to a power of two
+   */
+  public ExchangeRecorder(int capacity) {
+    if (capacity < 1 || capacity > 1 << 20) {
+      throw new IllegalArgumentException("capacity must be in 1..2^20");
+    }
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(Math.max(1, size));
+    this.mask = slots.length() - 1;
+  }
+
+  /** Record an exchange, replacing the oldest kept one if full. */
+  public void record(Entry entry) {
+    long sequence = nextSequence.getAndIncrement();
+    entry.sequence = sequence;
+    slots.set((int) (sequence & mask), entry);
+  }
+
+  /** Get the kept exchanges, oldest first. */
+  public List<Entry> getEntries() {
+    long end = nextSequence.get();
+    List<Entry> entries = new ArrayList<>();
+    for (long sequence = Math.max(0, end - slots.length()); sequence < end; sequence++) {
+      Entry entry = slots.get((int) (sequence & mask));
+      // a slot not yet written, or overwritten by a newer exchange since.
+      if (entry != null && entry.sequence == sequence) {
+        entries.add(entry);
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public int getCapacity() {
+    return slots.length();
+  }
+
+  @Override
+  public long getRecordedCount() {
+    return nextSequence.get();
+  }
+
+  /**
+   * Write the kept exchanges, oldest first, as a CBOR sequence.
+   *
+   * @return the number of exchanges written
+   */
+  public int writeTo(OutputStream out) throws IOException {
+    List<Entry> entries = getEntries();
+    for (Entry entry : entries) {
+      entry.toCbor().WriteTo(out);
+    }
+    return entries.size();
+  }
+
+  @Override
+  public int dump(String file) throws IOException {
+    Path path = Paths.get(file);
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+      return writeTo(out);
+    }
+  }
+
+  /**
+   * Register this recorder as an MXBean with the platform MBean server; see {@link
+   * Metrics#registerMBean(String)}.
+   */
+  public synchronized void registerMBean(String name) {
+    unregisterMBean();
+    objectName = MBeans.register(this, name);
+  }
+
+  /** Unregister this recorder from the platform MBean server, if registered. */
+  public synchronized void unregisterMBean() {
+    MBeans.unregister(objectName);
+    objectName = null;
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.List;
+import org.eclipse.californium.elements.util.ClockUtil;
+import org.eclipse.californium.elements.util.DatagramReader;
+import org.eclipse.californium.scandium.CookieGenerator;
+import org.eclipse.californium.scandium.dtls.ClientHello;
+import org.eclipse.californium.scandium.dtls.DTLSConnectionState;
+import org.eclipse.californium.scandium.dtls.HandshakeException;
+import org.eclipse.californium.scandium.dtls.Record;
+
+/**
+ * Limits the rate at which a DTLS server starts handshakes, with a token bucket shared by all peers
+ * and, optionally, one per source address. A handshake starts with the ClientHello that returns the
+ * server's cookie: the server answers the first ClientHello with a stateless HelloVerifyRequest,
+ * which is cheap, but the second starts the ECDHE key exchange and signing. Such a ClientHello that
+ * finds the bucket empty is dropped, as if lost; the client retransmits it after its DTLS
+ * retransmission timeout, which doubles with each attempt, so that a burst of Pledges spreads out
+ * over time.
+ *
+ * <p>A token is only taken for a ClientHello whose cookie the connector's {@link CookieGenerator}
+ * verifies, as the connector does itself before it starts a handshake. A ClientHello with a forged
+ * cookie passes uncharged, and costs the server no more than a HelloVerifyRequest.
+ *
+ * <p>The per-source buckets are charged at the same point. The cookie binds the ClientHello to its
+ * source address, so only a client that receives the server's datagrams at that address can return
+ * a valid one: a spoofed ClientHello with a bogus cookie does not use up the bucket of the address
+ * it pretends to come from. The per-source buckets are kept in a {@link SourceTokenTable} of fixed
+ * size, and a source is checked before the shared bucket, so that a source over its own limit does
+ * not use up the shared one.
+ *
+ * <p>The limiter is shared by the connectors of a port, which call {@link #onReceiving} for each
+ * datagram with their own cookie generator.
+ */
+public class HandshakeRateLimiter {
+
+  // DTLS record and handshake header layout (RFC 6347 sections 4.1 and 4.2.2).
+  private static final int CONTENT_TYPE_HANDSHAKE = 22;
+  private static final int HANDSHAKE_TYPE_CLIENT_HELLO = 1;
+  private static final int RECORD_HEADER_LENGTH = 13;
+  private static final int HANDSHAKE_HEADER_LENGTH = 12;
+  // client_version and random, before the session_id.
+  private static final int CLIENT_HELLO_SESSION_ID_OFFSET = 2 + 32;
+
+  // the shared bucket; unlimited if the rate is zero.
+  private final double tokensPerNano;
+  private final double burst;
+  private final SourceTokenTable sources;
+  private final DtlsStatistics statistics;
+  private double tokens;
+  private long lastNanos;
+
+  /**
+   * @param settings the handshake rate limits, shared and per source; at least one must be set
+   * @param statistics the statistics counting the dropped ClientHellos, or null
+   */
+  public HandshakeRateLimiter(DtlsSettings settings, DtlsStatistics statistics) {
+    if (settings.getHandshakeRate() == 0 && settings.getSourceHandshakeRate() == 0) {
+      throw new IllegalArgumentException("no handshake rate limit set");
+    }
+    this.tokensPerNano = settings.getHandshakeRate() / 1e9;
+    this.burst = settings.getHandshakeBurst();
+    this.sources =
+        settings.getSourceHandshakeRate() == 0
+            ? null
+            : new SourceTokenTable(
+                settings.getSourceHandshakeRate(),
+                settings.getSourceHandshakeBurst(),
+                settings.getSourceTableSize());
+    this.statistics = statistics;
+    this.tokens = burst;
+    this.lastNanos = System.nanoTime();
+  }
+
+  /**
+   * Check whether a received datagram may be processed.
+   *
+   * @param packet the datagram
+   * @param cookieGenerator the generator of the cookies of the connector that received it
+   * @return false if the datagram starts a handshake beyond the rate limits and must be dropped
+   */
+  boolean onReceiving(DatagramPacket packet, CookieGenerator cookieGenerator) {
+    if (!isClientHelloWithCookie(packet.getData(), packet.getOffset(), packet.getLength())
+        || !hasValidCookie(packet, cookieGenerator)) {
+      return true;
+    }
+    long now = System.nanoTime();
+    if ((sources == null || sources.tryAcquire(packet.getAddress(), now)) && tryAcquire(now)) {
+      return true;
+    }
+    if (statistics != null) {
+      statistics.handshakeThrottled();
+    }
+    return false;
+  }
+
+  /** Take a token from the shared bucket, if there is one. */
+  synchronized boolean tryAcquire(long nowNanos) {
+    if (tokensPerNano == 0) {
+      return true;
+    }
+    tokens = Math.min(burst, tokens + (nowNanos - lastNanos) * tokensPerNano);
+    lastNanos = nowNanos;
+    if (tokens < 1) {
+      return false;
+    }
+    tokens--;
+    return true;
+  }
+
+  /**
+   * Check whether a datagram holds the first fragment of an epoch 0 ClientHello that carries
+   * a cookie.
+   */
+  static boolean isClientHelloWithCookie(byte[] data, int offset, int length) {
+    int end = offset + length;
+    int p = offset;
+    if (length < RECORD_HEADER_LENGTH + HANDSHAKE_HEADER_LENGTH + CLIENT_HELLO_SESSION_ID_OFFSET + 2
+        || (data[p] & 0xff) != CONTENT_TYPE_HANDSHAKE
+        // epoch
+        || data[p + 3] != 0
+        || data[p + 4] != 0) {
+      return false;
+    }
+    p += RECORD_HEADER_LENGTH;
+    if ((data[p] & 0xff) != HANDSHAKE_TYPE_CLIENT_HELLO
+        // fragment_offset
+        || data[p + 6] != 0
+        || data[p + 7] != 0
+        || data[p + 8] != 0) {
+      return false;
+    }
+    p += HANDSHAKE_HEADER_LENGTH + CLIENT_HELLO_SESSION_ID_OFFSET;
+    int sessionIdLength = data[p] & 0xff;
+    p += 1 + sessionIdLength;
+    if (p >= end) {
+      return false;
+    }
+    return (data[p] & 0xff) > 0;
+  }
+
+  /**
+   * Check whether a datagram holds an epoch 0 ClientHello that returns a cookie of the given
+   * generator, current or past. A fragmented ClientHello has no valid cookie: the connector drops
+   * it as well.
+   */
+  static boolean hasValidCookie(DatagramPacket packet, CookieGenerator cookieGenerator) {
+    InetSocketAddress peer = (InetSocketAddress) packet.getSocketAddress();
+    try {
+      List<Record> records =
+          Record.fromReader(
+              new DatagramReader(packet.getData(), packet.getOffset(), packet.getLength()),
+              null,
+              ClockUtil.nanoRealtime());
+      if (records.isEmpty() || !records.get(0).isNewClientHello()) {
+        return false;
+      }
+      Record record = records.get(0);
+      record.decodeFragment(DTLSConnectionState.NULL);
+      if (!(record.getFragment() instanceof ClientHello)) {
+        return false;
+      }
+      ClientHello clientHello = (ClientHello) record.getFragment();
+      byte[] cookie = clientHello.getCookie();
+      return MessageDigest.isEqual(cookie, cookieGenerator.generateCookie(peer, clientHello))
+          || MessageDigest.isEqual(cookie, cookieGenerator.generatePastCookie(peer, clientHello));
+    } catch (GeneralSecurityException | HandshakeException | RuntimeException e) {
+      return false;
+    }
+  }
+}
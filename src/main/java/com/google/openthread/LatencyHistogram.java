@@ -0,0 +1,166 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with log-linear buckets, like HdrHistogram: each power of two is split
+ * into {@value #SUB_BUCKETS} buckets, so a percentile is accurate to about 3% of its value. The
+ * unit is {@value #UNIT_NANOS} ns and values up to about 18 minutes are kept apart; longer ones
+ * count in the last bucket. Recording is lock-free and allocation-free, and the memory is fixed at
+ * about 7 kB, so a histogram can sit on every hot path. The percentiles cover all values recorded
+ * since creation or the last {@link #reset()}.
+ */
+public final class LatencyHistogram {
+
+  private static final int UNIT_SHIFT = 10;
+  private static final int SUB_BUCKET_BITS = 5;
+
+  static final int UNIT_NANOS = 1 << UNIT_SHIFT;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  // values in units below this are counted exactly, one bucket each.
+  private static final int LINEAR_RANGE = 2 * SUB_BUCKETS;
+  private static final int MAX_EXPONENT = 30;
+  private static final long MAX_UNITS = (1L << MAX_EXPONENT) - 1;
+  private static final int BUCKETS = bucketIndex(MAX_UNITS) + 1;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sumNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /** Record a latency, e.g. the difference of two {@link System#nanoTime()} values. */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.incrementAndGet(bucketIndex(Math.min(nanos >>> UNIT_SHIFT, MAX_UNITS)));
+    count.increment();
+    sumNanos.add(nanos);
+    long max = maxNanos.get();
+    while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+      max = maxNanos.get();
+    }
+  }
+
+  /** Record the time elapsed since {@code startNanos}, a {@link System#nanoTime()} value. */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getSumNanos() {
+    return sumNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Get the latency at a percentile: the value that this percentage of the recorded values does
+   * not exceed, within the bucket precision.
+   *
+   * @param percentile the percentile in [0, 100]; 100 gives the exact largest value
+   * @return the latency in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be in [0, 100]");
+    }
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    if (rank >= total) {
+      return getMaxNanos();
+    }
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        // the middle of the bucket, but never beyond the largest value seen.
+        return Math.min(bucketMiddleNanos(i), getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  /** Forget all recorded values. Values recorded concurrently may be partly kept. */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sumNanos.reset();
+    maxNanos.set(0);
+  }
+
+  private static int bucketIndex(long units) {
+    if (units < LINEAR_RANGE) {
+      return (int) units;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(units);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (units >>> shift) - SUB_BUCKETS;
+    return LINEAR_RANGE + (shift - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long bucketMiddleNanos(int index) {
+    if (index < LINEAR_RANGE) {
+      return ((long) index << UNIT_SHIFT) + UNIT_NANOS / 2;
+    }
+    int shift = (index - LINEAR_RANGE) / SUB_BUCKETS + 1;
+    long subBucket = (index - LINEAR_RANGE) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket << shift) + (1L << (shift - 1))) << UNIT_SHIFT;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "count=%d p50=%.2f ms p99=%.2f ms max=%.2f ms",
+        getCount(),
+        getPercentileNanos(50) / 1e6,
+        getPercentileNanos(99) / 1e6,
+        getMaxNanos() / 1e6);
+  }
+}
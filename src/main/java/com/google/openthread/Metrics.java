@@ -0,0 +1,265 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.management.ObjectName;
+
+/**
+ * A registry of counters and {@link LatencyHistogram}s, for the onboarding phases of a server. A
+ * metric is identified by its name and labels, given as name/value pairs; the first request for it
+ * creates it. Callers on a hot path keep the returned metric rather than looking it up each time.
+ * The metrics are exposed in the Prometheus text format, histograms as summaries in seconds, and
+ * as an MXBean.
+ */
+public final class Metrics implements MetricsMXBean {
+
+  /** The content type of {@link #getPrometheusText()}. */
+  public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+  private enum Type {
+    COUNTER("counter"),
+    SUMMARY("summary");
+
+    private final String name;
+
+    Type(String name) {
+      this.name = name;
+    }
+  }
+
+  private static final class Family {
+
+    private final Type type;
+    private final String help;
+    // metric per label string, sorted for a stable output.
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    private Family(Type type, String help) {
+      this.type = type;
+      this.help = help;
+    }
+  }
+
+  private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+  private ObjectName objectName;
+
+  /**
+   * Get a counter.
+   *
+   * @param name   the metric name, ending in "_total" by Prometheus convention
+   * @param help   the description of the metric
+   * @param labels label names and values, alternating
+   */
+  public LongAdder counter(String name, String help, String... labels) {
+    return (LongAdder) metric(name, Type.COUNTER, help, labels, LongAdder::new);
+  }
+
+  /**
+   * Add a counter whose value is kept elsewhere, e.g. in a {@link DtlsStatistics}. A counter
+   * added before under the same name and labels is replaced.
+   */
+  public void counter(String name, String help, LongSupplier value, String... labels) {
+    Family family = family(name, Type.COUNTER, help);
+    family.metrics.put(labelString(labels), value);
+  }
+
+  /**
+   * Get a latency histogram.
+   *
+   * @param name   the metric name, ending in "_seconds" by Prometheus convention
+   * @param help   the description of the metric
+   * @param labels label names and values, alternating
+   */
+  public LatencyHistogram histogram(String name, String help, String... labels) {
+    return (LatencyHistogram) metric(name, Type.SUMMARY, help, labels, LatencyHistogram::new);
+  }
+
+  /**
+   * Add a histogram that is recorded elsewhere, e.g. in a {@link DtlsStatistics}. A histogram
+   * added before under the same name and labels is replaced.
+   */
+  public void histogram(String name, String help, LatencyHistogram histogram, String... labels) {
+    Family family = family(name, Type.SUMMARY, help);
+    family.metrics.put(labelString(labels), histogram);
+  }
+
+  private Object metric(
+      String name, Type type, String help, String[] labels, Supplier<Object> factory) {
+    return family(name, type, help).metrics.computeIfAbsent(labelString(labels), k -> factory.get());
+  }
+
+  private Family family(String name, Type type, String help) {
+    Family family = families.computeIfAbsent(name, k -> new Family(type, help));
+    if (family.type != type) {
+      throw new IllegalArgumentException(name + " is a " + family.type.name + " already");
+    }
+    return family;
+  }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, Family> f : families.entrySet()) {
+      if (f.getValue().type == Type.COUNTER) {
+        for (Map.Entry<String, Object> m : f.getValue().metrics.entrySet()) {
+          result.put(f.getKey() + m.getKey(), counterValue(m.getValue()));
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Map<String, Double> getLatencies() {
+    Map<String, Double> result = new TreeMap<>();
+    for (Map.Entry<String, Family> f : families.entrySet()) {
+      if (f.getValue().type == Type.SUMMARY) {
+        for (Map.Entry<String, Object> m : f.getValue().metrics.entrySet()) {
+          String key = f.getKey() + m.getKey();
+          LatencyHistogram h = (LatencyHistogram) m.getValue();
+          result.put(key + " count", (double) h.getCount());
+          result.put(key + " p50", h.getPercentileNanos(50) / 1e6);
+          result.put(key + " p99", h.getPercentileNanos(99) / 1e6);
+          result.put(key + " p999", h.getPercentileNanos(99.9) / 1e6);
+          result.put(key + " max", h.getMaxNanos() / 1e6);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String getPrometheusText() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Family> f : families.entrySet()) {
+      String name = f.getKey();
+      Family family = f.getValue();
+      sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+      sb.append("# TYPE ").append(name).append(' ').append(family.type.name).append('\n');
+      for (Map.Entry<String, Object> m : family.metrics.entrySet()) {
+        String labels = m.getKey();
+        if (family.type == Type.COUNTER) {
+          sb.append(name).append(labels).append(' ').append(counterValue(m.getValue()));
+          sb.append('\n');
+          continue;
+        }
+        LatencyHistogram h = (LatencyHistogram) m.getValue();
+        for (double q : QUANTILES) {
+          sb.append(name).append(withLabel(labels, "quantile", Double.toString(q))).append(' ');
+          sb.append(seconds(h.getPercentileNanos(q * 100))).append('\n');
+        }
+        sb.append(name).append("_sum").append(labels).append(' ');
+        sb.append(seconds(h.getSumNanos())).append('\n');
+        sb.append(name).append("_count").append(labels).append(' ').append(h.getCount());
+        sb.append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void reset() {
+    for (Family family : families.values()) {
+      for (Object metric : family.metrics.values()) {
+        if (metric instanceof LongAdder) {
+          ((LongAdder) metric).reset();
+        } else if (metric instanceof LatencyHistogram) {
+          ((LatencyHistogram) metric).reset();
+        }
+      }
+    }
+  }
+
+  /**
+   * Register this registry as an MXBean with the platform MBean server. Failure, e.g. because a
+   * server on the same port registered before and was not stopped, is logged but not fatal.
+   *
+   * @param name the object name, e.g. "com.google.openthread:type=Registrar,port=5684"
+   */
+  public synchronized void registerMBean(String name) {
+    unregisterMBean();
+    objectName = MBeans.register(this, name);
+  }
+
+  /** Unregister this registry from the platform MBean server, if registered. */
+  public synchronized void unregisterMBean() {
+    MBeans.unregister(objectName);
+    objectName = null;
+  }
+
+  private static long counterValue(Object metric) {
+    if (metric instanceof LongAdder) {
+      return ((LongAdder) metric).sum();
+    }
+    return ((LongSupplier) metric).getAsLong();
+  }
+
+  private static String seconds(long nanos) {
+    return String.format(Locale.ROOT, "%.6f", nanos / 1e9);
+  }
+
+  private static String labelString(String[] labels) {
+    if (labels.length % 2 != 0) {
+      throw new IllegalArgumentException("labels must be name/value pairs");
+    }
+    if (labels.length == 0) {
+      return "";
+    }
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < labels.length; i += 2) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+    }
+    return sb.append('}').toString();
+  }
+
+  private static String withLabel(String labels, String name, String value) {
+    String label = name + "=\"" + value + "\"";
+    if (labels.isEmpty()) {
+      return "{" + label + "}";
+    }
+    return labels.substring(0, labels.length() - 1) + "," + label + "}";
+  }
+
+  private static String escape(String value) {
+    return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A small pool of reusable objects that are expensive to create and not thread-safe, such as a
+ * {@code Signature} or a {@code CertificateFactory}. It takes the place of a {@link ThreadLocal}
+ * for objects used by request handlers: in the virtual-thread mode each request runs on a thread
+ * of its own, so a thread-local object would be created anew for every request. An object is
+ * taken from the pool for one use and handed back after it; when no idle object is left, a new one
+ * is created, and at most the pool's capacity of idle objects is kept.
+ *
+ * @param <T> the type of the pooled objects
+ */
+public final class ObjectPool<T> {
+
+  /** The default capacity: the number of threads that can use the objects at the same time. */
+  public static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors();
+
+  private final Supplier<T> factory;
+  private final BlockingQueue<T> idle;
+
+  /**
+   * @param factory creates a new object when none is idle
+   */
+  public ObjectPool(Supplier<T> factory) {
+    this(factory, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param factory creates a new object when none is idle
+   * @param capacity the maximum number of idle objects kept
+   */
+  public ObjectPool(Supplier<T> factory, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.factory = Objects.requireNonNull(factory, "factory");
+    this.idle = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /** @return an idle object, or else a new one; it must not be used after {@link #release}. */
+  public T acquire() {
+    T object = idle.poll();
+    return object != null ? object : factory.get();
+  }
+
+  /**
+   * Hand back an object after use, in a state in which it can be used again. An object whose use
+   * failed halfway, leaving it in an unknown state, is not handed back.
+   */
+  public void release(T object) {
+    idle.offer(object);
+  }
+
+  /** @return the number of idle objects. */
+  public int size() {
+    return idle.size();
+  }
+}
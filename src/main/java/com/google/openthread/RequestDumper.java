@@ -31,13 +31,21 @@ package com.google.openthread;
 import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 
+/**
+ * Logs a received request's payload in hex, at DEBUG level: the requests themselves are logged at
+ * INFO by the request logging interceptors, and their timing is available as {@link
+ * BrskiExchangeEvent}s.
+ */
 public final class RequestDumper {
 
   private RequestDumper() {}
 
   public static void dump(Logger logger, String uri, byte[] payload) {
+    if (!logger.isDebugEnabled()) {
+      return;
+    }
     final byte[] body = (payload == null) ? new byte[0] : payload;
-    logger.atInfo()
+    logger.atDebug()
         .addArgument(uri)
         .addArgument(body.length)
         .addArgument(() -> Hex.toHexString(body))
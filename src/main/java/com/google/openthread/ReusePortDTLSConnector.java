@@ -0,0 +1,110 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.californium.scandium.DTLSConnector;
+import org.eclipse.californium.scandium.config.DtlsConnectorConfig;
+import org.eclipse.californium.scandium.dtls.InMemorySessionStore;
+import org.eclipse.californium.scandium.dtls.SessionStore;
+
+/**
+ * A {@link DTLSConnector} whose socket is bound with SO_REUSEPORT, so that the connectors of a
+ * {@link Group} share one port. The kernel distributes the received datagrams over their sockets
+ * by a hash of the peer's address, so a peer's records consistently reach the same connector, which
+ * holds its connection. A peer that comes back from another address, e.g. a rebooted Pledge, may
+ * reach another connector: the connectors of a group therefore share their sessions, so that the
+ * peer can still resume its session there.
+ */
+class ReusePortDTLSConnector extends StatisticsDTLSConnector {
+
+  /** The state shared by the connectors bound to one port. */
+  static final class Group {
+
+    // 0 until the first connector binds, when the configured port is 0.
+    private final AtomicInteger port;
+    private final SessionStore sessionStore;
+
+    Group(int port, DtlsSettings settings) {
+      this.port = new AtomicInteger(port);
+      this.sessionStore =
+          new InMemorySessionStore(
+              settings.getMaxConnections() * settings.getSockets(),
+              settings.getStaleConnectionThreshold().getSeconds());
+    }
+
+    SessionStore getSessionStore() {
+      return sessionStore;
+    }
+  }
+
+  private final Group group;
+
+  /**
+   * @param config     the connector configuration, which must use the group's session store
+   * @param statistics the counters to add to, or null to not count
+   * @param group      the group of connectors sharing the port
+   * @param handshakeRateLimiter the limiter shared by the group, or null to not limit
+   */
+  ReusePortDTLSConnector(
+      DtlsConnectorConfig config,
+      DtlsStatistics statistics,
+      Group group,
+      HandshakeRateLimiter handshakeRateLimiter) {
+    super(config, statistics, null, handshakeRateLimiter);
+    this.group = group;
+  }
+
+  @Override
+  protected void start(InetSocketAddress bindAddress) throws IOException {
+    if (isRunning()) {
+      return;
+    }
+    // when the configured port is 0, the first connector to start picks the port for all.
+    if (bindAddress.getPort() == 0 && group.port.get() != 0) {
+      bindAddress = new InetSocketAddress(bindAddress.getAddress(), group.port.get());
+    }
+    DatagramSocket socket = new DatagramSocket(null);
+    try {
+      if (!socket.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+        throw new IOException("SO_REUSEPORT is not supported on this platform");
+      }
+      socket.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+      init(bindAddress, socket, null);
+    } catch (IOException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+    group.port.compareAndSet(0, getAddress().getPort());
+  }
+}
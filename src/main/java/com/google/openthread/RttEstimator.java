@@ -0,0 +1,132 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.time.Duration;
+
+/**
+ * Estimates the round-trip time to a peer and derives a retransmission timeout (RTO) from it, as
+ * specified for TCP in RFC 6298: a smoothed RTT and its mean deviation are updated with each
+ * sample, and the RTO is backed off exponentially on a timeout until the next sample. The RTO is
+ * kept within configured bounds. Samples must not be taken from retransmitted messages (Karn's
+ * algorithm), since their response cannot be matched to one transmission.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class RttEstimator {
+
+  // RFC 6298 section 2: alpha = 1/8, beta = 1/4, K = 4, and a clock granularity G.
+  private static final double ALPHA = 1.0 / 8;
+  private static final double BETA = 1.0 / 4;
+  private static final int K = 4;
+  private static final long GRANULARITY_NANOS = Duration.ofMillis(1).toNanos();
+
+  private final long initialRtoNanos;
+  private final long minRtoNanos;
+  private final long maxRtoNanos;
+
+  private long srttNanos;
+  private long rttVarNanos;
+  private long rtoNanos;
+  private int samples;
+
+  /**
+   * @param initialRto the RTO before the first sample, and after {@link #reset()}
+   * @param minRto     the lower bound of the RTO
+   * @param maxRto     the upper bound of the RTO
+   */
+  public RttEstimator(Duration initialRto, Duration minRto, Duration maxRto) {
+    if (minRto.isNegative() || minRto.isZero()) {
+      throw new IllegalArgumentException("minimum RTO must be positive");
+    }
+    if (initialRto.compareTo(minRto) < 0 || initialRto.compareTo(maxRto) > 0) {
+      throw new IllegalArgumentException("initial RTO must be within the RTO bounds");
+    }
+    this.initialRtoNanos = initialRto.toNanos();
+    this.minRtoNanos = minRto.toNanos();
+    this.maxRtoNanos = maxRto.toNanos();
+    this.rtoNanos = initialRtoNanos;
+  }
+
+  /** Add a measured round-trip time, of a message that was not retransmitted. */
+  public synchronized void addSample(Duration rtt) {
+    long r = Math.max(0, rtt.toNanos());
+    if (samples == 0) {
+      srttNanos = r;
+      rttVarNanos = r / 2;
+    } else {
+      rttVarNanos = Math.round((1 - BETA) * rttVarNanos + BETA * Math.abs(srttNanos - r));
+      srttNanos = Math.round((1 - ALPHA) * srttNanos + ALPHA * r);
+    }
+    samples++;
+    rtoNanos = clamp(srttNanos + Math.max(GRANULARITY_NANOS, K * rttVarNanos));
+  }
+
+  /** Double the RTO after a retransmission timeout, as RFC 6298 section 5.5 requires. */
+  public synchronized void backoff() {
+    rtoNanos = clamp(rtoNanos > maxRtoNanos / 2 ? maxRtoNanos : 2 * rtoNanos);
+  }
+
+  /** Forget all samples, e.g. when the peer changes. */
+  public synchronized void reset() {
+    srttNanos = 0;
+    rttVarNanos = 0;
+    samples = 0;
+    rtoNanos = initialRtoNanos;
+  }
+
+  public synchronized Duration getRto() {
+    return Duration.ofNanos(rtoNanos);
+  }
+
+  /** Return the smoothed RTT, or null if there is no sample yet. */
+  public synchronized Duration getSmoothedRtt() {
+    return samples == 0 ? null : Duration.ofNanos(srttNanos);
+  }
+
+  /** Return the RTT variation, or null if there is no sample yet. */
+  public synchronized Duration getRttVariation() {
+    return samples == 0 ? null : Duration.ofNanos(rttVarNanos);
+  }
+
+  public synchronized int getSampleCount() {
+    return samples;
+  }
+
+  private long clamp(long nanos) {
+    return Math.min(maxRtoNanos, Math.max(minRtoNanos, nanos));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "rto=%dms srtt=%dms rttvar=%dms samples=%d",
+        rtoNanos / 1_000_000, srttNanos / 1_000_000, rttVarNanos / 1_000_000, samples);
+  }
+}
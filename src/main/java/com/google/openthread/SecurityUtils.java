@@ -38,10 +38,8 @@ import com.google.openthread.brski.ConstantsBrski;
 import com.google.openthread.brski.HardwareModuleName;
 import com.upokecenter.cbor.CBORObject;
 import com.upokecenter.cbor.CBORType;
-import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.math.BigInteger;
@@ -65,6 +63,7 @@ import java.security.cert.PKIXBuilderParameters;
 import java.security.cert.TrustAnchor;
 import java.security.cert.X509CertSelector;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -72,7 +71,11 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import javax.security.auth.x500.X500Principal;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
@@ -119,6 +122,7 @@ import org.bouncycastle.openssl.PEMParser;
 import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.operator.OperatorException;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
@@ -574,33 +578,22 @@ public class SecurityUtils {
     return msg.EncodeToBytes();
   }
 
-  /** The CBOR tag for a COSE_Sign1 message (RFC 9052). */
-  private static final int COSE_SIGN1_TAG = 18;
-
   /**
-   * Remove all unprotected COSE header attributes from a COSE_Sign1 message and return the
-   * re-encoded message. The COSE_Sign1 signature is computed over the protected header and payload
-   * only (RFC 9052 Sig_structure), so clearing the unprotected header does not invalidate the
-   * signature and no access to the signing key is needed.
+   * Remove all unprotected COSE header attributes from a COSE_Sign1 message. The COSE_Sign1
+   * signature is computed over the protected header and payload only (RFC 9052 Sig_structure), so
+   * clearing the unprotected header does not invalidate the signature and no access to the signing
+   * key is needed. The message is not re-encoded: see {@link CoseSign1#stripUnprotectedHeaders()}.
    *
    * @param coseSign1 the encoded COSE_Sign1 message, tagged (18) or untagged
-   * @return the message re-encoded with an empty unprotected header, preserving the original tagging
+   * @return the message with an empty unprotected header, preserving the original tagging
    * @throws IllegalArgumentException if the input is not a 4-element COSE_Sign1 structure
    */
   public static byte[] stripCoseSign1UnprotectedHeaders(byte[] coseSign1) {
-    CBORObject msg = CBORObject.DecodeFromBytes(coseSign1);
-    boolean tagged = msg.HasTag(COSE_SIGN1_TAG);
-    CBORObject arr = msg.Untag();
-    if (arr.getType() != CBORType.Array || arr.size() != 4) {
-      throw new IllegalArgumentException("not a COSE_Sign1 structure");
+    try {
+      return CoseSign1.decode(coseSign1).stripUnprotectedHeaders();
+    } catch (CoseException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
     }
-    CBORObject stripped = CBORObject.NewArray();
-    stripped.Add(arr.get(0)); // protected header (bstr) — covered by the signature, keep verbatim
-    stripped.Add(CBORObject.NewMap()); // unprotected header — cleared
-    stripped.Add(arr.get(2)); // payload
-    stripped.Add(arr.get(3)); // signature
-    return (tagged ? CBORObject.FromObjectAndTag(stripped, COSE_SIGN1_TAG) : stripped)
-        .EncodeToBytes();
   }
 
   public static byte[] genCMSSignedMessage(
@@ -678,7 +671,7 @@ public class SecurityUtils {
       }
       X509CertificateHolder holder = certs.getMatches(signerId).iterator().next();
 
-      SignerInformationVerifier verifier = new JcaSimpleSignerInfoVerifierBuilder().build(holder);
+      SignerInformationVerifier verifier = getSignerInfoVerifier(holder);
       if (!signerInfo.verify(verifier)) {
         return false;
       }
@@ -687,6 +680,46 @@ public class SecurityUtils {
     return verifiedCount > 0;
   }
 
+  /** Maximum number of cached CMS signer verifiers; the oldest are evicted first. */
+  static final int CMS_VERIFIER_CACHE_SIZE = 256;
+
+  // SignerInformationVerifier instances are stateless (a new Signature is created per use) and can
+  // be shared between threads. Keyed by the full signer certificate.
+  private static final Map<X509CertificateHolder, SignerInformationVerifier> cmsVerifiers =
+      new ConcurrentHashMap<>();
+  private static final Queue<X509CertificateHolder> cmsVerifierOrder =
+      new ConcurrentLinkedQueue<>();
+
+  static SignerInformationVerifier getSignerInfoVerifier(X509CertificateHolder holder)
+      throws OperatorCreationException, CertificateException {
+    SignerInformationVerifier verifier = cmsVerifiers.get(holder);
+    if (verifier != null) {
+      return verifier;
+    }
+    // built outside the map's lock; of concurrent builds, the first is kept and queued once.
+    SignerInformationVerifier built = new JcaSimpleSignerInfoVerifierBuilder().build(holder);
+    verifier =
+        cmsVerifiers.computeIfAbsent(
+            holder,
+            h -> {
+              cmsVerifierOrder.add(h);
+              return built;
+            });
+    while (cmsVerifiers.size() > CMS_VERIFIER_CACHE_SIZE) {
+      X509CertificateHolder eldest = cmsVerifierOrder.poll();
+      if (eldest == null) {
+        break;
+      }
+      cmsVerifiers.remove(eldest);
+    }
+    return verifier;
+  }
+
+  /** @return the number of cached CMS signer verifiers. */
+  static int getSignerInfoVerifierCount() {
+    return cmsVerifiers.size();
+  }
+
   public static byte[] decodeCMSSignedMessage(byte[] msg, List<X509Certificate> certs)
       throws Exception {
     CMSSignedData signedData = new CMSSignedData(msg);
@@ -694,8 +727,9 @@ public class SecurityUtils {
       return null;
     }
 
+    CertificateCache cache = CertificateCache.getInstance();
     for (X509CertificateHolder holder : signedData.getCertificates().getMatches(null)) {
-      certs.add(new JcaX509CertificateConverter().getCertificate(holder));
+      certs.add(cache.get(holder.getEncoded()));
     }
     return (byte[]) signedData.getSignedContent().getContent();
   }
@@ -847,8 +881,67 @@ public class SecurityUtils {
       X509Certificate[] certificateChain,
       NewAdvancedCertificateVerifier verifier,
       boolean isSniEnabled) {
+    return genCoapClientEndPoint(
+        trustAnchors, privateKey, certificateChain, verifier, isSniEnabled, (DtlsStatistics) null);
+  }
+
+  /**
+   * Create a client endpoint, like {@link #genCoapClientEndPoint(X509Certificate[], PrivateKey,
+   * X509Certificate[], NewAdvancedCertificateVerifier, boolean)}, whose DTLS handshakes and
+   * traffic are counted.
+   *
+   * @param statistics the counters to add to, or null to not count
+   */
+  public static final CoapEndpoint genCoapClientEndPoint(
+      X509Certificate[] trustAnchors,
+      PrivateKey privateKey,
+      X509Certificate[] certificateChain,
+      NewAdvancedCertificateVerifier verifier,
+      boolean isSniEnabled,
+      DtlsStatistics statistics) {
+    return genCoapClientEndPoint(
+        trustAnchors,
+        privateKey,
+        certificateChain,
+        verifier,
+        isSniEnabled,
+        statistics,
+        null,
+        new DtlsSettings());
+  }
+
+  /**
+   * Create a client endpoint with the given retransmission timers, whose DTLS handshakes and
+   * traffic are counted, and whose handshake flight RTTs are measured.
+   *
+   * @param statistics   the counters to add to, or null to not count
+   * @param rttEstimator the estimator to add handshake flight RTTs to, or null to not measure.
+   *     Once it has samples, its RTO is used as the initial DTLS retransmission timeout, and as
+   *     the CoAP ACK timeout if that is lower.
+   * @param settings     the endpoint settings; only the retransmission timers apply to a client
+   */
+  public static final CoapEndpoint genCoapClientEndPoint(
+      X509Certificate[] trustAnchors,
+      PrivateKey privateKey,
+      X509Certificate[] certificateChain,
+      NewAdvancedCertificateVerifier verifier,
+      boolean isSniEnabled,
+      DtlsStatistics statistics,
+      RttEstimator rttEstimator,
+      DtlsSettings settings) {
     return genCoapEndPoint(
-        -1, trustAnchors, privateKey, certificateChain, verifier, false, isSniEnabled);
+        -1,
+        trustAnchors,
+        privateKey,
+        certificateChain,
+        verifier,
+        false,
+        isSniEnabled,
+        statistics,
+        rttEstimator,
+        settings,
+        null,
+        null);
   }
 
   public static CoapEndpoint genCoapServerEndPoint(
@@ -857,8 +950,95 @@ public class SecurityUtils {
       PrivateKey privateKey,
       X509Certificate[] certificateChain,
       NewAdvancedCertificateVerifier verifier) {
+    return genCoapServerEndPoint(
+        port, trustAnchors, privateKey, certificateChain, verifier, new DtlsSettings());
+  }
+
+  public static CoapEndpoint genCoapServerEndPoint(
+      int port,
+      X509Certificate[] trustAnchors,
+      PrivateKey privateKey,
+      X509Certificate[] certificateChain,
+      NewAdvancedCertificateVerifier verifier,
+      DtlsSettings settings) {
+    assert (port >= 0);
+    return genCoapEndPoint(
+        port,
+        trustAnchors,
+        privateKey,
+        certificateChain,
+        verifier,
+        true,
+        true,
+        null,
+        null,
+        settings,
+        null,
+        newHandshakeRateLimiter(settings, null));
+  }
+
+  /**
+   * Generate the server endpoints for the given settings: one endpoint, or with {@link
+   * DtlsSettings#getSockets()} above 1 that many endpoints sharing the port with SO_REUSEPORT, each
+   * with its own socket and connector threads, sharing their sessions for resumption. All must be
+   * added to the same server, so that they serve the same resources.
+   *
+   * @param statistics the counters to which all endpoints add, or null to not count. The endpoints
+   *     share their handshake rate limits.
+   */
+  public static List<CoapEndpoint> genCoapServerEndPoints(
+      int port,
+      X509Certificate[] trustAnchors,
+      PrivateKey privateKey,
+      X509Certificate[] certificateChain,
+      NewAdvancedCertificateVerifier verifier,
+      DtlsSettings settings,
+      DtlsStatistics statistics) {
     assert (port >= 0);
-    return genCoapEndPoint(port, trustAnchors, privateKey, certificateChain, verifier, true, true);
+    HandshakeRateLimiter handshakeRateLimiter = newHandshakeRateLimiter(settings, statistics);
+    if (settings.getSockets() == 1) {
+      return Collections.singletonList(
+          genCoapEndPoint(
+              port,
+              trustAnchors,
+              privateKey,
+              certificateChain,
+              verifier,
+              true,
+              true,
+              statistics,
+              null,
+              settings,
+              null,
+              handshakeRateLimiter));
+    }
+    ReusePortDTLSConnector.Group group = new ReusePortDTLSConnector.Group(port, settings);
+    List<CoapEndpoint> endpoints = new ArrayList<>();
+    for (int i = 0; i < settings.getSockets(); i++) {
+      endpoints.add(
+          genCoapEndPoint(
+              port,
+              trustAnchors,
+              privateKey,
+              certificateChain,
+              verifier,
+              true,
+              true,
+              statistics,
+              null,
+              settings,
+              group,
+              handshakeRateLimiter));
+    }
+    return endpoints;
+  }
+
+  private static HandshakeRateLimiter newHandshakeRateLimiter(
+      DtlsSettings settings, DtlsStatistics statistics) {
+    if (settings.getHandshakeRate() == 0 && settings.getSourceHandshakeRate() == 0) {
+      return null;
+    }
+    return new HandshakeRateLimiter(settings, statistics);
   }
 
   private static CoapEndpoint genCoapEndPoint(
@@ -868,7 +1048,12 @@ public class SecurityUtils {
       X509Certificate[] certificateChain,
       NewAdvancedCertificateVerifier verifier,
       boolean isServerEndPoint,
-      boolean isSniEnabled) {
+      boolean isSniEnabled,
+      DtlsStatistics statistics,
+      RttEstimator rttEstimator,
+      DtlsSettings settings,
+      ReusePortDTLSConnector.Group reusePortGroup,
+      HandshakeRateLimiter handshakeRateLimiter) {
     Configuration configuration = Configuration.createStandardWithoutFile();
 
     if (isServerEndPoint) {
@@ -883,7 +1068,39 @@ public class SecurityUtils {
           DtlsConfig.DTLS_CIPHER_SUITES, CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_CCM_8);
     }
 
-    configuration.set(DtlsConfig.DTLS_RETRANSMISSION_TIMEOUT, 10, TimeUnit.SECONDS);
+    // Retransmission timers. A DTLS flight to which the peer replies after ECC computations gets
+    // the ECC timeout on top, so only those flights wait long for a constrained peer. CoCoA adapts
+    // the CoAP timer to each peer's measured RTT.
+    Duration retransmissionTimeout = settings.getRetransmissionTimeout();
+    Duration eccTimeout = settings.getEccTimeout();
+    Duration ackTimeout = settings.getAckTimeout();
+    if (rttEstimator != null && rttEstimator.getSampleCount() > 0) {
+      // the measured flight RTTs already include the peer's ECC computations.
+      retransmissionTimeout = rttEstimator.getRto();
+      eccTimeout = Duration.ZERO;
+      if (ackTimeout.compareTo(retransmissionTimeout) > 0) {
+        ackTimeout = retransmissionTimeout;
+      }
+    }
+    configuration.set(
+        DtlsConfig.DTLS_RETRANSMISSION_TIMEOUT,
+        retransmissionTimeout.toMillis(),
+        TimeUnit.MILLISECONDS);
+    configuration.set(
+        DtlsConfig.DTLS_MAX_RETRANSMISSION_TIMEOUT,
+        settings.getMaxRetransmissionTimeout().toMillis(),
+        TimeUnit.MILLISECONDS);
+    configuration.set(
+        DtlsConfig.DTLS_ADDITIONAL_ECC_TIMEOUT, eccTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    configuration.set(
+        CoapConfig.ACK_TIMEOUT, ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    configuration.set(
+        CoapConfig.MAX_ACK_TIMEOUT, settings.getMaxAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    configuration.set(
+        CoapConfig.CONGESTION_CONTROL_ALGORITHM,
+        settings.isCongestionControl()
+            ? CoapConfig.CongestionControlMode.COCOA
+            : CoapConfig.CongestionControlMode.NULL);
 
     // Set Max Fragment Length to 2^10 bytes.
     configuration.set(
@@ -896,13 +1113,41 @@ public class SecurityUtils {
     configuration.set(
         DtlsConfig.DTLS_ROLE, port >= 0 ? DtlsRole.SERVER_ONLY : DtlsRole.CLIENT_ONLY);
 
+    // RFC 9146 Connection ID. A client supports it with an empty own Connection ID: only the
+    // server needs to recognize its peer by Connection ID when the peer's address changes.
+    // With a node ID set, the server uses a MultiNodeConnectionIdGenerator.
+    if (isServerEndPoint) {
+      configuration.set(DtlsConfig.DTLS_CONNECTION_ID_LENGTH, settings.getConnectionIdLength());
+      if (settings.getConnectionIdLength() > 0) {
+        configuration.set(DtlsConfig.DTLS_CONNECTION_ID_NODE_ID, settings.getConnectionIdNodeId());
+      }
+      // threading, connection store and queue limits.
+      configuration.set(DtlsConfig.DTLS_CONNECTOR_THREAD_COUNT, settings.getConnectorThreads());
+      configuration.set(DtlsConfig.DTLS_RECEIVER_THREAD_COUNT, settings.getReceiverThreads());
+      configuration.set(DtlsConfig.DTLS_MAX_CONNECTIONS, settings.getMaxConnections());
+      configuration.set(
+          DtlsConfig.DTLS_STALE_CONNECTION_THRESHOLD,
+          settings.getStaleConnectionThreshold().getSeconds(),
+          TimeUnit.SECONDS);
+      configuration.set(
+          DtlsConfig.DTLS_OUTBOUND_MESSAGE_BUFFER_SIZE, settings.getMaxPendingOutboundMessages());
+      configuration.set(
+          DtlsConfig.DTLS_MAX_PENDING_OUTBOUND_JOBS, settings.getMaxPendingOutboundJobs());
+      configuration.set(
+          DtlsConfig.DTLS_MAX_PENDING_INBOUND_JOBS, settings.getMaxPendingInboundJobs());
+      configuration.set(
+          DtlsConfig.DTLS_MAX_PENDING_HANDSHAKE_RESULT_JOBS,
+          settings.getMaxPendingHandshakeResultJobs());
+    } else {
+      configuration.set(DtlsConfig.DTLS_CONNECTION_ID_LENGTH, 0);
+    }
+
     DtlsConnectorConfig.Builder config = new DtlsConnectorConfig.Builder(configuration);
 
     if (port >= 0) {
       // Server
       config.setAddress(new InetSocketAddress(port));
     }
-
     // In Scandium 3.x the trust anchors are part of the certificate verifier. When an explicit
     // verifier is supplied it is fully responsible for validation; otherwise fall back to a
     // static verifier that validates the peer chain against the given trust anchors.
@@ -920,7 +1165,19 @@ public class SecurityUtils {
     config.setCertificateIdentityProvider(
         new SingleCertificateProvider(privateKey, certificateChain, CertificateType.X_509));
 
-    DTLSConnector connector = new DTLSConnector(config.build());
+    DTLSConnector connector;
+    if (reusePortGroup != null) {
+      config.setSessionStore(reusePortGroup.getSessionStore());
+      connector =
+          new ReusePortDTLSConnector(
+              config.build(), statistics, reusePortGroup, handshakeRateLimiter);
+    } else if (statistics == null && handshakeRateLimiter == null) {
+      connector = new DTLSConnector(config.build());
+    } else {
+      connector =
+          new StatisticsDTLSConnector(
+              config.build(), statistics, rttEstimator, handshakeRateLimiter);
+    }
     return new CoapEndpoint.Builder()
         .setConnector(connector)
         .setConfiguration(configuration)
@@ -974,16 +1231,11 @@ public class SecurityUtils {
     // if it is an array of certs
     if (x5bag.getType().equals(CBORType.Array) && x5bag.size() > 0) {
       for (int idx = 0; idx < x5bag.size(); idx++) {
-        InputStream is = new ByteArrayInputStream(x5bag.get(idx).GetByteString());
-        X509Certificate cert = (X509Certificate) certFactory.generateCertificate(is);
-        certs.add(cert);
+        certs.add(CertificateCache.getInstance().get(x5bag.get(idx).GetByteString()));
       }
     } else if (x5bag.getType().equals(CBORType.ByteString)) {
       // single cert
-      InputStream is = new ByteArrayInputStream(x5bag.GetByteString());
-      X509Certificate cert = (X509Certificate) certFactory.generateCertificate(is);
-      // X509Certificate cert =
-      certs.add(cert);
+      certs.add(CertificateCache.getInstance().get(x5bag.GetByteString()));
     }
     return certs;
   }
@@ -0,0 +1,130 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Token buckets per source address, in a table of fixed size. The table is set-associative: an
+ * address maps to a set of {@value #WAYS} entries, and when its set is full, the bucket of the
+ * address seen least recently is taken over. So any number of sources costs the same memory, three
+ * primitive arrays; a source whose bucket was taken over starts again with a full bucket, which the
+ * limit shared by all sources still bounds.
+ */
+final class SourceTokenTable {
+
+  static final int WAYS = 4;
+
+  // an empty entry; no address maps to it.
+  private static final long EMPTY = 0;
+
+  private final double tokensPerNano;
+  private final double burst;
+  private final int setMask;
+  private final long[] keys;
+  private final double[] tokens;
+  private final long[] lastNanos;
+
+  /**
+   * @param perSecond the sustained rate of each source
+   * @param burst the number of tokens a source may take at once
+   * @param capacity the number of sources tracked, rounded up to a power of two
+   */
+  SourceTokenTable(double perSecond, int burst, int capacity) {
+    if (!(perSecond > 0) || burst < 1 || capacity < 1) {
+      throw new IllegalArgumentException("rate, burst and capacity must be positive");
+    }
+    int size = Math.max(WAYS, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+    this.tokensPerNano = perSecond / 1e9;
+    this.burst = burst;
+    this.setMask = size / WAYS - 1;
+    this.keys = new long[size];
+    this.tokens = new double[size];
+    this.lastNanos = new long[size];
+  }
+
+  int getCapacity() {
+    return keys.length;
+  }
+
+  /** Take a token from the bucket of the given source, if there is one. */
+  boolean tryAcquire(InetAddress address, long nowNanos) {
+    return tryAcquire(keyOf(address), nowNanos);
+  }
+
+  synchronized boolean tryAcquire(long key, long nowNanos) {
+    int set = (int) (key ^ (key >>> 32)) & setMask;
+    int first = set * WAYS;
+    int victim = first;
+    for (int i = first; i < first + WAYS; i++) {
+      if (keys[i] == key) {
+        tokens[i] = Math.min(burst, tokens[i] + (nowNanos - lastNanos[i]) * tokensPerNano);
+        lastNanos[i] = nowNanos;
+        if (tokens[i] < 1) {
+          return false;
+        }
+        tokens[i]--;
+        return true;
+      }
+      if (keys[victim] != EMPTY
+          && (keys[i] == EMPTY || lastNanos[i] - lastNanos[victim] < 0)) {
+        victim = i;
+      }
+    }
+    keys[victim] = key;
+    tokens[victim] = burst - 1;
+    lastNanos[victim] = nowNanos;
+    return true;
+  }
+
+  /**
+   * Get the key of an address: an IPv4 address as is, an IPv6 address hashed to 64 bits. Only a
+   * hash collision of two IPv6 addresses makes them share a bucket.
+   */
+  static long keyOf(InetAddress address) {
+    if (address instanceof Inet4Address) {
+      // Inet4Address.hashCode() is the address.
+      return 0x1_0000_0000L | (address.hashCode() & 0xffff_ffffL);
+    }
+    byte[] bytes = address.getAddress();
+    long hash = 0x9e37_79b9_7f4a_7c15L;
+    for (byte b : bytes) {
+      hash = mix(hash ^ (b & 0xff));
+    }
+    return hash == EMPTY ? 1 : hash;
+  }
+
+  // the SplitMix64 finalizer.
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58_476d_1ce4_e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d0_49bb_1331_11ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import org.eclipse.californium.elements.util.ClockUtil;
+import org.eclipse.californium.scandium.CookieGenerator;
+import org.eclipse.californium.scandium.DTLSConnector;
+import org.eclipse.californium.scandium.config.DtlsConnectorConfig;
+import org.eclipse.californium.scandium.dtls.Handshaker;
+import org.eclipse.californium.scandium.dtls.SessionAdapter;
+
+/**
+ * A {@link DTLSConnector} that records its handshakes, their durations and its datagram traffic in
+ * a {@link DtlsStatistics}. Optionally, it also feeds the round-trip times of its handshake flights to an
+ * {@link RttEstimator}: the time from sending a flight to receiving the first datagram of the
+ * peer's next flight. That time includes the peer's processing, which the retransmission timer must
+ * cover as well. This is only meaningful for a client, which handshakes with one peer at a time.
+ *
+ * <p>A server connector may also apply a {@link HandshakeRateLimiter} to its received datagrams,
+ * with its own cookie generator to verify the cookies of the ClientHellos.
+ */
+class StatisticsDTLSConnector extends DTLSConnector {
+
+  private final DtlsStatistics statistics;
+  private final RttEstimator rttEstimator;
+  private final HandshakeRateLimiter handshakeRateLimiter;
+  private final CookieGenerator cookieGenerator;
+
+  // state of the current flight's RTT measurement, guarded by 'this'.
+  private int ongoingHandshakes;
+  private long flightSentNanos;
+  private boolean isFlightRetransmitted;
+
+  /**
+   * @param config       the connector configuration
+   * @param statistics   the counters to add to, or null to not count
+   * @param rttEstimator the estimator to add handshake flight RTTs to, or null to not measure
+   * @param handshakeRateLimiter the limiter of the handshakes started, or null to not limit
+   */
+  StatisticsDTLSConnector(
+      DtlsConnectorConfig config,
+      DtlsStatistics statistics,
+      RttEstimator rttEstimator,
+      HandshakeRateLimiter handshakeRateLimiter) {
+    super(config);
+    this.statistics = statistics;
+    this.rttEstimator = rttEstimator;
+    this.handshakeRateLimiter = handshakeRateLimiter;
+    this.cookieGenerator = handshakeRateLimiter == null ? null : getCookieGenerator(this);
+  }
+
+  /**
+   * Get the cookie generator of a connector. Scandium offers no way to verify a cookie before it
+   * starts a handshake, so the rate limiter uses the connector's own generator, which is private.
+   */
+  static CookieGenerator getCookieGenerator(DTLSConnector connector) {
+    try {
+      Field field = DTLSConnector.class.getDeclaredField("cookieGenerator");
+      field.setAccessible(true);
+      return (CookieGenerator) field.get(connector);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new IllegalStateException("cannot access the DTLS connector's cookie generator", e);
+    }
+  }
+
+  @Override
+  protected void onInitializeHandshaker(Handshaker handshaker) {
+    super.onInitializeHandshaker(handshaker);
+    handshaker.addSessionListener(
+        new SessionAdapter() {
+          private volatile long startNanos;
+
+          @Override
+          public void handshakeStarted(Handshaker handshaker) {
+            startNanos = ClockUtil.nanoRealtime();
+            synchronized (StatisticsDTLSConnector.this) {
+              ongoingHandshakes++;
+            }
+          }
+
+          @Override
+          public void handshakeCompleted(Handshaker handshaker) {
+            // a resumption attempt that the peer refused ends as a full handshake.
+            if (statistics != null) {
+              statistics.handshakeCompleted(
+                  !handshaker.isFullHandshake(),
+                  startNanos == 0 ? 0 : ClockUtil.nanoRealtime() - startNanos);
+            }
+            handshakeEnded();
+          }
+
+          @Override
+          public void handshakeFailed(Handshaker handshaker, Throwable error) {
+            if (statistics != null) {
+              statistics.handshakeFailed();
+            }
+            handshakeEnded();
+          }
+
+          @Override
+          public void handshakeFlightRetransmitted(Handshaker handshaker, int flight) {
+            if (rttEstimator != null) {
+              rttEstimator.backoff();
+            }
+            synchronized (StatisticsDTLSConnector.this) {
+              isFlightRetransmitted = true;
+            }
+          }
+        });
+  }
+
+  private synchronized void handshakeEnded() {
+    ongoingHandshakes = Math.max(0, ongoingHandshakes - 1);
+    flightSentNanos = 0;
+    isFlightRetransmitted = false;
+  }
+
+  @Override
+  protected void sendNextDatagramOverNetwork(DatagramPacket datagram) throws IOException {
+    super.sendNextDatagramOverNetwork(datagram);
+    if (statistics != null) {
+      statistics.datagramSent(datagram.getLength());
+    }
+    if (rttEstimator != null) {
+      synchronized (this) {
+        if (ongoingHandshakes > 0 && flightSentNanos == 0) {
+          flightSentNanos = ClockUtil.nanoRealtime();
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void processDatagram(DatagramPacket packet, InetSocketAddress router) {
+    if (handshakeRateLimiter != null
+        && !handshakeRateLimiter.onReceiving(packet, cookieGenerator)) {
+      return;
+    }
+    super.processDatagram(packet, router);
+  }
+
+  @Override
+  protected void receiveNextDatagramFromNetwork(DatagramPacket packet) throws IOException {
+    super.receiveNextDatagramFromNetwork(packet);
+    if (statistics != null) {
+      statistics.datagramReceived(packet.getLength());
+    }
+    if (rttEstimator != null) {
+      long rttNanos = 0;
+      synchronized (this) {
+        if (flightSentNanos != 0) {
+          // Karn's algorithm: the reply to a retransmitted flight gives no valid sample.
+          if (!isFlightRetransmitted) {
+            rttNanos = ClockUtil.nanoRealtime() - flightSentNanos;
+          }
+          flightSentNanos = 0;
+          isFlightRetransmitted = false;
+        }
+      }
+      if (rttNanos > 0) {
+        rttEstimator.addSample(Duration.ofNanos(rttNanos));
+      }
+    }
+  }
+}
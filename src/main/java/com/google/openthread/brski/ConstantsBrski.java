@@ -56,6 +56,7 @@ public final class ConstantsBrski {
   public static final String CA_CERTIFICATES = "crts";
   public static final String SIMPLE_ENROLL = "sen";
   public static final String SIMPLE_REENROLL = "sren";
+  public static final String SERVER_KEYGEN = "skg";
 
   // --- Media Types (used over both HTTP and CoAP)
   public static final String MEDIA_TYPE_VOUCHER_CMS_JSON = "application/voucher-cms+json";
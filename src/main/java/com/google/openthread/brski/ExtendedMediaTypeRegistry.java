@@ -64,6 +64,9 @@ public final class ExtendedMediaTypeRegistry extends MediaTypeRegistry {
   // application/pkcs7-mime;smime-type=certs-only
   public static final int APPLICATION_PKCS7_MIME_CERTS_ONLY = 281;
 
+  // application/pkcs8
+  public static final int APPLICATION_PKCS8 = 284;
+
   // application/csrattrs
   public static final int APPLICATION_CSRATTRS = 285;
 
@@ -83,6 +86,7 @@ public final class ExtendedMediaTypeRegistry extends MediaTypeRegistry {
     add(APPLICATION_VOUCHER_CMS_JSON, ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_JSON);
     add(APPLICATION_CWT, "application/cwt");
     add(APPLICATION_PKCS7_MIME_CERTS_ONLY, "application/pkcs7-mime;smime-type=certs-only");
+    add(APPLICATION_PKCS8, "application/pkcs8");
     add(APPLICATION_CSRATTRS, "application/csrattrs");
     add(APPLICATION_PKCS10, "application/pkcs10");
     add(APPLICATION_PKIX_CERT, "application/pkix-cert");
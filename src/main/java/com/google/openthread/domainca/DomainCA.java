@@ -31,15 +31,20 @@ package com.google.openthread.domainca;
 import com.google.openthread.BouncyCastleInitializer;
 import com.google.openthread.Constants;
 import com.google.openthread.Credentials;
+import com.google.openthread.ObjectPool;
 import com.google.openthread.SecurityUtils;
 import com.google.openthread.thread.ConstantsThread;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.Signature;
 import java.security.cert.CertPath;
 import java.security.cert.CertPathValidator;
-import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.PKIXParameters;
 import java.security.cert.TrustAnchor;
@@ -52,25 +57,23 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import org.bouncycastle.asn1.ASN1Encodable;
+import java.util.concurrent.ThreadLocalRandom;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.DERIA5String;
-import org.bouncycastle.asn1.DERSequence;
-import org.bouncycastle.asn1.DERTaggedObject;
+import org.bouncycastle.asn1.x500.RDN;
 import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x500.style.IETFUtils;
 import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
 import org.bouncycastle.asn1.x509.BasicConstraints;
 import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.asn1.x509.GeneralName;
-import org.bouncycastle.asn1.x509.GeneralNames;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.X509ExtensionUtils;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.bc.BcX509ExtensionUtils;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
 import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
@@ -88,10 +91,30 @@ public final class DomainCA {
     BouncyCastleInitializer.init();
   }
 
+  private static final ObjectPool<CertificateFactory> CERT_FACTORIES =
+      new ObjectPool<>(
+          () -> {
+            try {
+              return CertificateFactory.getInstance("X.509");
+            } catch (CertificateException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
   private final String domainName;
   private final PrivateKey privateKey;
   private final X509Certificate[] certificateChain;
 
+  // Prepared per-CA state, computed once and reused for every issued LDevID.
+  private final X500Name issuerName;
+  private final Extension basicConstraintsExtension;
+  private final Extension authorityKeyIdExtension;
+  private final Extension domainNameExtension;
+  // a ContentSigner wraps a stateful Signature, so concurrent issuances each take their own.
+  private final ObjectPool<ContentSigner> signers;
+
+  private volatile double validationSampleRate = 0.0;
+
   public DomainCA(String domainName, Credentials creds) throws GeneralSecurityException {
     this.domainName = Objects.requireNonNull(domainName, "domainName");
     Objects.requireNonNull(creds, "creds");
@@ -102,6 +125,55 @@ public final class DomainCA {
       throw new GeneralSecurityException("credentials carry no certificate chain");
     }
     this.certificateChain = chain;
+
+    try {
+      this.issuerName = new JcaX509CertificateHolder(getCertificate()).getSubject();
+      this.basicConstraintsExtension =
+          new Extension(Extension.basicConstraints, false, new BasicConstraints(false).getEncoded());
+
+      // per 802.1AR-2018 section 8.10.2, don't include subject key identifier on
+      // operational certs (asserted by FunctionalTest). Authority Key Identifier is
+      // computed by SHA-1 hash of the CA's SubjectPublicKeyInfo per RFC 5280 §4.2.1.2.
+      // TODO: prefer copying the CA's own SubjectKeyIdentifier if it was generated by a
+      //   non-standard method — needs a BouncyCastle helper that doesn't exist yet.
+      AuthorityKeyIdentifier authorityKeyId =
+          new BcX509ExtensionUtils()
+              .createAuthorityKeyIdentifier(
+                  SubjectPublicKeyInfo.getInstance(getPublicKey().getEncoded()));
+      this.authorityKeyIdExtension =
+          new Extension(Extension.authorityKeyIdentifier, false, authorityKeyId.getEncoded());
+
+      // Includes Thread Domain name in X.509v3 extensions section, with value IA5String.
+      this.domainNameExtension =
+          new Extension(
+              THREAD_DOMAIN_NAME_OID_ASN1, false, new DERIA5String(domainName).getEncoded());
+    } catch (IOException e) {
+      throw new GeneralSecurityException("CA certificate encoding error", e);
+    }
+
+    this.signers =
+        new ObjectPool<>(
+            () -> {
+              try {
+                return new JcaContentSignerBuilder(SecurityUtils.SIGNATURE_ALGORITHM)
+                    .build(this.privateKey);
+              } catch (OperatorCreationException e) {
+                throw new IllegalStateException("cannot create LDevID signer", e);
+              }
+            });
+
+    // Since issued certificates are not all validated anymore, check once that the CA's private
+    // key matches its certificate.
+    Signature check = Signature.getInstance(SecurityUtils.SIGNATURE_ALGORITHM);
+    byte[] challenge = domainName.getBytes(StandardCharsets.UTF_8);
+    check.initSign(privateKey);
+    check.update(challenge);
+    byte[] sig = check.sign();
+    check.initVerify(getPublicKey());
+    check.update(challenge);
+    if (!check.verify(sig)) {
+      throw new GeneralSecurityException("CA private key does not match CA certificate");
+    }
   }
 
   public PublicKey getPublicKey() {
@@ -137,6 +209,33 @@ public final class DomainCA {
     return domainName;
   }
 
+  /**
+   * Set the fraction of issued LDevID certificates that get validated (signature check and PKIX
+   * path validation against this CA) right after signing. This is a consistency check of the
+   * issuance itself, not needed for correct operation; the CA key is already checked against the
+   * CA certificate at construction. By default it is 0 (never).
+   *
+   * @param rate sample rate, from 0.0 (never) to 1.0 (every certificate)
+   */
+  public void setValidationSampleRate(double rate) {
+    if (!(rate >= 0.0 && rate <= 1.0)) {
+      throw new IllegalArgumentException("sample rate must be in [0.0, 1.0]");
+    }
+    this.validationSampleRate = rate;
+  }
+
+  public double getValidationSampleRate() {
+    return validationSampleRate;
+  }
+
+  /**
+   * Sign a new LDevID certificate for the given CSR. This method is thread-safe and does not
+   * serialize callers, so concurrent enrollments get signed in parallel.
+   *
+   * @param csr the PKCS#10 request, which must be signed with the requested key (POP)
+   * @return the new LDevID certificate
+   * @throws DomainCAException if POP verification or issuance fails
+   */
   public X509Certificate signCertificate(PKCS10CertificationRequest csr) throws DomainCAException {
     try {
       // 0. POP (proof-of-possession) verification
@@ -147,75 +246,111 @@ public final class DomainCA {
 
       // TODO(wgtdkp): validate CSR request
 
+      return signCertificate(csr.getSubject(), csr.getSubjectPublicKeyInfo());
+    } catch (DomainCAException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new DomainCAException("LDevID issuance failed: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Sign a new LDevID certificate for the given subject and public key, without any POP check.
+   * This is used for server-side key generation, where the key pair is generated by the
+   * Registrar itself and the requester's POP is checked on its CSR instead.
+   *
+   * @param subject the subject name of the new certificate
+   * @param publicKeyInfo the public key to certify
+   * @return the new LDevID certificate
+   * @throws DomainCAException if issuance fails
+   */
+  public X509Certificate signCertificate(X500Name subject, SubjectPublicKeyInfo publicKeyInfo)
+      throws DomainCAException {
+    LdevidSigningEvent event = new LdevidSigningEvent();
+    event.begin();
+    BigInteger serial = null;
+    String result = "issued";
+    try {
       // 1. Build certificate
-      X500Name issuer = getSubjectName();
-      BigInteger serial = SecurityUtils.allocateSerialNumber();
-      logger.info("allocate serial number: {}", serial);
+      serial = SecurityUtils.allocateSerialNumber();
       Instant now = Instant.now();
       Date notBefore = Date.from(now);
       Date notAfter = Date.from(
           now.atZone(ZoneId.systemDefault()).plus(Constants.CERT_VALIDITY).toInstant());
-      X509v3CertificateBuilder builder = new X509v3CertificateBuilder(issuer, serial, notBefore, notAfter, csr.getSubject(), csr.getSubjectPublicKeyInfo());
-
-      logger.info("operational certificate not-before: {}", notBefore);
-      logger.info("operational certificate not-after: {}", notAfter);
-
-      builder.addExtension(Extension.basicConstraints, false, new BasicConstraints(false));
-
-      // per 802.1AR-2018 section 8.10.2, don't include subject key identifier on
-      // operational certs (asserted by FunctionalTest). Authority Key Identifier is
-      // computed by SHA-1 hash of the CA's SubjectPublicKeyInfo per RFC 5280 §4.2.1.2.
-      // TODO: prefer copying the CA's own SubjectKeyIdentifier if it was generated by a
-      //   non-standard method — needs a BouncyCastle helper that doesn't exist yet.
-      // NOTE: BcX509ExtensionUtils wraps a stateful DigestCalculator and is NOT
-      //   thread-safe, so it is allocated per call -- signCertificate runs concurrently
-      //   when multiple Pledges enroll at once.
-      X509ExtensionUtils extUtils = new BcX509ExtensionUtils();
-      AuthorityKeyIdentifier authorityKeyId =
-          extUtils.createAuthorityKeyIdentifier(
-              SubjectPublicKeyInfo.getInstance(getPublicKey().getEncoded()));
-      builder.addExtension(Extension.authorityKeyIdentifier, false, authorityKeyId);
+      X509v3CertificateBuilder builder = new X509v3CertificateBuilder(issuerName, serial, notBefore, notAfter, subject, publicKeyInfo);
+      logger.info(
+          "issuing operational certificate serial={} not-before={} not-after={}",
+          serial,
+          notBefore,
+          notAfter);
 
-      // Includes Thread Domain name in X.509v3 extensions section, with value IA5String.
-      DERIA5String domainNameStr = new DERIA5String(domainName);
-      builder.addExtension(THREAD_DOMAIN_NAME_OID_ASN1, false, domainNameStr);
+      builder.addExtension(basicConstraintsExtension);
+      builder.addExtension(authorityKeyIdExtension);
+      builder.addExtension(domainNameExtension);
 
-      // 2. Sign and verify certificate
-      ContentSigner signer =
-          new JcaContentSignerBuilder(SecurityUtils.SIGNATURE_ALGORITHM).build(this.privateKey);
+      // 2. Sign certificate
+      ContentSigner signer = signers.acquire();
       X509CertificateHolder holder = builder.build(signer);
-      X509Certificate cert = new JcaX509CertificateConverter().getCertificate(holder);
-      cert.verify(getCertificate().getPublicKey());
-
-      // 3. Make sure the signed certificate is valid
-      {
-        CertificateFactory cf = CertificateFactory.getInstance("X.509");
-        List<X509Certificate> certs = new ArrayList<>();
-        certs.add(cert);
-        CertPath path = cf.generateCertPath(certs);
-
-        Set<TrustAnchor> trustAnchors = new HashSet<>();
-        trustAnchors.add(new TrustAnchor(getCertificate(), null));
-        PKIXParameters params = new PKIXParameters(trustAnchors);
-        params.setRevocationEnabled(false);
-
-        CertPathValidator validator = CertPathValidator.getInstance("PKIX");
-        validator.validate(path, params);
+      // a signer that failed halfway may hold part of a signature input, so it is not reused.
+      signers.release(signer);
+      X509Certificate cert;
+      CertificateFactory factory = CERT_FACTORIES.acquire();
+      try {
+        cert =
+            (X509Certificate)
+                factory.generateCertificate(new ByteArrayInputStream(holder.getEncoded()));
+      } finally {
+        CERT_FACTORIES.release(factory);
+      }
+
+      // 3. Optionally, make sure the signed certificate is valid
+      double rate = validationSampleRate;
+      if (rate > 0.0 && (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate)) {
+        validateIssued(cert);
       }
 
       return cert;
-    } catch (DomainCAException e) {
-      throw e;
     } catch (Exception e) {
+      result = e.getMessage();
       throw new DomainCAException("LDevID issuance failed: " + e.getMessage(), e);
+    } finally {
+      if (event.shouldCommit()) {
+        event.domainName = domainName;
+        event.subject = subject.toString();
+        RDN[] serialNumbers = subject.getRDNs(BCStyle.SERIALNUMBER);
+        if (serialNumbers.length > 0) {
+          event.pledgeSerial = IETFUtils.valueToString(serialNumbers[0].getFirst().getValue());
+        }
+        event.certificateSerial = serial == null ? null : serial.toString(16);
+        event.result = result;
+        event.commit();
+      }
     }
   }
 
   public X500Name getSubjectName() {
+    return issuerName;
+  }
+
+  private void validateIssued(X509Certificate cert) throws GeneralSecurityException {
+    cert.verify(getCertificate().getPublicKey());
+
+    List<X509Certificate> certs = new ArrayList<>();
+    certs.add(cert);
+    CertPath path;
+    CertificateFactory factory = CERT_FACTORIES.acquire();
     try {
-      return new JcaX509CertificateHolder(getCertificate()).getSubject();
-    } catch (CertificateEncodingException e) {
-      throw new IllegalStateException("CA certificate encoding error", e);
+      path = factory.generateCertPath(certs);
+    } finally {
+      CERT_FACTORIES.release(factory);
     }
+
+    Set<TrustAnchor> trustAnchors = new HashSet<>();
+    trustAnchors.add(new TrustAnchor(getCertificate(), null));
+    PKIXParameters params = new PKIXParameters(trustAnchors);
+    params.setRevocationEnabled(false);
+
+    CertPathValidator validator = CertPathValidator.getInstance("PKIX");
+    validator.validate(path, params);
   }
 }
@@ -29,6 +29,7 @@
 package com.google.openthread.main;
 
 import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
 import com.google.openthread.Role;
 import com.google.openthread.brski.ConstantsBrski;
 
@@ -41,6 +42,21 @@ public final class OtRegistrarConfig {
   public String masaUri;
   public String registrarUri;
   public int logVerbosity;
+  public String sessionStoreFile;
+  public int connectionIdNodeId;
+  public DtlsSettings.Profile dtlsProfile = DtlsSettings.Profile.DEFAULT;
+  // connector threads and max connections override the DTLS profile's when > 0.
+  public int dtlsConnectorThreads;
+  public int dtlsMaxConnections;
+  public int dtlsSockets = 1;
+  // handshake rate limits, shared and per source address; override the defaults when >= 0, and a
+  // rate of 0 is unlimited.
+  public double handshakeRate = -1;
+  public int handshakeBurst;
+  public double sourceHandshakeRate = -1;
+  public int sourceHandshakeBurst;
+  // for a Registrar or MASA, handle requests on virtual threads (JDK 21 or later).
+  public boolean virtualThreads;
 
   static OtRegistrarConfig defaultPledge() {
     OtRegistrarConfig config = new OtRegistrarConfig();
@@ -86,6 +102,34 @@ public final class OtRegistrarConfig {
     if (this.registrarUri != null) {
       s += "Registrar URI : " + this.registrarUri + "\n";
     }
+    if (this.sessionStoreFile != null) {
+      s += "Session store : " + this.sessionStoreFile + "\n";
+    }
+    if (this.role == Role.Registrar) {
+      s += "CID node ID   : " + this.connectionIdNodeId + "\n";
+      s += "DTLS profile  : " + this.dtlsProfile + "\n";
+      if (this.dtlsConnectorThreads > 0) {
+        s += "DTLS threads  : " + this.dtlsConnectorThreads + "\n";
+      }
+      if (this.dtlsMaxConnections > 0) {
+        s += "DTLS max conns: " + this.dtlsMaxConnections + "\n";
+      }
+      s += "DTLS sockets  : " + this.dtlsSockets + "\n";
+      if (this.handshakeRate >= 0) {
+        s += "Handshakes    : " + this.handshakeRate + "/s, burst " + this.handshakeBurst + "\n";
+      }
+      if (this.sourceHandshakeRate >= 0) {
+        s +=
+            "Per source    : "
+                + this.sourceHandshakeRate
+                + "/s, burst "
+                + this.sourceHandshakeBurst
+                + "\n";
+      }
+    }
+    if (this.virtualThreads) {
+      s += "Threads       : virtual\n";
+    }
     s += "Log verbosity : " + this.logVerbosity + "\n";
     return s;
   }
@@ -108,6 +152,29 @@ public final class OtRegistrarConfig {
     if (this.registrarUri != null) {
       s += " registrarUri=" + this.registrarUri;
     }
+    if (this.sessionStoreFile != null) {
+      s += " sessionStore=" + this.sessionStoreFile;
+    }
+    if (this.role == Role.Registrar) {
+      s += " cidNodeId=" + this.connectionIdNodeId;
+      s += " dtlsProfile=" + this.dtlsProfile;
+      if (this.dtlsConnectorThreads > 0) {
+        s += " dtlsThreads=" + this.dtlsConnectorThreads;
+      }
+      if (this.dtlsMaxConnections > 0) {
+        s += " maxConnections=" + this.dtlsMaxConnections;
+      }
+      s += " dtlsSockets=" + this.dtlsSockets;
+      if (this.handshakeRate >= 0) {
+        s += " handshakeRate=" + this.handshakeRate + "," + this.handshakeBurst;
+      }
+      if (this.sourceHandshakeRate >= 0) {
+        s += " sourceHandshakeRate=" + this.sourceHandshakeRate + "," + this.sourceHandshakeBurst;
+      }
+    }
+    if (this.virtualThreads) {
+      s += " virtualThreads=true";
+    }
     s += " verbosity=" + this.logVerbosity;
     return s;
   }
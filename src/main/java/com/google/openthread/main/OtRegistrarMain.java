@@ -28,10 +28,12 @@
 
 package com.google.openthread.main;
 
+import com.google.openthread.DtlsSettings;
 import com.google.openthread.LoggerInitializer;
 import com.google.openthread.masa.MASAMain;
 import com.google.openthread.registrar.RegistrarMain;
 import com.google.openthread.pledge.PledgeMain;
+import java.util.Locale;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -49,7 +51,10 @@ public final class OtRegistrarMain {
   private static final Logger logger = LoggerFactory.getLogger(OtRegistrarMain.class);
 
   private static final String HELP_FORMAT =
-      "[-registrar | -masa | -pledge] [-h] [-d <domain-name>] [-f <keystore-file>] [-p <udp-port>] [-v [-v ...]]";
+      "[-registrar | -masa | -pledge] [-h] [-d <domain-name>] [-f <keystore-file>] [-p <udp-port>]"
+          + " [-s <session-store-file>] [-n <cid-node-id>] [-P <dtls-profile>] [-t <dtls-threads>]"
+          + " [-c <max-connections>] [-S <dtls-sockets>] [-l <rate[,burst]>]"
+          + " [-L <rate[,burst]>] [-V] [-v [-v ...]]";
 
   public static void main(String[] args) {
 
@@ -117,6 +122,76 @@ public final class OtRegistrarMain {
             .desc("for a Pledge, the Registrar to connect to")
             .build();
 
+    Option sessionStoreOpt =
+        Option.builder("s")
+            .longOpt("sessionStore")
+            .hasArg()
+            .argName("session-store-file")
+            .desc("for a Registrar, the file to keep DTLS sessions in across restarts")
+            .build();
+
+    Option cidNodeIdOpt =
+        Option.builder("n")
+            .longOpt("cidNodeId")
+            .hasArg()
+            .argName("cid-node-id")
+            .desc("for a Registrar, the node ID (0-255) encoded in its DTLS Connection IDs")
+            .build();
+
+    Option dtlsProfileOpt =
+        Option.builder("P")
+            .longOpt("dtlsProfile")
+            .hasArg()
+            .argName("dtls-profile")
+            .desc("for a Registrar, the DTLS connector profile: default, embedded or server")
+            .build();
+
+    Option dtlsThreadsOpt =
+        Option.builder("t")
+            .longOpt("dtlsThreads")
+            .hasArg()
+            .argName("dtls-threads")
+            .desc("for a Registrar, the number of DTLS connector threads (overrides the profile)")
+            .build();
+
+    Option maxConnectionsOpt =
+        Option.builder("c")
+            .longOpt("maxConnections")
+            .hasArg()
+            .argName("max-connections")
+            .desc("for a Registrar, the maximum number of DTLS connections (overrides the profile)")
+            .build();
+
+    Option dtlsSocketsOpt =
+        Option.builder("S")
+            .longOpt("dtlsSockets")
+            .hasArg()
+            .argName("dtls-sockets")
+            .desc("for a Registrar, the number of UDP sockets sharing the port (SO_REUSEPORT)")
+            .build();
+
+    Option handshakeRateOpt =
+        Option.builder("l")
+            .longOpt("handshakeRate")
+            .hasArg()
+            .argName("rate[,burst]")
+            .desc("for a Registrar, the DTLS handshakes started per second; 0 is unlimited")
+            .build();
+
+    Option sourceHandshakeRateOpt =
+        Option.builder("L")
+            .longOpt("sourceHandshakeRate")
+            .hasArg()
+            .argName("rate[,burst]")
+            .desc("for a Registrar, the DTLS handshakes started per second per source address")
+            .build();
+
+    Option virtualThreadsOpt =
+        Option.builder("V")
+            .longOpt("virtualThreads")
+            .desc("for a Registrar or MASA, handle requests on virtual threads (JDK 21 or later)")
+            .build();
+
     Option helpOpt =
         Option.builder("h")
             .longOpt("help")
@@ -133,6 +208,15 @@ public final class OtRegistrarMain {
         .addOption(verboseOpt)
         .addOption(masaUriOpt)
         .addOption(registrarUriOpt)
+        .addOption(sessionStoreOpt)
+        .addOption(cidNodeIdOpt)
+        .addOption(dtlsProfileOpt)
+        .addOption(dtlsThreadsOpt)
+        .addOption(maxConnectionsOpt)
+        .addOption(dtlsSocketsOpt)
+        .addOption(handshakeRateOpt)
+        .addOption(sourceHandshakeRateOpt)
+        .addOption(virtualThreadsOpt)
         .addOption(helpOpt);
 
     OtRegistrarConfig config;
@@ -181,6 +265,36 @@ public final class OtRegistrarMain {
       if (cmd.hasOption('r')) {
         config.registrarUri = cmd.getOptionValue('r');
       }
+      if (cmd.hasOption('s')) {
+        config.sessionStoreFile = cmd.getOptionValue('s');
+      }
+      if (cmd.hasOption('n')) {
+        config.connectionIdNodeId = Integer.parseInt(cmd.getOptionValue('n'));
+      }
+      if (cmd.hasOption('P')) {
+        config.dtlsProfile =
+            DtlsSettings.Profile.valueOf(cmd.getOptionValue('P').toUpperCase(Locale.ROOT));
+      }
+      if (cmd.hasOption('t')) {
+        config.dtlsConnectorThreads = Integer.parseInt(cmd.getOptionValue('t'));
+      }
+      if (cmd.hasOption('c')) {
+        config.dtlsMaxConnections = Integer.parseInt(cmd.getOptionValue('c'));
+      }
+      if (cmd.hasOption('S')) {
+        config.dtlsSockets = Integer.parseInt(cmd.getOptionValue('S'));
+      }
+      if (cmd.hasOption('l')) {
+        double[] limit = parseRateLimit(cmd.getOptionValue('l'));
+        config.handshakeRate = limit[0];
+        config.handshakeBurst = (int) limit[1];
+      }
+      if (cmd.hasOption('L')) {
+        double[] limit = parseRateLimit(cmd.getOptionValue('L'));
+        config.sourceHandshakeRate = limit[0];
+        config.sourceHandshakeBurst = (int) limit[1];
+      }
+      config.virtualThreads = cmd.hasOption('V');
 
     } catch (Exception e) {
       logger.error(e.getMessage(), e);
@@ -219,4 +333,17 @@ public final class OtRegistrarMain {
       System.exit(exitCode);
     }
   }
+
+  /**
+   * Parse a rate limit given as "rate[,burst]". Without a burst, the burst is one second's worth
+   * of the rate.
+   *
+   * @return the rate and the burst
+   */
+  private static double[] parseRateLimit(String value) {
+    String[] parts = value.split(",", 2);
+    double rate = Double.parseDouble(parts[0].trim());
+    double burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : Math.ceil(rate);
+    return new double[] {rate, burst};
+  }
 }
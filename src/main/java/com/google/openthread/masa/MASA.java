@@ -29,16 +29,19 @@
 package com.google.openthread.masa;
 
 import COSE.CoseException;
-import COSE.Message;
-import COSE.MessageTag;
-import COSE.OneKey;
-import COSE.Sign1Message;
 import com.google.openthread.BouncyCastleInitializer;
+import com.google.openthread.BrskiExchangeEvent;
+import com.google.openthread.Constants;
 import com.google.openthread.brski.ConstantsBrski;
+import com.google.openthread.CoseSign1;
 import com.google.openthread.Credentials;
+import com.google.openthread.ExchangeRecorder;
 import com.google.openthread.InsecureTrustManager;
+import com.google.openthread.LatencyHistogram;
+import com.google.openthread.Metrics;
 import com.google.openthread.RequestDumper;
 import com.google.openthread.SecurityUtils;
+import com.google.openthread.VirtualThreads;
 import com.google.openthread.brski.CBORSerializer;
 import com.google.openthread.brski.JSONSerializer;
 import com.google.openthread.brski.VoucherSerializationException;
@@ -54,6 +57,7 @@ import io.undertow.server.handlers.PathHandler;
 import io.undertow.util.HttpString;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
@@ -62,6 +66,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -90,6 +97,35 @@ public final class MASA {
   private final Credentials credentials; // MASA server credentials
   private final Credentials credentialsCa; // MASA CA credentials (for signing)
   private Undertow httpServer;
+  // in virtual-thread mode, the executor of the blocking handlers while running.
+  private boolean isVirtualThreads = false;
+  private volatile ExecutorService requestExecutor;
+
+  private final Metrics metrics = new Metrics();
+  // the recent voucher request exchanges, for troubleshooting.
+  private ExchangeRecorder exchangeRecorder =
+      new ExchangeRecorder(ExchangeRecorder.DEFAULT_CAPACITY);
+  private final LatencyHistogram voucherRequestTimes =
+      metrics.histogram(
+          "masa_voucher_request_seconds", "Time to handle a voucher request, from the full body.");
+  private final LatencyHistogram cmsRvrValidationTimes =
+      metrics.histogram(
+          "masa_rvr_validation_seconds",
+          "Time to decode and verify the signature of a Registrar voucher request.",
+          "format",
+          "cms");
+  private final LatencyHistogram coseRvrValidationTimes =
+      metrics.histogram(
+          "masa_rvr_validation_seconds",
+          "Time to decode and verify the signature of a Registrar voucher request.",
+          "format",
+          "cose");
+  private final LatencyHistogram voucherProcessingTimes =
+      metrics.histogram(
+          "masa_voucher_processing_seconds",
+          "Time to check a voucher request's certificates and contents and create the voucher.");
+  private final LatencyHistogram voucherSigningTimes =
+      metrics.histogram("masa_voucher_signing_seconds", "Time to sign a voucher.");
 
   public MASA(Credentials credentials, Credentials credentialsCa, int port) throws MASAException {
     this.credentials = credentials;
@@ -108,16 +144,73 @@ public final class MASA {
 
   public void start() {
     if (httpServer != null) {
+      if (isVirtualThreads) {
+        if (VirtualThreads.isAvailable()) {
+          requestExecutor = VirtualThreads.newExecutor("masa-request-");
+          logger.info("handling HTTP requests on virtual threads");
+        } else {
+          logger.warn("virtual threads need JDK 21 or later; handling requests on worker threads");
+        }
+      }
       httpServer.start();
+      metrics.registerMBean("com.google.openthread:type=MASA,port=" + listenPort);
+      exchangeRecorder.registerMBean(
+          "com.google.openthread:type=MASA,port=" + listenPort + ",name=ExchangeRecorder");
     }
   }
 
   public void stop() {
     if (httpServer != null) {
       httpServer.stop();
+      metrics.unregisterMBean();
+      exchangeRecorder.unregisterMBean();
+      ExecutorService executor = requestExecutor;
+      if (executor != null) {
+        requestExecutor = null;
+        executor.shutdown();
+      }
     }
   }
 
+  /**
+   * Get the MASA's metrics: latency histograms of the voucher request handling and counters, which
+   * are also served on the HTTP path /{@value Constants#METRICS_PATH} and registered as an MXBean
+   * while the MASA runs.
+   */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set whether the HTTP request handlers run on virtual threads, one per request, rather than on
+   * Undertow's worker threads. This needs JDK 21 or later; on older JDKs, the MASA logs a warning
+   * and uses the worker threads. It must be called before the MASA is started.
+   *
+   * @param isVirtualThreads true to handle requests on virtual threads, false otherwise
+   */
+  public void setVirtualThreads(boolean isVirtualThreads) {
+    this.isVirtualThreads = isVirtualThreads;
+  }
+
+  /**
+   * Set the recorder of the recent voucher request exchanges. This replaces the default recorder,
+   * which keeps the last {@value ExchangeRecorder#DEFAULT_CAPACITY} exchanges, and must be called
+   * before the MASA is started.
+   *
+   * @param recorder the exchange recorder to use
+   */
+  public void setExchangeRecorder(ExchangeRecorder recorder) {
+    this.exchangeRecorder = Objects.requireNonNull(recorder, "recorder");
+  }
+
+  /**
+   * Get the recorder of the recent voucher request exchanges, which is also registered as an
+   * MXBean while the MASA runs so that its exchanges can be dumped on demand.
+   */
+  public ExchangeRecorder getExchangeRecorder() {
+    return exchangeRecorder;
+  }
+
   /**
    * Logs every received HTTP request - including ones for unknown paths or with an unsupported
    * method - before delegating to the actual resource handlers. For interop testing.
@@ -136,10 +229,44 @@ public final class MASA {
           exchange.getRequestMethod(),
           exchange.getRequestURI(),
           exchange.getSourceAddress());
+      exchange.addExchangeCompleteListener(
+          (ex, nextListener) -> {
+            metrics
+                .counter(
+                    "masa_http_responses_total",
+                    "HTTP responses by status code.",
+                    "code",
+                    Integer.toString(ex.getStatusCode()))
+                .increment();
+            nextListener.proceed();
+          });
+      // the BlockingHandlers dispatch to this executor rather than to Undertow's workers.
+      Executor executor = requestExecutor;
+      if (executor != null) {
+        exchange.setDispatchExecutor(executor);
+      }
       next.handleRequest(exchange);
     }
   }
 
+  final class MetricsHttpHandler implements HttpHandler {
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+      if (!exchange.getRequestMethod().equals(HttpString.tryFromString("GET"))) {
+        exchange.setStatusCode(405);
+        return;
+      }
+
+      exchange.setStatusCode(200);
+      exchange
+          .getResponseHeaders()
+          .put(HttpString.tryFromString("Content-Type"), Metrics.PROMETHEUS_CONTENT_TYPE);
+      exchange
+          .getOutputStream()
+          .write(metrics.getPrometheusText().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
   final class RootResourceHttpHandler implements HttpHandler {
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
@@ -156,36 +283,85 @@ public final class MASA {
   final class VoucherRequestHttpHandler implements HttpHandler {
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
+      BrskiExchangeEvent event = new BrskiExchangeEvent("MASA");
+      event.begin();
       final byte[] body = exchange.getInputStream().readAllBytes();
+      final long timeMillis = System.currentTimeMillis();
+      final long start = System.nanoTime();
+      final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+      byte[] response = null;
+      try {
+        try {
+          response = handleVoucherRequest(exchange, body, event);
+        } finally {
+          long duration = System.nanoTime() - start;
+          voucherRequestTimes.record(duration);
+          exchangeRecorder.record(
+              new ExchangeRecorder.Entry(
+                  timeMillis,
+                  duration,
+                  exchange.getRequestURI(),
+                  exchange.getSourceAddress(),
+                  null,
+                  contentType,
+                  body,
+                  Integer.toString(exchange.getStatusCode()),
+                  exchange.getResponseHeaders().getFirst("Content-Type"),
+                  response));
+        }
+        // the voucher is sent only once the exchange is recorded, so that a client that has the
+        // voucher finds the exchange in the recorder.
+        if (response != null) {
+          exchange.getOutputStream().write(response);
+          exchange.getOutputStream().flush();
+          exchange.getOutputStream().close();
+        }
+      } finally {
+        if (event.shouldCommit()) {
+          event.setResource(exchange.getRequestURI());
+          event.setContentFormat(contentType);
+          event.setRequestSize(body.length);
+          event.setResponseSize(exchange.getResponseBytesSent());
+          event.setResult(Integer.toString(exchange.getStatusCode()));
+          event.commit();
+        }
+      }
+    }
+
+    /** Handle a voucher request, returning the voucher to send in response, if any. */
+    private byte[] handleVoucherRequest(
+        HttpServerExchange exchange, byte[] body, BrskiExchangeEvent event) throws Exception {
       RequestDumper.dump(logger, exchange.getRequestURI(), body);
 
       if (!exchange.getRequestMethod().equals(HttpString.tryFromString("POST"))) {
         exchange.setStatusCode(405);
-        return;
+        return null;
       }
 
       if (!exchange.getRequestHeaders().contains("Content-Type")) {
         exchange.setStatusCode(400);
         exchange.setReasonPhrase("Missing Content-Type header");
-        return;
+        return null;
       }
 
       final String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
       List<X509Certificate> reqCerts = new ArrayList<>();
       byte[] reqContent = null;
       VoucherRequest req = null;
-      Sign1Message sign1Msg = null;
+      CoseSign1 sign1Msg = null;
 
       switch (contentType) {
         case ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_JSON:
           try {
+            long t = System.nanoTime();
             reqContent = SecurityUtils.decodeCMSSignedMessage(body, reqCerts); // decode CMS, get embedded reqCerts back.
+            cmsRvrValidationTimes.recordSince(t);
           } catch (Exception e) {
             logger.error("CMS signed voucher request error: {}", e.getMessage());
             logger.debug("details:", e);
             exchange.setStatusCode(403);
             exchange.setReasonPhrase("CMS signing/decoding error in voucher request: " + e.getMessage());
-            return;
+            return null;
           }
           break;
 
@@ -193,10 +369,11 @@ public final class MASA {
         case ConstantsBrski.MEDIA_TYPE_COSE_SIGN1:
         case ConstantsBrski.MEDIA_TYPE_COSE:
           try {
+            long t = System.nanoTime();
             // Verify signature
-            sign1Msg = (Sign1Message) Message.DecodeFromBytes(body, MessageTag.Sign1);
+            sign1Msg = CoseSign1.decode(body);
             // look for set of x509 certificates in x5bag header parameter, per cBRSKI
-            reqCerts = SecurityUtils.getX5BagCertificates(sign1Msg);
+            reqCerts = sign1Msg.getX5BagCertificates();
             if (reqCerts == null || reqCerts.isEmpty()) {
               throw new CoseException("Registrar signing cert chain not found in X5Bag field of voucher request");
             }
@@ -208,27 +385,28 @@ public final class MASA {
               throw new CoseException(
                   "Registrar (CMC-RA) signing certificate not found in x5bag of voucher request");
             }
-            if (!sign1Msg.validate(new OneKey(rvrSignerCert.getPublicKey(), null))) {
+            if (!sign1Msg.verify(rvrSignerCert.getPublicKey())) {
               logger.debug(
                   "RVR signature validation failed against selected CMC-RA cert (subject={}):\n{}",
                   rvrSignerCert.getSubjectX500Principal(),
                   rvrSignerCert);
               throw new CoseException("COSE-sign1 voucher validation against CMC-RA cert failed");
             }
+            coseRvrValidationTimes.recordSince(t);
 
           } catch (Exception e) {
             logger.error("CBOR signed voucher request error: {}", e.getMessage());
             logger.debug("detail:", e);
             exchange.setStatusCode(403);
             exchange.setReasonPhrase("COSE signing/decoding error in voucher request: " + e.getMessage());
-            return;
+            return null;
           }
           break;
 
         default:
           exchange.setStatusCode(400);
           exchange.setReasonPhrase("Unsupported voucher request format: " + contentType);
-          return;
+          return null;
       }
 
       switch (contentType) {
@@ -239,7 +417,7 @@ public final class MASA {
             logger.error("JSON deserialization error: {}", e.getMessage(), e);
             exchange.setStatusCode(400);
             exchange.setReasonPhrase("JSON deserialization error: " + e.getMessage());
-            return;
+            return null;
           }
           break;
 
@@ -247,12 +425,12 @@ public final class MASA {
         case ConstantsBrski.MEDIA_TYPE_COSE_SIGN1:
         case ConstantsBrski.MEDIA_TYPE_COSE:
           try {
-            req = (VoucherRequest) new CBORSerializer().deserialize(sign1Msg.GetContent());
+            req = (VoucherRequest) new CBORSerializer().deserialize(sign1Msg.getPayload());
           } catch (Exception e) {
             logger.error("CBOR deserialization error: {}", e.getMessage(), e);
             exchange.setStatusCode(400);
             exchange.setReasonPhrase("CBOR deserialization error: " + e.getMessage());
-            return;
+            return null;
           }
           break;
 
@@ -260,9 +438,12 @@ public final class MASA {
           throw new MASAException("Internal MASA error");
       }
 
+      event.setPledgeSerial(req.getSerialNumber());
       Voucher voucher = new Voucher();
       voucher.setConstrained(true);
+      long t = System.nanoTime();
       final RestfulVoucherResponse resp = processVoucherRequest(req, voucher, reqCerts);
+      voucherProcessingTimes.recordSince(t);
 
       // Generate and send response
       if (resp.isSuccess()) {
@@ -272,16 +453,18 @@ public final class MASA {
             .put(HttpString.tryFromString("Content-Type"),
                 ConstantsBrski.MEDIA_TYPE_VOUCHER_COSE_CBOR);
         byte[] content = new CBORSerializer().serialize(resp.getVoucher());
+        t = System.nanoTime();
         byte[] payload =
             SecurityUtils.genCoseSign1Message(credentialsCa.getPrivateKey(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, content);
-        logger.info("returning 200 OK with Voucher: {}", Hex.toHexString(payload));
-        exchange.getOutputStream().write(payload);
-        exchange.getOutputStream().flush();
-        exchange.getOutputStream().close();
+        voucherSigningTimes.recordSince(t);
+        logger.info("returning 200 OK with Voucher [len={}]", payload.length);
+        logger.atDebug().addArgument(() -> Hex.toHexString(payload)).log("Voucher: {}");
+        return payload;
       } else {
         // send the error response and diagnostic msg.
         exchange.setStatusCode(resp.getHttpCode());
         exchange.setReasonPhrase(resp.getMessage());
+        return null;
       }
     }
   }
@@ -367,9 +550,9 @@ public final class MASA {
     }
 
     // recreate it
-    Sign1Message sign1Msg = null;
+    CoseSign1 sign1Msg = null;
     try {
-      sign1Msg = (Sign1Message) Message.DecodeFromBytes(req.getPriorSignedVoucherRequest(), MessageTag.Sign1);
+      sign1Msg = CoseSign1.decode(req.getPriorSignedVoucherRequest());
       // validate it TODO
     } catch (Exception ex) {
       final String msg = "Couldn't parse priorSignedVoucherRequest COSE.";
@@ -378,7 +561,7 @@ public final class MASA {
     }
     VoucherRequest pledgeReq;
     try {
-      pledgeReq = (VoucherRequest) new CBORSerializer().fromCBOR(CBORObject.DecodeFromBytes(sign1Msg.GetContent()));
+      pledgeReq = (VoucherRequest) new CBORSerializer().fromCBOR(CBORObject.DecodeFromBytes(sign1Msg.getPayload()));
     } catch (VoucherSerializationException ex) {
       final String msg = "invalid priorSignedVoucherRequest contents: " + ex.getMessage();
       logger.warn(msg);
@@ -453,7 +636,8 @@ public final class MASA {
         new PathHandler()
             .addExactPath("/", new BlockingHandler(new RootResourceHttpHandler()))
             .addExactPath(ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER_HTTP,
-                new BlockingHandler(new VoucherRequestHttpHandler()));
+                new BlockingHandler(new VoucherRequestHttpHandler()))
+            .addExactPath("/" + Constants.METRICS_PATH, new BlockingHandler(new MetricsHttpHandler()));
     // "::" binds to all available IPv4 and IPv6 addresses on a dual-stack JVM.
     httpServer =
         Undertow.builder()
@@ -52,6 +52,7 @@ public class MASAMain {
       Credentials caCred = new Credentials(config.keyStoreFile, CredentialsSet.MASA_CA_ALIAS, CredentialsSet.DEFAULT_PASSWORD);
 
       masa = new MASA(cred, caCred, config.serverPort);
+      masa.setVirtualThreads(config.virtualThreads);
     } catch (Exception e) {
       logger.error(e.getMessage(), e);
       return 1;
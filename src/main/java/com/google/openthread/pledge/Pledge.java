@@ -29,15 +29,15 @@
 package com.google.openthread.pledge;
 
 import COSE.CoseException;
-import COSE.Message;
-import COSE.MessageTag;
-import COSE.OneKey;
-import COSE.Sign1Message;
 import com.google.openthread.BouncyCastleInitializer;
 import com.google.openthread.Constants;
 import com.google.openthread.brski.ConstantsBrski;
+import com.google.openthread.CoseSign1;
 import com.google.openthread.Credentials;
+import com.google.openthread.DtlsSettings;
+import com.google.openthread.DtlsStatistics;
 import com.google.openthread.brski.ExtendedMediaTypeRegistry;
+import com.google.openthread.RttEstimator;
 import com.google.openthread.SecurityUtils;
 import com.google.openthread.brski.CBORSerializer;
 import com.google.openthread.brski.StatusTelemetry;
@@ -48,6 +48,7 @@ import com.google.openthread.thread.ConstantsThread;
 import com.upokecenter.cbor.CBORObject;
 import com.upokecenter.cbor.CBORType;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
@@ -63,14 +64,19 @@ import java.security.cert.CertificateException;
 import java.security.cert.PKIXParameters;
 import java.security.cert.TrustAnchor;
 import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import javax.security.auth.x500.X500Principal;
 import org.bouncycastle.asn1.ASN1InputStream;
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
@@ -89,10 +95,14 @@ import org.bouncycastle.pkcs.PKCSException;
 import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
 import org.bouncycastle.util.encoders.Base64;
 import org.eclipse.californium.core.CoapClient;
+import org.eclipse.californium.core.CoapHandler;
+import org.eclipse.californium.core.CoapObserveRelation;
 import org.eclipse.californium.core.CoapResponse;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.network.CoapEndpoint;
 import org.eclipse.californium.elements.exception.ConnectorException;
+import org.eclipse.californium.scandium.DTLSConnector;
 import org.eclipse.californium.scandium.dtls.x509.NewAdvancedCertificateVerifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -109,6 +119,23 @@ public final class Pledge extends CoapClient {
 
   private static final SecureRandom NONCE_RNG = new SecureRandom();
 
+  // lower bound of the learned RTO, as RFC 6298 recommends; lower if the initial timeout is lower.
+  private static final Duration MIN_RTO = Duration.ofSeconds(1);
+
+  // the Registrar's ECC computations take milliseconds, so a Pledge needs little extra timeout for
+  // them, unlike a Registrar waiting for a constrained Pledge.
+  private static final Duration DEFAULT_ECC_TIMEOUT = Duration.ofSeconds(1);
+
+  // sessions idle for longer are not carried over to a replacement endpoint.
+  private static final Duration SESSION_MAX_QUIET_PERIOD = Duration.ofDays(1);
+
+  /** Default number of times a request is repeated after a 5.03 Service Unavailable response. */
+  public static final int DEFAULT_MAX_BUSY_RETRIES = 3;
+
+  // a retry after a 5.03 waits its Max-Age, plus up to this fraction of it at random, so that the
+  // Pledges turned away together do not all return together.
+  private static final double BUSY_RETRY_JITTER = 0.5;
+
   static {
     BouncyCastleInitializer.init();
   }
@@ -154,8 +181,29 @@ public final class Pledge extends CoapClient {
   private KeyPair operationalKeyPair;
   private X509Certificate operationalCertificate;
 
+  // The last /crts response, revalidated on the next request for the same format. Also written
+  // by /crts notifications.
+  private volatile StoredCaCerts storedCaCerts;
+
   private CertState certState = CertState.NO_CONTACT;
 
+  // DTLS handshakes and traffic of all endpoints used, across endpoint replacements.
+  private final DtlsStatistics dtlsStatistics = new DtlsStatistics();
+  private CoapEndpoint endpoint;
+  private DTLSConnector dtlsConnector;
+  private boolean isSessionResumption = true;
+  // retransmission timers of new endpoints, and the RTT to the Registrar measured from handshakes.
+  // Congestion control is off by default: the Pledge has a single peer, for which the RTT measured
+  // in the handshakes also sets the CoAP timer. And Californium's CoCoA layer keeps a request that
+  // failed in the DTLS handshake in flight for the exchange lifetime, holding up the next request.
+  private DtlsSettings dtlsSettings =
+      new DtlsSettings().setEccTimeout(DEFAULT_ECC_TIMEOUT).setCongestionControl(false);
+  private RttEstimator rttEstimator = newRttEstimator(dtlsSettings);
+  // the learned RTO that the current endpoint uses, or null if it uses the configured timers.
+  private Duration endpointRto;
+
+  private int maxBusyRetries = DEFAULT_MAX_BUSY_RETRIES;
+
   private VoucherRequest lastPvr = null;
   private byte[] lastPvrCoseSigned = null;
   private byte[] lastVoucherCoseSigned = null;
@@ -322,13 +370,13 @@ public final class Pledge extends CoapClient {
     // 2. Receive voucher signed by MASA CA
     try {
       // 2.0 verify signature
-      Sign1Message msg = (Sign1Message) Message.DecodeFromBytes(payload, MessageTag.Sign1);
-      if (!msg.validate(new OneKey(getMASACaCertificate().getPublicKey(), null))) {
+      CoseSign1 msg = CoseSign1.decode(payload);
+      if (!msg.verify(getMASACaCertificate().getPublicKey())) {
         throw new CoseException("COSE-sign1 voucher validation against MASA CA failed");
       }
 
       // 2.1 verify the voucher
-      Voucher voucher = (Voucher) new CBORSerializer().deserialize(msg.GetContent());
+      Voucher voucher = (Voucher) new CBORSerializer().deserialize(msg.getPayload());
       if (!voucher.validate()) {
         throw new PledgeException("unexpected combination of fields in the Voucher");
       }
@@ -399,8 +447,13 @@ public final class Pledge extends CoapClient {
    * actually used, so a server that
    * answers in a different (supported) format than requested is still handled.
    *
+   * <p>The last response is kept together with its ETag. A repeated request in the same format
+   * carries that ETag, and a 2.03 Valid response then confirms the kept CA certificates without
+   * sending them again.
+   *
    * @return the CA certificates returned by the Registrar, in the order sent, which per the spec is
-   *         the CA hierarchy order starting at the issuer of the client's LDevID. Never empty.
+   *         the CA hierarchy order starting at the issuer of the client's LDevID. Never empty and
+   *         not modifiable.
    * @throws PledgeException if the request failed, or the response was empty or not parseable
    */
   public List<X509Certificate> requestCACertificates()
@@ -409,11 +462,23 @@ public final class Pledge extends CoapClient {
     logger.debug("CA certificates request: CoAP GET {}", getURI());
 
     int cf = getCaCertsAcceptContentFormat();
-    CoapResponse response = get(cf);
+    Request request = Request.newGet();
+    request.getOptions().setAccept(cf);
+    // Offer the stored response for revalidation, so an unchanged CA set costs no payload.
+    StoredCaCerts stored = storedCaCerts;
+    boolean isRevalidating = stored != null && stored.etag != null && stored.format == cf;
+    if (isRevalidating) {
+      request.getOptions().addETag(stored.etag);
+    }
+    CoapResponse response = advanced(request);
 
     if (response == null) {
       throw new PledgeException("CA certificates request failed: null response");
     }
+    if (response.getCode() == ResponseCode.VALID && isRevalidating) {
+      logger.info("CA certificates request: stored CA certificate(s) still valid");
+      return stored.certs;
+    }
     if (response.getCode() != ResponseCode.CONTENT) {
       throw new PledgeException("CA certificates request failed", response);
     }
@@ -426,19 +491,109 @@ public final class Pledge extends CoapClient {
           contentFormat);
     }
 
+    List<X509Certificate> certs = storeCaCertsResponse(response);
+    logger.info("CA certificates request: received {} CA certificate(s)", certs.size());
+    return certs;
+  }
+
+  /**
+   * Parse a /crts response and keep it, with its ETag, for revalidation by a next request.
+   *
+   * @return the CA certificates in the response, not modifiable
+   */
+  private List<X509Certificate> storeCaCertsResponse(CoapResponse response)
+      throws PledgeException {
     byte[] payload = response.getPayload();
     if (payload == null || payload.length == 0) {
       throw new PledgeException("CA certificates request: unexpected empty payload");
     }
 
+    int contentFormat = response.getOptions().getContentFormat();
     List<X509Certificate> certs = parseCACertificates(payload, contentFormat);
     if (certs.isEmpty()) {
       throw new PledgeException("CA certificates request: response contained no CA certificate");
     }
-    logger.info("CA certificates request: received {} CA certificate(s)", certs.size());
+    certs = Collections.unmodifiableList(certs);
+    List<byte[]> etags = response.getOptions().getETags();
+    storedCaCerts =
+        new StoredCaCerts(contentFormat, etags.size() == 1 ? etags.get(0) : null, certs);
     return certs;
   }
 
+  private static final class StoredCaCerts {
+
+    private final int format;
+    private final byte[] etag;
+    private final List<X509Certificate> certs;
+
+    private StoredCaCerts(int format, byte[] etag, List<X509Certificate> certs) {
+      this.format = format;
+      this.etag = etag;
+      this.certs = certs;
+    }
+  }
+
+  /**
+   * Observe the Registrar's CA certificates (/crts) per RFC 7641, instead of polling them with
+   * {@link #requestCACertificates()}. The listener is called with the current CA certificates
+   * once, and again each time the Registrar's domain CA changes. Each notification also replaces
+   * the stored response used by {@link #requestCACertificates()}.
+   *
+   * <p>The observation ends when the returned relation is canceled, or when the Pledge's endpoint
+   * is replaced, e.g. by {@link #reset()} or {@link #reenroll()}.
+   *
+   * @param listener called with the CA certificates of each notification, in the order sent
+   * @return the observe relation
+   * @throws PledgeException if the Registrar did not accept the observation, or the first
+   *     response could not be used
+   */
+  public CoapObserveRelation observeCACertificates(Consumer<List<X509Certificate>> listener)
+      throws PledgeException, ConnectorException, IOException {
+    Objects.requireNonNull(listener, "listener");
+    setURI(getESTPath() + "/" + ConstantsBrski.CA_CERTIFICATES);
+    logger.debug("CA certificates observe request: CoAP GET {}", getURI());
+
+    Request request = Request.newGet();
+    request.getOptions().setAccept(getCaCertsAcceptContentFormat());
+    request.setObserve();
+
+    CoapObserveRelation relation =
+        observeAndWait(
+            request,
+            new CoapHandler() {
+              @Override
+              public void onLoad(CoapResponse response) {
+                if (response.getCode() != ResponseCode.CONTENT) {
+                  logger.warn("CA certificates notification: {}", response.getCode());
+                  return;
+                }
+                try {
+                  listener.accept(storeCaCertsResponse(response));
+                } catch (PledgeException e) {
+                  logger.warn("CA certificates notification: {}", e.getMessage());
+                }
+              }
+
+              @Override
+              public void onError() {
+                logger.warn("CA certificates observation failed");
+              }
+            });
+
+    CoapResponse response = relation.getCurrent();
+    if (response == null) {
+      relation.proactiveCancel();
+      throw new PledgeException("CA certificates observe request failed: null response");
+    }
+    if (response.getCode() != ResponseCode.CONTENT) {
+      throw new PledgeException("CA certificates observe request failed", response);
+    }
+    if (relation.isCanceled()) {
+      throw new PledgeException("CA certificates observe request: /crts is not observable");
+    }
+    return relation;
+  }
+
   /**
    * Parse the payload of a /crts response into the CA certificates it carries.
    *
@@ -590,6 +745,80 @@ public final class Pledge extends CoapClient {
 
     logger.info("operational certificate (PEM): \n{}", SecurityUtils.toPEMFormat(operationalCertificate));
     logger.info("operational private key (PEM): \n{}", SecurityUtils.toPEMFormat(operationalKeyPair));
+    logger.info("DTLS statistics after enrollment: {}, RTT: {}", dtlsStatistics, rttEstimator);
+  }
+
+  /**
+   * The EST server-side key generation process (/skg), for Pledges that cannot generate a key pair
+   * themselves. The CSR is signed with the IDevID key; the Registrar returns a newly generated
+   * operational key pair's private key together with the LDevID certificate for it.
+   *
+   * @throws Exception
+   */
+  public void enrollWithServerKeyGeneration() throws Exception {
+    if (certState != CertState.ACCEPT) {
+      throw new IllegalStateException("should successfully get voucher first");
+    }
+
+    String subjectName = this.getIdevidCertificate().getSubjectX500Principal().toString();
+    PKCS10CertificationRequest csr =
+        genCertificateRequest(
+            subjectName,
+            getIdevidCertificate().getPublicKey(),
+            SecurityUtils.SIGNATURE_ALGORITHM,
+            privateKey);
+
+    CoapResponse response = sendCSR(csr, ConstantsBrski.SERVER_KEYGEN);
+    if (response == null) {
+      throw new PledgeException("server-side key generation request failed: null response");
+    }
+    if (response.getCode() != ResponseCode.CHANGED) {
+      throw new PledgeException("server-side key generation request failed", response);
+    }
+    if (response.getOptions().getContentFormat()
+        != ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE) {
+      throw new PledgeException(
+          String.format(
+              "expect server-side key generation response in format[%d], but got [%d]",
+              ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE,
+              response.getOptions().getContentFormat()));
+    }
+
+    KeyPair keyPair = null;
+    X509Certificate cert = null;
+    try {
+      // RFC 9148 section 5: [ 284, h'<pkcs8 key>', 287, h'<pkix-cert>' ]
+      CBORObject container = CBORObject.DecodeFromBytes(response.getPayload());
+      if (container.getType() != CBORType.Array
+          || container.size() != 4
+          || container.get(0).AsInt32() != ExtendedMediaTypeRegistry.APPLICATION_PKCS8
+          || container.get(2).AsInt32() != ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT) {
+        throw new PledgeException("server-side key generation response is not [pkcs8, pkix-cert]");
+      }
+      PrivateKey key =
+          KeyFactory.getInstance(SecurityUtils.KEY_ALGORITHM)
+              .generatePrivate(new PKCS8EncodedKeySpec(container.get(1).GetByteString()));
+      cert = toCertificate(container.get(3).GetByteString());
+      keyPair = new KeyPair(cert.getPublicKey(), key);
+    } catch (PledgeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new PledgeException(
+          "could not parse server-side key generation response: " + e.getMessage(), e);
+    }
+
+    // The certificate must be for the key pair we got.
+    genCertificateRequest(
+        subjectName, keyPair.getPublic(), SecurityUtils.SIGNATURE_ALGORITHM, keyPair.getPrivate());
+
+    acceptEnrolledCertificate(cert);
+
+    logger.info(
+        "enrolled with server-generated key, operational certificate subject: {}",
+        cert.getSubjectX500Principal().getName());
+
+    operationalKeyPair = keyPair;
+    operationalCertificate = cert;
   }
 
   /**
@@ -664,11 +893,24 @@ public final class Pledge extends CoapClient {
   }
 
   /**
-   * The EST simpleReenrollment.
+   * The EST simpleReenrollment, renewing the operational certificate for the current operational
+   * key pair.
    *
    * @throws Exception
    */
   public void reenroll() throws Exception {
+    reenroll(operationalKeyPair);
+  }
+
+  /**
+   * The EST simpleReenrollment, renewing the operational certificate for a new operational key
+   * pair. The current key pair and certificate stay in use until the new certificate is received
+   * and verified; if reenrollment fails, they are kept.
+   *
+   * @param newKeyPair the key pair to certify, which may also be the current one
+   * @throws Exception
+   */
+  public void reenroll(KeyPair newKeyPair) throws Exception {
     if (certState != CertState.ACCEPT) {
       throw new IllegalStateException("should successfully get voucher first");
     }
@@ -676,18 +918,18 @@ public final class Pledge extends CoapClient {
     if (operationalCertificate == null || domainPublicKey == null) {
       throw new IllegalStateException("should enroll first");
     }
+    Objects.requireNonNull(newKeyPair, "newKeyPair");
 
-    // Reset the endpoint, so the pledge will rehandshake
-    initEndpoint(privateKey, certificateChain, certVerifier);
+    rehandshake();
 
     // generate CSR
     String subjectName = getOperationalCert().getSubjectX500Principal().toString();
     PKCS10CertificationRequest csr =
         genCertificateRequest(
             subjectName,
-            operationalKeyPair.getPublic(),
+            newKeyPair.getPublic(),
             SecurityUtils.SIGNATURE_ALGORITHM,
-            operationalKeyPair.getPrivate());
+            newKeyPair.getPrivate());
 
     X509Certificate cert = requestSigning(csr, ConstantsBrski.SIMPLE_REENROLL);
     if (cert == null) {
@@ -695,11 +937,16 @@ public final class Pledge extends CoapClient {
     }
 
     cert.verify(domainPublicKey);
+    if (!cert.getPublicKey().equals(newKeyPair.getPublic())) {
+      throw new PledgeException("renewed certificate is not for the requested key");
+    }
 
     subjectName = cert.getSubjectX500Principal().getName();
     logger.info("renewed operational certificate, subject: " + subjectName);
 
+    operationalKeyPair = newKeyPair;
     operationalCertificate = cert;
+    logger.info("DTLS statistics after reenrollment: {}, RTT: {}", dtlsStatistics, rttEstimator);
   }
 
   public CoapResponse sayHello() throws IOException, ConnectorException {
@@ -712,6 +959,99 @@ public final class Pledge extends CoapClient {
     return get();
   }
 
+  /**
+   * Send a GET request to the current URI. A 5.03 Service Unavailable response is retried as
+   * described in {@link #setMaxBusyRetries(int)}.
+   */
+  @Override
+  public CoapResponse get() throws ConnectorException, IOException {
+    return sendRetryingWhileBusy(attempt -> super.get());
+  }
+
+  /**
+   * Send a POST request to the current URI. A 5.03 Service Unavailable response is retried as
+   * described in {@link #setMaxBusyRetries(int)}.
+   */
+  @Override
+  public CoapResponse post(byte[] payload, int format) throws ConnectorException, IOException {
+    return sendRetryingWhileBusy(attempt -> super.post(payload, format));
+  }
+
+  /**
+   * Send the given request. A 5.03 Service Unavailable response is retried, with a copy of the
+   * request, as described in {@link #setMaxBusyRetries(int)}.
+   */
+  @Override
+  public CoapResponse advanced(Request request) throws ConnectorException, IOException {
+    return sendRetryingWhileBusy(
+        attempt -> super.advanced(attempt == 0 ? request : copyRequest(request)));
+  }
+
+  private interface RequestSender {
+    CoapResponse send(int attempt) throws ConnectorException, IOException;
+  }
+
+  private CoapResponse sendRetryingWhileBusy(RequestSender sender)
+      throws ConnectorException, IOException {
+    for (int attempt = 0; ; attempt++) {
+      CoapResponse response = sender.send(attempt);
+      if (response == null
+          || response.getCode() != ResponseCode.SERVICE_UNAVAILABLE
+          || !response.getOptions().hasMaxAge()
+          || attempt >= maxBusyRetries) {
+        return response;
+      }
+      long delayMillis =
+          (long)
+              (response.getOptions().getMaxAge()
+                  * 1000
+                  * (1 + ThreadLocalRandom.current().nextDouble(BUSY_RETRY_JITTER)));
+      logger.info("Registrar busy, retrying in {} ms", delayMillis);
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return response;
+      }
+    }
+  }
+
+  // a sent request cannot be sent again; the copy gets its destination from the client's URI.
+  private static Request copyRequest(Request request) {
+    Request copy = new Request(request.getCode());
+    copy.setOptions(request.getOptions());
+    copy.setPayload(request.getPayload());
+    return copy;
+  }
+
+  /**
+   * Set how often a request is repeated after the Registrar answers it with 5.03 Service
+   * Unavailable and a Max-Age option, i.e. when the Registrar is too busy to take the request now.
+   * Each retry waits the Max-Age seconds plus a random jitter of up to half of it. The last 5.03
+   * response is returned when the retries are exhausted. Zero disables retrying.
+   */
+  public void setMaxBusyRetries(int maxBusyRetries) {
+    if (maxBusyRetries < 0) {
+      throw new IllegalArgumentException("max busy retries must not be negative");
+    }
+    this.maxBusyRetries = maxBusyRetries;
+  }
+
+  public int getMaxBusyRetries() {
+    return maxBusyRetries;
+  }
+
+  /** Shut down the client and destroy its endpoint, releasing the endpoint's threads and socket. */
+  @Override
+  public void shutdown() {
+    super.shutdown();
+    if (endpoint != null) {
+      endpoint.destroy();
+      endpoint = null;
+      dtlsConnector = null;
+    }
+  }
+
   public void reset() throws PledgeException {
     shutdown();
     init(credentials, hostURI, this.isLightweightClientCerts);
@@ -804,6 +1144,7 @@ public final class Pledge extends CoapClient {
     caCertificates = new ArrayList<>();
     operationalKeyPair = null;
     operationalCertificate = null;
+    storedCaCerts = null;
     certState = CertState.NO_CONTACT;
 
     X509Certificate[] clientCertChain = this.certificateChain;
@@ -877,13 +1218,45 @@ public final class Pledge extends CoapClient {
     return csr;
   }
 
+  /**
+   * Make the next request start a new DTLS handshake with the Registrar. With session resumption,
+   * this is an abbreviated handshake on the current session: the Registrar's certificate path of
+   * that session was already validated against the domain CA when the voucher was accepted, so
+   * the resumed session is fully trusted without a new certificate exchange. Otherwise the
+   * endpoint is replaced, which costs a full handshake. Either way, the handshake uses the RTO
+   * measured in the previous handshakes as its initial retransmission timeout.
+   */
+  private void rehandshake() {
+    if (isSessionResumption && dtlsConnector != null) {
+      if (isRtoChanged()) {
+        replaceEndpointKeepingSessions();
+      }
+      dtlsConnector.forceResumeAllSessions();
+      setDestinationContext(null);
+    } else {
+      initEndpoint(privateKey, certificateChain, certVerifier);
+    }
+  }
+
   private void initEndpoint(
       PrivateKey privateKey,
       X509Certificate[] certificateChain,
       NewAdvancedCertificateVerifier verifier) {
-    CoapEndpoint endpoint =
+    if (endpoint != null) {
+      endpoint.destroy();
+    }
+    endpointRto = rttEstimator.getSampleCount() > 0 ? rttEstimator.getRto() : null;
+    endpoint =
         SecurityUtils.genCoapClientEndPoint(
-            new X509Certificate[]{}, privateKey, certificateChain, verifier, false);
+            new X509Certificate[]{},
+            privateKey,
+            certificateChain,
+            verifier,
+            false,
+            dtlsStatistics,
+            rttEstimator,
+            dtlsSettings);
+    dtlsConnector = (DTLSConnector) endpoint.getConnector();
     setEndpoint(endpoint);
     // Californium's CoapClient pins the destination EndpointContext from the previous response
     // to keep follow-up requests on the same DTLS session. When we swap the endpoint (e.g. for
@@ -893,6 +1266,47 @@ public final class Pledge extends CoapClient {
     setDestinationContext(null);
   }
 
+  /**
+   * Whether the RTO measured so far differs by more than a quarter from the one the current
+   * endpoint was created with. Smaller changes are not worth replacing the endpoint for.
+   */
+  private boolean isRtoChanged() {
+    if (rttEstimator.getSampleCount() == 0) {
+      return false;
+    }
+    if (endpointRto == null) {
+      return true;
+    }
+    long rto = rttEstimator.getRto().toMillis();
+    return Math.abs(rto - endpointRto.toMillis()) * 4 > endpointRto.toMillis();
+  }
+
+  /**
+   * Replace the endpoint by one with the current RTO, carrying over its DTLS sessions so that they
+   * can still be resumed. Scandium fixes the retransmission timeout per connector.
+   */
+  private void replaceEndpointKeepingSessions() {
+    endpoint.stop();
+    ByteArrayOutputStream sessions = new ByteArrayOutputStream();
+    try {
+      dtlsConnector.saveConnections(sessions, SESSION_MAX_QUIET_PERIOD.getSeconds());
+    } catch (IOException e) {
+      logger.warn("could not carry over DTLS sessions: {}", e.getMessage(), e);
+    }
+    initEndpoint(privateKey, certificateChain, certVerifier);
+    try {
+      dtlsConnector.loadConnections(new ByteArrayInputStream(sessions.toByteArray()), 0);
+    } catch (IOException e) {
+      logger.warn("could not carry over DTLS sessions: {}", e.getMessage(), e);
+    }
+  }
+
+  private static RttEstimator newRttEstimator(DtlsSettings settings) {
+    Duration initial = settings.getRetransmissionTimeout();
+    Duration min = initial.compareTo(MIN_RTO) < 0 ? initial : MIN_RTO;
+    return new RttEstimator(initial, min, settings.getMaxRetransmissionTimeout());
+  }
+
   // We need a provisional DTLS session before requesting
   // voucher since we need registrar certificate. But there
   // is no 'connect' API to build this session ahead. We
@@ -937,6 +1351,47 @@ public final class Pledge extends CoapClient {
     return hostURI + ConstantsBrski.BRSKI_PATH;
   }
 
+  /**
+   * Set whether a reenrollment resumes the current DTLS session with an abbreviated handshake
+   * (true, default), or starts over on a new endpoint with a full handshake (false).
+   */
+  public void setSessionResumption(boolean isSessionResumption) {
+    this.isSessionResumption = isSessionResumption;
+  }
+
+  public boolean isSessionResumption() {
+    return isSessionResumption;
+  }
+
+  /**
+   * Set the retransmission timers of the Pledge's DTLS and CoAP layers. Applies to endpoints
+   * created afterwards, e.g. after {@link #reset()}, and restarts the RTT measurement.
+   */
+  public void setDtlsSettings(DtlsSettings settings) {
+    this.dtlsSettings = Objects.requireNonNull(settings, "settings");
+    this.rttEstimator = newRttEstimator(settings);
+  }
+
+  public DtlsSettings getDtlsSettings() {
+    return dtlsSettings;
+  }
+
+  /**
+   * Get the RTT estimate to the Registrar, measured from the DTLS handshake flights. Its RTO is the
+   * initial retransmission timeout of later handshakes.
+   */
+  public RttEstimator getRttEstimator() {
+    return rttEstimator;
+  }
+
+  /**
+   * Get the counters of DTLS handshakes and traffic of this Pledge, over all its endpoints so far.
+   * Comparing them between onboardings shows what session resumption saves.
+   */
+  public DtlsStatistics getDtlsStatistics() {
+    return dtlsStatistics;
+  }
+
   public int getCsrContentFormat() {
     return csrContentFormat;
   }
@@ -69,6 +69,7 @@ public class PledgeMain {
         "rv       -  request voucher to Registrar (cBRSKI)\n"
             + "enroll   -  simple enrollment with Registrar (EST-coaps)\n"
             + "reenroll -  simple reenrollment with Registrar (EST-coaps)\n"
+            + "skg      -  enrollment with server-side key generation (EST-coaps)\n"
             + "cacerts  -  request CA certificates from Registrar (EST-coaps)\n"
             + "reset    -  reset Pledge to initial state\n"
             + "exit     -  exit pledge CLI\n"
@@ -90,6 +91,9 @@ public class PledgeMain {
             case "reenroll":
               pledge.reenroll();
               break;
+            case "skg":
+              pledge.enrollWithServerKeyGeneration();
+              break;
             case "cacerts":
               printCaCertificates(pledge.requestCACertificates());
               break;
@@ -0,0 +1,269 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.pledge;
+
+import com.google.openthread.SecurityUtils;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Proactively renews a Pledge's operational certificate (LDevID) before it expires.
+ *
+ * <p>Reenrollment starts at a random point in a window of the certificate's lifetime: from the
+ * renewal fraction to the renewal fraction plus the jitter fraction. LDevIDs issued at the same
+ * time, e.g. during one commissioning wave, are then renewed spread over that window instead of
+ * all at once. A failed reenrollment is retried with exponential backoff, also jittered.
+ *
+ * <p>The key pair for the renewed certificate is generated in the background ahead of time. The
+ * Pledge keeps using its current key pair and certificate until reenrollment succeeds.
+ *
+ * <p>The scheduler calls {@link Pledge#reenroll(KeyPair)} from its own thread. The Pledge should
+ * not be used for other requests at the same time.
+ */
+public final class ReenrollmentScheduler {
+
+  public static final double DEFAULT_RENEWAL_FRACTION = 0.5;
+  public static final double DEFAULT_JITTER_FRACTION = 0.2;
+  public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMinutes(1);
+  public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofHours(6);
+
+  /** Receives the outcome of each scheduled reenrollment. */
+  public interface Listener {
+
+    void onRenewed(X509Certificate cert);
+
+    void onFailed(Exception e, Duration retryDelay);
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(ReenrollmentScheduler.class);
+
+  private final Pledge pledge;
+  private final double renewalFraction;
+  private final double jitterFraction;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Random random = new Random();
+
+  private ScheduledExecutorService executor;
+  private ScheduledFuture<?> pending;
+  // the key pair for the next renewal, generated ahead of time; accessed on the executor only.
+  private KeyPair nextKeyPair;
+  private int failures;
+  private volatile Listener listener;
+
+  public ReenrollmentScheduler(Pledge pledge) {
+    this(
+        pledge,
+        DEFAULT_RENEWAL_FRACTION,
+        DEFAULT_JITTER_FRACTION,
+        DEFAULT_INITIAL_BACKOFF,
+        DEFAULT_MAX_BACKOFF);
+  }
+
+  /**
+   * @param pledge the enrolled Pledge whose operational certificate gets renewed
+   * @param renewalFraction the fraction of the certificate lifetime after which renewal may start
+   * @param jitterFraction the fraction of the certificate lifetime over which renewal is spread
+   * @param initialBackoff the delay before the first retry of a failed reenrollment
+   * @param maxBackoff the maximum delay between retries
+   */
+  public ReenrollmentScheduler(
+      Pledge pledge,
+      double renewalFraction,
+      double jitterFraction,
+      Duration initialBackoff,
+      Duration maxBackoff) {
+    if (!(renewalFraction >= 0.0 && jitterFraction >= 0.0 && renewalFraction + jitterFraction < 1.0)) {
+      throw new IllegalArgumentException(
+          "renewal and jitter fractions must be non-negative, with a sum below 1.0");
+    }
+    if (initialBackoff.isNegative() || initialBackoff.isZero()
+        || maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("backoff must be positive, with max >= initial");
+    }
+    this.pledge = Objects.requireNonNull(pledge, "pledge");
+    this.renewalFraction = renewalFraction;
+    this.jitterFraction = jitterFraction;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  public void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Start scheduling renewals of the Pledge's current operational certificate.
+   *
+   * @throws IllegalStateException if the Pledge is not enrolled
+   */
+  public synchronized void start() {
+    X509Certificate cert = pledge.getOperationalCert();
+    if (cert == null) {
+      throw new IllegalStateException("should enroll first");
+    }
+    if (executor != null) {
+      return;
+    }
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "pledge-reenrollment");
+              t.setDaemon(true);
+              return t;
+            });
+    failures = 0;
+    scheduleRenewal(cert);
+  }
+
+  /** Stop scheduling renewals. A reenrollment that is in progress is interrupted. */
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+      pending = null;
+    }
+  }
+
+  /** @return the time until the next scheduled reenrollment attempt, or null if none */
+  public synchronized Duration getDelayToNextAttempt() {
+    if (pending == null) {
+      return null;
+    }
+    return Duration.ofMillis(Math.max(0, pending.getDelay(TimeUnit.MILLISECONDS)));
+  }
+
+  private synchronized void scheduleRenewal(X509Certificate cert) {
+    if (executor == null) {
+      return;
+    }
+    Duration delay =
+        computeRenewalDelay(
+            cert.getNotBefore().toInstant(),
+            cert.getNotAfter().toInstant(),
+            Instant.now(),
+            renewalFraction,
+            jitterFraction,
+            random);
+    logger.info("scheduling reenrollment in {}", delay);
+    // generate the next key pair now, well before it is needed.
+    executor.execute(this::generateNextKeyPair);
+    pending = executor.schedule(this::renew, delay.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void scheduleRetry(Duration delay) {
+    if (executor == null) {
+      return;
+    }
+    pending = executor.schedule(this::renew, delay.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void generateNextKeyPair() {
+    try {
+      nextKeyPair = SecurityUtils.genKeyPair();
+    } catch (Exception e) {
+      // retried when the renewal runs.
+      logger.warn("could not generate key pair for reenrollment: {}", e.getMessage());
+    }
+  }
+
+  private void renew() {
+    try {
+      if (nextKeyPair == null) {
+        nextKeyPair = SecurityUtils.genKeyPair();
+      }
+      // on failure, the same key pair is used again for the retry.
+      pledge.reenroll(nextKeyPair);
+      nextKeyPair = null;
+      failures = 0;
+
+      X509Certificate cert = pledge.getOperationalCert();
+      Listener l = listener;
+      if (l != null) {
+        l.onRenewed(cert);
+      }
+      scheduleRenewal(cert);
+    } catch (Exception e) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      failures++;
+      Duration delay = computeBackoff(failures, initialBackoff, maxBackoff, random);
+      logger.warn(
+          "reenrollment failed (attempt {}), retrying in {}: {}", failures, delay, e.getMessage());
+      Listener l = listener;
+      if (l != null) {
+        l.onFailed(e, delay);
+      }
+      scheduleRetry(delay);
+    }
+  }
+
+  /**
+   * Compute the delay until renewal of a certificate valid from notBefore to notAfter: a uniformly
+   * random point in the window [renewalFraction, renewalFraction + jitterFraction] of the
+   * certificate lifetime. A renewal time in the past gives a zero delay.
+   */
+  static Duration computeRenewalDelay(
+      Instant notBefore,
+      Instant notAfter,
+      Instant now,
+      double renewalFraction,
+      double jitterFraction,
+      Random random) {
+    long lifetime = notAfter.toEpochMilli() - notBefore.toEpochMilli();
+    double fraction = renewalFraction + jitterFraction * random.nextDouble();
+    long renewAt = notBefore.toEpochMilli() + (long) (lifetime * fraction);
+    return Duration.ofMillis(Math.max(0, renewAt - now.toEpochMilli()));
+  }
+
+  /**
+   * Compute the delay before retry number 'failures' (1 for the first retry). The backoff doubles
+   * with each failure up to maxBackoff; the delay is a random point in its upper half, so that
+   * retries of many Pledges spread out but never collapse to immediate retries.
+   */
+  static Duration computeBackoff(
+      int failures, Duration initialBackoff, Duration maxBackoff, Random random) {
+    double backoff =
+        Math.min(
+            maxBackoff.toMillis(),
+            initialBackoff.toMillis() * Math.pow(2, Math.max(0, failures - 1)));
+    return Duration.ofMillis((long) (backoff / 2 + random.nextDouble() * backoff / 2));
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the voucher requests that the Registrar has outstanding at MASAs, in total and per MASA.
+ * Without a limit, a slow MASA holds on to every voucher request the Registrar accepts, until its
+ * threads and memory run out; with it, further voucher requests are turned away at once and their
+ * Pledges told when to retry.
+ */
+final class AdmissionLimiter {
+
+  // assumed round-trip time to a MASA, until one is measured.
+  private static final Duration INITIAL_MEAN = Duration.ofSeconds(1);
+
+  private static final class Key {
+    int inFlight;
+    final DrainEstimator drain = new DrainEstimator(INITIAL_MEAN);
+  }
+
+  private final int limit;
+  private final int perKeyLimit;
+  private final DrainEstimator drain = new DrainEstimator(INITIAL_MEAN);
+  // the MASAs seen, with their service times; as few as the MASA URIs labeling the metrics.
+  private final Map<String, Key> keys = new HashMap<>();
+  private final AtomicLong rejected = new AtomicLong();
+  private int inFlight;
+
+  /**
+   * @param limit the maximum number of requests in flight in total
+   * @param perKeyLimit the maximum number of requests in flight to one MASA
+   */
+  AdmissionLimiter(int limit, int perKeyLimit) {
+    if (limit < 1 || perKeyLimit < 1) {
+      throw new IllegalArgumentException("limits must be at least 1");
+    }
+    this.limit = limit;
+    this.perKeyLimit = perKeyLimit;
+  }
+
+  /**
+   * Admit a request to a MASA, if both limits allow. An admitted request must be {@link
+   * #release(String, long) released} when done.
+   *
+   * @param key the MASA URI
+   * @return true if admitted, false if a limit is reached
+   */
+  synchronized boolean tryAcquire(String key) {
+    Key k = keys.get(key);
+    if (inFlight >= limit || (k != null && k.inFlight >= perKeyLimit)) {
+      rejected.incrementAndGet();
+      return false;
+    }
+    if (k == null) {
+      k = new Key();
+      keys.put(key, k);
+    }
+    k.inFlight++;
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Release an admitted request.
+   *
+   * @param key the MASA URI
+   * @param nanos how long the request was in flight
+   */
+  synchronized void release(String key, long nanos) {
+    Key k = keys.get(key);
+    if (k == null || k.inFlight == 0) {
+      throw new IllegalStateException("not acquired: " + key);
+    }
+    drain.record(nanos);
+    k.drain.record(nanos);
+    inFlight--;
+    k.inFlight--;
+  }
+
+  /**
+   * Get the time after which a request to the MASA turned away now may be admitted, in seconds.
+   *
+   * @param key the MASA URI
+   */
+  synchronized int getRetryAfterSeconds(String key) {
+    Key k = keys.get(key);
+    if (k != null && k.inFlight >= perKeyLimit) {
+      return k.drain.secondsToDrain(0, perKeyLimit);
+    }
+    return drain.secondsToDrain(0, limit);
+  }
+
+  int getLimit() {
+    return limit;
+  }
+
+  int getPerKeyLimit() {
+    return perKeyLimit;
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /** @return the number of requests turned away because a limit was reached */
+  long getRejectedCount() {
+    return rejected.get();
+  }
+}
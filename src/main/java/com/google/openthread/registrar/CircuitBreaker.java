@@ -0,0 +1,127 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A circuit breaker of one MASA endpoint. After a number of failed requests in a row it opens, and
+ * requests to the endpoint fail fast instead of each waiting out the timeouts. Once the open
+ * duration has passed, it lets a single probe request through: if that succeeds, it closes again,
+ * otherwise it stays open for another period.
+ */
+final class CircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final AtomicLong openedCount = new AtomicLong();
+  private State state = State.CLOSED;
+  private int failures;
+  private long openUntilNanos;
+  private boolean isProbing;
+
+  /**
+   * @param failureThreshold the number of failures in a row that opens the circuit
+   * @param openDuration how long the circuit stays open before a probe request is let through
+   */
+  CircuitBreaker(int failureThreshold, Duration openDuration) {
+    if (failureThreshold < 1 || openDuration.isNegative() || openDuration.isZero()) {
+      throw new IllegalArgumentException("failure threshold and open duration must be positive");
+    }
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Ask to send a request. A request that is let through must be followed by {@link
+   * #onSuccess()} or {@link #onFailure(long)}.
+   *
+   * @return true if the request may be sent, false if it is to fail fast
+   */
+  synchronized boolean tryAcquire(long nowNanos) {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (nowNanos - openUntilNanos < 0) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        isProbing = true;
+        return true;
+      default:
+        if (isProbing) {
+          return false;
+        }
+        isProbing = true;
+        return true;
+    }
+  }
+
+  /** Record a request that reached the endpoint. */
+  synchronized void onSuccess() {
+    state = State.CLOSED;
+    failures = 0;
+    isProbing = false;
+  }
+
+  /** Record a request that failed or timed out. */
+  synchronized void onFailure(long nowNanos) {
+    isProbing = false;
+    if (state == State.HALF_OPEN || (state == State.CLOSED && ++failures >= failureThreshold)) {
+      state = State.OPEN;
+      openUntilNanos = nowNanos + openNanos;
+      openedCount.incrementAndGet();
+    }
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  /** Get the time until a probe request will be let through, or zero if requests may be sent. */
+  synchronized long getRetryAfterNanos(long nowNanos) {
+    if (state != State.OPEN) {
+      return 0;
+    }
+    return Math.max(0, openUntilNanos - nowNanos);
+  }
+
+  /** @return the number of times the circuit opened */
+  long getOpenedCount() {
+    return openedCount.get();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.time.Duration;
+
+/**
+ * Estimates how long a backlog of requests takes to drain, from a moving average of the recent
+ * requests' service times and the number of requests served at the same time. The Registrar tells
+ * a client it turns away to retry after this time, in the Max-Age option of a 5.03 response, so
+ * that retries arrive about when there is room for them.
+ */
+final class DrainEstimator {
+
+  static final int MIN_SECONDS = 1;
+  static final int MAX_SECONDS = 60;
+
+  // weight of a new sample in the moving average.
+  private static final double ALPHA = 0.2;
+
+  private double meanNanos;
+
+  /**
+   * @param initialMean the service time assumed until one is measured
+   */
+  DrainEstimator(Duration initialMean) {
+    this.meanNanos = initialMean.toNanos();
+  }
+
+  /** Record the service time of a request. */
+  synchronized void record(long nanos) {
+    meanNanos += ALPHA * (Math.max(0, nanos) - meanNanos);
+  }
+
+  synchronized Duration getMeanServiceTime() {
+    return Duration.ofNanos((long) meanNanos);
+  }
+
+  /**
+   * Get the time until a request that arrives now can be served, rounded up to whole seconds and
+   * bounded to [{@value #MIN_SECONDS}, {@value #MAX_SECONDS}].
+   *
+   * @param backlog the number of requests waiting before it
+   * @param parallelism the number of requests served at the same time
+   */
+  synchronized int secondsToDrain(int backlog, int parallelism) {
+    double seconds = (backlog + 1) * meanNanos / Math.max(1, parallelism) / 1e9;
+    return (int) Math.max(MIN_SECONDS, Math.min(MAX_SECONDS, Math.ceil(seconds)));
+  }
+}
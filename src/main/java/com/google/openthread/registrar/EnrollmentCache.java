@@ -0,0 +1,223 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.domainca.DomainCAException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of recently issued LDevID certificates, keyed by a hash of the requesting identity and the
+ * CSR. A Pledge that did not receive the EST response on a lossy link resends the same PKCS#10; for
+ * such a retransmission, within the configured window, the certificate already issued is returned
+ * instead of signing a new one with a new serial number. Concurrent requests for the same key wait
+ * for the single issuance in progress.
+ */
+final class EnrollmentCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(EnrollmentCache.class);
+
+  /** Something that issues a certificate, on a cache miss. */
+  interface Issuer {
+    X509Certificate issue() throws Exception;
+  }
+
+  static final Duration DEFAULT_WINDOW = Duration.ofMinutes(2);
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private final int capacity;
+  private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+  // an expired key issued again is queued twice; the stale entry no longer matches the map.
+  private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+  private volatile long windowNanos;
+
+  EnrollmentCache(Duration window, int capacity) {
+    setWindow(window);
+    this.capacity = capacity;
+  }
+
+  /**
+   * Set the time window in which a repeated CSR is answered from the cache.
+   *
+   * @param window the window, counted from issuance; zero disables the cache
+   */
+  void setWindow(Duration window) {
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("window must not be negative");
+    }
+    this.windowNanos = window.toNanos();
+  }
+
+  Duration getWindow() {
+    return Duration.ofNanos(windowNanos);
+  }
+
+  /** @return number of cached entries, including issuances in progress. */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Get the certificate issued earlier for the same identity and CSR within the window, or else
+   * issue a new one.
+   *
+   * @param identity encoded identity of the requester, e.g. its DTLS client certificate
+   * @param csr      the DER-encoded PKCS#10 request
+   * @param issuer   issues the certificate on a cache miss
+   * @return the issued certificate
+   * @throws DomainCAException if issuing failed; failures are not cached
+   */
+  X509Certificate getOrIssue(byte[] identity, byte[] csr, Issuer issuer)
+      throws DomainCAException {
+    if (windowNanos == 0) {
+      return callIssuer(issuer);
+    }
+    ByteBuffer key = key(identity, csr);
+    while (true) {
+      Entry fresh = new Entry(key);
+      Entry existing = entries.putIfAbsent(key, fresh);
+      if (existing == null) {
+        return issue(key, fresh, issuer);
+      }
+      if (existing.isExpired(System.nanoTime(), windowNanos)) {
+        entries.remove(key, existing);
+        continue;
+      }
+      X509Certificate cert = existing.await();
+      logger.info(
+          "repeated CSR within enrollment cache window, returning LDevID issued before: serial={}",
+          cert.getSerialNumber());
+      return cert;
+    }
+  }
+
+  private X509Certificate issue(ByteBuffer key, Entry entry, Issuer issuer)
+      throws DomainCAException {
+    X509Certificate cert;
+    try {
+      cert = callIssuer(issuer);
+    } catch (Throwable e) {
+      // also on an Error, so that requests waiting for this entry do not wait forever.
+      entries.remove(key, entry);
+      entry.future.completeExceptionally(e);
+      throw e;
+    }
+    entry.issuedAt = System.nanoTime();
+    entry.future.complete(cert);
+    insertionOrder.add(entry);
+    evict();
+    return cert;
+  }
+
+  private static X509Certificate callIssuer(Issuer issuer) throws DomainCAException {
+    try {
+      return issuer.issue();
+    } catch (DomainCAException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new DomainCAException("LDevID issuance failed: " + e.getMessage(), e);
+    }
+  }
+
+  private void evict() {
+    long now = System.nanoTime();
+    while (entries.size() > capacity) {
+      Entry eldest = insertionOrder.poll();
+      if (eldest == null) {
+        return;
+      }
+      entries.remove(eldest.key, eldest);
+    }
+    // drop expired and stale entries at the head of the queue, which are the oldest ones
+    Entry head;
+    while ((head = insertionOrder.peek()) != null) {
+      if (entries.get(head.key) == head && !head.isExpired(now, windowNanos)) {
+        return;
+      }
+      if (insertionOrder.remove(head)) {
+        entries.remove(head.key, head);
+      }
+    }
+  }
+
+  private static ByteBuffer key(byte[] identity, byte[] csr) {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    md.update(ByteBuffer.allocate(4).putInt(identity.length).array());
+    md.update(identity);
+    md.update(csr);
+    return ByteBuffer.wrap(md.digest());
+  }
+
+  private static final class Entry {
+
+    final ByteBuffer key;
+    final CompletableFuture<X509Certificate> future = new CompletableFuture<>();
+    // set before the future completes; only read after it completed.
+    volatile long issuedAt;
+
+    Entry(ByteBuffer key) {
+      this.key = key;
+    }
+
+    boolean isExpired(long now, long windowNanos) {
+      return future.isDone() && now - issuedAt >= windowNanos;
+    }
+
+    X509Certificate await() throws DomainCAException {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new DomainCAException("interrupted while waiting for LDevID issuance");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof DomainCAException) {
+          throw (DomainCAException) cause;
+        }
+        throw new DomainCAException("LDevID issuance failed: " + cause.getMessage(), cause);
+      }
+    }
+  }
+}
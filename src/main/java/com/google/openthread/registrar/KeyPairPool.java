@@ -0,0 +1,183 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.SecurityUtils;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of pre-generated EC P-256 key pairs, for EST server-side key generation (/skg). Key pairs
+ * are generated by background refill threads, so that a request normally only takes a ready key
+ * pair from the pool. When the number of pooled key pairs drops to the low-water mark, the pool
+ * gets refilled up to its capacity. If the pool runs empty, a key pair is generated on the
+ * requester's thread instead.
+ *
+ * <p>Each key pair is handed out at most once.
+ */
+public final class KeyPairPool {
+
+  public static final int DEFAULT_CAPACITY = 16;
+  public static final int DEFAULT_LOW_WATER_MARK = 4;
+  public static final int DEFAULT_REFILL_THREADS = 1;
+
+  private static final Logger logger = LoggerFactory.getLogger(KeyPairPool.class);
+
+  private final BlockingQueue<KeyPair> pool;
+  private final int lowWaterMark;
+  private final int refillThreads;
+  private final AtomicLong misses = new AtomicLong();
+
+  private ExecutorService refiller;
+  // number of refill tasks currently submitted to or running on the refiller.
+  private AtomicInteger activeRefills;
+
+  /**
+   * Create a new, empty key pair pool. The pool starts filling upon {@link #start()}.
+   *
+   * @param capacity the maximum number of pooled key pairs
+   * @param lowWaterMark the number of pooled key pairs at or below which a refill starts
+   * @param refillThreads the number of background threads generating key pairs
+   */
+  public KeyPairPool(int capacity, int lowWaterMark, int refillThreads) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    if (lowWaterMark < 0 || lowWaterMark >= capacity) {
+      throw new IllegalArgumentException("low-water mark must be in [0, capacity)");
+    }
+    if (refillThreads < 1) {
+      throw new IllegalArgumentException("refill threads must be at least 1");
+    }
+    this.pool = new ArrayBlockingQueue<>(capacity);
+    this.lowWaterMark = lowWaterMark;
+    this.refillThreads = refillThreads;
+  }
+
+  /** Start the refill threads and fill the pool up to its capacity, in the background. */
+  public synchronized void start() {
+    if (refiller != null) {
+      return;
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    refiller =
+        Executors.newFixedThreadPool(
+            refillThreads,
+            r -> {
+              Thread t = new Thread(r, "keypair-pool-" + threadCount.incrementAndGet());
+              t.setDaemon(true);
+              t.setPriority(Thread.MIN_PRIORITY);
+              return t;
+            });
+    activeRefills = new AtomicInteger();
+    triggerRefill();
+  }
+
+  /** Stop the refill threads. Already pooled key pairs are kept, for use after a restart. */
+  public synchronized void shutdown() {
+    if (refiller != null) {
+      refiller.shutdownNow();
+      refiller = null;
+    }
+  }
+
+  /**
+   * Take a fresh key pair from the pool. If the pool is empty, a new key pair is generated on the
+   * calling thread.
+   *
+   * @return a key pair that was not handed out before
+   * @throws GeneralSecurityException if a key pair could not be generated
+   */
+  public KeyPair take() throws GeneralSecurityException {
+    KeyPair keyPair = pool.poll();
+    if (pool.size() <= lowWaterMark) {
+      triggerRefill();
+    }
+    if (keyPair == null) {
+      misses.incrementAndGet();
+      logger.debug("key pair pool empty, generating key pair on request");
+      keyPair = SecurityUtils.genKeyPair();
+    }
+    return keyPair;
+  }
+
+  /** @return the number of key pairs currently in the pool */
+  public int size() {
+    return pool.size();
+  }
+
+  public int getCapacity() {
+    return pool.size() + pool.remainingCapacity();
+  }
+
+  public int getLowWaterMark() {
+    return lowWaterMark;
+  }
+
+  public int getRefillThreads() {
+    return refillThreads;
+  }
+
+  /** @return the number of times {@link #take()} found the pool empty */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  private synchronized void triggerRefill() {
+    if (refiller == null || !activeRefills.compareAndSet(0, refillThreads)) {
+      return;
+    }
+    AtomicInteger active = activeRefills;
+    for (int i = 0; i < refillThreads; i++) {
+      refiller.execute(() -> refill(active));
+    }
+  }
+
+  private void refill(AtomicInteger active) {
+    try {
+      while (pool.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+        if (!pool.offer(SecurityUtils.genKeyPair())) {
+          break;
+        }
+      }
+    } catch (GeneralSecurityException e) {
+      logger.error("key pair pool refill failed: {}", e.getMessage(), e);
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+}
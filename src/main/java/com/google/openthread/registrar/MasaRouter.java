@@ -0,0 +1,404 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.brski.RestfulVoucherResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the voucher requests for a MASA to one of its endpoints: the MASA URI itself, and any
+ * alternate endpoints configured for it. Each endpoint has a {@link CircuitBreaker}, so that a MASA
+ * endpoint that hangs or refuses is skipped rather than waited for, and a moving average of its
+ * response times: a request goes to the endpoint that recently responded fastest. A request that
+ * fails moves on to the next endpoint, all within one timeout budget. Optionally, a request that
+ * takes longer than a percentile of its endpoint's recent response times is hedged: the next
+ * endpoint is sent the same voucher request, and the first response wins.
+ */
+final class MasaRouter {
+
+  private static final Logger logger = LoggerFactory.getLogger(MasaRouter.class);
+
+  // weight of a new response time in the moving average.
+  private static final double ALPHA = 0.2;
+
+  // the number of recent response times the hedging percentile is taken over.
+  private static final int RECENT_SAMPLES = 64;
+
+  /** Sends a voucher request to one MASA endpoint. */
+  interface Sender {
+    /**
+     * @param endpoint the MASA endpoint, as host and port
+     * @param timeoutMillis the time left for the request
+     * @return the response, or null if none was received
+     */
+    RestfulVoucherResponse send(String endpoint, long timeoutMillis) throws Exception;
+  }
+
+  /** A MASA endpoint and what is known about its recent behavior. */
+  static final class Endpoint {
+
+    private final String uri;
+    private final CircuitBreaker breaker;
+    private final long[] recentNanos = new long[RECENT_SAMPLES];
+    private int sampleCount;
+    private double meanNanos;
+
+    Endpoint(String uri, CircuitBreaker breaker) {
+      this.uri = uri;
+      this.breaker = breaker;
+    }
+
+    String getUri() {
+      return uri;
+    }
+
+    CircuitBreaker getBreaker() {
+      return breaker;
+    }
+
+    synchronized void recordResponseTime(long nanos) {
+      recentNanos[sampleCount % RECENT_SAMPLES] = nanos;
+      meanNanos = sampleCount == 0 ? nanos : meanNanos + ALPHA * (nanos - meanNanos);
+      sampleCount++;
+    }
+
+    /** The moving average of the response times, or zero if none was measured. */
+    synchronized double getMeanNanos() {
+      return meanNanos;
+    }
+
+    /** A percentile of the recent response times, or -1 if none was measured. */
+    synchronized long getPercentileNanos(double percentile) {
+      int n = Math.min(sampleCount, RECENT_SAMPLES);
+      if (n == 0) {
+        return -1;
+      }
+      long[] sorted = Arrays.copyOf(recentNanos, n);
+      Arrays.sort(sorted);
+      int index = (int) Math.ceil(percentile / 100 * n) - 1;
+      return sorted[Math.max(0, Math.min(n - 1, index))];
+    }
+  }
+
+  // the outcome of one request to one endpoint.
+  private static final class Attempt {
+    final Endpoint endpoint;
+    final RestfulVoucherResponse response;
+    final Exception error;
+
+    Attempt(Endpoint endpoint, RestfulVoucherResponse response, Exception error) {
+      this.endpoint = endpoint;
+      this.response = response;
+      this.error = error;
+    }
+  }
+
+  private final Map<String, List<String>> alternates = new ConcurrentHashMap<>();
+  // the endpoints of each MASA URI, as few as the MASA URIs labeling the metrics.
+  private final Map<String, List<Endpoint>> endpoints = new ConcurrentHashMap<>();
+  private final AtomicLong hedgedCount = new AtomicLong();
+  private Duration timeout;
+  private int failureThreshold;
+  private Duration openDuration;
+  private double hedgePercentile;
+  private volatile ExecutorService executor;
+
+  /**
+   * @param timeout the time budget of a voucher request, over all endpoints tried
+   * @param failureThreshold the number of failures in a row that opens an endpoint's circuit
+   * @param openDuration how long an open circuit fails requests fast
+   */
+  MasaRouter(Duration timeout, int failureThreshold, Duration openDuration) {
+    setTimeout(timeout);
+    setCircuitBreaker(failureThreshold, openDuration);
+  }
+
+  void setTimeout(Duration timeout) {
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("MASA timeout must be positive");
+    }
+    this.timeout = timeout;
+  }
+
+  Duration getTimeout() {
+    return timeout;
+  }
+
+  /** Set the circuit breaker parameters of the endpoints; applies to endpoints not used before. */
+  void setCircuitBreaker(int failureThreshold, Duration openDuration) {
+    // validate once, rather than at the first request.
+    new CircuitBreaker(failureThreshold, openDuration);
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    endpoints.clear();
+  }
+
+  /**
+   * Set the percentile of an endpoint's recent response times after which a request is hedged to
+   * the next endpoint, or zero to not hedge.
+   */
+  void setHedgePercentile(double percentile) {
+    if (!(percentile >= 0 && percentile < 100)) {
+      throw new IllegalArgumentException("hedge percentile must be in [0, 100)");
+    }
+    this.hedgePercentile = percentile;
+  }
+
+  double getHedgePercentile() {
+    return hedgePercentile;
+  }
+
+  /** Set the alternate endpoints of a MASA, tried after or instead of the MASA URI itself. */
+  void setAlternates(String masaUri, List<String> alternateUris) {
+    alternates.put(masaUri, Collections.unmodifiableList(new ArrayList<>(alternateUris)));
+    endpoints.remove(masaUri);
+  }
+
+  /** Get the endpoints of a MASA: the MASA URI first, then its alternates. */
+  List<Endpoint> getEndpoints(String masaUri) {
+    return endpoints.computeIfAbsent(
+        masaUri,
+        uri -> {
+          List<Endpoint> list = new ArrayList<>();
+          list.add(new Endpoint(uri, new CircuitBreaker(failureThreshold, openDuration)));
+          for (String alternate : alternates.getOrDefault(uri, Collections.emptyList())) {
+            list.add(new Endpoint(alternate, new CircuitBreaker(failureThreshold, openDuration)));
+          }
+          return Collections.unmodifiableList(list);
+        });
+  }
+
+  /**
+   * Get the time until a MASA can be sent a request again, in whole seconds, or zero if one of its
+   * endpoints can be sent a request now.
+   */
+  int getRetryAfterSeconds(String masaUri) {
+    long now = System.nanoTime();
+    long min = Long.MAX_VALUE;
+    for (Endpoint endpoint : getEndpoints(masaUri)) {
+      min = Math.min(min, endpoint.breaker.getRetryAfterNanos(now));
+    }
+    return (int) Math.min(Integer.MAX_VALUE, (min + 999_999_999L) / 1_000_000_000L);
+  }
+
+  /** @return the number of voucher requests hedged to a second endpoint */
+  long getHedgedCount() {
+    return hedgedCount.get();
+  }
+
+  /** @return the number of times any endpoint's circuit opened */
+  long getCircuitOpenedCount() {
+    long count = 0;
+    for (List<Endpoint> list : endpoints.values()) {
+      for (Endpoint endpoint : list) {
+        count += endpoint.breaker.getOpenedCount();
+      }
+    }
+    return count;
+  }
+
+  /** Start sending requests on the given executor, which is shut down with the router. */
+  void start(ExecutorService executor) {
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+  void shutdown() {
+    ExecutorService e = executor;
+    if (e != null) {
+      executor = null;
+      e.shutdownNow();
+    }
+  }
+
+  /**
+   * Send a voucher request for a MASA, to the endpoint with the lowest recent response time whose
+   * circuit is closed, then to the next ones if it fails, until one responds or the timeout budget
+   * is spent. A MASA response with a 5.xx code counts as a failure of its endpoint, and is returned
+   * if no endpoint does better.
+   *
+   * @return the response; 5.03 Service Unavailable if all circuits are open or no endpoint could be
+   *     reached, 5.04 Gateway Timeout if the budget was spent
+   */
+  RestfulVoucherResponse request(String masaUri, Sender sender) throws InterruptedException {
+    ExecutorService e = executor;
+    if (e == null) {
+      throw new IllegalStateException("not started");
+    }
+    long deadline = System.nanoTime() + timeout.toNanos();
+    List<Endpoint> ranked = new ArrayList<>(getEndpoints(masaUri));
+    // a stable sort, so that unmeasured endpoints are tried in the configured order.
+    ranked.sort(Comparator.comparingDouble(Endpoint::getMeanNanos));
+
+    // a request still in flight when this returns, e.g. the slower of a hedged pair, is left to
+    // complete and be measured; the sender's own timeout bounds it.
+    CompletionService<Attempt> attempts = new ExecutorCompletionService<>(e);
+    int next = 0;
+    int inFlight = 0;
+    Endpoint hedged = null;
+    Attempt failed = null;
+    while (true) {
+      if (inFlight == 0) {
+        next = submitNext(attempts, ranked, next, sender, deadline);
+        if (next < 0) {
+          break;
+        }
+        inFlight++;
+        hedged = ranked.get(next - 1);
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        logger.warn("voucher request to MASA {} timed out", masaUri);
+        return new RestfulVoucherResponse(ResponseCode.GATEWAY_TIMEOUT, "MASA timeout");
+      }
+      long wait = remaining;
+      long hedgeAfter = hedged == null ? -1 : getHedgeDelayNanos(hedged);
+      if (hedgeAfter >= 0) {
+        wait = Math.min(wait, hedgeAfter);
+      }
+      Future<Attempt> done = attempts.poll(wait, TimeUnit.NANOSECONDS);
+      if (done == null) {
+        if (hedged != null && hedgeAfter >= 0 && deadline - System.nanoTime() > 0) {
+          // the request is slow for its endpoint: hedge it to the next one, once.
+          hedged = null;
+          int hedge = submitNext(attempts, ranked, next, sender, deadline);
+          if (hedge > 0) {
+            next = hedge;
+            inFlight++;
+            hedgedCount.incrementAndGet();
+            logger.info(
+                "voucher request to MASA {} slow, hedging to {}",
+                masaUri,
+                ranked.get(next - 1).uri);
+          }
+        }
+        continue;
+      }
+      inFlight--;
+      Attempt attempt = getAttempt(done);
+      if (isReached(attempt.response)) {
+        return attempt.response;
+      }
+      failed = attempt;
+      logger.warn(
+          "voucher request to MASA endpoint {} failed: {}",
+          attempt.endpoint.uri,
+          attempt.error != null
+              ? attempt.error.toString()
+              : attempt.response == null ? "no response" : attempt.response.getCoapCode());
+    }
+
+    if (failed == null) {
+      logger.warn("all circuits to MASA {} are open", masaUri);
+      return new RestfulVoucherResponse(ResponseCode.SERVICE_UNAVAILABLE, "MASA circuit open");
+    }
+    if (failed.response != null) {
+      return failed.response;
+    }
+    return new RestfulVoucherResponse(ResponseCode.SERVICE_UNAVAILABLE, "MASA unreachable");
+  }
+
+  // submit the request to the first endpoint from index on whose circuit admits it; returns the
+  // index after it, or -1 if none admits it.
+  private int submitNext(
+      CompletionService<Attempt> attempts,
+      List<Endpoint> ranked,
+      int index,
+      Sender sender,
+      long deadline) {
+    for (int i = index; i < ranked.size(); i++) {
+      Endpoint endpoint = ranked.get(i);
+      if (endpoint.breaker.tryAcquire(System.nanoTime())) {
+        attempts.submit(() -> send(endpoint, sender, deadline));
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static Attempt send(Endpoint endpoint, Sender sender, long deadline) {
+    long start = System.nanoTime();
+    RestfulVoucherResponse response = null;
+    Exception error = null;
+    try {
+      long timeoutMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - start));
+      response = sender.send(endpoint.uri, timeoutMillis);
+    } catch (Exception e) {
+      error = e;
+    }
+    long end = System.nanoTime();
+    if (isReached(response)) {
+      endpoint.breaker.onSuccess();
+      endpoint.recordResponseTime(end - start);
+    } else {
+      endpoint.breaker.onFailure(end);
+    }
+    return new Attempt(endpoint, response, error);
+  }
+
+  private long getHedgeDelayNanos(Endpoint endpoint) {
+    if (hedgePercentile == 0) {
+      return -1;
+    }
+    return endpoint.getPercentileNanos(hedgePercentile);
+  }
+
+  private static Attempt getAttempt(Future<Attempt> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      // send() catches all exceptions.
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  // a response other than a server error shows that the endpoint works.
+  private static boolean isReached(RestfulVoucherResponse response) {
+    return response != null
+        && response.getCoapCode() != null
+        && response.getCoapCode().codeClass != 5;
+  }
+}
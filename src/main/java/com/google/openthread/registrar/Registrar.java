@@ -28,10 +28,6 @@
 
 package com.google.openthread.registrar;
 
-import COSE.Message;
-import COSE.MessageTag;
-import COSE.OneKey;
-import COSE.Sign1Message;
 import com.google.openthread.*;
 import com.google.openthread.brski.ConstantsBrski;
 import com.google.openthread.brski.ExtendedMediaTypeRegistry;
@@ -42,40 +38,77 @@ import com.google.openthread.brski.StatusTelemetry;
 import com.google.openthread.brski.Voucher;
 import com.google.openthread.brski.VoucherRequest;
 import com.google.openthread.domainca.DomainCA;
+import com.google.openthread.domainca.DomainCAException;
 import com.google.openthread.pledge.Pledge;
 import com.upokecenter.cbor.CBORObject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 import org.bouncycastle.util.encoders.Hex;
 import org.eclipse.californium.core.CoapClient;
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.CoapResponse;
 import org.eclipse.californium.core.CoapServer;
+import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.CoAP.Type;
 import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.coap.Message;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.core.network.Exchange;
 import org.eclipse.californium.core.server.resources.CoapExchange;
 import org.eclipse.californium.elements.auth.X509CertPath;
 import org.eclipse.californium.elements.exception.ConnectorException;
+import org.eclipse.californium.elements.util.ClockUtil;
+import org.eclipse.californium.scandium.DTLSConnector;
 import org.eclipse.californium.scandium.dtls.x509.NewAdvancedCertificateVerifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,6 +135,27 @@ public final class Registrar extends CoapServer {
 
   private static final Logger logger = LoggerFactory.getLogger(Registrar.class);
 
+  /** Sessions idle for longer than this are not kept across a restart. */
+  private static final Duration SESSION_STORE_MAX_QUIET_PERIOD = Duration.ofDays(1);
+  /** The session store holds session secrets: it is readable by its owner only. */
+  private static final FileAttribute<Set<PosixFilePermission>> SESSION_STORE_PERMISSIONS =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+
+  /** The default limits on voucher requests in flight to MASAs, in total and per MASA. */
+  public static final int DEFAULT_MASA_REQUEST_LIMIT = 16;
+  public static final int DEFAULT_MASA_REQUEST_LIMIT_PER_MASA = 8;
+
+  /** The default time budget of a voucher request to a MASA, over all its endpoints tried. */
+  public static final Duration DEFAULT_MASA_TIMEOUT = Duration.ofSeconds(30);
+
+  /** The default number of failed requests in a row that opens a MASA endpoint's circuit. */
+  public static final int DEFAULT_MASA_FAILURE_THRESHOLD = 5;
+
+  /** The default time that an open circuit of a MASA endpoint fails requests fast. */
+  public static final Duration DEFAULT_MASA_OPEN_DURATION = Duration.ofSeconds(30);
+
+  private static final String RESOURCE_EXECUTOR_PREFIX = "registrar-";
+
   static {
     BouncyCastleInitializer.init();
     // Guarantee class initialization - see method's API doc.
@@ -115,18 +169,96 @@ public final class Registrar extends CoapServer {
   // credentials used as a HTTP/CoAP client towards MASA.
   private final Credentials masaClientCredentials;
   private final boolean isHttpToMasa;
+  private final DtlsSettings dtlsSettings;
+  // the connectors of the Pledge-facing endpoints, one per socket.
+  private final List<DTLSConnector> dtlsConnectors = new ArrayList<>();
+  // file to keep the DTLS sessions in while the Registrar is stopped, or null.
+  private Path sessionStore;
+  // prepared signer for CMS-signed RVRs, including the Registrar's chain in each RVR.
+  private final CmsSigner rvrCmsSigner;
+  // certificates issued recently, to answer retransmitted CSRs consistently.
+  private final EnrollmentCache enrollmentCache =
+      new EnrollmentCache(EnrollmentCache.DEFAULT_WINDOW, EnrollmentCache.DEFAULT_CAPACITY);
+  // pre-generated key pairs for server-side key generation (/skg).
+  private KeyPairPool keyPairPool =
+      new KeyPairPool(
+          KeyPairPool.DEFAULT_CAPACITY,
+          KeyPairPool.DEFAULT_LOW_WATER_MARK,
+          KeyPairPool.DEFAULT_REFILL_THREADS);
 
   private DomainCA domainCA;
+  private CaCertsResource caCertsResource;
   private int forcedVoucherRequestFormat = -1;
   private String forcedMasaUri = null;
 
-  private final Map<Principal, StatusTelemetry> enrollStatusLog = new HashMap<>();
-  private final Map<Principal, StatusTelemetry> voucherStatusLog = new HashMap<>();
+  // written by the resource handler threads, which run concurrently.
+  private final Map<Principal, StatusTelemetry> enrollStatusLog = new ConcurrentHashMap<>();
+  private final Map<Principal, StatusTelemetry> voucherStatusLog = new ConcurrentHashMap<>();
   // keep track of issued vouchers
-  private final Map<Principal, Voucher> voucherLog = new HashMap<>();
-
-  private VoucherRequest lastRvr = null;
-  private byte[] lastRvrCoseSigned = null;
+  private final Map<Principal, Voucher> voucherLog = new ConcurrentHashMap<>();
+
+  // written by the resource handler threads, read by tests and tools.
+  private volatile VoucherRequest lastRvr = null;
+  private volatile byte[] lastRvrCoseSigned = null;
+
+  // admission control of the voucher requests to MASAs.
+  private AdmissionLimiter masaRequestLimiter =
+      new AdmissionLimiter(DEFAULT_MASA_REQUEST_LIMIT, DEFAULT_MASA_REQUEST_LIMIT_PER_MASA);
+  // the endpoints of each MASA, with their circuit breakers and response times.
+  private final MasaRouter masaRouter =
+      new MasaRouter(
+          DEFAULT_MASA_TIMEOUT, DEFAULT_MASA_FAILURE_THRESHOLD, DEFAULT_MASA_OPEN_DURATION);
+  // the executor of each resource's requests, by resource name.
+  private final Map<String, ResourceExecutor> resourceExecutors = new HashMap<>();
+  // in virtual-thread mode, the executor of all requests while running, instead.
+  private boolean isVirtualThreads = false;
+  private volatile ExecutorService requestExecutor;
+  private final AtomicInteger masaThreadCount = new AtomicInteger();
+
+  // the recent exchanges with Pledges and with MASAs, for troubleshooting.
+  private ExchangeRecorder exchangeRecorder =
+      new ExchangeRecorder(ExchangeRecorder.DEFAULT_CAPACITY);
+
+  // onboarding metrics; the MASA round trips are labeled per MASA URI at request time.
+  private final Metrics metrics = new Metrics();
+  private final DtlsStatistics dtlsStatistics = new DtlsStatistics();
+  private final LatencyHistogram pvrValidationTimes =
+      metrics.histogram(
+          "registrar_pvr_validation_seconds",
+          "Time to decode, verify and validate a Pledge voucher request.");
+  private final LatencyHistogram cmsRvrSigningTimes =
+      metrics.histogram(
+          "registrar_rvr_signing_seconds",
+          "Time to sign a Registrar voucher request.",
+          "format",
+          "cms");
+  private final LatencyHistogram coseRvrSigningTimes =
+      metrics.histogram(
+          "registrar_rvr_signing_seconds",
+          "Time to sign a Registrar voucher request.",
+          "format",
+          "cose");
+  private final LatencyHistogram voucherForwardTimes =
+      metrics.histogram(
+          "registrar_voucher_forward_seconds",
+          "Time to decode a MASA voucher and strip its unprotected headers for the Pledge.");
+  private final LatencyHistogram csrPopTimes =
+      metrics.histogram(
+          "registrar_csr_pop_seconds", "Time to verify the proof-of-possession of a CSR.");
+  private final LatencyHistogram ldevidSigningTimes =
+      metrics.histogram("registrar_ldevid_signing_seconds", "Time to issue an LDevID certificate.");
+  private final LatencyHistogram voucherStatusTimes =
+      metrics.histogram(
+          "registrar_telemetry_seconds",
+          "Time to ingest a status telemetry report.",
+          "resource",
+          ConstantsBrski.VOUCHER_STATUS);
+  private final LatencyHistogram enrollStatusTimes =
+      metrics.histogram(
+          "registrar_telemetry_seconds",
+          "Time to ingest a status telemetry report.",
+          "resource",
+          ConstantsBrski.ENROLL_STATUS);
 
   /**
    * Constructing registrar with specified settings, credentials and listening port.
@@ -136,6 +268,7 @@ public final class Registrar extends CoapServer {
    * @param masaClientCreds  credentials to use towards MASA client in Credentials format
    * @param port             the CoAP port to listen on
    * @param isHttpToMasa     whether to use HTTP requests to MASA (true, default) or CoAP (false)
+   * @param dtlsSettings     settings of the DTLS connector serving the Pledges
    * @throws RegistrarException
    */
   Registrar(
@@ -143,7 +276,8 @@ public final class Registrar extends CoapServer {
       X509Certificate[] masaTrustAnchors,
       Credentials masaClientCreds,
       int port,
-      boolean isHttpToMasa)
+      boolean isHttpToMasa,
+      DtlsSettings dtlsSettings)
       throws RegistrarException {
 
     try {
@@ -153,18 +287,25 @@ public final class Registrar extends CoapServer {
       this.masaTrustAnchors = masaTrustAnchors;
       this.masaClientCredentials = masaClientCreds;
       this.isHttpToMasa = isHttpToMasa;
+      this.dtlsSettings = Objects.requireNonNull(dtlsSettings, "dtlsSettings");
 
       if (certificateChain.length < 2) {
         // a cert chain of 1 may be used, but uncommon.
         throw new RegistrarException("(yet) unsupported certificate chain: length < 2");
       }
 
+      this.rvrCmsSigner =
+          new CmsSigner(
+              privateKey, getCertificate(), SecurityUtils.SIGNATURE_ALGORITHM, certificateChain);
+
     } catch (Exception e) {
       throw new RegistrarException(e.getMessage(), e);
     }
 
     initResources();
+    initResourceExecutors();
     initEndpoint();
+    initMetrics();
   }
 
   @Override
@@ -178,10 +319,261 @@ public final class Registrar extends CoapServer {
               + this.forcedMasaUri
               + " (-masa parameter)");
     }
+    keyPairPool.start();
+    if (isVirtualThreads) {
+      if (VirtualThreads.isAvailable()) {
+        requestExecutor = VirtualThreads.newExecutor("registrar-request-");
+        logger.info("handling requests on virtual threads");
+      } else {
+        logger.warn(
+            "virtual threads need JDK 21 or later; handling requests on the resource executors");
+      }
+    }
+    masaRouter.start(
+        requestExecutor != null
+            ? VirtualThreads.newExecutor("registrar-masa-")
+            : Executors.newCachedThreadPool(
+                r -> {
+                  Thread t = new Thread(r, "registrar-masa-" + masaThreadCount.incrementAndGet());
+                  t.setDaemon(true);
+                  return t;
+                }));
+    for (Map.Entry<String, ResourceExecutor> entry : resourceExecutors.entrySet()) {
+      entry.getValue().start();
+      metrics.counter(
+          "registrar_requests_rejected_total",
+          "Requests turned away with 5.03 because the resource's queue was full.",
+          entry.getValue()::getRejectedCount,
+          "resource",
+          entry.getKey());
+    }
+    if (sessionStore != null) {
+      loadSessions();
+    }
     super.start();
+    metrics.registerMBean("com.google.openthread:type=Registrar,port=" + listenPort);
+    exchangeRecorder.registerMBean(
+        "com.google.openthread:type=Registrar,port=" + listenPort + ",name=ExchangeRecorder");
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    keyPairPool.shutdown();
+    shutdownRequestExecutor();
+    metrics.unregisterMBean();
+    exchangeRecorder.unregisterMBean();
+    if (sessionStore != null) {
+      saveSessions();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    super.destroy();
+    keyPairPool.shutdown();
+    shutdownRequestExecutor();
+    metrics.unregisterMBean();
+    exchangeRecorder.unregisterMBean();
+  }
+
+  private void shutdownRequestExecutor() {
+    ExecutorService executor = requestExecutor;
+    if (executor != null) {
+      requestExecutor = null;
+      executor.shutdown();
+    }
+    for (ResourceExecutor resourceExecutor : resourceExecutors.values()) {
+      resourceExecutor.shutdown();
+    }
+    masaRouter.shutdown();
+  }
+
+  /**
+   * Get the Registrar's metrics: latency histograms of the onboarding phases and counters, which
+   * are also served on the CoAP resource /{@value Constants#METRICS_PATH} and registered as an
+   * MXBean while the Registrar runs.
+   */
+  public Metrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set whether the Registrar verifies each CMS-signed voucher request it creates, before sending it
+   * to the MASA. This is a debug check of the Registrar's own signing; by default it is off.
+   *
+   * @param isSelfVerification true to verify own CMS signatures, false otherwise
+   */
+  public void setCmsSelfVerification(boolean isSelfVerification) {
+    rvrCmsSigner.setSelfVerification(isSelfVerification);
+  }
+
+  /**
+   * Set the time window in which a repeated enrollment request (same Pledge, same CSR) is answered
+   * with the LDevID certificate issued before, rather than signing a new one.
+   *
+   * @param window the window counted from issuance, or zero to always sign a new certificate
+   */
+  public void setEnrollmentCacheWindow(Duration window) {
+    enrollmentCache.setWindow(window);
+  }
+
+  /**
+   * Set a file to keep the DTLS sessions with Pledges in while the Registrar is stopped. The
+   * sessions are saved to it on {@link #stop()} and restored on {@link #start()}, so that Pledges
+   * can resume their sessions with an abbreviated handshake after a Registrar restart. The file
+   * holds session secrets, so it is created readable by its owner only; on a file system without
+   * POSIX permissions, a warning is logged and access must be restricted otherwise. It is replaced
+   * atomically when saved, and deleted once loaded, because restoring the same session state twice
+   * could reuse DTLS record sequence numbers. With several sockets, each connector's sessions are
+   * restored to the connector at the same position; a Pledge that now reaches another connector
+   * resumes from the sessions they share.
+   *
+   * @param file the session store file, or null to not keep sessions across restarts
+   */
+  public void setSessionStore(Path file) {
+    this.sessionStore = file;
+  }
+
+  /**
+   * Set the pool of pre-generated key pairs used for server-side key generation (/skg). This
+   * replaces the default pool and must be called before the Registrar is started.
+   *
+   * @param pool the key pair pool to use
+   */
+  public void setKeyPairPool(KeyPairPool pool) {
+    this.keyPairPool = Objects.requireNonNull(pool, "pool");
+  }
+
+  public KeyPairPool getKeyPairPool() {
+    return keyPairPool;
+  }
+
+  /**
+   * Set whether the cBRSKI and EST requests are handled on virtual threads, one per request, rather
+   * than on the CoAP server's executor. A handler then no longer holds a platform thread while it
+   * waits for the MASA, so that many voucher requests can wait at the same time. This needs JDK 21
+   * or later; on older JDKs, the Registrar logs a warning and uses the CoAP executor. It must be
+   * called before the Registrar is started.
+   *
+   * @param isVirtualThreads true to handle requests on virtual threads, false otherwise
+   */
+  public void setVirtualThreads(boolean isVirtualThreads) {
+    this.isVirtualThreads = isVirtualThreads;
+  }
+
+  /**
+   * Set the executor of the requests to one of the Registrar's resources. This replaces the
+   * resource's default executor and must be called before the Registrar is started. By default,
+   * voucher requests (/rv), which mostly wait for the MASA, get 8 threads; the enrollment resources
+   * (/sen, /sren, /skg), which sign, get 2 threads; the other, cheap resources get 2 threads each
+   * at a higher priority. Each queues up to {@value ResourceExecutor#DEFAULT_QUEUE_CAPACITY}
+   * requests.
+   *
+   * @param resource the resource name, e.g. {@value ConstantsBrski#REQUEST_VOUCHER}
+   * @param threads the number of requests handled at the same time
+   * @param queueCapacity the number of requests that can wait; more are answered with 5.03
+   * @param priority the threads' priority
+   */
+  public void setResourceExecutor(String resource, int threads, int queueCapacity, int priority) {
+    if (!resourceExecutors.containsKey(resource)) {
+      throw new IllegalArgumentException("unknown resource: " + resource);
+    }
+    resourceExecutors.put(
+        resource,
+        new ResourceExecutor(RESOURCE_EXECUTOR_PREFIX + resource, threads, queueCapacity, priority));
+  }
+
+  /**
+   * Set the limits on the voucher requests that the Registrar has in flight to MASAs. A voucher
+   * request that would exceed either limit is answered with 5.03 (Service Unavailable), with a
+   * Max-Age estimated from the MASA's recent response times. By default, the limits are {@value
+   * #DEFAULT_MASA_REQUEST_LIMIT} in total and {@value #DEFAULT_MASA_REQUEST_LIMIT_PER_MASA} per
+   * MASA. This must be called before the Registrar is started.
+   *
+   * @param limit the maximum number of voucher requests in flight in total
+   * @param perMasaLimit the maximum number of voucher requests in flight to one MASA
+   */
+  public void setMasaRequestLimits(int limit, int perMasaLimit) {
+    this.masaRequestLimiter = new AdmissionLimiter(limit, perMasaLimit);
+  }
+
+  /**
+   * Set the time budget of a voucher request to a MASA: the request, and any retries on alternate
+   * endpoints, are given up after it, and the Pledge gets 5.04 (Gateway Timeout). By default, it
+   * is {@link #DEFAULT_MASA_TIMEOUT}.
+   */
+  public void setMasaTimeout(Duration timeout) {
+    masaRouter.setTimeout(timeout);
+  }
+
+  /**
+   * Set the circuit breaker of each MASA endpoint: after the given number of failed or timed-out
+   * requests in a row, requests to the endpoint fail fast for the open duration, after which a
+   * single request probes whether it is back. When all endpoints of a MASA are open, a voucher
+   * request gets 5.03 (Service Unavailable) with a Max-Age of the time left. By default, {@value
+   * #DEFAULT_MASA_FAILURE_THRESHOLD} failures open a circuit for {@link
+   * #DEFAULT_MASA_OPEN_DURATION}. This must be called before the Registrar is started.
+   */
+  public void setMasaCircuitBreaker(int failureThreshold, Duration openDuration) {
+    masaRouter.setCircuitBreaker(failureThreshold, openDuration);
+  }
+
+  /**
+   * Set alternate endpoints of a MASA, e.g. the hosts behind a MASA service at other sites. A
+   * voucher request for the MASA goes to the endpoint, the MASA URI itself or an alternate, that
+   * recently responded fastest, and on to the next one if it fails. This must be called before the
+   * Registrar is started.
+   *
+   * @param masaUri the MASA URI, as found in Pledge IDevIDs or forced
+   * @param alternates the alternate endpoints, as host and port like a MASA URI
+   */
+  public void setMasaAlternates(String masaUri, String... alternates) {
+    masaRouter.setAlternates(masaUri, Arrays.asList(alternates));
+  }
+
+  /**
+   * Set the hedging of voucher requests: a voucher request that takes longer than the given
+   * percentile of its endpoint's recent response times is also sent to the next endpoint of the
+   * MASA, and the first response is used. This trades some extra MASA load for a shorter tail
+   * latency. Zero, the default, disables hedging.
+   *
+   * @param percentile the percentile in [0, 100), e.g. 95
+   */
+  public void setMasaHedgePercentile(double percentile) {
+    masaRouter.setHedgePercentile(percentile);
+  }
+
+  /** Get the executor of the requests to one of the Registrar's resources, or null if unknown. */
+  public ResourceExecutor getResourceExecutor(String resource) {
+    return resourceExecutors.get(resource);
+  }
+
+  /**
+   * Set the recorder of the recent exchanges with Pledges and with MASAs. This replaces the default
+   * recorder, which keeps the last {@value ExchangeRecorder#DEFAULT_CAPACITY} exchanges, and must
+   * be called before the Registrar is started.
+   *
+   * @param recorder the exchange recorder to use
+   */
+  public void setExchangeRecorder(ExchangeRecorder recorder) {
+    this.exchangeRecorder = Objects.requireNonNull(recorder, "recorder");
+  }
+
+  /**
+   * Get the recorder of the recent exchanges, which is also registered as an MXBean while the
+   * Registrar runs so that its exchanges can be dumped on demand.
+   */
+  public ExchangeRecorder getExchangeRecorder() {
+    return exchangeRecorder;
   }
 
   public void setDomainCA(DomainCA domainCA) {
+    try {
+      caCertsResource.update(domainCA);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("cannot encode CA certificates of domain CA", e);
+    }
     this.domainCA = domainCA;
   }
 
@@ -232,7 +624,168 @@ public final class Registrar extends CoapServer {
     return domainCA.getDomainName();
   }
 
-  public final class VoucherStatusResource extends CoapResource {
+  /**
+   * A resource of the Registrar, whose requests are handled on the resource's own {@link
+   * ResourceExecutor}, or in virtual-thread mode on virtual threads. A request that finds the
+   * executor's queue full is answered at once with 5.03 (Service Unavailable), whose Max-Age option
+   * tells the client when to retry.
+   */
+  public abstract class RegistrarResource extends CoapResource {
+
+    protected RegistrarResource(String name) {
+      super(name);
+    }
+
+    @Override
+    public final void handleRequest(Exchange exchange) {
+      ResourceExecutor resourceExecutor = resourceExecutors.get(getName());
+      Executor executor = requestExecutor;
+      try {
+        (executor != null ? executor : resourceExecutor).execute(() -> handleExchange(exchange));
+      } catch (RejectedExecutionException e) {
+        logger.debug("{} busy, rejecting request", getURI());
+        exchange.sendResponse(busyResponse(resourceExecutor.getRetryAfterSeconds()));
+      }
+    }
+
+    /** Handle a request, on the resource's executor. */
+    protected void handleExchange(Exchange exchange) {
+      super.handleRequest(exchange);
+    }
+  }
+
+  /**
+   * A cBRSKI or EST resource whose exchanges are recorded in the Registrar's {@link
+   * ExchangeRecorder}, and as {@link BrskiExchangeEvent}s while a JDK Flight Recorder recording
+   * enables them.
+   */
+  public abstract class RecordedResource extends RegistrarResource {
+
+    // the event of the request that the current thread handles, while recording.
+    private final ThreadLocal<BrskiExchangeEvent> currentEvent = new ThreadLocal<>();
+
+    protected RecordedResource(String name) {
+      super(name);
+    }
+
+    @Override
+    protected void handleExchange(Exchange exchange) {
+      long timeMillis = System.currentTimeMillis();
+      long start = System.nanoTime();
+      BrskiExchangeEvent event = new BrskiExchangeEvent("Registrar");
+      boolean isEventEnabled = event.isEnabled();
+      if (isEventEnabled) {
+        event.begin();
+        currentEvent.set(event);
+      }
+      try {
+        super.handleExchange(exchange);
+      } finally {
+        long duration = System.nanoTime() - start;
+        if (isEventEnabled) {
+          currentEvent.remove();
+          event.end();
+        }
+        // a response is passed to the exchange's own executor to be sent, so record once that has
+        // run.
+        BrskiExchangeEvent committed = isEventEnabled ? event : null;
+        exchange.execute(() -> record(exchange, timeMillis, duration, committed));
+      }
+    }
+
+    private void record(
+        Exchange exchange, long timeMillis, long duration, BrskiExchangeEvent event) {
+      Request request = exchange.getRequest();
+      Response response = exchange.getResponse();
+      Principal peer = request.getSourceContext().getPeerIdentity();
+      String result = response == null ? null : CoAP.formatCode(response.getCode().value);
+      String responseFormat = response == null ? null : getContentFormat(response);
+      InetSocketAddress peerAddress = request.getSourceContext().getPeerAddress();
+      if (response == null || isResponsePayloadRecorded()) {
+        exchangeRecorder.record(
+            new ExchangeRecorder.Entry(
+                timeMillis,
+                duration,
+                getURI(),
+                peerAddress,
+                peer,
+                getContentFormat(request),
+                request.getPayload(),
+                result,
+                responseFormat,
+                response == null ? null : response.getPayload()));
+      } else {
+        exchangeRecorder.record(
+            new ExchangeRecorder.Entry(
+                timeMillis,
+                duration,
+                getURI(),
+                peerAddress,
+                peer,
+                getContentFormat(request),
+                request.getPayload(),
+                result,
+                responseFormat,
+                response.getPayloadSize()));
+      }
+      if (event != null && event.shouldCommit()) {
+        event.setResource(getURI());
+        event.setContentFormat(getContentFormat(request));
+        event.setRequestSize(request.getPayloadSize());
+        event.setPledgeSerial(getSerialNumber(peer));
+        if (response != null) {
+          event.setResponseSize(response.getPayloadSize());
+          event.setResult(CoAP.formatCode(response.getCode().value));
+        }
+        event.commit();
+      }
+    }
+
+    /**
+     * Whether response payloads are kept in the {@link ExchangeRecorder}. A resource whose
+     * responses hold key material returns false, so that only their size is recorded.
+     */
+    protected boolean isResponsePayloadRecorded() {
+      return true;
+    }
+
+    /** Record the MASA URI in the event of the request being handled, if recording. */
+    protected void recordMasaUri(String uri) {
+      BrskiExchangeEvent event = currentEvent.get();
+      if (event != null) {
+        event.setMasaUri(uri);
+      }
+    }
+  }
+
+  /** Get the content format of a CoAP message as text, or null if it has none. */
+  private static String getContentFormat(Message message) {
+    if (!message.getOptions().hasContentFormat()) {
+      return null;
+    }
+    return ExtendedMediaTypeRegistry.toString(message.getOptions().getContentFormat());
+  }
+
+  /** Create a 5.03 (Service Unavailable) response telling the client when to retry. */
+  private static Response busyResponse(int retryAfterSeconds) {
+    Response response = new Response(ResponseCode.SERVICE_UNAVAILABLE);
+    response.getOptions().setMaxAge(retryAfterSeconds);
+    return response;
+  }
+
+  /** Get the serialNumber subject attribute of a DTLS peer's certificate, or null if none. */
+  private static String getSerialNumber(Principal peer) {
+    if (!(peer instanceof X509CertPath)) {
+      return null;
+    }
+    try {
+      return SecurityUtils.getSerialNumber(((X509CertPath) peer).getTarget());
+    } catch (CertificateEncodingException e) {
+      return null;
+    }
+  }
+
+  public final class VoucherStatusResource extends RecordedResource {
 
     public VoucherStatusResource() {
       super(ConstantsBrski.VOUCHER_STATUS);
@@ -241,6 +794,7 @@ public final class Registrar extends CoapServer {
     @Override
     public void handlePOST(CoapExchange exchange) {
       StatusTelemetry voucherStatus = null;
+      long start = System.nanoTime();
 
       try {
         int contentFormat = exchange.getRequestOptions().getContentFormat();
@@ -269,6 +823,7 @@ public final class Registrar extends CoapServer {
 
         // log the result for this Pledge
         voucherStatusLog.put(clientId, voucherStatus);
+        voucherStatusTimes.recordSince(start);
 
       } catch (Exception e) {
         logger.warn("handle voucher status report failed with exception: " + e.getMessage(), e);
@@ -284,7 +839,7 @@ public final class Registrar extends CoapServer {
     }
   }
 
-  public final class EnrollStatusResource extends CoapResource {
+  public final class EnrollStatusResource extends RecordedResource {
 
     public EnrollStatusResource() {
       super(ConstantsBrski.ENROLL_STATUS);
@@ -293,6 +848,7 @@ public final class Registrar extends CoapServer {
     @Override
     public void handlePOST(CoapExchange exchange) {
       StatusTelemetry enrollStatus = null;
+      long start = System.nanoTime();
       try {
         int contentFormat = exchange.getRequestOptions().getContentFormat();
         RequestDumper.dump(logger, getURI(), exchange.getRequestPayload());
@@ -324,6 +880,7 @@ public final class Registrar extends CoapServer {
 
         // log the result for this Pledge
         enrollStatusLog.put(clientId, enrollStatus);
+        enrollStatusTimes.recordSince(start);
 
       } catch (Exception e) {
         logger.warn("handle enroll status report failed with exception: " + e.getMessage(), e);
@@ -341,7 +898,7 @@ public final class Registrar extends CoapServer {
     }
   }
 
-  public final class VoucherRequestResource extends CoapResource {
+  public final class VoucherRequestResource extends RecordedResource {
 
     public VoucherRequestResource() {
       super(ConstantsBrski.REQUEST_VOUCHER);
@@ -368,21 +925,20 @@ public final class Registrar extends CoapServer {
             "Public key of current client: " + Hex.toHexString(idevid.getPublicKey().getEncoded()));
 
         VoucherRequest pledgeReq = null;
+        long start = System.nanoTime();
 
         if (contentFormat == ExtendedMediaTypeRegistry.APPLICATION_COSE_SIGN1
             || contentFormat == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_COSE_CBOR) {
           // Verify signature of COSE_Sign1 message
-          Sign1Message sign1Msg =
-              (Sign1Message)
-                  Message.DecodeFromBytes(exchange.getRequestPayload(), MessageTag.Sign1);
-          if (!sign1Msg.validate(new OneKey(idevid.getPublicKey(), null))) {
+          CoseSign1 sign1Msg = CoseSign1.decode(exchange.getRequestPayload());
+          if (!sign1Msg.verify(idevid.getPublicKey())) {
             logger.warn("COSE-sign1 voucher-request validation failed");
             exchange.respond(ResponseCode.NOT_FOUND, "COSE-Sign1 validation failed");
             return;
           }
 
           // 2.1 verify the voucher
-          pledgeReq = (VoucherRequest) new CBORSerializer().deserialize(sign1Msg.GetContent());
+          pledgeReq = (VoucherRequest) new CBORSerializer().deserialize(sign1Msg.getPayload());
         } else if (contentFormat == ExtendedMediaTypeRegistry.APPLICATION_CBOR) {
           pledgeReq =
               (VoucherRequest) new CBORSerializer().deserialize(exchange.getRequestPayload());
@@ -401,165 +957,198 @@ public final class Registrar extends CoapServer {
           exchange.respond(ResponseCode.FORBIDDEN, msg);
           return;
         }
+        pvrValidationTimes.recordSince(start);
 
-        // Constructing new voucher request (RVR) for MASA
-        // ref: section 5.5 BRSKI RFC8995
-        boolean isJsonRVR =
-            forcedVoucherRequestFormat == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON;
-        VoucherRequest req = new VoucherRequest();
-        if (!isJsonRVR) {
-          req.setConstrained(true);
-        }
-        req.setAssertion(pledgeReq.getAssertion()); // assertion copied from PVR
-        // Note, section 5.5: assertion MAY be omitted.
-
-        req.setNonce(pledgeReq.getNonce());
-
-        // Optionally present in Pledge's Voucher Request.
-        if (pledgeReq.getProximityRegistrarSPKI() != null) {
-          if (!Arrays.equals(
-              pledgeReq.getProximityRegistrarSPKI(), getCertificate().getPublicKey().getEncoded())) {
-            logger.warn("unmatched proximity registrar SPKI in Pledge's Voucher Request");
-            exchange.respond(ResponseCode.BAD_REQUEST, "proximityRegistrarSPKI error");
-            return;
-          }
+        // Request voucher from MASA server indicated in IDevID cert, or else the
+        // default one.
+        String uri = SecurityUtils.getMasaUri(idevid);
+        if ((uri == null || uri.length() == 0) && forcedMasaUri == null) {
+          uri = Constants.DEFAULT_MASA_URI;
+          logger.warn(
+              "pledge certificate does not include MASA uri, using default masa uri: " + uri);
+        } else if (uri != null && forcedMasaUri == null) {
+          logger.info("Constructing Registrar Voucher Req to MASA: " + uri);
+        } else {
+          uri = forcedMasaUri;
+          logger.info("Using forced MASA URI to send Registrar Voucher Req: " + uri);
         }
+        recordMasaUri(uri);
 
-        // MUST NOT include (RFC 8995)
-        req.setProximityRegistrarSPKI(null);
-
-        // SHOULD include (RFC 8995)
-        req.setCreatedOn(new Date());
-
-        // serialNumber provided by pledge's voucher request MUST match (RFC 8995) the
-        // one
-        // extracted from pledge's idevid.
-        req.setSerialNumber(Pledge.getSerialNumber(idevid));
-        if (req.getSerialNumber() == null || !req.getSerialNumber().equals(pledgeReq.getSerialNumber())) {
+        // fail fast while no endpoint of the MASA responds, before building and signing the RVR.
+        int circuitRetryAfter = masaRouter.getRetryAfterSeconds(uri);
+        if (circuitRetryAfter > 0) {
           logger.warn(
-              String.format(
-                  "bad serial number in voucher request: [%s] != [%s]",
-                  pledgeReq.getSerialNumber(), req.getSerialNumber()));
-          exchange.respond(ResponseCode.BAD_REQUEST, "serial number check failure");
+              "circuits to MASA {} open; Pledge to retry after {} s", uri, circuitRetryAfter);
+          exchange.respond(busyResponse(circuitRetryAfter));
           return;
         }
 
-        // Optional, could be null, but MUST be included for nonceful Voucher Request
-        // (RFC 8995).
-        // Settting idevid-issuer as authority key identifier of pledge certificate.
-        // Mandatory for Thread 1.2. Note: this currently uses a working assumption
-        // that the right format is complete AKI SEQUENCE. (Not just KeyIdentifier OCTET STRING).
-        req.setIdevidIssuer(SecurityUtils.getAuthorityKeyIdentifier(idevid));
-        if (req.getIdevidIssuer() != null) {
-          logger.info(
-              String.format(
-                  "idevid-issuer inserted in Registrar voucher request [len=%d, %s]",
-                  req.getIdevidIssuer().length, Hex.toHexString(req.getIdevidIssuer())));
-        } else {
-          String msg = "missing AKI in Pledge IDevID certificate";
-          logger.warn(msg);
-          exchange.respond(ResponseCode.BAD_REQUEST, msg);
+        // turn the Pledge away, rather than pile up voucher requests at a slow MASA, and before
+        // signing an RVR for it. The admission is held from building the RVR to the MASA's reply.
+        if (!masaRequestLimiter.tryAcquire(uri)) {
+          int retryAfter = masaRequestLimiter.getRetryAfterSeconds(uri);
+          logger.warn(
+              "too many voucher requests in flight to MASA {}; Pledge to retry after {} s",
+              uri,
+              retryAfter);
+          exchange.respond(busyResponse(retryAfter));
           return;
         }
 
-        // SHOULD include prior-signed-voucher-request (RFC 8995) with Pledge's
-        // COSE-signed voucher
-        // request
-        // Mandatory for Thread 1.2.
-        req.setPriorSignedVoucherRequest(exchange.getRequestPayload());
-
-        // Create voucher request to MASA. Uses HTTPS or CoAPS as protocol.
-        // Uses CMS or COSE signing.
-        String requestMediaType;
-        int requestContentFormat;
-        byte[] content = null;
-
-        // Uses CBOR or JSON voucher request format.
-        if (isJsonRVR) {
-          content = new JSONSerializer().serialize(req);
-        } else {
-          content = new CBORSerializer().serialize(req);
-        }
+        RestfulVoucherResponse response;
+        long admitted = System.nanoTime();
+        try {
+          // Constructing new voucher request (RVR) for MASA
+          // ref: section 5.5 BRSKI RFC8995
+          boolean isJsonRVR =
+              forcedVoucherRequestFormat == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON;
+          VoucherRequest req = new VoucherRequest();
+          if (!isJsonRVR) {
+            req.setConstrained(true);
+          }
+          req.setAssertion(pledgeReq.getAssertion()); // assertion copied from PVR
+          // Note, section 5.5: assertion MAY be omitted.
+
+          req.setNonce(pledgeReq.getNonce());
+
+          // Optionally present in Pledge's Voucher Request.
+          if (pledgeReq.getProximityRegistrarSPKI() != null) {
+            if (!Arrays.equals(
+                pledgeReq.getProximityRegistrarSPKI(),
+                getCertificate().getPublicKey().getEncoded())) {
+              logger.warn("unmatched proximity registrar SPKI in Pledge's Voucher Request");
+              exchange.respond(ResponseCode.BAD_REQUEST, "proximityRegistrarSPKI error");
+              return;
+            }
+          }
 
-        // store last sent RVR.
-        lastRvr = req;
+          // MUST NOT include (RFC 8995)
+          req.setProximityRegistrarSPKI(null);
 
-        // Assemble the certificates to place in the RVR's x5bag (cBRSKI section 9.2.1): the
-        // Registrar's own RVR-signing chain, followed by the full IDevID certificate chain that
-        // the Pledge presented in the DTLS handshake. The latter lets a MASA that does not store
-        // IDevIDs reconstruct and verify the Pledge's identity from its own manufacturer root CA.
-        List<X509Certificate> x5bagCerts = new ArrayList<>(Arrays.asList(certificateChain));
-        for (Certificate c : pledgeCertPath.getPath().getCertificates()) {
-          x5bagCerts.add((X509Certificate) c);
-        }
-        X509Certificate[] x5bag = x5bagCerts.toArray(new X509Certificate[0]);
-
-        // use CMS or COSE signing of the voucher request.
-        byte[] payload;
-        boolean isCms =
-            (forcedVoucherRequestFormat == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_CBOR
-                || forcedVoucherRequestFormat
-                == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON);
-        if (isCms) {
-          // CMS signing.
-          requestMediaType = isJsonRVR
-              ? ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_JSON
-              : ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_CBOR;
-          requestContentFormat = isJsonRVR
-              ? ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON
-              : ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_CBOR;
-          try {
-            payload =
-                SecurityUtils.genCMSSignedMessage(
-                    privateKey,
-                    getCertificate(),
-                    SecurityUtils.SIGNATURE_ALGORITHM,
-                    x5bag,
-                    content);
-          } catch (Exception e) {
-            logger.warn("CMS signing voucher request failed: " + e.getMessage(), e);
-            exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+          // SHOULD include (RFC 8995)
+          req.setCreatedOn(new Date());
+
+          // serialNumber provided by pledge's voucher request MUST match (RFC 8995) the
+          // one
+          // extracted from pledge's idevid.
+          req.setSerialNumber(Pledge.getSerialNumber(idevid));
+          if (req.getSerialNumber() == null
+              || !req.getSerialNumber().equals(pledgeReq.getSerialNumber())) {
+            logger.warn(
+                String.format(
+                    "bad serial number in voucher request: [%s] != [%s]",
+                    pledgeReq.getSerialNumber(), req.getSerialNumber()));
+            exchange.respond(ResponseCode.BAD_REQUEST, "serial number check failure");
             return;
           }
-        } else {
-          // COSE signing.
-          requestMediaType = ConstantsBrski.MEDIA_TYPE_VOUCHER_COSE_CBOR;
-          requestContentFormat = ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_COSE_CBOR;
-          try {
-            payload =
-                SecurityUtils.genCoseSign1Message(
-                    privateKey, SecurityUtils.COSE_SIGNATURE_ALGORITHM, content, x5bag);
-          } catch (Exception e) {
-            logger.warn("COSE signing voucher request failed: " + e.getMessage(), e);
-            exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+
+          // Optional, could be null, but MUST be included for nonceful Voucher Request
+          // (RFC 8995).
+          // Settting idevid-issuer as authority key identifier of pledge certificate.
+          // Mandatory for Thread 1.2. Note: this currently uses a working assumption
+          // that the right format is complete AKI SEQUENCE. (Not just KeyIdentifier OCTET STRING).
+          req.setIdevidIssuer(SecurityUtils.getAuthorityKeyIdentifier(idevid));
+          if (req.getIdevidIssuer() != null) {
+            logger.info(
+                String.format(
+                    "idevid-issuer inserted in Registrar voucher request [len=%d, %s]",
+                    req.getIdevidIssuer().length, Hex.toHexString(req.getIdevidIssuer())));
+          } else {
+            String msg = "missing AKI in Pledge IDevID certificate";
+            logger.warn(msg);
+            exchange.respond(ResponseCode.BAD_REQUEST, msg);
             return;
           }
-        }
 
-        // Request voucher from MASA server indicated in IDevID cert, or else the
-        // default one.
-        String uri = SecurityUtils.getMasaUri(idevid);
-        if ((uri == null || uri.length() == 0) && forcedMasaUri == null) {
-          uri = Constants.DEFAULT_MASA_URI;
-          logger.warn(
-              "pledge certificate does not include MASA uri, using default masa uri: " + uri);
-        } else if (uri != null && forcedMasaUri == null) {
-          logger.info("Constructing Registrar Voucher Req to MASA: " + uri);
-        } else {
-          uri = forcedMasaUri;
-          logger.info("Using forced MASA URI to send Registrar Voucher Req: " + uri);
-        }
+          // SHOULD include prior-signed-voucher-request (RFC 8995) with Pledge's
+          // COSE-signed voucher
+          // request
+          // Mandatory for Thread 1.2.
+          req.setPriorSignedVoucherRequest(exchange.getRequestPayload());
+
+          // Create voucher request to MASA. Uses HTTPS or CoAPS as protocol.
+          // Uses CMS or COSE signing.
+          String requestMediaType;
+          int requestContentFormat;
+          byte[] content = null;
+
+          // Uses CBOR or JSON voucher request format.
+          if (isJsonRVR) {
+            content = new JSONSerializer().serialize(req);
+          } else {
+            content = new CBORSerializer().serialize(req);
+          }
 
-        // store last sent COSE-signed RVR.
-        lastRvrCoseSigned = payload;
+          // store last sent RVR.
+          lastRvr = req;
+
+          // Assemble the certificates to place in the RVR's x5bag (cBRSKI section 9.2.1): the
+          // Registrar's own RVR-signing chain, followed by the full IDevID certificate chain that
+          // the Pledge presented in the DTLS handshake. The latter lets a MASA that does not store
+          // IDevIDs reconstruct and verify the Pledge's identity from its own manufacturer root CA.
+          List<X509Certificate> x5bagCerts = new ArrayList<>(Arrays.asList(certificateChain));
+          List<X509Certificate> pledgeCerts = new ArrayList<>();
+          for (Certificate c : pledgeCertPath.getPath().getCertificates()) {
+            pledgeCerts.add((X509Certificate) c);
+          }
+          x5bagCerts.addAll(pledgeCerts);
+          X509Certificate[] x5bag = x5bagCerts.toArray(new X509Certificate[0]);
+
+          // use CMS or COSE signing of the voucher request.
+          byte[] payload;
+          boolean isCms =
+              (forcedVoucherRequestFormat == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_CBOR
+                  || forcedVoucherRequestFormat
+                  == ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON);
+          if (isCms) {
+            // CMS signing.
+            requestMediaType = isJsonRVR
+                ? ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_JSON
+                : ConstantsBrski.MEDIA_TYPE_VOUCHER_CMS_CBOR;
+            requestContentFormat = isJsonRVR
+                ? ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_JSON
+                : ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_CMS_CBOR;
+            try {
+              start = System.nanoTime();
+              // the signer already includes the Registrar's own chain; add the Pledge's.
+              payload = rvrCmsSigner.sign(content, pledgeCerts.toArray(new X509Certificate[0]));
+              cmsRvrSigningTimes.recordSince(start);
+            } catch (Exception e) {
+              logger.warn("CMS signing voucher request failed: " + e.getMessage(), e);
+              exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+              return;
+            }
+          } else {
+            // COSE signing.
+            requestMediaType = ConstantsBrski.MEDIA_TYPE_VOUCHER_COSE_CBOR;
+            requestContentFormat = ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_COSE_CBOR;
+            try {
+              start = System.nanoTime();
+              payload =
+                  SecurityUtils.genCoseSign1Message(
+                      privateKey, SecurityUtils.COSE_SIGNATURE_ALGORITHM, content, x5bag);
+              coseRvrSigningTimes.recordSince(start);
+            } catch (Exception e) {
+              logger.warn("COSE signing voucher request failed: " + e.getMessage(), e);
+              exchange.respond(ResponseCode.SERVICE_UNAVAILABLE);
+              return;
+            }
+          }
 
-        RestfulVoucherResponse response = null;
-        if (isHttpToMasa) {
-          MASAConnectorHttp masaClient = new MASAConnectorHttp(masaTrustAnchors);
-          response = masaClient.requestVoucher(requestMediaType, payload, uri);
-        } else {
-          MASAConnector masaClient = new MASAConnector(masaTrustAnchors);
-          response = masaClient.requestVoucher(requestContentFormat, payload, uri);
+          // store last sent COSE-signed RVR.
+          lastRvrCoseSigned = payload;
+
+          byte[] rvr = payload;
+          String rvrMediaType = requestMediaType;
+          int rvrContentFormat = requestContentFormat;
+          response =
+              masaRouter.request(
+                  uri,
+                  (endpoint, timeoutMillis) ->
+                      requestVoucherFromMasa(
+                          endpoint, rvrMediaType, rvrContentFormat, rvr, timeoutMillis));
+        } finally {
+          masaRequestLimiter.release(uri, System.nanoTime() - admitted);
         }
 
         if (response == null) {
@@ -593,9 +1182,9 @@ public final class Registrar extends CoapServer {
         }
 
         // verify CBOR/COSE voucher
-        Sign1Message sign1Msg =
-            (Sign1Message) Message.DecodeFromBytes(response.getPayload(), MessageTag.Sign1);
-        Voucher v = new CBORSerializer().deserialize(sign1Msg.GetContent());
+        start = System.nanoTime();
+        CoseSign1 sign1Msg = CoseSign1.decode(response.getPayload());
+        Voucher v = new CBORSerializer().deserialize(sign1Msg.getPayload());
 
         // voucher is ok, log it
         voucherLog.put(clientId, v);
@@ -603,16 +1192,8 @@ public final class Registrar extends CoapServer {
         // Before forwarding the MASA voucher to the Pledge, strip its unprotected COSE header
         // attributes (x5bag/x5chain and any others) per cBRSKI section 6.8: they are for the
         // Registrar's own validation/logging use and only would add size on the constrained link.
-        byte[] voucherToForward;
-        try {
-          voucherToForward =
-              SecurityUtils.stripCoseSign1UnprotectedHeaders(response.getPayload());
-        } catch (RuntimeException e) {
-          // The payload already decoded as COSE_Sign1 above, so this is not expected; fall back to
-          // forwarding it unchanged rather than failing the onboarding.
-          logger.warn("could not strip unprotected COSE headers from voucher: {}", e.getMessage());
-          voucherToForward = response.getPayload();
-        }
+        byte[] voucherToForward = sign1Msg.stripUnprotectedHeaders();
+        voucherForwardTimes.recordSince(start);
 
         exchange.respond(
             response.getCoapCode(),
@@ -628,6 +1209,32 @@ public final class Registrar extends CoapServer {
     }
   }
 
+  /** Send a voucher request to one MASA endpoint, and record the exchange. */
+  private RestfulVoucherResponse requestVoucherFromMasa(
+      String endpoint,
+      String requestMediaType,
+      int requestContentFormat,
+      byte[] payload,
+      long timeoutMillis)
+      throws Exception {
+    RestfulVoucherResponse response = null;
+    long timeMillis = System.currentTimeMillis();
+    long start = System.nanoTime();
+    try {
+      if (isHttpToMasa) {
+        MASAConnectorHttp masaClient = new MASAConnectorHttp(masaTrustAnchors);
+        response = masaClient.requestVoucher(requestMediaType, payload, endpoint, timeoutMillis);
+      } else {
+        MASAConnector masaClient = new MASAConnector(masaTrustAnchors);
+        response =
+            masaClient.requestVoucher(requestContentFormat, payload, endpoint, timeoutMillis);
+      }
+      return response;
+    } finally {
+      recordMasaRequest(endpoint, timeMillis, start, requestMediaType, payload, response);
+    }
+  }
+
   /**
    * CoAP-based MASA connector, acts as client towards MASA.
    */
@@ -648,6 +1255,21 @@ public final class Registrar extends CoapServer {
     public RestfulVoucherResponse requestVoucher(
         int requestContentFormat, byte[] payload, String masaURI)
         throws IOException, ConnectorException {
+      return requestVoucher(requestContentFormat, payload, masaURI, 0);
+    }
+
+    /**
+     * Send new Voucher Request to MASA, giving up after the given timeout.
+     *
+     * @param timeoutMillis the time to wait for the response, or 0 to wait for the exchange to end
+     * @return null if a timeout error happens
+     */
+    public RestfulVoucherResponse requestVoucher(
+        int requestContentFormat, byte[] payload, String masaURI, long timeoutMillis)
+        throws IOException, ConnectorException {
+      if (timeoutMillis > 0) {
+        setTimeout(timeoutMillis);
+      }
       setURI("coaps://" + masaURI + ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER);
       // send request as CMS signed CBOR, accept only COSE-signed CBOR back.
       CoapResponse resp =
@@ -691,11 +1313,27 @@ public final class Registrar extends CoapServer {
      */
     public RestfulVoucherResponse requestVoucher(
         String requestMediaType, byte[] body, String masaURI) throws IOException {
+      return requestVoucher(requestMediaType, body, masaURI, 0);
+    }
+
+    /**
+     * Send new Voucher Request to MASA, giving up after the given timeout.
+     *
+     * @param timeoutMillis the time to wait for the connection, and then for the response, or 0
+     *                      to wait indefinitely
+     * @return null if any error happens
+     */
+    public RestfulVoucherResponse requestVoucher(
+        String requestMediaType, byte[] body, String masaURI, long timeoutMillis)
+        throws IOException {
       URL url =
           new URL(
               "https://" + masaURI + ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER_HTTP);
       // send request as CMS signed JSON, accept only COSE-signed CBOR back.
       HttpsURLConnection con = (HttpsURLConnection) url.openConnection();
+      int timeout = (int) Math.min(Integer.MAX_VALUE, timeoutMillis);
+      con.setConnectTimeout(timeout);
+      con.setReadTimeout(timeout);
       con.setUseCaches(false);
       con.setHostnameVerifier(new InsecureHostnameVerifier());
       con.setSSLSocketFactory(sc.getSocketFactory());
@@ -735,7 +1373,7 @@ public final class Registrar extends CoapServer {
     }
   }
 
-  public class EnrollResource extends CoapResource {
+  public class EnrollResource extends RecordedResource {
 
     public EnrollResource() {
       this(ConstantsBrski.SIMPLE_ENROLL);
@@ -764,9 +1402,26 @@ public final class Registrar extends CoapServer {
         byte[] payload = exchange.getRequestPayload();
 
         PKCS10CertificationRequest csr = new PKCS10CertificationRequest(payload);
-        X509Certificate cert = domainCA.signCertificate(csr);
-
-        logger.info("Signed new LDevID cert: subj=[{}]\n{}", cert.getSubjectX500Principal().toString(), SecurityUtils.toPEMFormat(cert));
+        Principal clientId = exchange.advanced().getRequest().getSourceContext().getPeerIdentity();
+        X509Certificate cert =
+            enrollmentCache.getOrIssue(
+                getIdentityEncoding(clientId),
+                csr.getEncoded(),
+                () -> {
+                  long start = System.nanoTime();
+                  if (!csr.isSignatureValid(
+                      new JcaContentVerifierProviderBuilder()
+                          .build(csr.getSubjectPublicKeyInfo()))) {
+                    throw new DomainCAException("POP verification failed");
+                  }
+                  csrPopTimes.recordSince(start);
+                  start = System.nanoTime();
+                  X509Certificate c =
+                      domainCA.signCertificate(csr.getSubject(), csr.getSubjectPublicKeyInfo());
+                  ldevidSigningTimes.recordSince(start);
+                  logger.info("Signed new LDevID cert: subj=[{}]\n{}", c.getSubjectX500Principal().toString(), SecurityUtils.toPEMFormat(c));
+                  return c;
+                });
 
         exchange.respond(
             ResponseCode.CHANGED,
@@ -781,6 +1436,17 @@ public final class Registrar extends CoapServer {
     }
   }
 
+  /**
+   * Get an encoding of a DTLS peer identity that is unique for the peer, for use as cache key.
+   */
+  private static byte[] getIdentityEncoding(Principal clientId)
+      throws CertificateEncodingException {
+    if (clientId instanceof X509CertPath) {
+      return ((X509CertPath) clientId).getTarget().getEncoded();
+    }
+    return String.valueOf(clientId).getBytes(StandardCharsets.UTF_8);
+  }
+
   public final class ReenrollResource extends EnrollResource {
 
     public ReenrollResource() {
@@ -788,7 +1454,82 @@ public final class Registrar extends CoapServer {
     }
   }
 
-  public final class CaCertsResource extends CoapResource {
+  /**
+   * EST server-side key generation (/skg) per RFC 9148 section 5. The Pledge sends a CSR signed
+   * with its current key, for POP; the Registrar takes a fresh key pair from its {@link
+   * KeyPairPool} and issues an LDevID certificate for the CSR's subject and that key. The response
+   * is application/multipart-core holding the private key (application/pkcs8) and the certificate
+   * (application/pkix-cert), in that order. The key is not encrypted separately: it is protected
+   * by the DTLS session.
+   */
+  public final class ServerKeyGenResource extends RecordedResource {
+
+    public ServerKeyGenResource() {
+      super(ConstantsBrski.SERVER_KEYGEN);
+    }
+
+    // the response holds the Pledge's private key.
+    @Override
+    protected boolean isResponsePayloadRecorded() {
+      return false;
+    }
+
+    @Override
+    public void handlePOST(CoapExchange exchange) {
+      try {
+        int contentFormat = exchange.getRequestOptions().getContentFormat();
+        RequestDumper.dump(logger, getURI(), exchange.getRequestPayload());
+
+        if (contentFormat != ExtendedMediaTypeRegistry.APPLICATION_PKCS10) {
+          exchange.respond(
+              ResponseCode.UNSUPPORTED_CONTENT_FORMAT,
+              "Only Content Format "
+                  + ExtendedMediaTypeRegistry.APPLICATION_PKCS10
+                  + " supported.");
+          return;
+        }
+
+        PKCS10CertificationRequest csr =
+            new PKCS10CertificationRequest(exchange.getRequestPayload());
+        long start = System.nanoTime();
+        if (!csr.isSignatureValid(
+            new JcaContentVerifierProviderBuilder().build(csr.getSubjectPublicKeyInfo()))) {
+          logger.warn("server-side key generation: POP verification failed");
+          exchange.respond(ResponseCode.BAD_REQUEST, "POP verification failed");
+          return;
+        }
+        csrPopTimes.recordSince(start);
+
+        KeyPair keyPair = keyPairPool.take();
+        start = System.nanoTime();
+        X509Certificate cert =
+            domainCA.signCertificate(
+                csr.getSubject(),
+                SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()));
+        ldevidSigningTimes.recordSince(start);
+        logger.info(
+            "Signed new LDevID cert for server-generated key: subj=[{}]\n{}",
+            cert.getSubjectX500Principal().toString(),
+            SecurityUtils.toPEMFormat(cert));
+
+        CBORObject container = CBORObject.NewArray();
+        container.Add(ExtendedMediaTypeRegistry.APPLICATION_PKCS8);
+        container.Add(keyPair.getPrivate().getEncoded());
+        container.Add(ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT);
+        container.Add(cert.getEncoded());
+
+        exchange.respond(
+            ResponseCode.CHANGED,
+            container.EncodeToBytes(),
+            ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE);
+      } catch (Exception e) {
+        logger.warn("server-side key generation failed: {}", e.getMessage(), e);
+        exchange.respond(ResponseCode.INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+
+  public final class CaCertsResource extends RegistrarResource {
 
     /**
      * The Content-Format returned when a request carries no CoAP Accept Option. A single
@@ -798,59 +1539,97 @@ public final class Registrar extends CoapServer {
     private static final int DEFAULT_CONTENT_FORMAT =
         ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT;
 
+    /** Max-Age (seconds) of a /crts response. Domain CA certificates change rarely. */
+    static final long MAX_AGE = 3600;
+
+    private static final int ETAG_LENGTH = 8;
+
+    // the response payload and ETag per supported Content-Format, for the current domain CA.
+    private volatile Map<Integer, Representation> representations = Collections.emptyMap();
+
     public CaCertsResource() {
       super(ConstantsBrski.CA_CERTIFICATES);
+      // RFC 7641: clients may observe /crts to learn of a domain CA change, instead of polling.
+      // Notifications are rare and matter, so they are sent confirmable.
+      setObservable(true);
+      setObserveType(Type.CON);
+      getAttributes().setObservable();
     }
 
-    @Override
-    public void handleGET(CoapExchange exchange) {
-      try {
-        RequestDumper.dump(logger, getURI(), exchange.getRequestPayload());
-
-        int accept = exchange.getRequestOptions().getAccept();
-        if (accept == MediaTypeRegistry.UNDEFINED) {
-          accept = DEFAULT_CONTENT_FORMAT;
-        }
+    /**
+     * Encode the CA certificates of the given domain CA in each supported Content-Format, so that
+     * requests are answered without any encoding work, and notify all observers of the change.
+     *
+     * @param ca the new domain CA, or null if none
+     */
+    void update(DomainCA ca) throws Exception {
+      if (ca == null) {
+        representations = Collections.emptyMap();
+        changed();
+        return;
+      }
 
-        // The chain is in CA hierarchy order already: the CA that issues the Pledge's LDevID
-        // first, then any higher-level CAs, which is the order cBRSKI requires on the wire.
-        X509Certificate[] caCerts = domainCA.getCertificateChain();
-        byte[] payload;
+      // The chain is in CA hierarchy order already: the CA that issues the Pledge's LDevID
+      // first, then any higher-level CAs, which is the order cBRSKI requires on the wire.
+      X509Certificate[] caCerts = ca.getCertificateChain();
+      Map<Integer, Representation> reps = new HashMap<>();
+      // Only the single CA certificate that is the CA authority for the requesting Pledge.
+      reps.put(
+          ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT,
+          new Representation(caCerts[0].getEncoded()));
+      reps.put(
+          ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE,
+          new Representation(encodeMultipartCore(caCerts)));
+      reps.put(
+          ExtendedMediaTypeRegistry.APPLICATION_PKCS7_MIME_CERTS_ONLY,
+          new Representation(SecurityUtils.genCMSCertOnlyMessage(caCerts).getEncoded()));
+      representations = reps;
+      if (getObserverCount() > 0) {
+        logger.info("CA certificates changed, notifying {} observer(s)", getObserverCount());
+      }
+      changed();
+    }
 
-        switch (accept) {
-          case ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT:
-            // Only the single CA certificate that is the CA authority for the requesting Pledge.
-            payload = caCerts[0].getEncoded();
-            break;
+    @Override
+    public void handleGET(CoapExchange exchange) {
+      RequestDumper.dump(logger, getURI(), exchange.getRequestPayload());
 
-          case ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE:
-            payload = encodeMultipartCore(caCerts);
-            break;
+      int accept = exchange.getRequestOptions().getAccept();
+      if (accept == MediaTypeRegistry.UNDEFINED) {
+        accept = DEFAULT_CONTENT_FORMAT;
+      }
 
-          case ExtendedMediaTypeRegistry.APPLICATION_PKCS7_MIME_CERTS_ONLY:
-            payload = SecurityUtils.genCMSCertOnlyMessage(caCerts).getEncoded();
-            break;
+      Map<Integer, Representation> reps = representations;
+      if (reps.isEmpty()) {
+        logger.warn("CA Certificates request failed: no domain CA set");
+        exchange.respond(ResponseCode.INTERNAL_SERVER_ERROR);
+        return;
+      }
 
-          default:
-            logger.warn(
-                "CA Certificates request for unsupported Content-Format [{}]; returning 4.06",
-                accept);
-            exchange.respond(
-                ResponseCode.NOT_ACCEPTABLE,
-                "supported Content-Formats: "
-                    + ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE
-                    + ", "
-                    + ExtendedMediaTypeRegistry.APPLICATION_PKCS7_MIME_CERTS_ONLY
-                    + ", "
-                    + ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT);
-            return;
-        }
+      Representation rep = reps.get(accept);
+      if (rep == null) {
+        logger.warn(
+            "CA Certificates request for unsupported Content-Format [{}]; returning 4.06", accept);
+        exchange.respond(
+            ResponseCode.NOT_ACCEPTABLE,
+            "supported Content-Formats: "
+                + ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE
+                + ", "
+                + ExtendedMediaTypeRegistry.APPLICATION_PKCS7_MIME_CERTS_ONLY
+                + ", "
+                + ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT);
+        return;
+      }
 
-        exchange.respond(ResponseCode.CONTENT, payload, accept);
-      } catch (Exception e) {
-        logger.warn("CA Certificates request failed: " + e.getMessage());
-        exchange.respond(ResponseCode.INTERNAL_SERVER_ERROR);
+      exchange.setETag(rep.etag);
+      exchange.setMaxAge(MAX_AGE);
+      // RFC 7252 section 5.10.6.2: a client holding a stored representation lists its ETag in
+      // the request; if that is still current, 2.03 Valid confirms it without a payload.
+      if (exchange.getRequestOptions().containsETag(rep.etag)) {
+        exchange.respond(ResponseCode.VALID);
+        return;
       }
+      exchange.respond(ResponseCode.CONTENT, rep.payload, accept);
     }
 
     /**
@@ -867,9 +1646,21 @@ public final class Registrar extends CoapServer {
       }
       return container.EncodeToBytes();
     }
+
+    private final class Representation {
+
+      private final byte[] payload;
+      private final byte[] etag;
+
+      private Representation(byte[] payload) throws NoSuchAlgorithmException {
+        this.payload = payload;
+        this.etag =
+            Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(payload), ETAG_LENGTH);
+      }
+    }
   }
 
-  public final class WellknownCoreResource extends CoapResource {
+  public final class WellknownCoreResource extends RegistrarResource {
 
     public WellknownCoreResource() {
       super(ConstantsBrski.CORE);
@@ -884,6 +1675,23 @@ public final class Registrar extends CoapServer {
     }
   }
 
+  /**
+   * Serves the Registrar's metrics in the Prometheus text format. Like all resources, it is only
+   * reachable over DTLS, by a client the Registrar accepts.
+   */
+  public final class MetricsResource extends RegistrarResource {
+
+    public MetricsResource() {
+      super(Constants.METRICS_PATH);
+    }
+
+    @Override
+    public void handleGET(CoapExchange exchange) {
+      exchange.respond(
+          ResponseCode.CONTENT, metrics.getPrometheusText(), MediaTypeRegistry.TEXT_PLAIN);
+    }
+  }
+
   /**
    * return a List of all clients that ever used this Registrar.
    *
@@ -905,10 +1713,7 @@ public final class Registrar extends CoapServer {
    * format, it returns StatusTelemetry.UNDEFINED.
    */
   public StatusTelemetry getVoucherStatusLogEntry(Principal client) {
-    if (voucherStatusLog.containsKey(client)) {
-      return voucherStatusLog.get(client);
-    }
-    return null;
+    return voucherStatusLog.get(client);
   }
 
   /**
@@ -919,10 +1724,7 @@ public final class Registrar extends CoapServer {
    * format, it returns StatusTelemetry.UNDEFINED.
    */
   public StatusTelemetry getEnrollStatusLogEntry(Principal client) {
-    if (enrollStatusLog.containsKey(client)) {
-      return enrollStatusLog.get(client);
-    }
-    return null;
+    return enrollStatusLog.get(client);
   }
 
   /**
@@ -969,15 +1771,17 @@ public final class Registrar extends CoapServer {
     VoucherRequestResource rv = new VoucherRequestResource();
     VoucherStatusResource vs = new VoucherStatusResource();
     EnrollStatusResource es = new EnrollStatusResource();
-    CaCertsResource crts = new CaCertsResource();
+    caCertsResource = new CaCertsResource();
     EnrollResource enroll = new EnrollResource();
     ReenrollResource reenroll = new ReenrollResource();
+    ServerKeyGenResource skg = new ServerKeyGenResource();
     WellknownCoreResource core = new WellknownCoreResource();
 
     // EST and BRSKI and CoRE well-known resources
     est.add(enroll);
     est.add(reenroll);
-    est.add(crts);
+    est.add(skg);
+    est.add(caCertsResource);
     brski.add(rv);
     brski.add(vs);
     brski.add(es);
@@ -988,12 +1792,207 @@ public final class Registrar extends CoapServer {
 
     // 'hello' test resource
     this.add(
-        new CoapResource(Constants.HELLO_PATH) {
+        new RegistrarResource(Constants.HELLO_PATH) {
           @Override
           public void handleGET(CoapExchange exchange) {
             exchange.respond(ResponseCode.CONTENT, "hello CoAP");
           }
         });
+    this.add(new MetricsResource());
+  }
+
+  private void initResourceExecutors() {
+    // a voucher request mostly waits for the MASA, so more of them can run than there are cores.
+    addResourceExecutor(ConstantsBrski.REQUEST_VOUCHER, 8, Thread.NORM_PRIORITY);
+    // enrollment signs with the domain CA key, which is CPU-bound.
+    addResourceExecutor(ConstantsBrski.SIMPLE_ENROLL, 2, Thread.NORM_PRIORITY);
+    addResourceExecutor(ConstantsBrski.SIMPLE_REENROLL, 2, Thread.NORM_PRIORITY);
+    addResourceExecutor(ConstantsBrski.SERVER_KEYGEN, 2, Thread.NORM_PRIORITY);
+    // the cheap requests should stay fast while the above are saturated.
+    for (String resource :
+        new String[] {
+          ConstantsBrski.VOUCHER_STATUS,
+          ConstantsBrski.ENROLL_STATUS,
+          ConstantsBrski.CA_CERTIFICATES,
+          ConstantsBrski.CORE,
+          Constants.HELLO_PATH,
+          Constants.METRICS_PATH
+        }) {
+      addResourceExecutor(resource, 2, Thread.NORM_PRIORITY + 2);
+    }
+  }
+
+  private void addResourceExecutor(String resource, int threads, int priority) {
+    resourceExecutors.put(
+        resource,
+        new ResourceExecutor(
+            RESOURCE_EXECUTOR_PREFIX + resource,
+            threads,
+            ResourceExecutor.DEFAULT_QUEUE_CAPACITY,
+            priority));
+  }
+
+  private void initMetrics() {
+    metrics.counter(
+        "registrar_dtls_handshakes_total",
+        "DTLS handshakes with Pledges.",
+        dtlsStatistics::getFullHandshakes,
+        "result",
+        "full");
+    metrics.counter(
+        "registrar_dtls_handshakes_total",
+        "DTLS handshakes with Pledges.",
+        dtlsStatistics::getAbbreviatedHandshakes,
+        "result",
+        "abbreviated");
+    metrics.counter(
+        "registrar_dtls_handshakes_total",
+        "DTLS handshakes with Pledges.",
+        dtlsStatistics::getFailedHandshakes,
+        "result",
+        "failed");
+    metrics.counter(
+        "registrar_dtls_handshakes_throttled_total",
+        "ClientHellos dropped by the handshake rate limit.",
+        dtlsStatistics::getThrottledHandshakes);
+    metrics.counter(
+        "registrar_masa_requests_rejected_total",
+        "Voucher requests turned away with 5.03 because of the limits on requests to MASAs.",
+        () -> masaRequestLimiter.getRejectedCount());
+    metrics.counter(
+        "registrar_masa_circuit_opened_total",
+        "Times a MASA endpoint's circuit opened after failed voucher requests.",
+        masaRouter::getCircuitOpenedCount);
+    metrics.counter(
+        "registrar_masa_requests_hedged_total",
+        "Voucher requests also sent to a second MASA endpoint because the first was slow.",
+        masaRouter::getHedgedCount);
+    metrics.histogram(
+        "registrar_dtls_handshake_seconds",
+        "Time from a Pledge's verified ClientHello to the completed handshake.",
+        dtlsStatistics.getFullHandshakeTimes(),
+        "type",
+        "full");
+    metrics.histogram(
+        "registrar_dtls_handshake_seconds",
+        "Time from a Pledge's verified ClientHello to the completed handshake.",
+        dtlsStatistics.getAbbreviatedHandshakeTimes(),
+        "type",
+        "abbreviated");
+  }
+
+  private void recordMasaRequest(
+      String uri,
+      long timeMillis,
+      long startNanos,
+      String requestMediaType,
+      byte[] request,
+      RestfulVoucherResponse response) {
+    long duration = System.nanoTime() - startNanos;
+    metrics
+        .histogram(
+            "registrar_masa_request_seconds",
+            "Round-trip time of a voucher request to a MASA.",
+            "masa",
+            uri)
+        .record(duration);
+    exchangeRecorder.record(
+        new ExchangeRecorder.Entry(
+            timeMillis,
+            duration,
+            uri,
+            null,
+            null,
+            requestMediaType,
+            request,
+            response == null || response.getCoapCode() == null
+                ? null
+                : CoAP.formatCode(response.getCoapCode().value),
+            response == null || response.getPayload() == null
+                ? null
+                : ExtendedMediaTypeRegistry.toString(response.getContentFormat()),
+            response == null ? null : response.getPayload()));
+    if (response == null || !response.isSuccess()) {
+      metrics
+          .counter(
+              "registrar_masa_errors_total",
+              "Voucher requests to a MASA that failed or got an error response.",
+              "masa",
+              uri)
+          .increment();
+    }
+  }
+
+  /**
+   * Save the DTLS sessions to a temporary file readable by the owner only, then move it over the
+   * session store, so that the store is never readable by others nor left half written.
+   */
+  private void saveSessions() {
+    Path tmp = null;
+    try {
+      Path dir = sessionStore.toAbsolutePath().getParent();
+      String prefix = sessionStore.getFileName().toString();
+      try {
+        tmp = Files.createTempFile(dir, prefix, ".tmp", SESSION_STORE_PERMISSIONS);
+      } catch (UnsupportedOperationException e) {
+        logger.warn(
+            "file system of {} has no POSIX permissions: restrict access to the DTLS session store",
+            sessionStore);
+        tmp = Files.createTempFile(dir, prefix, ".tmp");
+      }
+      int count = 0;
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        // the connections' timestamps are in uptime nanoseconds, so record that clock's offset.
+        out.writeLong(ClockUtil.nanoRealtime());
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(dtlsConnectors.size());
+        for (DTLSConnector connector : dtlsConnectors) {
+          count += connector.saveConnections(out, SESSION_STORE_MAX_QUIET_PERIOD.getSeconds());
+        }
+      }
+      Files.move(
+          tmp, sessionStore, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      tmp = null;
+      logger.info("saved {} DTLS session(s) to {}", count, sessionStore);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("could not save DTLS sessions to {}: {}", sessionStore, e.getMessage(), e);
+    } finally {
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+          logger.warn("could not delete {}: {}", tmp, e.getMessage());
+        }
+      }
+    }
+  }
+
+  private void loadSessions() {
+    if (!Files.exists(sessionStore)) {
+      return;
+    }
+    try {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(sessionStore)))) {
+        long savedNanos = in.readLong();
+        long savedMillis = in.readLong();
+        long delta =
+            ClockUtil.nanoRealtime()
+                - savedNanos
+                - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - savedMillis);
+        int sections = in.readInt();
+        int count = 0;
+        for (int i = 0; i < sections; i++) {
+          count += dtlsConnectors.get(i % dtlsConnectors.size()).loadConnections(in, delta);
+        }
+        logger.info("restored {} DTLS session(s) from {}", count, sessionStore);
+      } finally {
+        Files.delete(sessionStore);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("could not restore DTLS sessions from {}: {}", sessionStore, e.getMessage(), e);
+    }
   }
 
   private void initEndpoint() {
@@ -1009,12 +2008,22 @@ public final class Registrar extends CoapServer {
               trustAnchors.toArray(new X509Certificate[0])); // trust only given MASA CAs.
     }
 
-    CoapEndpoint endpoint =
-        SecurityUtils.genCoapServerEndPoint(
-            listenPort, null, privateKey, certificateChain, verifier);
-    // Log every received request (incl. unknown-path / unsupported-method ones) for interop testing.
-    endpoint.addInterceptor(new RequestLoggingInterceptor());
-    addEndpoint(endpoint);
+    // one endpoint per socket; all serve the same resources and onboarding state.
+    for (CoapEndpoint endpoint :
+        SecurityUtils.genCoapServerEndPoints(
+            listenPort,
+            null,
+            privateKey,
+            certificateChain,
+            verifier,
+            dtlsSettings,
+            dtlsStatistics)) {
+      dtlsConnectors.add((DTLSConnector) endpoint.getConnector());
+      // Log every received request (incl. unknown-path / unsupported-method ones) for interop
+      // testing.
+      endpoint.addInterceptor(new RequestLoggingInterceptor());
+      addEndpoint(endpoint);
+    }
   }
 
 }
@@ -29,9 +29,12 @@
 package com.google.openthread.registrar;
 
 import com.google.openthread.Credentials;
+import com.google.openthread.DtlsSettings;
 import com.google.openthread.brski.ConstantsBrski;
+import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -45,6 +48,14 @@ public final class RegistrarBuilder {
   private int port = ConstantsBrski.DEFAULT_REGISTRAR_COAPS_PORT;
   private boolean isHttpToMasa = true;
   private boolean isTrustAllMasas = false;
+  private boolean isCmsSelfVerification = false;
+  private Duration enrollmentCacheWindow = EnrollmentCache.DEFAULT_WINDOW;
+  private int keyPairPoolCapacity = KeyPairPool.DEFAULT_CAPACITY;
+  private int keyPairPoolLowWaterMark = KeyPairPool.DEFAULT_LOW_WATER_MARK;
+  private int keyPairPoolRefillThreads = KeyPairPool.DEFAULT_REFILL_THREADS;
+  private DtlsSettings dtlsSettings = new DtlsSettings();
+  private Path sessionStore;
+  private boolean isVirtualThreads = false;
 
   /**
    * Supply the credentials to be used for Registrar in its role as MASA-client. By default, no
@@ -120,6 +131,79 @@ public final class RegistrarBuilder {
     return this;
   }
 
+  /**
+   * Sets whether the Registrar verifies its own CMS signature on each CMS-signed voucher request
+   * it creates. This is a debug check that doubles the signing cost; by default it is 'false'.
+   */
+  public RegistrarBuilder setCmsSelfVerification(boolean isEnabled) {
+    this.isCmsSelfVerification = isEnabled;
+    return this;
+  }
+
+  /**
+   * Sets the time window in which a repeated enrollment request with the same CSR, from the same
+   * Pledge, gets the LDevID certificate issued before rather than a newly signed one. This keeps
+   * responses consistent when a Pledge retries after a lost response. Zero disables this.
+   */
+  public RegistrarBuilder setEnrollmentCacheWindow(Duration window) {
+    if (window.isNegative()) {
+      throw new IllegalArgumentException("window must not be negative");
+    }
+    this.enrollmentCacheWindow = window;
+    return this;
+  }
+
+  /**
+   * Sets the pool of pre-generated key pairs used for server-side key generation (/skg). The pool
+   * holds up to 'capacity' key pairs, and is refilled by 'refillThreads' background threads once
+   * it drops to 'lowWaterMark' key pairs.
+   */
+  public RegistrarBuilder setKeyPairPool(int capacity, int lowWaterMark, int refillThreads) {
+    // validate early, in the same way the pool itself does.
+    new KeyPairPool(capacity, lowWaterMark, refillThreads);
+    this.keyPairPoolCapacity = capacity;
+    this.keyPairPoolLowWaterMark = lowWaterMark;
+    this.keyPairPoolRefillThreads = refillThreads;
+    return this;
+  }
+
+  /**
+   * Sets the settings of the DTLS connector serving the Pledges, e.g. its Connection ID node ID,
+   * threads and connection store limits. By default, {@code new DtlsSettings()} is used.
+   */
+  public RegistrarBuilder setDtlsSettings(DtlsSettings settings) {
+    this.dtlsSettings = Objects.requireNonNull(settings, "settings");
+    return this;
+  }
+
+  /**
+   * Sets a file to keep the DTLS sessions with Pledges in while the Registrar is stopped, so that
+   * Pledges can resume their sessions after a Registrar restart. By default, sessions are not
+   * kept. See {@link Registrar#setSessionStore(Path)}.
+   */
+  public RegistrarBuilder setSessionStore(Path file) {
+    this.sessionStore = file;
+    return this;
+  }
+
+  /**
+   * Sets whether the Registrar handles cBRSKI and EST requests on virtual threads (JDK 21 or later).
+   * By default, it uses the CoAP server's executor. See {@link
+   * Registrar#setVirtualThreads(boolean)}.
+   */
+  public RegistrarBuilder setVirtualThreads(boolean isVirtualThreads) {
+    this.isVirtualThreads = isVirtualThreads;
+    return this;
+  }
+
+  /**
+   * Sets the settings of the DTLS connector serving the Pledges to those of the given deployment
+   * profile. See {@link DtlsSettings#forProfile(DtlsSettings.Profile)}.
+   */
+  public RegistrarBuilder setDtlsProfile(DtlsSettings.Profile profile) {
+    return setDtlsSettings(DtlsSettings.forProfile(profile));
+  }
+
   /**
    * Return the number of supported/trusted MASA servers. Use addMasaCertificate() to add more
    * trusted MASA servers.
@@ -143,12 +227,21 @@ public final class RegistrarBuilder {
       throw new RegistrarException(
           "MASA trust anchors set and setTrustAllMasas(true); these are mutually exclusive");
     }
-    return new Registrar(
-        credentials,
-        masaCerts,
-        masaClientCredentials == null ? credentials : masaClientCredentials,
-        port,
-        isHttpToMasa);
+    Registrar registrar =
+        new Registrar(
+            credentials,
+            masaCerts,
+            masaClientCredentials == null ? credentials : masaClientCredentials,
+            port,
+            isHttpToMasa,
+            dtlsSettings);
+    registrar.setCmsSelfVerification(isCmsSelfVerification);
+    registrar.setEnrollmentCacheWindow(enrollmentCacheWindow);
+    registrar.setSessionStore(sessionStore);
+    registrar.setVirtualThreads(isVirtualThreads);
+    registrar.setKeyPairPool(
+        new KeyPairPool(keyPairPoolCapacity, keyPairPoolLowWaterMark, keyPairPoolRefillThreads));
+    return registrar;
   }
 
   private X509Certificate[] getMasaCertificates() {
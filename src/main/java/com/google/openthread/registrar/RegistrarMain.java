@@ -30,9 +30,11 @@ package com.google.openthread.registrar;
 
 import com.google.openthread.Credentials;
 import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
 import com.google.openthread.domainca.DomainCA;
 import com.google.openthread.main.OtRegistrarConfig;
 import com.google.openthread.tools.CredentialGenerator;
+import java.nio.file.Paths;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +57,29 @@ public final class RegistrarMain {
       // re-use the same creds for Pledge-facing identity and MASA-facing identity of Registrar.
       builder.setCredentials(cred);
       builder.setPort(config.serverPort);
+      DtlsSettings dtlsSettings =
+          DtlsSettings.forProfile(config.dtlsProfile)
+              .setConnectionIdNodeId(config.connectionIdNodeId);
+      if (config.dtlsConnectorThreads > 0) {
+        dtlsSettings.setConnectorThreads(config.dtlsConnectorThreads);
+      }
+      if (config.dtlsMaxConnections > 0) {
+        dtlsSettings.setMaxConnections(config.dtlsMaxConnections);
+      }
+      dtlsSettings.setSockets(config.dtlsSockets);
+      if (config.handshakeRate >= 0) {
+        dtlsSettings.setHandshakeRateLimit(config.handshakeRate, config.handshakeBurst);
+      }
+      if (config.sourceHandshakeRate >= 0) {
+        dtlsSettings.setSourceHandshakeRateLimit(
+            config.sourceHandshakeRate, config.sourceHandshakeBurst);
+      }
+      builder.setDtlsSettings(dtlsSettings);
+      logger.info("DTLS connector: {}", dtlsSettings);
+      if (config.sessionStoreFile != null) {
+        builder.setSessionStore(Paths.get(config.sessionStoreFile));
+      }
+      builder.setVirtualThreads(config.virtualThreads);
 
       // TODO: support configurable MASA trust anchors. When a MASA identity is supplied
       //   in the credentials file (or via a CLI flag), pin only that one via
@@ -75,6 +100,10 @@ public final class RegistrarMain {
     }
 
     registrar.start();
+    if (config.sessionStoreFile != null) {
+      // save the DTLS sessions also when the Registrar is ended by a signal.
+      Runtime.getRuntime().addShutdownHook(new Thread(registrar::stop, "registrar-shutdown"));
+    }
     logger.info("Registrar listening (CoAPS) at port: {}", registrar.getListenPort());
     return 0;
   }
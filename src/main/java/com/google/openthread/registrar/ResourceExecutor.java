@@ -0,0 +1,192 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The executor of the requests to one Registrar resource: a fixed number of threads with a bounded
+ * queue. Giving each resource its own executor keeps a backlog on an expensive resource, like
+ * voucher requests waiting for the MASA, from delaying the cheap ones. A task that finds all
+ * threads busy and the queue full is rejected at once, rather than waiting, so that the Registrar
+ * can tell the client to come back later.
+ *
+ * <p>The threads run at the given priority. On Linux, the JVM only applies thread priorities when
+ * started with {@code -XX:ThreadPriorityPolicy=1} and sufficient privileges; the separate threads
+ * and queues isolate the resources regardless.
+ */
+public final class ResourceExecutor implements Executor {
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 128;
+
+  // idle threads end after this time, so that rarely used resources do not keep threads.
+  private static final long KEEP_ALIVE_SECONDS = 60;
+  // assumed time to handle a request, until one is measured.
+  private static final Duration INITIAL_SERVICE_TIME = Duration.ofMillis(100);
+
+  private final String name;
+  private final int threads;
+  private final int queueCapacity;
+  private final int priority;
+  private final AtomicLong rejected = new AtomicLong();
+  private final DrainEstimator drain = new DrainEstimator(INITIAL_SERVICE_TIME);
+
+  private volatile ThreadPoolExecutor executor;
+
+  /**
+   * Create a new executor. It accepts tasks once {@link #start()}ed.
+   *
+   * @param name the prefix of the threads' names
+   * @param threads the number of threads, i.e. of tasks running at the same time
+   * @param queueCapacity the number of tasks that can wait for a thread, which may be zero
+   * @param priority the threads' priority, from {@link Thread#MIN_PRIORITY} to {@link
+   *     Thread#MAX_PRIORITY}
+   */
+  public ResourceExecutor(String name, int threads, int queueCapacity, int priority) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be at least 1");
+    }
+    if (queueCapacity < 0) {
+      throw new IllegalArgumentException("queue capacity must not be negative");
+    }
+    if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
+      throw new IllegalArgumentException("priority must be in [MIN_PRIORITY, MAX_PRIORITY]");
+    }
+    this.name = name;
+    this.threads = threads;
+    this.queueCapacity = queueCapacity;
+    this.priority = priority;
+  }
+
+  /** Start accepting tasks. The threads are started as tasks arrive. */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    BlockingQueue<Runnable> queue =
+        queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            queue,
+            r -> {
+              Thread t = new Thread(r, name + "-" + threadCount.incrementAndGet());
+              t.setDaemon(true);
+              t.setPriority(priority);
+              return t;
+            });
+    pool.allowCoreThreadTimeOut(true);
+    executor = pool;
+  }
+
+  /** Stop the threads. Waiting tasks are dropped, and new tasks are rejected until restarted. */
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Run a task on one of the threads, or queue it if all are busy.
+   *
+   * @throws RejectedExecutionException if the queue is full or the executor is not started
+   */
+  @Override
+  public void execute(Runnable task) {
+    ThreadPoolExecutor pool = executor;
+    if (pool == null) {
+      throw new RejectedExecutionException(name + " not started");
+    }
+    try {
+      pool.execute(
+          () -> {
+            long start = System.nanoTime();
+            try {
+              task.run();
+            } finally {
+              drain.record(System.nanoTime() - start);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw e;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  /** @return the number of tasks waiting for a thread */
+  public int getQueueSize() {
+    ThreadPoolExecutor pool = executor;
+    return pool == null ? 0 : pool.getQueue().size();
+  }
+
+  /**
+   * Get the time until a task submitted now would run if the queue had room, from the queue's
+   * current drain rate. This is the retry time for a request turned away by a full queue.
+   *
+   * @return the time in seconds
+   */
+  public int getRetryAfterSeconds() {
+    return drain.secondsToDrain(getQueueSize(), threads);
+  }
+
+  /** @return the number of tasks rejected because the queue was full */
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+}
@@ -21,14 +21,14 @@
 
 package com.google.openthread.tools;
 
-import COSE.MessageTag;
-import COSE.OneKey;
-import COSE.Sign1Message;
+import com.google.openthread.CoseSign1;
 import com.google.openthread.SecurityUtils;
 import com.upokecenter.cbor.CBORObject;
 import java.io.File;
 import java.nio.file.Files;
+import java.security.PublicKey;
 import java.security.cert.X509Certificate;
+import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,11 +73,12 @@ public final class CoseValidator {
 
   public boolean validateCose(CBORObject cose, X509Certificate cert) {
     try {
-      OneKey pubKey = new OneKey(cert.getPublicKey(), null);
-      logger.info("Validating COSE_Sign1 object against public key: {}", pubKey.AsCBOR());
-      Sign1Message msg =
-          (Sign1Message) Sign1Message.DecodeFromBytes(cose.EncodeToBytes(), MessageTag.Sign1);
-      return msg.validate(pubKey);
+      PublicKey pubKey = cert.getPublicKey();
+      logger.info(
+          "Validating COSE_Sign1 object against public key: {}",
+          Hex.toHexString(pubKey.getEncoded()));
+      CoseSign1 msg = CoseSign1.decode(cose.EncodeToBytes());
+      return msg.verify(pubKey);
     } catch (Exception ex) {
       logger.error("Validation failed", ex);
     }
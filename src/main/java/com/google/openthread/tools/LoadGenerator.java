@@ -0,0 +1,548 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.tools;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
+import com.google.openthread.LoggerInitializer;
+import com.google.openthread.domainca.DomainCA;
+import com.google.openthread.masa.MASA;
+import com.google.openthread.pledge.Pledge;
+import com.google.openthread.registrar.Registrar;
+import com.google.openthread.registrar.RegistrarBuilder;
+import com.google.openthread.thread.ConstantsThread;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tool (CLI) that onboards a fleet of simulated Pledges onto an in-process Registrar and MASA, to
+ * size Registrar hardware and to catch scalability regressions. Each Pledge gets its own IDevID
+ * from a {@link CredentialGenerator} and runs the cBRSKI phases of {@link Phase}; a number of them
+ * run concurrently. The report gives the joins/sec, the latency percentiles of each phase and the
+ * process CPU use and allocation rate. Pledges, Registrar and MASA share the process, so the CPU
+ * and allocation figures include the Pledges' share: the ECDSA signing of a Pledge costs about as
+ * much as the verification by the Registrar.
+ */
+public final class LoadGenerator {
+
+  /** The phases of a Pledge's onboarding, in order, and the whole join. */
+  public enum Phase {
+    VOUCHER("voucher"),
+    VOUCHER_STATUS("voucher-status"),
+    ENROLL("enroll"),
+    ENROLL_STATUS("enroll-status"),
+    REENROLL("reenroll"),
+    JOIN("join");
+
+    private final String name;
+
+    Phase(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+  private static final String HELP_FORMAT = "\nLoadGenerator [...<see options below>...]\n";
+  private static final int DEFAULT_REGISTRAR_PORT = 5784;
+  private static final int DEFAULT_MASA_PORT = 9543;
+  // failures logged in full; the others are only counted.
+  private static final int MAX_LOGGED_FAILURES = 5;
+
+  private final int pledges;
+  private final int concurrency;
+  private int warmupPledges;
+  private boolean isReenroll;
+  private DtlsSettings dtlsSettings = new DtlsSettings();
+  private boolean isVirtualThreads;
+  private int registrarPort = DEFAULT_REGISTRAR_PORT;
+  private int masaPort = DEFAULT_MASA_PORT;
+
+  /**
+   * @param pledges     the number of Pledges to onboard and measure
+   * @param concurrency the number of Pledges onboarding at the same time
+   */
+  public LoadGenerator(int pledges, int concurrency) {
+    if (pledges < 1 || concurrency < 1) {
+      throw new IllegalArgumentException("pledges and concurrency must be at least 1");
+    }
+    this.pledges = pledges;
+    this.concurrency = concurrency;
+  }
+
+  /** Set the number of Pledges onboarded before measuring, to warm up the JIT and caches. */
+  public void setWarmupPledges(int warmupPledges) {
+    this.warmupPledges = warmupPledges;
+  }
+
+  /** Set whether each Pledge also reenrolls after its enrollment. */
+  public void setReenroll(boolean isReenroll) {
+    this.isReenroll = isReenroll;
+  }
+
+  /** Set the settings of the Registrar's DTLS connector. */
+  public void setDtlsSettings(DtlsSettings dtlsSettings) {
+    this.dtlsSettings = dtlsSettings;
+  }
+
+  /** Set whether the Registrar and MASA handle requests on virtual threads (JDK 21 or later). */
+  public void setVirtualThreads(boolean isVirtualThreads) {
+    this.isVirtualThreads = isVirtualThreads;
+  }
+
+  public void setRegistrarPort(int registrarPort) {
+    this.registrarPort = registrarPort;
+  }
+
+  public void setMasaPort(int masaPort) {
+    this.masaPort = masaPort;
+  }
+
+  /**
+   * Start a MASA and Registrar, onboard the warm-up Pledges and then the measured ones, and stop
+   * the servers again.
+   *
+   * @return the report of the measured Pledges
+   */
+  public Report run() throws Exception {
+    CredentialGenerator cg = new CredentialGenerator();
+    cg.setMasaUri("localhost:" + masaPort);
+    cg.make(null, null, null, null, null);
+
+    long start = System.nanoTime();
+    List<Credentials> idevids = new ArrayList<>();
+    for (int i = 0; i < warmupPledges + pledges; i++) {
+      cg.makePledge(null);
+      idevids.add(cg.getCredentials(CredentialsSet.PLEDGE_ALIAS));
+    }
+    logger.info(
+        "generated {} Pledge IDevIDs in {} ms",
+        idevids.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+    MASA masa =
+        new MASA(
+            cg.getCredentials(CredentialsSet.MASA_ALIAS),
+            cg.getCredentials(CredentialsSet.MASA_CA_ALIAS),
+            masaPort);
+    masa.setVirtualThreads(isVirtualThreads);
+    Registrar registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setPort(registrarPort)
+            .setTrustAllMasas(true)
+            .setDtlsSettings(dtlsSettings)
+            .setVirtualThreads(isVirtualThreads)
+            .build();
+    registrar.setDomainCA(
+        new DomainCA(
+            ConstantsThread.THREAD_DOMAIN_NAME_DEFAULT,
+            cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS)));
+    masa.start();
+    registrar.start();
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+    try {
+      if (warmupPledges > 0) {
+        Report warmup = onboard(executor, idevids.subList(0, warmupPledges));
+        logger.info("warm-up: {} joined, {} failed", warmup.joined, warmup.failed);
+      }
+      return onboard(executor, idevids.subList(warmupPledges, idevids.size()));
+    } finally {
+      executor.shutdownNow();
+      registrar.stop();
+      registrar.destroy();
+      masa.stop();
+    }
+  }
+
+  private Report onboard(ExecutorService executor, List<Credentials> idevids) throws Exception {
+    Map<Phase, long[]> latencies = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      latencies.put(phase, new long[idevids.size()]);
+    }
+    AtomicInteger failed = new AtomicInteger();
+    String registrarUri = "coaps://localhost:" + registrarPort;
+
+    com.sun.management.OperatingSystemMXBean os =
+        (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    long cpuStart = os.getProcessCpuTime();
+    long allocatedStart = allocatedBytes();
+    long start = System.nanoTime();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < idevids.size(); i++) {
+      int index = i;
+      futures.add(
+          executor.submit(
+              () -> {
+                if (!onboard(idevids.get(index), registrarUri, latencies, index)) {
+                  if (failed.incrementAndGet() <= MAX_LOGGED_FAILURES) {
+                    logger.warn("Pledge {} failed to join", index);
+                  }
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    long elapsed = System.nanoTime() - start;
+    return new Report(
+        idevids.size() - failed.get(),
+        failed.get(),
+        elapsed,
+        os.getProcessCpuTime() - cpuStart,
+        allocatedBytes() - allocatedStart,
+        latencies,
+        isReenroll);
+  }
+
+  /** Onboard one Pledge, recording its phase latencies at {@code index} unless it fails. */
+  private boolean onboard(
+      Credentials idevid, String registrarUri, Map<Phase, long[]> latencies, int index) {
+    Pledge pledge = null;
+    long[] phases = new long[Phase.values().length];
+    try {
+      pledge = new Pledge(idevid, registrarUri);
+      long joinStart = System.nanoTime();
+      long t = joinStart;
+
+      pledge.requestVoucher();
+      t = lap(phases, Phase.VOUCHER, t);
+      requireChanged(pledge.sendVoucherStatusTelemetry(true, null), Phase.VOUCHER_STATUS);
+      t = lap(phases, Phase.VOUCHER_STATUS, t);
+      pledge.enroll();
+      t = lap(phases, Phase.ENROLL, t);
+      requireChanged(pledge.sendEnrollStatusTelemetry(true, null), Phase.ENROLL_STATUS);
+      t = lap(phases, Phase.ENROLL_STATUS, t);
+      phases[Phase.JOIN.ordinal()] = t - joinStart;
+      if (isReenroll) {
+        pledge.reenroll();
+        lap(phases, Phase.REENROLL, t);
+      }
+    } catch (Exception e) {
+      logger.debug("Pledge {} failed: {}", index, e.getMessage(), e);
+      return false;
+    } finally {
+      if (pledge != null) {
+        pledge.shutdown();
+      }
+    }
+    for (Phase phase : Phase.values()) {
+      latencies.get(phase)[index] = phases[phase.ordinal()];
+    }
+    return true;
+  }
+
+  private static long lap(long[] phases, Phase phase, long since) {
+    long now = System.nanoTime();
+    phases[phase.ordinal()] = now - since;
+    return now;
+  }
+
+  private static void requireChanged(ResponseCode code, Phase phase) throws Exception {
+    if (code != ResponseCode.CHANGED) {
+      throw new Exception(phase + " got " + code);
+    }
+  }
+
+  /**
+   * The bytes allocated so far by the threads alive now. The threads of the Registrar and MASA live
+   * through a run, while those of a Pledge's endpoint end with it: allocations by a Pledge's own
+   * threads are therefore not counted, except for those of the load generator's threads.
+   */
+  private static long allocatedBytes() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long total = 0;
+    for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+      if (allocated > 0) {
+        total += allocated;
+      }
+    }
+    return total;
+  }
+
+  /** The results of onboarding the measured Pledges. */
+  public static final class Report {
+
+    private final int joined;
+    private final int failed;
+    private final long elapsedNanos;
+    private final long cpuNanos;
+    private final long allocatedBytes;
+    private final Map<Phase, long[]> latencies = new EnumMap<>(Phase.class);
+
+    Report(
+        int joined,
+        int failed,
+        long elapsedNanos,
+        long cpuNanos,
+        long allocatedBytes,
+        Map<Phase, long[]> latencies,
+        boolean isReenroll) {
+      this.joined = joined;
+      this.failed = failed;
+      this.elapsedNanos = elapsedNanos;
+      this.cpuNanos = cpuNanos;
+      this.allocatedBytes = allocatedBytes;
+      for (Map.Entry<Phase, long[]> e : latencies.entrySet()) {
+        if (e.getKey() == Phase.REENROLL && !isReenroll) {
+          continue;
+        }
+        // the latencies of failed Pledges are left 0: drop them.
+        long[] sorted = Arrays.stream(e.getValue()).filter(l -> l > 0).sorted().toArray();
+        this.latencies.put(e.getKey(), sorted);
+      }
+    }
+
+    public int getJoined() {
+      return joined;
+    }
+
+    public int getFailed() {
+      return failed;
+    }
+
+    public double getJoinsPerSecond() {
+      return joined / (elapsedNanos / 1e9);
+    }
+
+    /** The process CPU time used, in cores: 1.0 means one core fully busy. */
+    public double getCpuCores() {
+      return (double) cpuNanos / elapsedNanos;
+    }
+
+    /** The CPU time used per join, in milliseconds. */
+    public double getCpuMillisPerJoin() {
+      return joined == 0 ? 0 : cpuNanos / 1e6 / joined;
+    }
+
+    /** The allocation rate, in MB/s, of the threads that lived through the run. */
+    public double getAllocationMegabytesPerSecond() {
+      return allocatedBytes / 1e6 / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * The latency of a phase at a percentile, in milliseconds.
+     *
+     * @param phase      the phase
+     * @param percentile the percentile in (0, 100]
+     * @return the latency, or 0 if no Pledge completed the phase
+     */
+    public double getLatencyMillis(Phase phase, double percentile) {
+      long[] sorted = latencies.get(phase);
+      if (sorted == null || sorted.length == 0) {
+        return 0;
+      }
+      int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+      return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append(
+          String.format(
+              Locale.ROOT,
+              "%d joined, %d failed in %.1f s: %.2f joins/sec%n",
+              joined,
+              failed,
+              elapsedNanos / 1e9,
+              getJoinsPerSecond()));
+      sb.append(
+          String.format(
+              Locale.ROOT,
+              "CPU: %.2f cores, %.1f ms/join; allocation: %.1f MB/s%n",
+              getCpuCores(),
+              getCpuMillisPerJoin(),
+              getAllocationMegabytesPerSecond()));
+      sb.append(
+          String.format(
+              Locale.ROOT, "%-15s %10s %10s %10s %10s%n", "phase", "p50 ms", "p99 ms", "p999 ms",
+              "max ms"));
+      for (Phase phase : latencies.keySet()) {
+        sb.append(
+            String.format(
+                Locale.ROOT,
+                "%-15s %10.1f %10.1f %10.1f %10.1f%n",
+                phase,
+                getLatencyMillis(phase, 50),
+                getLatencyMillis(phase, 99),
+                getLatencyMillis(phase, 99.9),
+                getLatencyMillis(phase, 100)));
+      }
+      return sb.toString();
+    }
+  }
+
+  public static void main(String[] args) {
+    HelpFormatter helper = new HelpFormatter();
+    Options options = new Options();
+
+    Option pledgesOpt =
+        Option.builder("n")
+            .longOpt("pledges")
+            .hasArg()
+            .argName("pledges")
+            .desc("the number of Pledges to onboard and measure (default 100)")
+            .build();
+
+    Option concurrencyOpt =
+        Option.builder("c")
+            .longOpt("concurrency")
+            .hasArg()
+            .argName("concurrency")
+            .desc("the number of Pledges onboarding at the same time (default 10)")
+            .build();
+
+    Option warmupOpt =
+        Option.builder("w")
+            .longOpt("warmup")
+            .hasArg()
+            .argName("pledges")
+            .desc("the number of Pledges onboarded before measuring (default 20)")
+            .build();
+
+    Option reenrollOpt =
+        Option.builder("r")
+            .longOpt("reenroll")
+            .desc("let each Pledge also reenroll")
+            .build();
+
+    Option dtlsProfileOpt =
+        Option.builder("P")
+            .longOpt("dtlsProfile")
+            .hasArg()
+            .argName("dtls-profile")
+            .desc("the Registrar's DTLS connector profile: default, embedded or server")
+            .build();
+
+    Option dtlsSocketsOpt =
+        Option.builder("S")
+            .longOpt("dtlsSockets")
+            .hasArg()
+            .argName("dtls-sockets")
+            .desc("the number of UDP sockets of the Registrar (SO_REUSEPORT)")
+            .build();
+
+    Option virtualThreadsOpt =
+        Option.builder("V")
+            .longOpt("virtualThreads")
+            .desc("let the Registrar and MASA handle requests on virtual threads (JDK 21 or later)")
+            .build();
+
+    Option verboseOpt =
+        Option.builder("v")
+            .longOpt("verbose")
+            .desc("verbose mode for logs; repeat (-v -v ... up to 4 times) to raise the level")
+            .build();
+
+    Option helpOpt =
+        Option.builder("h").longOpt("help").hasArg(false).desc("print this message").build();
+
+    options
+        .addOption(pledgesOpt)
+        .addOption(concurrencyOpt)
+        .addOption(warmupOpt)
+        .addOption(reenrollOpt)
+        .addOption(dtlsProfileOpt)
+        .addOption(dtlsSocketsOpt)
+        .addOption(virtualThreadsOpt)
+        .addOption(verboseOpt)
+        .addOption(helpOpt);
+
+    try {
+      CommandLineParser parser = new DefaultParser();
+      CommandLine cmd = parser.parse(options, args);
+
+      if (cmd.hasOption('h')) {
+        helper.printHelp(HELP_FORMAT, options);
+        return;
+      }
+
+      // Verbosity level is the count of -v occurrences, as for OtRegistrarMain.
+      int verbosity = 0;
+      for (Option opt : cmd.getOptions()) {
+        if ("v".equals(opt.getOpt())) {
+          verbosity++;
+        }
+      }
+      LoggerInitializer.init(verbosity);
+
+      LoadGenerator generator =
+          new LoadGenerator(
+              Integer.parseInt(cmd.getOptionValue('n', "100")),
+              Integer.parseInt(cmd.getOptionValue('c', "10")));
+      generator.setWarmupPledges(Integer.parseInt(cmd.getOptionValue('w', "20")));
+      generator.setReenroll(cmd.hasOption('r'));
+      DtlsSettings settings =
+          DtlsSettings.forProfile(
+              DtlsSettings.Profile.valueOf(
+                  cmd.getOptionValue('P', "default").toUpperCase(Locale.ROOT)));
+      settings.setSockets(Integer.parseInt(cmd.getOptionValue('S', "1")));
+      generator.setDtlsSettings(settings);
+      generator.setVirtualThreads(cmd.hasOption('V'));
+
+      System.out.println(generator.run());
+    } catch (Exception e) {
+      System.err.println("error: " + e.getMessage());
+      e.printStackTrace();
+      helper.printHelp(HELP_FORMAT, options);
+      System.exit(1);
+    }
+    // the servers' and Pledges' library threads are not all daemons.
+    System.exit(0);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CertificateCacheTest {
+
+  private static X509Certificate genCert(String cn) throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    return SecurityUtils.genCertificate(kp, cn, kp, new X500Name(cn), true, null);
+  }
+
+  @Test
+  public void testParsedOnce() throws Exception {
+    CertificateCache cache = new CertificateCache(4);
+    X509Certificate cert = genCert("CN=cached");
+    byte[] der = cert.getEncoded();
+
+    X509Certificate first = cache.get(der);
+    Assert.assertEquals(cert, first);
+    Assert.assertSame(first, cache.get(der.clone()));
+
+    // a slice of a larger buffer maps to the same entry
+    byte[] buf = new byte[der.length + 10];
+    System.arraycopy(der, 0, buf, 5, der.length);
+    Assert.assertSame(first, cache.get(buf, 5, der.length));
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testBounded() throws Exception {
+    CertificateCache cache = new CertificateCache(2);
+    X509Certificate c1 = genCert("CN=c1");
+    cache.get(c1.getEncoded());
+    cache.get(genCert("CN=c2").getEncoded());
+    cache.get(genCert("CN=c3").getEncoded());
+    Assert.assertEquals(2, cache.size());
+
+    // the eldest entry was evicted, so it parses into a new object again
+    X509Certificate again = cache.get(c1.getEncoded());
+    Assert.assertEquals(c1, again);
+    Assert.assertEquals(2, cache.size());
+  }
+
+  @Test(expected = java.security.cert.CertificateException.class)
+  public void testRejectInvalidEncoding() throws Exception {
+    new CertificateCache(2).get(new byte[] {1, 2, 3});
+  }
+}
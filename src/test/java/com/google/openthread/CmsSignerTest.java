@@ -0,0 +1,121 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cms.CMSException;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CmsSignerTest {
+
+  private static KeyPair signerKeyPair;
+  private static X509Certificate signerCert;
+  private static X509Certificate extraCert;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    signerKeyPair = SecurityUtils.genKeyPair();
+    signerCert =
+        SecurityUtils.genCertificate(
+            signerKeyPair, "CN=signer", signerKeyPair, new X500Name("CN=signer"), true, null);
+    KeyPair kp = SecurityUtils.genKeyPair();
+    extraCert = SecurityUtils.genCertificate(kp, "CN=extra", kp, new X500Name("CN=extra"), true, null);
+  }
+
+  @Test
+  public void testSignRepeatedly() throws Exception {
+    CmsSigner signer =
+        new CmsSigner(
+            signerKeyPair.getPrivate(),
+            signerCert,
+            SecurityUtils.SIGNATURE_ALGORITHM,
+            new X509Certificate[] {signerCert});
+
+    for (int i = 0; i < 3; i++) {
+      byte[] content = {1, 2, 3, (byte) i};
+      byte[] signed = signer.sign(content, new X509Certificate[] {extraCert});
+
+      List<X509Certificate> certs = new ArrayList<>();
+      Assert.assertArrayEquals(content, SecurityUtils.decodeCMSSignedMessage(signed, certs));
+      Assert.assertEquals(2, certs.size());
+      Assert.assertTrue(certs.contains(signerCert));
+      Assert.assertTrue(certs.contains(extraCert));
+    }
+  }
+
+  @Test
+  public void testSignConcurrently() throws Exception {
+    CmsSigner signer =
+        new CmsSigner(
+            signerKeyPair.getPrivate(),
+            signerCert,
+            SecurityUtils.SIGNATURE_ALGORITHM,
+            new X509Certificate[] {signerCert});
+    signer.setSelfVerification(true);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<byte[]>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        final byte[] content = {(byte) i};
+        results.add(executor.submit(() -> signer.sign(content, null)));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        byte[] content =
+            SecurityUtils.decodeCMSSignedMessage(results.get(i).get(), new ArrayList<>());
+        Assert.assertArrayEquals(new byte[] {(byte) i}, content);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = CMSException.class)
+  public void testSelfVerificationDetectsWrongCertificate() throws Exception {
+    // signing key does not belong to the certificate: only caught by self-verification.
+    CmsSigner signer =
+        new CmsSigner(
+            SecurityUtils.genKeyPair().getPrivate(),
+            signerCert,
+            SecurityUtils.SIGNATURE_ALGORITHM,
+            new X509Certificate[] {signerCert});
+    signer.sign(new byte[] {1}, null);
+    signer.setSelfVerification(true);
+    signer.sign(new byte[] {1}, null);
+  }
+}
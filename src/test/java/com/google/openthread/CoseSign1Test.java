@@ -0,0 +1,174 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import COSE.AlgorithmID;
+import COSE.CoseException;
+import com.upokecenter.cbor.CBORObject;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CoseSign1Test {
+
+  private static final byte[] PAYLOAD = {1, 2, 3, 4, 5, 6, 50, 60, 70, 80, 90, 100, 110};
+
+  private static KeyPair keyPair;
+  private static X509Certificate cert;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    keyPair = SecurityUtils.genKeyPair();
+    cert =
+        SecurityUtils.genCertificate(
+            keyPair, "CN=signer", keyPair, new X500Name("CN=signer"), true, null);
+  }
+
+  @Test
+  public void testDecodeAndVerify() throws Exception {
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, PAYLOAD);
+
+    CoseSign1 msg = CoseSign1.decode(signed);
+    assertTrue(msg.isTagged());
+    assertEquals(CoseSign1.ALG_ES256, msg.getAlgorithm());
+    assertArrayEquals(PAYLOAD, msg.getPayload());
+    assertNull(msg.getX5BagCertificates());
+    assertTrue(msg.verify(keyPair.getPublic()));
+    assertFalse(msg.verify(SecurityUtils.genKeyPair().getPublic()));
+  }
+
+  @Test
+  public void testVerifyUntagged() throws Exception {
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, PAYLOAD);
+    byte[] untagged = CBORObject.DecodeFromBytes(signed).Untag().EncodeToBytes();
+
+    CoseSign1 msg = CoseSign1.decode(untagged);
+    assertFalse(msg.isTagged());
+    assertTrue(msg.verify(keyPair.getPublic()));
+  }
+
+  @Test
+  public void testVerifyEs384() throws Exception {
+    KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC");
+    kpg.initialize(384);
+    KeyPair kp384 = kpg.generateKeyPair();
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(kp384.getPrivate(), AlgorithmID.ECDSA_384.AsCBOR(), PAYLOAD);
+
+    CoseSign1 msg = CoseSign1.decode(signed);
+    assertEquals(CoseSign1.ALG_ES384, msg.getAlgorithm());
+    assertTrue(msg.verify(kp384.getPublic()));
+  }
+
+  @Test
+  public void testTamperedPayloadFailsVerification() throws Exception {
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, PAYLOAD);
+    // the payload bytes are directly before the 64-byte signature and its 2-byte head
+    signed[signed.length - 64 - 2 - 1] ^= 0x01;
+
+    assertFalse(CoseSign1.decode(signed).verify(keyPair.getPublic()));
+  }
+
+  @Test
+  public void testX5BagCertificates() throws Exception {
+    KeyPair kp2 = SecurityUtils.genKeyPair();
+    X509Certificate cert2 =
+        SecurityUtils.genCertificate(kp2, "CN=other", kp2, new X500Name("CN=other"), true, null);
+
+    // multiple certificates: array of bstr
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(),
+            SecurityUtils.COSE_SIGNATURE_ALGORITHM,
+            PAYLOAD,
+            new X509Certificate[] {cert, cert2});
+    CoseSign1 msg = CoseSign1.decode(signed);
+    List<X509Certificate> certs = msg.getX5BagCertificates();
+    assertEquals(2, certs.size());
+    assertEquals(cert, certs.get(0));
+    assertEquals(cert2, certs.get(1));
+    assertTrue(msg.verify(certs.get(0).getPublicKey()));
+
+    // single certificate: bstr
+    signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(),
+            SecurityUtils.COSE_SIGNATURE_ALGORITHM,
+            PAYLOAD,
+            new X509Certificate[] {cert});
+    certs = CoseSign1.decode(signed).getX5BagCertificates();
+    assertEquals(1, certs.size());
+    assertEquals(cert, certs.get(0));
+  }
+
+  @Test
+  public void testToBeSignedMatchesSigStructure() throws Exception {
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, PAYLOAD);
+    CBORObject arr = CBORObject.DecodeFromBytes(signed).Untag();
+
+    CBORObject sigStructure = CBORObject.NewArray();
+    sigStructure.Add("Signature1");
+    sigStructure.Add(arr.get(0));
+    sigStructure.Add(CBORObject.FromObject(new byte[0]));
+    sigStructure.Add(arr.get(2));
+
+    assertArrayEquals(sigStructure.EncodeToBytes(), CoseSign1.decode(signed).toBeSigned());
+  }
+
+  @Test(expected = CoseException.class)
+  public void testRejectNonCose() throws Exception {
+    CoseSign1.decode(CBORObject.FromObject("not a COSE_Sign1 message").EncodeToBytes());
+  }
+
+  @Test(expected = CoseException.class)
+  public void testRejectTruncated() throws Exception {
+    byte[] signed =
+        SecurityUtils.genCoseSign1Message(
+            keyPair.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, PAYLOAD);
+    CoseSign1.decode(java.util.Arrays.copyOf(signed, signed.length - 1));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import com.upokecenter.cbor.CBORObject;
+import java.lang.management.ManagementFactory;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import org.bouncycastle.asn1.x500.X500Name;
+
+/**
+ * Micro-benchmark comparing {@link SecurityUtils#stripCoseSign1UnprotectedHeaders(byte[])} (byte
+ * splice) against the previous decode/rebuild/re-encode implementation, on a voucher carrying an
+ * x5bag of several certificates. Not a unit test; run its main() from the test classpath, e.g.:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.google.openthread.CoseStripBenchmark \
+ *     -Dexec.classpathScope=test
+ * </pre>
+ */
+public final class CoseStripBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int ITERATIONS = 200_000;
+  private static final int X5BAG_CERTS = 4;
+
+  private static volatile Object sink;
+
+  private CoseStripBenchmark() {}
+
+  /** The previous implementation: full CBOR decode, rebuild, re-encode. */
+  static byte[] stripByReencoding(byte[] coseSign1) {
+    CBORObject msg = CBORObject.DecodeFromBytes(coseSign1);
+    boolean tagged = msg.HasTag(CoseSign1.TAG);
+    CBORObject arr = msg.Untag();
+    CBORObject stripped = CBORObject.NewArray();
+    stripped.Add(arr.get(0));
+    stripped.Add(CBORObject.NewMap());
+    stripped.Add(arr.get(2));
+    stripped.Add(arr.get(3));
+    return (tagged ? CBORObject.FromObjectAndTag(stripped, CoseSign1.TAG) : stripped)
+        .EncodeToBytes();
+  }
+
+  public static void main(String[] args) throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    X509Certificate[] certs = new X509Certificate[X5BAG_CERTS];
+    for (int i = 0; i < certs.length; i++) {
+      KeyPair certKp = SecurityUtils.genKeyPair();
+      certs[i] =
+          SecurityUtils.genCertificate(
+              certKp, "CN=cert" + i, kp, new X500Name("CN=Signer"), false, null);
+    }
+    byte[] voucher =
+        SecurityUtils.genCoseSign1Message(
+            kp.getPrivate(), SecurityUtils.COSE_SIGNATURE_ALGORITHM, new byte[300], certs);
+    System.out.printf(
+        "voucher: %d bytes, stripped: %d bytes%n",
+        voucher.length, SecurityUtils.stripCoseSign1UnprotectedHeaders(voucher).length);
+
+    run("re-encode", voucher, false);
+    run("splice", voucher, true);
+  }
+
+  private static void run(String name, byte[] voucher, boolean splice) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      sink = splice ? SecurityUtils.stripCoseSign1UnprotectedHeaders(voucher) : stripByReencoding(voucher);
+    }
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long tid = Thread.currentThread().getId();
+    long allocStart = threads.getThreadAllocatedBytes(tid);
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sink = splice ? SecurityUtils.stripCoseSign1UnprotectedHeaders(voucher) : stripByReencoding(voucher);
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = threads.getThreadAllocatedBytes(tid) - allocStart;
+    System.out.printf(
+        "%-10s %10.1f ns/op %10d B/op%n",
+        name, (double) elapsed / ITERATIONS, allocated / ITERATIONS);
+  }
+}
@@ -31,6 +31,7 @@ package com.google.openthread;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import COSE.CoseException;
 import COSE.Message;
 import COSE.MessageTag;
 import COSE.OneKey;
@@ -208,5 +209,21 @@ public final class CoseTest {
     assertFalse(msg3.validate(new OneKey(pubKey, null)));
 
     assertTrue(msg2b.validate(new OneKey(pubKey, null)));
+
+    // the in-tree COSE_Sign1 codec must agree on all of the above
+    assertFalse(CoseSign1.decode(coseData).verify(pubKey));
+    assertFalse(CoseSign1.decode(coseDataPatched).verify(pubKey));
+    assertTrue(CoseSign1.decode(coseData2).verify(pubKey));
+    coseDataPatched[coseDataPatched.length - 1] -= 1;
+    assertTrue(CoseSign1.decode(coseDataPatched).verify(pubKey));
+  }
+
+  /** A byte string length argument of 2^63 or more is negative as a Java long. */
+  @Test(expected = CoseException.class)
+  public void testRejectHugeLength() throws Exception {
+    // tag 18, array(4), a protected header byte string of 8-byte length 2^63, an empty
+    // unprotected header, and one-byte payload and signature.
+    byte[] encoded = Hex.decode("d2845b8000000000000000a041014100");
+    CoseSign1.decode(encoded);
   }
 }
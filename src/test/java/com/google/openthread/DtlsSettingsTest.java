@@ -0,0 +1,125 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import com.google.openthread.tools.CredentialGenerator;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.californium.core.config.CoapConfig;
+import org.eclipse.californium.core.network.CoapEndpoint;
+import org.eclipse.californium.elements.config.Configuration;
+import org.eclipse.californium.scandium.config.DtlsConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DtlsSettingsTest {
+
+  @Test
+  public void testProfiles() {
+    DtlsSettings embedded = DtlsSettings.forProfile(DtlsSettings.Profile.EMBEDDED);
+    DtlsSettings server = DtlsSettings.forProfile(DtlsSettings.Profile.SERVER);
+    DtlsSettings defaults = DtlsSettings.forProfile(DtlsSettings.Profile.DEFAULT);
+
+    Assert.assertTrue(embedded.getMaxConnections() < defaults.getMaxConnections());
+    Assert.assertTrue(
+        embedded.getStaleConnectionThreshold().compareTo(defaults.getStaleConnectionThreshold())
+            < 0);
+    Assert.assertEquals(
+        Runtime.getRuntime().availableProcessors(), server.getConnectorThreads());
+    Assert.assertEquals(2, server.getReceiverThreads());
+    Assert.assertEquals(new DtlsSettings().toString(), defaults.toString());
+  }
+
+  @Test
+  public void testInvalidSettings() {
+    DtlsSettings settings = new DtlsSettings();
+    Assert.assertThrows(IllegalArgumentException.class, () -> settings.setConnectorThreads(0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> settings.setMaxConnections(0));
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> settings.setStaleConnectionThreshold(Duration.ZERO));
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> settings.setMaxPendingInboundJobs(DtlsSettings.MIN_PENDING_JOBS - 1));
+    Assert.assertThrows(IllegalArgumentException.class, () -> settings.setConnectionIdLength(1));
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> settings.setRetransmissionTimeout(Duration.ofSeconds(2), Duration.ofSeconds(1)));
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> settings.setAckTimeout(Duration.ZERO, Duration.ofSeconds(1)));
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> settings.setHandshakeRateLimit(-1, 10));
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> settings.setHandshakeRateLimit(10, 0));
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> settings.setSourceHandshakeRateLimit(1, 0));
+    Assert.assertThrows(IllegalArgumentException.class, () -> settings.setSourceTableSize(0));
+    // unlimited.
+    settings.setHandshakeRateLimit(0, 0);
+    Assert.assertEquals(0, settings.getHandshakeRate(), 0);
+  }
+
+  @Test
+  public void testAppliedToEndpoint() throws Exception {
+    CredentialGenerator cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+    DtlsSettings settings =
+        DtlsSettings.forProfile(DtlsSettings.Profile.EMBEDDED)
+            .setConnectorThreads(3)
+            .setMaxPendingInboundJobs(DtlsSettings.MIN_PENDING_JOBS);
+    Credentials creds = cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS);
+    CoapEndpoint endpoint =
+        SecurityUtils.genCoapServerEndPoint(
+            0,
+            new X509Certificate[] {cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS).getCertificate()},
+            creds.getPrivateKey(),
+            creds.getCertificateChain(),
+            null,
+            settings);
+    try {
+      Configuration config = endpoint.getConfig();
+      Assert.assertEquals(3, (int) config.get(DtlsConfig.DTLS_CONNECTOR_THREAD_COUNT));
+      Assert.assertEquals(
+          settings.getMaxConnections(), (int) config.get(DtlsConfig.DTLS_MAX_CONNECTIONS));
+      Assert.assertEquals(
+          DtlsSettings.MIN_PENDING_JOBS,
+          (int) config.get(DtlsConfig.DTLS_MAX_PENDING_INBOUND_JOBS));
+      Assert.assertEquals(
+          settings.getRetransmissionTimeout().toMillis(),
+          (long) config.get(DtlsConfig.DTLS_RETRANSMISSION_TIMEOUT, TimeUnit.MILLISECONDS));
+      Assert.assertEquals(
+          CoapConfig.CongestionControlMode.COCOA,
+          config.get(CoapConfig.CONGESTION_CONTROL_ALGORITHM));
+    } finally {
+      endpoint.destroy();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import com.upokecenter.cbor.CBORObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExchangeRecorderTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static ExchangeRecorder.Entry entry(String resource, byte[] request, byte[] response) {
+    return new ExchangeRecorder.Entry(
+        1700000000000L,
+        1500,
+        resource,
+        new InetSocketAddress("::1", 5683),
+        null,
+        "application/cbor",
+        request,
+        "2.04",
+        response == null ? null : "application/cbor",
+        response);
+  }
+
+  @Test
+  public void testCapacityIsPowerOfTwo() {
+    Assert.assertEquals(1, new ExchangeRecorder(1).getCapacity());
+    Assert.assertEquals(4, new ExchangeRecorder(3).getCapacity());
+    Assert.assertEquals(4, new ExchangeRecorder(4).getCapacity());
+    Assert.assertEquals(256, new ExchangeRecorder(ExchangeRecorder.DEFAULT_CAPACITY).getCapacity());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroCapacity() {
+    new ExchangeRecorder(0);
+  }
+
+  @Test
+  public void testKeepsLastEntriesOldestFirst() {
+    ExchangeRecorder recorder = new ExchangeRecorder(4);
+    Assert.assertTrue(recorder.getEntries().isEmpty());
+    for (int i = 0; i < 10; i++) {
+      recorder.record(entry("/r" + i, new byte[] {(byte) i}, null));
+    }
+    Assert.assertEquals(10, recorder.getRecordedCount());
+    List<ExchangeRecorder.Entry> entries = recorder.getEntries();
+    Assert.assertEquals(4, entries.size());
+    for (int i = 0; i < 4; i++) {
+      Assert.assertEquals(6 + i, entries.get(i).getSequence());
+      Assert.assertEquals("/r" + (6 + i), entries.get(i).getResource());
+    }
+  }
+
+  @Test
+  public void testCborSequence() throws Exception {
+    ExchangeRecorder recorder = new ExchangeRecorder(8);
+    recorder.record(entry("/.well-known/brski/rv", new byte[] {1, 2, 3}, new byte[] {4, 5}));
+    recorder.record(entry("/.well-known/brski/es", new byte[] {6}, null));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Assert.assertEquals(2, recorder.writeTo(out));
+
+    CBORObject[] items = CBORObject.ReadSequence(new ByteArrayInputStream(out.toByteArray()));
+    Assert.assertEquals(2, items.length);
+    CBORObject first = items[0];
+    Assert.assertEquals(0, first.get("seq").AsInt32Value());
+    Assert.assertEquals(1700000000000L, first.get("time").AsInt64Value());
+    Assert.assertEquals(1500, first.get("duration").AsInt32Value());
+    Assert.assertEquals("/.well-known/brski/rv", first.get("resource").AsString());
+    Assert.assertArrayEquals(new byte[] {1, 2, 3}, first.get("request").GetByteString());
+    Assert.assertEquals("2.04", first.get("result").AsString());
+    Assert.assertArrayEquals(new byte[] {4, 5}, first.get("response").GetByteString());
+    Assert.assertNull(first.get("peer-id"));
+    // absent fields are left out.
+    Assert.assertNull(items[1].get("response"));
+    Assert.assertNull(items[1].get("response-format"));
+    Assert.assertNull(items[1].get("response-size"));
+  }
+
+  @Test
+  public void testResponsePayloadLeftOut() throws Exception {
+    ExchangeRecorder recorder = new ExchangeRecorder(2);
+    recorder.record(
+        new ExchangeRecorder.Entry(
+            1700000000000L,
+            1500,
+            "/.well-known/est/skg",
+            null,
+            null,
+            "application/pkcs10",
+            new byte[] {1},
+            "2.04",
+            "application/multipart-core",
+            700));
+    ExchangeRecorder.Entry entry = recorder.getEntries().get(0);
+    Assert.assertNull(entry.getResponse());
+    Assert.assertEquals(700, entry.getResponseSize());
+    Assert.assertEquals(-1, entry("/a", null, new byte[] {4}).getResponseSize());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    recorder.writeTo(out);
+    CBORObject item = CBORObject.DecodeFromBytes(out.toByteArray());
+    Assert.assertNull(item.get("response"));
+    Assert.assertEquals(700, item.get("response-size").AsInt32Value());
+    Assert.assertEquals("application/multipart-core", item.get("response-format").AsString());
+  }
+
+  @Test
+  public void testDump() throws Exception {
+    ExchangeRecorder recorder = new ExchangeRecorder(2);
+    recorder.record(entry("/a", null, null));
+    recorder.record(entry("/b", null, null));
+    recorder.record(entry("/c", null, null));
+    File file = new File(tempFolder.getRoot(), "exchanges.cbor");
+    Assert.assertEquals(2, recorder.dump(file.getPath()));
+    try (InputStream in = new FileInputStream(file)) {
+      CBORObject[] items = CBORObject.ReadSequence(in);
+      Assert.assertEquals(2, items.length);
+      Assert.assertEquals("/b", items[0].get("resource").AsString());
+      Assert.assertEquals("/c", items[1].get("resource").AsString());
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.io.ByteArrayOutputStream;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.californium.elements.util.DatagramReader;
+import org.eclipse.californium.scandium.CookieGenerator;
+import org.eclipse.californium.scandium.dtls.ClientHello;
+import org.eclipse.californium.scandium.dtls.DTLSConnectionState;
+import org.eclipse.californium.scandium.dtls.Record;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HandshakeRateLimiterTest {
+
+  private static final InetSocketAddress PEER = new InetSocketAddress("127.0.0.1", 49152);
+
+  private final CookieGenerator cookieGenerator = new CookieGenerator();
+
+  /** Build a DTLS 1.2 record holding an unfragmented ClientHello. */
+  private static byte[] clientHello(int epoch, int sessionIdLength, int cookieLength) {
+    return clientHello(epoch, sessionIdLength, new byte[cookieLength]);
+  }
+
+  private static byte[] clientHello(int epoch, int sessionIdLength, byte[] cookie) {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    body.write(0xfe);
+    body.write(0xfd);
+    body.write(new byte[32], 0, 32);
+    body.write(sessionIdLength);
+    body.write(new byte[sessionIdLength], 0, sessionIdLength);
+    body.write(cookie.length);
+    body.write(cookie, 0, cookie.length);
+    // one cipher suite, null compression.
+    body.write(new byte[] {0, 2, (byte) 0xc0, (byte) 0xae, 1, 0}, 0, 6);
+    byte[] b = body.toByteArray();
+
+    ByteArrayOutputStream record = new ByteArrayOutputStream();
+    record.write(22);
+    record.write(0xfe);
+    record.write(0xfd);
+    record.write(epoch >> 8);
+    record.write(epoch);
+    record.write(new byte[6], 0, 6);
+    int length = 12 + b.length;
+    record.write(length >> 8);
+    record.write(length);
+    // handshake header: type, length, message_seq, fragment_offset, fragment_length.
+    record.write(1);
+    record.write(new byte[] {0, (byte) (b.length >> 8), (byte) b.length}, 0, 3);
+    record.write(new byte[] {0, 1}, 0, 2);
+    record.write(new byte[3], 0, 3);
+    record.write(new byte[] {0, (byte) (b.length >> 8), (byte) b.length}, 0, 3);
+    record.write(b, 0, b.length);
+    return record.toByteArray();
+  }
+
+  /** Build a ClientHello that returns the cookie the generator gave to the peer. */
+  private byte[] clientHelloWithValidCookie(InetSocketAddress peer) throws Exception {
+    byte[] hello = clientHello(0, 0, 0);
+    List<Record> records = Record.fromReader(new DatagramReader(hello), null, 0);
+    records.get(0).decodeFragment(DTLSConnectionState.NULL);
+    ClientHello clientHello = (ClientHello) records.get(0).getFragment();
+    return clientHello(0, 0, cookieGenerator.generateCookie(peer, clientHello));
+  }
+
+  private boolean onReceiving(HandshakeRateLimiter limiter, byte[] data, InetSocketAddress peer) {
+    return limiter.onReceiving(new DatagramPacket(data, data.length, peer), cookieGenerator);
+  }
+
+  @Test
+  public void testIsClientHelloWithCookie() {
+    byte[] first = clientHello(0, 0, 0);
+    Assert.assertFalse(HandshakeRateLimiter.isClientHelloWithCookie(first, 0, first.length));
+
+    byte[] second = clientHello(0, 0, 32);
+    Assert.assertTrue(HandshakeRateLimiter.isClientHelloWithCookie(second, 0, second.length));
+
+    // a resumption offers a session ID.
+    byte[] resumption = clientHello(0, 32, 32);
+    Assert.assertTrue(
+        HandshakeRateLimiter.isClientHelloWithCookie(resumption, 0, resumption.length));
+
+    // a renegotiation is encrypted.
+    byte[] renegotiation = clientHello(1, 0, 32);
+    Assert.assertFalse(
+        HandshakeRateLimiter.isClientHelloWithCookie(renegotiation, 0, renegotiation.length));
+
+    // truncated or garbled datagrams.
+    Assert.assertFalse(HandshakeRateLimiter.isClientHelloWithCookie(second, 0, 60));
+    byte[] longSessionId = clientHello(0, 32, 0);
+    longSessionId[13 + 12 + 34] = (byte) 0xff;
+    Assert.assertFalse(
+        HandshakeRateLimiter.isClientHelloWithCookie(longSessionId, 0, longSessionId.length));
+
+    // at an offset into the buffer.
+    byte[] buffer = new byte[second.length + 8];
+    System.arraycopy(second, 0, buffer, 8, second.length);
+    Assert.assertTrue(HandshakeRateLimiter.isClientHelloWithCookie(buffer, 8, second.length));
+  }
+
+  @Test
+  public void testTokenBucket() {
+    HandshakeRateLimiter limiter =
+        new HandshakeRateLimiter(
+            new DtlsSettings().setHandshakeRateLimit(10, 3),
+            null);
+    long now = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(limiter.tryAcquire(now));
+    }
+    Assert.assertFalse(limiter.tryAcquire(now));
+
+    // one token per 100 ms.
+    Assert.assertFalse(limiter.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(50)));
+    Assert.assertTrue(limiter.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+    Assert.assertFalse(limiter.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+
+    // no more than the burst after a quiet period.
+    long later = now + TimeUnit.SECONDS.toNanos(60);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(limiter.tryAcquire(later));
+    }
+    Assert.assertFalse(limiter.tryAcquire(later));
+  }
+
+  @Test
+  public void testHasValidCookie() throws Exception {
+    byte[] valid = clientHelloWithValidCookie(PEER);
+    Assert.assertTrue(
+        HandshakeRateLimiter.hasValidCookie(
+            new DatagramPacket(valid, valid.length, PEER), cookieGenerator));
+    // the cookie is bound to the peer's address.
+    InetSocketAddress other = new InetSocketAddress("127.0.0.2", 49152);
+    Assert.assertFalse(
+        HandshakeRateLimiter.hasValidCookie(
+            new DatagramPacket(valid, valid.length, other), cookieGenerator));
+    // and to the generator's secret.
+    Assert.assertFalse(
+        HandshakeRateLimiter.hasValidCookie(
+            new DatagramPacket(valid, valid.length, PEER), new CookieGenerator()));
+    byte[] forged = clientHello(0, 0, 32);
+    Assert.assertFalse(
+        HandshakeRateLimiter.hasValidCookie(
+            new DatagramPacket(forged, forged.length, PEER), cookieGenerator));
+  }
+
+  @Test
+  public void testForgedCookieTakesNoToken() throws Exception {
+    DtlsStatistics statistics = new DtlsStatistics();
+    HandshakeRateLimiter limiter =
+        new HandshakeRateLimiter(
+            new DtlsSettings().setHandshakeRateLimit(0.001, 1), statistics);
+    byte[] forged = clientHello(0, 0, 1);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(onReceiving(limiter, forged, PEER));
+    }
+    // the token is still there for a real handshake.
+    byte[] valid = clientHelloWithValidCookie(PEER);
+    Assert.assertTrue(onReceiving(limiter, valid, PEER));
+    Assert.assertFalse(onReceiving(limiter, valid, PEER));
+    Assert.assertEquals(1, statistics.getThrottledHandshakes());
+  }
+
+  @Test
+  public void testDropsOnlyClientHellosWithCookie() throws Exception {
+    DtlsStatistics statistics = new DtlsStatistics();
+    HandshakeRateLimiter limiter =
+        new HandshakeRateLimiter(
+            new DtlsSettings().setHandshakeRateLimit(0.001, 1),
+            statistics);
+    byte[] first = clientHello(0, 0, 0);
+    byte[] second = clientHelloWithValidCookie(PEER);
+
+    Assert.assertTrue(onReceiving(limiter, second, PEER));
+    Assert.assertFalse(onReceiving(limiter, second, PEER));
+    // the stateless cookie exchange goes on.
+    Assert.assertTrue(onReceiving(limiter, first, PEER));
+    Assert.assertEquals(1, statistics.getThrottledHandshakes());
+  }
+
+  @Test
+  public void testPerSourceLimit() throws Exception {
+    DtlsStatistics statistics = new DtlsStatistics();
+    HandshakeRateLimiter limiter =
+        new HandshakeRateLimiter(
+            new DtlsSettings().setSourceHandshakeRateLimit(0.001, 2),
+            statistics);
+    byte[] hello = clientHelloWithValidCookie(PEER);
+    InetSocketAddress other = new InetSocketAddress("127.0.0.2", 49152);
+
+    Assert.assertTrue(onReceiving(limiter, hello, PEER));
+    Assert.assertTrue(onReceiving(limiter, hello, PEER));
+    Assert.assertFalse(onReceiving(limiter, hello, PEER));
+    // another port is the same source.
+    InetSocketAddress otherPort = new InetSocketAddress(PEER.getAddress(), 49153);
+    Assert.assertFalse(onReceiving(limiter, clientHelloWithValidCookie(otherPort), otherPort));
+    // while other sources go on.
+    Assert.assertTrue(onReceiving(limiter, clientHelloWithValidCookie(other), other));
+    // a spoofed ClientHello does not use up the source's bucket.
+    InetSocketAddress victim = new InetSocketAddress("127.0.0.3", 49152);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertTrue(onReceiving(limiter, clientHello(0, 0, 32), victim));
+    }
+    Assert.assertTrue(onReceiving(limiter, clientHelloWithValidCookie(victim), victim));
+    Assert.assertEquals(2, statistics.getThrottledHandshakes());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoLimit() {
+    new HandshakeRateLimiter(new DtlsSettings().setHandshakeRateLimit(0, 0), null);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  private static final double PRECISION = 1.0 / LatencyHistogram.SUB_BUCKETS;
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram h = new LatencyHistogram();
+    Assert.assertEquals(0, h.getCount());
+    Assert.assertEquals(0, h.getPercentileNanos(50));
+    Assert.assertEquals(0, h.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram h = new LatencyHistogram();
+    // 1..1000 ms, uniformly.
+    for (int i = 1; i <= 1000; i++) {
+      h.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    Assert.assertEquals(1000, h.getCount());
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(500500), h.getSumNanos());
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), h.getMaxNanos());
+    assertNear(TimeUnit.MILLISECONDS.toNanos(500), h.getPercentileNanos(50));
+    assertNear(TimeUnit.MILLISECONDS.toNanos(990), h.getPercentileNanos(99));
+    assertNear(TimeUnit.MILLISECONDS.toNanos(1), h.getPercentileNanos(0));
+    Assert.assertEquals(h.getMaxNanos(), h.getPercentileNanos(100));
+  }
+
+  @Test
+  public void testSmallAndLargeValues() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(-5);
+    h.record(100);
+    Assert.assertEquals(100, h.getPercentileNanos(100));
+    // beyond the range, values count in the last bucket but the max is exact.
+    long hour = TimeUnit.HOURS.toNanos(1);
+    h.record(hour);
+    Assert.assertEquals(hour, h.getMaxNanos());
+    Assert.assertTrue(h.getPercentileNanos(100) <= hour);
+    Assert.assertTrue(h.getPercentileNanos(100) > TimeUnit.MINUTES.toNanos(15));
+  }
+
+  @Test
+  public void testEveryBucketBoundary() {
+    // each value is reported within the precision, across the whole range.
+    for (long nanos = LatencyHistogram.UNIT_NANOS * 64L;
+        nanos < TimeUnit.MINUTES.toNanos(15);
+        nanos = nanos * 17 / 16) {
+      LatencyHistogram h = new LatencyHistogram();
+      h.record(nanos);
+      h.record(nanos + 1);
+      assertNear(nanos, h.getPercentileNanos(50));
+    }
+  }
+
+  @Test
+  public void testReset() {
+    LatencyHistogram h = new LatencyHistogram();
+    h.record(TimeUnit.MILLISECONDS.toNanos(5));
+    h.reset();
+    Assert.assertEquals(0, h.getCount());
+    Assert.assertEquals(0, h.getSumNanos());
+    Assert.assertEquals(0, h.getMaxNanos());
+    Assert.assertEquals(0, h.getPercentileNanos(99));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new LatencyHistogram().getPercentileNanos(101);
+  }
+
+  private static void assertNear(long expected, long actual) {
+    Assert.assertEquals(expected, actual, expected * PRECISION);
+  }
+}
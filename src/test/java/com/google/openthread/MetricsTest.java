@@ -0,0 +1,113 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ObjectName;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsTest {
+
+  @Test
+  public void testPrometheusText() {
+    Metrics metrics = new Metrics();
+    metrics.counter("test_requests_total", "Requests.", "code", "2.04").add(3);
+    metrics.counter("test_requests_total", "Requests.", "code", "4.00").increment();
+    AtomicLong external = new AtomicLong(7);
+    metrics.counter("test_handshakes_total", "Handshakes.", external::get);
+    LatencyHistogram h = metrics.histogram("test_phase_seconds", "Phase time.", "peer", "a\"b");
+    h.record(TimeUnit.MILLISECONDS.toNanos(2));
+    h.record(TimeUnit.MILLISECONDS.toNanos(2));
+
+    String text = metrics.getPrometheusText();
+    String expected =
+        "# HELP test_handshakes_total Handshakes.\n"
+            + "# TYPE test_handshakes_total counter\n"
+            + "test_handshakes_total 7\n"
+            + "# HELP test_phase_seconds Phase time.\n"
+            + "# TYPE test_phase_seconds summary\n";
+    Assert.assertTrue(text, text.startsWith(expected));
+    Assert.assertTrue(text, text.contains("test_phase_seconds{peer=\"a\\\"b\",quantile=\"0.5\"} 0.002"));
+    Assert.assertTrue(text, text.contains("test_phase_seconds_sum{peer=\"a\\\"b\"} 0.004000\n"));
+    Assert.assertTrue(text, text.contains("test_phase_seconds_count{peer=\"a\\\"b\"} 2\n"));
+    Assert.assertTrue(
+        text,
+        text.endsWith(
+            "# TYPE test_requests_total counter\n"
+                + "test_requests_total{code=\"2.04\"} 3\n"
+                + "test_requests_total{code=\"4.00\"} 1\n"));
+  }
+
+  @Test
+  public void testSameMetricReturned() {
+    Metrics metrics = new Metrics();
+    Assert.assertSame(
+        metrics.histogram("test_seconds", "Test.", "k", "v"),
+        metrics.histogram("test_seconds", "Test.", "k", "v"));
+    Assert.assertNotSame(
+        metrics.histogram("test_seconds", "Test.", "k", "v"),
+        metrics.histogram("test_seconds", "Test.", "k", "w"));
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> metrics.counter("test_seconds", "Test."));
+    Assert.assertThrows(
+        IllegalArgumentException.class, () -> metrics.counter("test_total", "Test.", "k"));
+  }
+
+  @Test
+  public void testResetKeepsExternalCounters() {
+    Metrics metrics = new Metrics();
+    metrics.counter("test_total", "Test.").increment();
+    metrics.counter("test_external_total", "Test.", () -> 5);
+    metrics.histogram("test_seconds", "Test.").record(1000);
+    metrics.reset();
+    Assert.assertEquals(0L, (long) metrics.getCounters().get("test_total"));
+    Assert.assertEquals(5L, (long) metrics.getCounters().get("test_external_total"));
+    Assert.assertEquals(0.0, metrics.getLatencies().get("test_seconds count"), 0);
+  }
+
+  @Test
+  public void testMBean() throws Exception {
+    Metrics metrics = new Metrics();
+    metrics.counter("test_total", "Test.").add(2);
+    String name = "com.google.openthread:type=MetricsTest";
+    metrics.registerMBean(name);
+    try {
+      Object counters =
+          ManagementFactory.getPlatformMBeanServer()
+              .getAttribute(new ObjectName(name), "PrometheusText");
+      Assert.assertTrue(counters.toString().contains("test_total 2\n"));
+    } finally {
+      metrics.unregisterMBean();
+    }
+    Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(name)));
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObjectPoolTest {
+
+  @Test
+  public void testReuse() {
+    AtomicInteger created = new AtomicInteger();
+    ObjectPool<Object> pool =
+        new ObjectPool<>(
+            () -> {
+              created.incrementAndGet();
+              return new Object();
+            },
+            2);
+    Object a = pool.acquire();
+    pool.release(a);
+    Assert.assertSame(a, pool.acquire());
+    Assert.assertEquals(1, created.get());
+
+    // a concurrent use gets an object of its own.
+    Object b = pool.acquire();
+    Assert.assertNotSame(a, b);
+    Assert.assertEquals(2, created.get());
+    pool.release(a);
+    pool.release(b);
+    Assert.assertEquals(2, pool.size());
+  }
+
+  @Test
+  public void testBounded() {
+    ObjectPool<Object> pool = new ObjectPool<>(Object::new, 2);
+    Object[] objects = {pool.acquire(), pool.acquire(), pool.acquire()};
+    for (Object o : objects) {
+      pool.release(o);
+    }
+    Assert.assertEquals(2, pool.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCapacity() {
+    new ObjectPool<>(Object::new, 0);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RttEstimatorTest {
+
+  private static RttEstimator newEstimator() {
+    return new RttEstimator(Duration.ofSeconds(2), Duration.ofMillis(100), Duration.ofSeconds(60));
+  }
+
+  @Test
+  public void testFirstSample() {
+    RttEstimator rtt = newEstimator();
+    Assert.assertEquals(Duration.ofSeconds(2), rtt.getRto());
+    Assert.assertNull(rtt.getSmoothedRtt());
+
+    // RFC 6298 2.2: SRTT = R, RTTVAR = R/2, RTO = SRTT + 4 * RTTVAR.
+    rtt.addSample(Duration.ofMillis(100));
+    Assert.assertEquals(Duration.ofMillis(100), rtt.getSmoothedRtt());
+    Assert.assertEquals(Duration.ofMillis(50), rtt.getRttVariation());
+    Assert.assertEquals(Duration.ofMillis(300), rtt.getRto());
+  }
+
+  @Test
+  public void testSubsequentSamples() {
+    RttEstimator rtt = newEstimator();
+    rtt.addSample(Duration.ofMillis(100));
+    // RFC 6298 2.3: RTTVAR = 3/4 * 50 + 1/4 * |100 - 180| = 57.5, SRTT = 7/8 * 100 + 1/8 * 180.
+    rtt.addSample(Duration.ofMillis(180));
+    Assert.assertEquals(Duration.ofMillis(110), rtt.getSmoothedRtt());
+    Assert.assertEquals(Duration.ofNanos(57_500_000), rtt.getRttVariation());
+    Assert.assertEquals(Duration.ofMillis(340), rtt.getRto());
+
+    // a stable RTT converges: the variation decays and the RTO approaches the RTT.
+    for (int i = 0; i < 100; i++) {
+      rtt.addSample(Duration.ofMillis(200));
+    }
+    Assert.assertEquals(200, rtt.getSmoothedRtt().toMillis(), 1);
+    Assert.assertTrue(rtt.getRto().compareTo(Duration.ofMillis(210)) < 0);
+  }
+
+  @Test
+  public void testBounds() {
+    RttEstimator rtt = newEstimator();
+    rtt.addSample(Duration.ofMillis(1));
+    Assert.assertEquals(Duration.ofMillis(100), rtt.getRto());
+    rtt.addSample(Duration.ofMinutes(10));
+    Assert.assertEquals(Duration.ofSeconds(60), rtt.getRto());
+
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> new RttEstimator(Duration.ofSeconds(2), Duration.ofSeconds(3), Duration.ofSeconds(60)));
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () -> new RttEstimator(Duration.ofSeconds(2), Duration.ZERO, Duration.ofSeconds(60)));
+  }
+
+  @Test
+  public void testBackoffAndReset() {
+    RttEstimator rtt = newEstimator();
+    rtt.addSample(Duration.ofMillis(100));
+    rtt.backoff();
+    Assert.assertEquals(Duration.ofMillis(600), rtt.getRto());
+    for (int i = 0; i < 10; i++) {
+      rtt.backoff();
+    }
+    Assert.assertEquals(Duration.ofSeconds(60), rtt.getRto());
+
+    // the next sample replaces the backed-off RTO.
+    rtt.addSample(Duration.ofMillis(100));
+    Assert.assertTrue(rtt.getRto().compareTo(Duration.ofSeconds(1)) < 0);
+
+    rtt.reset();
+    Assert.assertEquals(0, rtt.getSampleCount());
+    Assert.assertEquals(Duration.ofSeconds(2), rtt.getRto());
+  }
+}
@@ -47,6 +47,8 @@ import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.KeyUsage;
 import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.SignerInformationVerifier;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
@@ -394,9 +396,64 @@ public final class SecurityUtilsTest {
     Assert.assertTrue(after.validate(new OneKey(kp.getPublic(), null)));
   }
 
+  @Test
+  public void testStripCoseSign1UnprotectedHeadersMatchesReencoding() throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    X509Certificate cert =
+        SecurityUtils.genCertificate(kp, "CN=Signer", kp, new X500Name("CN=Signer"), true, null);
+    byte[] withBag =
+        SecurityUtils.genCoseSign1Message(
+            kp.getPrivate(),
+            SecurityUtils.COSE_SIGNATURE_ALGORITHM,
+            new byte[]{10, 20, 30, 40},
+            new X509Certificate[]{cert, cert});
+
+    for (boolean tagged : new boolean[]{true, false}) {
+      CBORObject msg = CBORObject.DecodeFromBytes(withBag);
+      CBORObject arr = msg.Untag();
+      byte[] input = tagged ? withBag : arr.EncodeToBytes();
+
+      // reference: decode, rebuild with an empty unprotected map and re-encode
+      CBORObject expected = CBORObject.NewArray();
+      expected.Add(arr.get(0));
+      expected.Add(CBORObject.NewMap());
+      expected.Add(arr.get(2));
+      expected.Add(arr.get(3));
+      byte[] expectedBytes =
+          (tagged ? CBORObject.FromObjectAndTag(expected, 18) : expected).EncodeToBytes();
+
+      byte[] stripped = SecurityUtils.stripCoseSign1UnprotectedHeaders(input);
+      Assert.assertArrayEquals(expectedBytes, stripped);
+      // stripping again is a no-op
+      Assert.assertArrayEquals(stripped, SecurityUtils.stripCoseSign1UnprotectedHeaders(stripped));
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testStripCoseSign1UnprotectedHeadersRejectsNonSign1() throws Exception {
     // A plain CBOR array that is not a 4-element COSE_Sign1 structure.
     SecurityUtils.stripCoseSign1UnprotectedHeaders(CBORObject.NewArray().EncodeToBytes());
   }
+
+  @Test
+  public void testSignerInfoVerifierCacheEvictsOldest() throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    X500Name issuer = new X500Name("CN=ca");
+    SignerInformationVerifier[] verifiers =
+        new SignerInformationVerifier[SecurityUtils.CMS_VERIFIER_CACHE_SIZE + 16];
+    X509CertificateHolder[] holders = new X509CertificateHolder[verifiers.length];
+    for (int i = 0; i < holders.length; i++) {
+      X509Certificate cert = SecurityUtils.genCertificate(kp, "CN=s" + i, kp, issuer, false, null);
+      holders[i] = new X509CertificateHolder(cert.getEncoded());
+      verifiers[i] = SecurityUtils.getSignerInfoVerifier(holders[i]);
+    }
+    Assert.assertEquals(
+        SecurityUtils.CMS_VERIFIER_CACHE_SIZE, SecurityUtils.getSignerInfoVerifierCount());
+
+    // the recent signers stay cached, rather than the whole cache being emptied; the oldest not.
+    for (int i = 16; i < holders.length; i++) {
+      Assert.assertSame(verifiers[i], SecurityUtils.getSignerInfoVerifier(holders[i]));
+    }
+    Assert.assertNotSame(verifiers[0], SecurityUtils.getSignerInfoVerifier(holders[0]));
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.net.InetAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SourceTokenTableTest {
+
+  private static InetAddress address(String host) throws Exception {
+    return InetAddress.getByName(host);
+  }
+
+  @Test
+  public void testPerSourceBucket() throws Exception {
+    SourceTokenTable table = new SourceTokenTable(1, 2, 16);
+    long now = System.nanoTime();
+    InetAddress a = address("192.0.2.1");
+    InetAddress b = address("2001:db8::1");
+    Assert.assertTrue(table.tryAcquire(a, now));
+    Assert.assertTrue(table.tryAcquire(a, now));
+    Assert.assertFalse(table.tryAcquire(a, now));
+    Assert.assertTrue(table.tryAcquire(b, now));
+
+    // one token per second.
+    Assert.assertFalse(table.tryAcquire(a, now + TimeUnit.MILLISECONDS.toNanos(500)));
+    Assert.assertTrue(table.tryAcquire(a, now + TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Test
+  public void testFixedMemory() throws Exception {
+    SourceTokenTable table = new SourceTokenTable(1, 1, 1000);
+    Assert.assertEquals(1024, table.getCapacity());
+    long now = System.nanoTime();
+    InetAddress abuser = address("192.0.2.1");
+    Assert.assertTrue(table.tryAcquire(abuser, now));
+
+    // a flood of other sources only forgets the least recently seen ones.
+    for (int i = 0; i < 100000; i++) {
+      InetAddress source =
+          InetAddress.getByAddress(new byte[] {10, (byte) (i >> 16), (byte) (i >> 8), (byte) i});
+      Assert.assertTrue(table.tryAcquire(source, now));
+      Assert.assertFalse(table.tryAcquire(source, now));
+    }
+    Assert.assertEquals(1024, table.getCapacity());
+  }
+
+  @Test
+  public void testLeastRecentlySeenIsForgotten() {
+    SourceTokenTable table = new SourceTokenTable(1, 1, SourceTokenTable.WAYS);
+    long now = System.nanoTime();
+    // one set: the table holds WAYS sources.
+    for (long key = 1; key <= SourceTokenTable.WAYS; key++) {
+      Assert.assertTrue(table.tryAcquire(key, now + key));
+    }
+    Assert.assertFalse(table.tryAcquire(1, now + 10));
+    // key 2 is now the least recently seen, and makes way for a new source.
+    Assert.assertTrue(table.tryAcquire(SourceTokenTable.WAYS + 1, now + 11));
+    Assert.assertFalse(table.tryAcquire(1, now + 12));
+    Assert.assertTrue(table.tryAcquire(2, now + 13));
+  }
+
+  @Test
+  public void testKeys() throws Exception {
+    Set<Long> keys = new HashSet<>();
+    keys.add(SourceTokenTable.keyOf(address("192.0.2.1")));
+    keys.add(SourceTokenTable.keyOf(address("192.0.2.2")));
+    keys.add(SourceTokenTable.keyOf(address("::ffff:c000:203")));
+    keys.add(SourceTokenTable.keyOf(address("2001:db8::1")));
+    keys.add(SourceTokenTable.keyOf(address("2001:db8::2")));
+    Assert.assertEquals(5, keys.size());
+    Assert.assertFalse(keys.contains(0L));
+    Assert.assertEquals(
+        SourceTokenTable.keyOf(address("2001:db8::1")),
+        SourceTokenTable.keyOf(address("2001:db8:0:0::1")));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+
+  @Test
+  public void testAvailability() {
+    if (Runtime.version().feature() >= 21) {
+      Assert.assertTrue(VirtualThreads.isAvailable());
+    } else if (Runtime.version().feature() < 19) {
+      Assert.assertFalse(VirtualThreads.isAvailable());
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnavailable() {
+    Assume.assumeFalse(VirtualThreads.isAvailable());
+    VirtualThreads.newExecutor("test-");
+  }
+
+  @Test
+  public void testExecutor() throws Exception {
+    Assume.assumeTrue(VirtualThreads.isAvailable());
+    ExecutorService executor = VirtualThreads.newExecutor("test-");
+    try {
+      Future<Thread> thread = executor.submit(Thread::currentThread);
+      Assert.assertEquals("test-0", thread.get().getName());
+      Assert.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread.get()));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
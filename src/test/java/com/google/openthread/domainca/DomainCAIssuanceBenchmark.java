@@ -0,0 +1,100 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.domainca;
+
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.tools.CredentialGenerator;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+
+/**
+ * Measures LDevID issuance throughput (certificates/sec) of {@link DomainCA#signCertificate} for an
+ * increasing number of concurrent threads, with and without post-issuance validation. Not a unit
+ * test; run its main() from the test classpath.
+ */
+public final class DomainCAIssuanceBenchmark {
+
+  private static final int CSR_COUNT = 2000;
+
+  private DomainCAIssuanceBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    CredentialGenerator cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+    DomainCA ca = new DomainCA("TestDomainTCE", cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS));
+
+    List<PKCS10CertificationRequest> csrs = new ArrayList<>();
+    for (int i = 0; i < CSR_COUNT; i++) {
+      KeyPair kp = SecurityUtils.genKeyPair();
+      csrs.add(
+          new JcaPKCS10CertificationRequestBuilder(new X500Name("CN=pledge-" + i), kp.getPublic())
+              .build(
+                  new JcaContentSignerBuilder(SecurityUtils.SIGNATURE_ALGORITHM)
+                      .build(kp.getPrivate())));
+    }
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (double rate : new double[] {1.0, 0.0}) {
+      ca.setValidationSampleRate(rate);
+      run(ca, csrs, 1); // warm-up
+      for (int threads = 1; threads <= cores; threads *= 2) {
+        double perSec = run(ca, csrs, threads);
+        System.out.printf(
+            "validation-rate=%.1f threads=%2d: %8.0f LDevIDs/sec%n", rate, threads, perSec);
+      }
+    }
+  }
+
+  private static double run(DomainCA ca, List<PKCS10CertificationRequest> csrs, int threads)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long start = System.nanoTime();
+      List<Future<?>> results = new ArrayList<>();
+      for (PKCS10CertificationRequest csr : csrs) {
+        results.add(executor.submit(() -> ca.signCertificate(csr)));
+      }
+      for (Future<?> f : results) {
+        f.get();
+      }
+      return csrs.size() / ((System.nanoTime() - start) / 1e9);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.domainca;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.thread.ConstantsThread;
+import com.google.openthread.tools.CredentialGenerator;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.bouncycastle.asn1.ASN1IA5String;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS10CertificationRequest;
+import org.bouncycastle.pkcs.jcajce.JcaPKCS10CertificationRequestBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DomainCATest {
+
+  private static final String DOMAIN_NAME = "TestDomainTCE";
+
+  private static CredentialGenerator cg;
+  private static DomainCA domainCA;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+    domainCA = new DomainCA(DOMAIN_NAME, cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS));
+  }
+
+  private static PKCS10CertificationRequest genCsr(KeyPair subject, KeyPair signer)
+      throws Exception {
+    return new JcaPKCS10CertificationRequestBuilder(new X500Name("CN=pledge"), subject.getPublic())
+        .build(new JcaContentSignerBuilder(SecurityUtils.SIGNATURE_ALGORITHM).build(signer.getPrivate()));
+  }
+
+  @Test
+  public void testSignCertificate() throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    X509Certificate cert = domainCA.signCertificate(genCsr(kp, kp));
+
+    cert.verify(domainCA.getPublicKey());
+    Assert.assertEquals(kp.getPublic(), cert.getPublicKey());
+    Assert.assertEquals(
+        domainCA.getCertificate().getSubjectX500Principal(), cert.getIssuerX500Principal());
+    Assert.assertEquals(-1, cert.getBasicConstraints());
+    Assert.assertNotNull(cert.getExtensionValue(Extension.authorityKeyIdentifier.getId()));
+    Assert.assertNull(cert.getExtensionValue(Extension.subjectKeyIdentifier.getId()));
+
+    byte[] domainNameExt = cert.getExtensionValue(ConstantsThread.THREAD_DOMAIN_NAME_OID);
+    Assert.assertNotNull(domainNameExt);
+    ASN1OctetString octets = ASN1OctetString.getInstance(domainNameExt);
+    ASN1IA5String name = ASN1IA5String.getInstance(octets.getOctets());
+    Assert.assertEquals(DOMAIN_NAME, name.getString());
+  }
+
+  @Test(expected = DomainCAException.class)
+  public void testPopFailure() throws Exception {
+    domainCA.signCertificate(genCsr(SecurityUtils.genKeyPair(), SecurityUtils.genKeyPair()));
+  }
+
+  @Test
+  public void testConcurrentIssuanceWithValidation() throws Exception {
+    DomainCA ca = new DomainCA(DOMAIN_NAME, cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS));
+    ca.setValidationSampleRate(1.0);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<X509Certificate>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  KeyPair kp = SecurityUtils.genKeyPair();
+                  return ca.signCertificate(genCsr(kp, kp));
+                }));
+      }
+      Set<BigInteger> serials = new HashSet<>();
+      for (Future<X509Certificate> f : results) {
+        X509Certificate cert = f.get();
+        cert.verify(ca.getPublicKey());
+        serials.add(cert.getSerialNumber());
+      }
+      Assert.assertEquals(results.size(), serials.size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidValidationSampleRate() {
+    domainCA.setValidationSampleRate(1.5);
+  }
+
+  @Test(expected = GeneralSecurityException.class)
+  public void testMismatchingCaKeyRejected() throws Exception {
+    Credentials caCreds = cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS);
+    Credentials wrongKey =
+        new Credentials(
+            SecurityUtils.genKeyPair().getPrivate(), caCreds.getCertificateChain(), "ca", "pw");
+    new DomainCA(DOMAIN_NAME, wrongKey);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.pledge;
+
+import com.google.openthread.Constants;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ReenrollmentSchedulerTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReenrollmentSchedulerTest.class);
+
+  private static final int FLEET_SIZE = 20_000;
+  private static final int BUCKETS = 20;
+
+  private static final Instant ISSUED = Instant.parse("2026-01-01T00:00:00Z");
+  private static final Instant EXPIRES =
+      ISSUED.atZone(ZoneOffset.UTC).plus(Constants.CERT_VALIDITY).toInstant();
+
+  /**
+   * Simulate a fleet whose LDevIDs were all issued in the same commissioning wave, and count the
+   * renewals per time bucket of the jitter window. Without jitter, all renewals land in the same
+   * instant; with jitter they spread evenly over the window.
+   */
+  @Test
+  public void testFleetRenewalsSpreadEvenly() {
+    Random random = new Random(42);
+    double renewalFraction = ReenrollmentScheduler.DEFAULT_RENEWAL_FRACTION;
+    double jitterFraction = ReenrollmentScheduler.DEFAULT_JITTER_FRACTION;
+    long lifetime = Duration.between(ISSUED, EXPIRES).toMillis();
+    long windowStart = (long) (lifetime * renewalFraction);
+    long windowLength = (long) (lifetime * jitterFraction);
+
+    int[] histogram = new int[BUCKETS];
+    for (int i = 0; i < FLEET_SIZE; i++) {
+      Duration delay =
+          ReenrollmentScheduler.computeRenewalDelay(
+              ISSUED, EXPIRES, ISSUED, renewalFraction, jitterFraction, random);
+      long offset = delay.toMillis() - windowStart;
+      Assert.assertTrue(offset >= 0 && offset <= windowLength);
+      histogram[(int) Math.min(BUCKETS - 1, offset * BUCKETS / windowLength)]++;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    int expected = FLEET_SIZE / BUCKETS;
+    for (int i = 0; i < BUCKETS; i++) {
+      sb.append(String.format("%n  bucket %2d: %5d", i, histogram[i]));
+      // a uniform spread: every bucket within 15% of the mean (over 3 standard deviations here).
+      Assert.assertTrue(
+          "bucket " + i + " holds " + histogram[i], Math.abs(histogram[i] - expected) < expected * 0.15);
+    }
+    logger.info(
+        "renewals of {} LDevIDs over {} days:{}",
+        FLEET_SIZE,
+        Duration.ofMillis(windowLength).toDays(),
+        sb);
+
+    // without jitter, the whole fleet renews at the same moment.
+    Duration first =
+        ReenrollmentScheduler.computeRenewalDelay(ISSUED, EXPIRES, ISSUED, renewalFraction, 0, random);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertEquals(
+          first,
+          ReenrollmentScheduler.computeRenewalDelay(
+              ISSUED, EXPIRES, ISSUED, renewalFraction, 0, random));
+    }
+  }
+
+  @Test
+  public void testRenewalDelayCountsFromNow() {
+    Random random = new Random(1);
+    Instant now = ISSUED.plus(Duration.ofDays(100));
+    Duration delay = ReenrollmentScheduler.computeRenewalDelay(ISSUED, EXPIRES, now, 0.5, 0, random);
+    Assert.assertEquals(
+        Duration.between(ISSUED, EXPIRES).toMillis() / 2 - Duration.ofDays(100).toMillis(),
+        delay.toMillis());
+
+    // past the renewal time: renew right away.
+    Assert.assertEquals(
+        Duration.ZERO,
+        ReenrollmentScheduler.computeRenewalDelay(ISSUED, EXPIRES, EXPIRES, 0.5, 0.2, random));
+  }
+
+  @Test
+  public void testBackoffDoublesUpToMax() {
+    Random random = new Random(7);
+    Duration initial = Duration.ofSeconds(10);
+    Duration max = Duration.ofMinutes(10);
+    for (int failures = 1; failures < 40; failures++) {
+      long backoff =
+          (long) Math.min(max.toMillis(), initial.toMillis() * Math.pow(2, failures - 1));
+      for (int i = 0; i < 100; i++) {
+        long delay =
+            ReenrollmentScheduler.computeBackoff(failures, initial, max, random).toMillis();
+        Assert.assertTrue(delay >= backoff / 2 && delay <= backoff);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFractions() throws Exception {
+    new ReenrollmentScheduler(null, 0.9, 0.2, Duration.ofSeconds(1), Duration.ofSeconds(2));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdmissionLimiterTest {
+
+  private static final String MASA_A = "masa-a.example.com:9443";
+  private static final String MASA_B = "masa-b.example.com:9443";
+
+  @Test
+  public void testPerMasaLimit() {
+    AdmissionLimiter limiter = new AdmissionLimiter(3, 2);
+    Assert.assertTrue(limiter.tryAcquire(MASA_A));
+    Assert.assertTrue(limiter.tryAcquire(MASA_A));
+    Assert.assertFalse(limiter.tryAcquire(MASA_A));
+
+    // another MASA is not held up by a slow one.
+    Assert.assertTrue(limiter.tryAcquire(MASA_B));
+    Assert.assertEquals(3, limiter.getInFlight());
+    Assert.assertEquals(1, limiter.getRejectedCount());
+
+    limiter.release(MASA_A, TimeUnit.MILLISECONDS.toNanos(100));
+    Assert.assertTrue(limiter.tryAcquire(MASA_A));
+  }
+
+  @Test
+  public void testGlobalLimit() {
+    AdmissionLimiter limiter = new AdmissionLimiter(2, 2);
+    Assert.assertTrue(limiter.tryAcquire(MASA_A));
+    Assert.assertTrue(limiter.tryAcquire(MASA_B));
+    Assert.assertFalse(limiter.tryAcquire("masa-c.example.com"));
+    Assert.assertEquals(1, limiter.getRejectedCount());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReleaseWithoutAcquire() {
+    new AdmissionLimiter(1, 1).release(MASA_A, 0);
+  }
+
+  @Test
+  public void testRetryAfter() {
+    AdmissionLimiter limiter = new AdmissionLimiter(4, 1);
+    Assert.assertTrue(limiter.tryAcquire(MASA_A));
+    // a MASA taking 10 s per voucher request, one at a time.
+    for (int i = 0; i < 50; i++) {
+      limiter.release(MASA_A, TimeUnit.SECONDS.toNanos(10));
+      Assert.assertTrue(limiter.tryAcquire(MASA_A));
+    }
+    Assert.assertFalse(limiter.tryAcquire(MASA_A));
+    Assert.assertEquals(10, limiter.getRetryAfterSeconds(MASA_A));
+  }
+
+  @Test
+  public void testDrainEstimator() {
+    DrainEstimator drain = new DrainEstimator(Duration.ofMillis(500));
+    // 5 waiting and the new one, 2 at a time: 3 rounds of 0.5 s.
+    Assert.assertEquals(2, drain.secondsToDrain(5, 2));
+    Assert.assertEquals(DrainEstimator.MIN_SECONDS, drain.secondsToDrain(0, 8));
+    Assert.assertEquals(DrainEstimator.MAX_SECONDS, drain.secondsToDrain(10000, 1));
+
+    for (int i = 0; i < 100; i++) {
+      drain.record(TimeUnit.SECONDS.toNanos(2));
+    }
+    Assert.assertEquals(2000, drain.getMeanServiceTime().toMillis(), 1);
+    Assert.assertEquals(6, drain.secondsToDrain(5, 2));
+  }
+}
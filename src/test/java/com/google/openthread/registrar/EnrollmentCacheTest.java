@@ -0,0 +1,203 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.SecurityUtils;
+import com.google.openthread.domainca.DomainCAException;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EnrollmentCacheTest {
+
+  private static final byte[] PLEDGE_1 = {1};
+  private static final byte[] PLEDGE_2 = {2};
+  private static final byte[] CSR_A = {10, 11, 12};
+  private static final byte[] CSR_B = {20, 21, 22};
+
+  private static X509Certificate cert;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    KeyPair kp = SecurityUtils.genKeyPair();
+    cert = SecurityUtils.genCertificate(kp, "CN=ldevid", kp, new X500Name("CN=ca"), false, null);
+  }
+
+  @Test
+  public void testRepeatedCsrIssuedOnce() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMinutes(1), 16);
+    AtomicInteger issued = new AtomicInteger();
+    EnrollmentCache.Issuer issuer =
+        () -> {
+          issued.incrementAndGet();
+          return cert;
+        };
+
+    Assert.assertSame(cert, cache.getOrIssue(PLEDGE_1, CSR_A, issuer));
+    Assert.assertSame(cert, cache.getOrIssue(PLEDGE_1, CSR_A, issuer));
+    Assert.assertEquals(1, issued.get());
+
+    // other CSR, or same CSR from another Pledge: new issuance
+    cache.getOrIssue(PLEDGE_1, CSR_B, issuer);
+    cache.getOrIssue(PLEDGE_2, CSR_A, issuer);
+    Assert.assertEquals(3, issued.get());
+  }
+
+  @Test
+  public void testWindow() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ZERO, 16);
+    AtomicInteger issued = new AtomicInteger();
+    EnrollmentCache.Issuer issuer =
+        () -> {
+          issued.incrementAndGet();
+          return cert;
+        };
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    Assert.assertEquals(2, issued.get());
+    Assert.assertEquals(0, cache.size());
+
+    cache.setWindow(Duration.ofMillis(50));
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    Assert.assertEquals(3, issued.get());
+    Thread.sleep(100);
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    Assert.assertEquals(4, issued.get());
+  }
+
+  @Test
+  public void testFailureNotCached() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMinutes(1), 16);
+    try {
+      cache.getOrIssue(
+          PLEDGE_1,
+          CSR_A,
+          () -> {
+            throw new DomainCAException("POP verification failed");
+          });
+      Assert.fail("expected DomainCAException");
+    } catch (DomainCAException expected) {
+      // ok
+    }
+    Assert.assertEquals(0, cache.size());
+    Assert.assertSame(cert, cache.getOrIssue(PLEDGE_1, CSR_A, () -> cert));
+  }
+
+  @Test
+  public void testErrorNotCached() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMinutes(1), 16);
+    try {
+      cache.getOrIssue(
+          PLEDGE_1,
+          CSR_A,
+          () -> {
+            throw new AssertionError("signer broken");
+          });
+      Assert.fail("expected AssertionError");
+    } catch (AssertionError expected) {
+      // ok
+    }
+    // a later request issues again rather than waiting for the failed issuance.
+    Assert.assertEquals(0, cache.size());
+    Assert.assertSame(cert, cache.getOrIssue(PLEDGE_1, CSR_A, () -> cert));
+  }
+
+  @Test
+  public void testConcurrentRequestsWaitForIssuanceInProgress() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMinutes(1), 16);
+    AtomicInteger issued = new AtomicInteger();
+    CountDownLatch issuing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    EnrollmentCache.Issuer slowIssuer =
+        () -> {
+          issued.incrementAndGet();
+          issuing.countDown();
+          release.await();
+          return cert;
+        };
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<X509Certificate> first =
+          executor.submit(() -> cache.getOrIssue(PLEDGE_1, CSR_A, slowIssuer));
+      Assert.assertTrue(issuing.await(5, TimeUnit.SECONDS));
+      Future<X509Certificate> second =
+          executor.submit(() -> cache.getOrIssue(PLEDGE_1, CSR_A, slowIssuer));
+      release.countDown();
+      Assert.assertSame(cert, first.get(5, TimeUnit.SECONDS));
+      Assert.assertSame(cert, second.get(5, TimeUnit.SECONDS));
+      Assert.assertEquals(1, issued.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testBounded() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMinutes(1), 4);
+    for (int i = 0; i < 10; i++) {
+      cache.getOrIssue(PLEDGE_1, new byte[] {(byte) i}, () -> cert);
+    }
+    Assert.assertEquals(4, cache.size());
+  }
+
+  @Test
+  public void testReissuedEntryNotEvictedByStaleQueuePosition() throws Exception {
+    EnrollmentCache cache = new EnrollmentCache(Duration.ofMillis(500), 2);
+    AtomicInteger issued = new AtomicInteger();
+    EnrollmentCache.Issuer issuer =
+        () -> {
+          issued.incrementAndGet();
+          return cert;
+        };
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    Thread.sleep(300);
+    cache.getOrIssue(PLEDGE_1, CSR_B, issuer);
+    Thread.sleep(300);
+    // CSR_A expired and is issued again; CSR_B is the oldest entry now.
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    cache.getOrIssue(PLEDGE_2, CSR_A, issuer);
+    Assert.assertEquals(4, issued.get());
+    Assert.assertEquals(2, cache.size());
+
+    cache.getOrIssue(PLEDGE_1, CSR_A, issuer);
+    Assert.assertEquals(4, issued.get());
+  }
+}
@@ -34,9 +34,16 @@ import COSE.Message;
 import COSE.MessageTag;
 import COSE.OneKey;
 import COSE.Sign1Message;
+import com.google.openthread.BrskiExchangeEvent;
 import com.google.openthread.Constants;
 import com.google.openthread.Credentials;
 import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
+import com.google.openthread.DtlsStatistics;
+import com.google.openthread.ExchangeRecorder;
+import com.google.openthread.InsecureHostnameVerifier;
+import com.google.openthread.InsecureTrustManager;
+import com.google.openthread.Metrics;
 import com.google.openthread.Role;
 import com.google.openthread.SecurityUtils;
 import com.google.openthread.brski.ConstantsBrski;
@@ -48,18 +55,59 @@ import com.google.openthread.masa.MASA;
 import com.google.openthread.pledge.Pledge;
 import com.google.openthread.pledge.Pledge.CertState;
 import com.google.openthread.pledge.PledgeException;
+import com.google.openthread.pledge.ReenrollmentScheduler;
 import com.google.openthread.tools.CredentialGenerator;
+import com.upokecenter.cbor.CBORObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.util.encoders.Hex;
+import org.eclipse.californium.core.CoapClient;
+import org.eclipse.californium.core.CoapObserveRelation;
 import org.eclipse.californium.core.CoapResponse;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
 import org.eclipse.californium.core.coap.MediaTypeRegistry;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.network.Endpoint;
+import org.eclipse.californium.elements.DtlsEndpointContext;
+import org.eclipse.californium.elements.util.Bytes;
+import org.eclipse.californium.scandium.dtls.ConnectionId;
+import org.eclipse.californium.scandium.dtls.MultiNodeConnectionIdGenerator;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -209,6 +257,374 @@ public final class FunctionalTest {
     Assert.assertEquals(ResponseCode.CHANGED, pledge.sendEnrollStatusTelemetry(true, null));
   }
 
+  @Test
+  public void testMetrics() throws Exception {
+    pledge.requestVoucher();
+    Assert.assertEquals(ResponseCode.CHANGED, pledge.sendVoucherStatusTelemetry(true, null));
+    pledge.enroll();
+    Assert.assertEquals(ResponseCode.CHANGED, pledge.sendEnrollStatusTelemetry(true, null));
+
+    Map<String, Double> latencies = registrar.getMetrics().getLatencies();
+    for (String phase :
+        new String[]{
+            "registrar_dtls_handshake_seconds{type=\"full\"}",
+            "registrar_pvr_validation_seconds",
+            "registrar_rvr_signing_seconds{format=\"cose\"}",
+            "registrar_masa_request_seconds{masa=\"localhost:"
+                + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT
+                + "\"}",
+            "registrar_voucher_forward_seconds",
+            "registrar_csr_pop_seconds",
+            "registrar_ldevid_signing_seconds",
+            "registrar_telemetry_seconds{resource=\"vs\"}",
+            "registrar_telemetry_seconds{resource=\"es\"}"
+        }) {
+      Assert.assertEquals(phase, 1.0, latencies.get(phase + " count"), 0);
+      Assert.assertTrue(phase, latencies.get(phase + " max") > 0);
+    }
+
+    // the CoAP resource, to any client the Registrar accepts.
+    pledge.setURI(REGISTRAR_URI + "/" + Constants.METRICS_PATH);
+    CoapResponse response = pledge.get();
+    Assert.assertEquals(ResponseCode.CONTENT, response.getCode());
+    Assert.assertEquals(MediaTypeRegistry.TEXT_PLAIN, response.getOptions().getContentFormat());
+    String text = response.getResponseText();
+    Assert.assertTrue(text, text.contains("registrar_dtls_handshakes_total{result=\"full\"} 1\n"));
+    Assert.assertTrue(text, text.contains("registrar_pvr_validation_seconds_count 1\n"));
+
+    // the MASA's HTTP path.
+    SSLContext ssl = SSLContext.getInstance("TLS");
+    ssl.init(null, new TrustManager[]{new InsecureTrustManager()}, null);
+    HttpsURLConnection con =
+        (HttpsURLConnection)
+            new URL(
+                "https://localhost:"
+                    + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT
+                    + "/"
+                    + Constants.METRICS_PATH)
+                .openConnection();
+    con.setSSLSocketFactory(ssl.getSocketFactory());
+    con.setHostnameVerifier(new InsecureHostnameVerifier());
+    Assert.assertEquals(200, con.getResponseCode());
+    Assert.assertEquals(Metrics.PROMETHEUS_CONTENT_TYPE, con.getContentType());
+    String masaMetrics;
+    try (InputStream in = con.getInputStream()) {
+      masaMetrics = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    Assert.assertTrue(masaMetrics, masaMetrics.contains("masa_voucher_signing_seconds_count 1\n"));
+    Assert.assertTrue(
+        masaMetrics,
+        masaMetrics.contains("masa_rvr_validation_seconds_count{format=\"cose\"} 1\n"));
+
+    // and the MXBean of the running Registrar.
+    text =
+        (String)
+            ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(
+                    new ObjectName(
+                        "com.google.openthread:type=Registrar,port=" + registrar.getListenPort()),
+                    "PrometheusText");
+    Assert.assertTrue(text, text.contains("registrar_ldevid_signing_seconds_count 1\n"));
+  }
+
+  @Test
+  public void testBusyResource() throws Exception {
+    // saturate the voucher requests: all threads blocked and the queue full.
+    ResourceExecutor rv = registrar.getResourceExecutor(ConstantsBrski.REQUEST_VOUCHER);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      for (int i = 0; i < rv.getThreads() + rv.getQueueCapacity(); i++) {
+        rv.execute(
+            () -> {
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+      }
+
+      // a voucher request is turned away at once, with a hint when to retry.
+      pledge.setMaxBusyRetries(0);
+      pledge.setURI(REGISTRAR_URI + ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER);
+      CoapResponse response =
+          pledge.post(new byte[] {0}, ExtendedMediaTypeRegistry.APPLICATION_VOUCHER_COSE_CBOR);
+      Assert.assertEquals(ResponseCode.SERVICE_UNAVAILABLE, response.getCode());
+      Assert.assertTrue(response.getOptions().hasMaxAge());
+      Assert.assertEquals(
+          1L,
+          (long)
+              registrar
+                  .getMetrics()
+                  .getCounters()
+                  .get("registrar_requests_rejected_total{resource=\"rv\"}"));
+
+      // while the cheap resources are not held up.
+      Assert.assertEquals(ResponseCode.CONTENT, pledge.sayHello().getCode());
+      pledge.setURI(REGISTRAR_URI + ConstantsBrski.EST_PATH + "/" + ConstantsBrski.CA_CERTIFICATES);
+      Assert.assertEquals(ResponseCode.CONTENT, pledge.get().getCode());
+    } finally {
+      release.countDown();
+    }
+
+    pledge.setMaxBusyRetries(Pledge.DEFAULT_MAX_BUSY_RETRIES);
+    pledge.requestVoucher();
+    pledge.enroll();
+    verifyEnroll(pledge);
+  }
+
+  @Test
+  public void testBusyResourceRetried() throws Exception {
+    ResourceExecutor rv = registrar.getResourceExecutor(ConstantsBrski.REQUEST_VOUCHER);
+    CountDownLatch release = new CountDownLatch(1);
+    for (int i = 0; i < rv.getThreads() + rv.getQueueCapacity(); i++) {
+      rv.execute(
+          () -> {
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+    }
+    Thread releaser =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(500);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              release.countDown();
+            });
+    releaser.start();
+
+    // the Pledge waits out the Max-Age of the 5.03 and tries again.
+    Assert.assertNotNull(pledge.requestVoucher());
+    releaser.join();
+    Assert.assertEquals(
+        1L,
+        (long)
+            registrar
+                .getMetrics()
+                .getCounters()
+                .get("registrar_requests_rejected_total{resource=\"rv\"}"));
+  }
+
+  @Test
+  public void testMasaFailover() throws Exception {
+    // a MASA URI where nothing listens, with the running MASA as its alternate.
+    int deadPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      deadPort = socket.getLocalPort();
+    }
+    String deadMasa = "localhost:" + deadPort;
+    String liveMasa = "localhost:" + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT;
+    registrar.setMasaCircuitBreaker(1, Duration.ofSeconds(60));
+    registrar.setMasaAlternates(deadMasa, liveMasa);
+    registrar.setForcedMasaUri(deadMasa);
+
+    Assert.assertNotNull(pledge.requestVoucher());
+    // the dead endpoint's circuit is open now, so it is skipped.
+    pledge.reset();
+    Assert.assertNotNull(pledge.requestVoucher());
+    Map<String, Long> counters = registrar.getMetrics().getCounters();
+    Assert.assertEquals(1L, (long) counters.get("registrar_masa_circuit_opened_total"));
+    Assert.assertEquals(
+        1L, (long) counters.get("registrar_masa_errors_total{masa=\"" + deadMasa + "\"}"));
+  }
+
+  /** While the MASA's circuit is open, a voucher request is turned away before signing an RVR. */
+  @Test
+  public void testMasaCircuitOpenFailsBeforeSigning() throws Exception {
+    int deadPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      deadPort = socket.getLocalPort();
+    }
+    registrar.setMasaCircuitBreaker(1, Duration.ofSeconds(60));
+    registrar.setForcedMasaUri("localhost:" + deadPort);
+    pledge.setMaxBusyRetries(0);
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        pledge.requestVoucher();
+        Assert.fail("voucher request to a dead MASA should fail");
+      } catch (PledgeException ex) {
+        Assert.assertEquals(ResponseCode.SERVICE_UNAVAILABLE, ex.getCode());
+      }
+      pledge.reset();
+    }
+    // only the first voucher request, which opened the circuit, had its RVR signed.
+    String text = registrar.getMetrics().getPrometheusText();
+    Assert.assertTrue(
+        text, text.contains("registrar_rvr_signing_seconds_count{format=\"cose\"} 1\n"));
+  }
+
+  /** A voucher request over the MASA request limit is turned away before signing an RVR. */
+  @Test
+  public void testMasaRequestLimitFailsBeforeSigning() throws Exception {
+    String signed = "registrar_rvr_signing_seconds_count{format=\"cose\"} 1\n";
+    // a MASA that accepts connections, but never answers.
+    try (ServerSocket stalledMasa = new ServerSocket(0)) {
+      registrar.setMasaRequestLimits(1, 1);
+      registrar.setMasaTimeout(Duration.ofSeconds(3));
+      registrar.setForcedMasaUri("localhost:" + stalledMasa.getLocalPort());
+      Thread first =
+          new Thread(
+              () -> {
+                try {
+                  pledge.requestVoucher();
+                } catch (Exception e) {
+                  // ok, the MASA does not answer.
+                }
+              });
+      first.start();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (!registrar.getMetrics().getPrometheusText().contains(signed)
+          && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      Pledge second = new Pledge(cg.getCredentials(CredentialsSet.PLEDGE_ALIAS), REGISTRAR_URI);
+      try {
+        second.setMaxBusyRetries(0);
+        second.requestVoucher();
+        Assert.fail("voucher request over the MASA request limit should fail");
+      } catch (PledgeException ex) {
+        Assert.assertEquals(ResponseCode.SERVICE_UNAVAILABLE, ex.getCode());
+      } finally {
+        second.shutdown();
+      }
+      String text = registrar.getMetrics().getPrometheusText();
+      Assert.assertTrue(text, text.contains(signed));
+      first.join();
+    }
+  }
+
+  @Test
+  public void testExchangeRecorder() throws Exception {
+    pledge.requestVoucher();
+
+    // the Pledge's voucher request, and the Registrar's to the MASA.
+    awaitRecorded(ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER);
+    List<ExchangeRecorder.Entry> entries = registrar.getExchangeRecorder().getEntries();
+    Assert.assertEquals(2, entries.size());
+    ExchangeRecorder.Entry masaExchange = entries.get(0);
+    Assert.assertEquals("localhost:" + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT,
+        masaExchange.getResource());
+    Assert.assertArrayEquals(registrar.getLastRvrCoseSigned(), masaExchange.getRequest());
+    Assert.assertEquals("2.04", masaExchange.getResult());
+    ExchangeRecorder.Entry pledgeExchange = entries.get(1);
+    Assert.assertEquals(ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER,
+        pledgeExchange.getResource());
+    Assert.assertEquals("2.04", pledgeExchange.getResult());
+    Assert.assertNotNull(pledgeExchange.getRequest());
+
+    awaitRecorded(
+        masa.getExchangeRecorder(),
+        ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER_HTTP);
+    entries = masa.getExchangeRecorder().getEntries();
+    Assert.assertEquals(1, entries.size());
+    Assert.assertEquals(
+        ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER_HTTP,
+        entries.get(0).getResource());
+    Assert.assertArrayEquals(registrar.getLastRvrCoseSigned(), entries.get(0).getRequest());
+    Assert.assertEquals("200", entries.get(0).getResult());
+    Assert.assertArrayEquals(masaExchange.getResponse(), entries.get(0).getResponse());
+
+    // dumped on demand through the MXBean.
+    Path file = Files.createTempFile("exchanges", ".cbor");
+    try {
+      Object count =
+          ManagementFactory.getPlatformMBeanServer()
+              .invoke(
+                  new ObjectName(
+                      "com.google.openthread:type=Registrar,port="
+                          + registrar.getListenPort()
+                          + ",name=ExchangeRecorder"),
+                  "dump",
+                  new Object[]{file.toString()},
+                  new String[]{String.class.getName()});
+      Assert.assertEquals(2, count);
+      try (InputStream in = Files.newInputStream(file)) {
+        Assert.assertEquals(2, CBORObject.ReadSequence(in).length);
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /** Wait until an exchange with the resource is recorded, which happens after its response. */
+  private void awaitRecorded(String resource) throws InterruptedException {
+    awaitRecorded(registrar.getExchangeRecorder(), resource);
+  }
+
+  private static void awaitRecorded(ExchangeRecorder recorder, String resource)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (System.nanoTime() < deadline) {
+      for (ExchangeRecorder.Entry entry : recorder.getEntries()) {
+        if (resource.equals(entry.getResource())) {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testFlightRecorderEvents() throws Exception {
+    Path file = Files.createTempFile("brski", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(BrskiExchangeEvent.class).withoutThreshold();
+      recording.enable("com.google.openthread.LdevidSigning").withoutThreshold();
+      recording.start();
+      pledge.requestVoucher();
+      Assert.assertEquals(ResponseCode.CHANGED, pledge.sendVoucherStatusTelemetry(true, null));
+      pledge.enroll();
+      awaitRecorded(ConstantsBrski.EST_PATH + "/" + ConstantsBrski.SIMPLE_ENROLL);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    String serial = Pledge.getSerialNumber(pledge.getIdevidCertificate());
+    Map<String, RecordedEvent> events = new HashMap<>();
+    for (RecordedEvent e : RecordingFile.readAllEvents(file)) {
+      String key =
+          e.getEventType().getName().equals("com.google.openthread.LdevidSigning")
+              ? "ldevid"
+              : e.getString("server") + " " + e.getString("resource");
+      events.put(key, e);
+    }
+    Files.delete(file);
+
+    RecordedEvent rv = events.get("Registrar /.well-known/brski/rv");
+    Assert.assertNotNull(events.keySet().toString(), rv);
+    Assert.assertEquals(serial, rv.getString("pledgeSerial"));
+    Assert.assertEquals(ConstantsBrski.MEDIA_TYPE_VOUCHER_COSE_CBOR, rv.getString("contentFormat"));
+    Assert.assertEquals(
+        "localhost:" + ConstantsBrski.DEFAULT_MASA_HTTPS_PORT, rv.getString("masaUri"));
+    Assert.assertEquals("2.04", rv.getString("result"));
+    Assert.assertTrue(rv.getLong("requestSize") > 0);
+    Assert.assertTrue(rv.getLong("responseSize") > 0);
+    Assert.assertTrue(rv.getDuration().toNanos() > 0);
+
+    RecordedEvent masa =
+        events.get("MASA " + ConstantsBrski.BRSKI_PATH + "/" + ConstantsBrski.REQUEST_VOUCHER_HTTP);
+    Assert.assertNotNull(events.keySet().toString(), masa);
+    Assert.assertEquals(serial, masa.getString("pledgeSerial"));
+    Assert.assertEquals("200", masa.getString("result"));
+    Assert.assertTrue(masa.getDuration().compareTo(rv.getDuration()) < 0);
+
+    Assert.assertEquals("2.04", events.get("Registrar /.well-known/brski/vs").getString("result"));
+    RecordedEvent sen = events.get("Registrar /.well-known/est/sen");
+    Assert.assertEquals(
+        ExtendedMediaTypeRegistry.toString(ExtendedMediaTypeRegistry.APPLICATION_PKCS10),
+        sen.getString("contentFormat"));
+    Assert.assertEquals(serial, events.get("ldevid").getString("pledgeSerial"));
+    Assert.assertEquals("issued", events.get("ldevid").getString("result"));
+  }
+
   /**
    * The Registrar must place the Pledge's IDevID certificate chain from the DTLS handshake into the
    * RVR's COSE x5bag, alongside its own signing chain (cBRSKI section 9.2.1).
@@ -329,6 +745,89 @@ public final class FunctionalTest {
     }
   }
 
+  /**
+   * A /crts response carries an ETag and Max-Age. A repeated request offering that ETag gets 2.03
+   * Valid without payload, and the Pledge then reuses its stored CA certificates.
+   */
+  @Test
+  public void testRequestCaCertificatesRevalidation() throws Exception {
+    Voucher voucher = pledge.requestVoucher();
+    Assert.assertTrue(voucher.validate());
+
+    CoapClient client = new CoapClient(REGISTRAR_URI + ConstantsBrski.EST_PATH + "/"
+        + ConstantsBrski.CA_CERTIFICATES);
+    client.setEndpoint(pledge.getEndpoint());
+    try {
+      Request request = Request.newGet();
+      request.getOptions().setAccept(ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE);
+      CoapResponse response = client.advanced(request);
+      Assert.assertEquals(ResponseCode.CONTENT, response.getCode());
+      Assert.assertEquals(1, response.getOptions().getETagCount());
+      Assert.assertEquals(
+          Long.valueOf(Registrar.CaCertsResource.MAX_AGE), response.getOptions().getMaxAge());
+      byte[] etag = response.getOptions().getETags().get(0);
+
+      request = Request.newGet();
+      request.getOptions().setAccept(ExtendedMediaTypeRegistry.APPLICATION_MULTIPART_CORE);
+      request.getOptions().addETag(etag);
+      response = client.advanced(request);
+      Assert.assertEquals(ResponseCode.VALID, response.getCode());
+      Assert.assertEquals(0, response.getPayloadSize());
+
+      // a different format has a different representation, with its own ETag.
+      request = Request.newGet();
+      request.getOptions().setAccept(ExtendedMediaTypeRegistry.APPLICATION_PKIX_CERT);
+      request.getOptions().addETag(etag);
+      response = client.advanced(request);
+      Assert.assertEquals(ResponseCode.CONTENT, response.getCode());
+    } finally {
+      client.shutdown();
+    }
+
+    List<X509Certificate> first = pledge.requestCACertificates();
+    Assert.assertSame(first, pledge.requestCACertificates());
+  }
+
+  /**
+   * An observer of /crts gets the current CA certificates, and is notified with the new ones when
+   * the Registrar's domain CA changes.
+   */
+  @Test
+  public void testObserveCaCertificates() throws Exception {
+    Voucher voucher = pledge.requestVoucher();
+    Assert.assertTrue(voucher.validate());
+
+    BlockingQueue<List<X509Certificate>> notifications = new LinkedBlockingQueue<>();
+    CoapObserveRelation relation = pledge.observeCACertificates(notifications::add);
+    try {
+      List<X509Certificate> caCerts = notifications.poll(5, TimeUnit.SECONDS);
+      Assert.assertNotNull(caCerts);
+      Assert.assertEquals(domainCA.getCertificate(), caCerts.get(0));
+
+      // CA rollover: a new self-signed domain CA.
+      KeyPair newCaKeyPair = SecurityUtils.genKeyPair();
+      String newCaName = "CN=Thread-Test Domain CA 2";
+      X509Certificate newCaCert =
+          SecurityUtils.genCertificate(
+              newCaKeyPair, newCaName, newCaKeyPair, new X500Name(newCaName), true, null);
+      DomainCA newDomainCA =
+          new DomainCA(
+              DEFAULT_DOMAIN_NAME,
+              new Credentials(
+                  newCaKeyPair.getPrivate(), new X509Certificate[] {newCaCert}, "ca", "pw"));
+      registrar.setDomainCA(newDomainCA);
+
+      caCerts = notifications.poll(5, TimeUnit.SECONDS);
+      Assert.assertNotNull("no notification after domain CA change", caCerts);
+      Assert.assertEquals(newCaCert, caCerts.get(0));
+
+      // the notification also refreshed the stored response, which is now revalidated.
+      Assert.assertEquals(newCaCert, pledge.requestCACertificates().get(0));
+    } finally {
+      relation.proactiveCancel();
+    }
+  }
+
   /** A /crts request for a Content-Format the Registrar cannot produce must give a 4.06. */
   @Test
   public void testRequestCaCertificatesNotAcceptable() throws Exception {
@@ -417,6 +916,317 @@ public final class FunctionalTest {
     verifyEnroll(pledge);
   }
 
+  @Test
+  public void testEnrollWithServerKeyGeneration() throws Exception {
+    Voucher voucher = pledge.requestVoucher();
+    Assert.assertEquals(ResponseCode.CHANGED, pledge.sendVoucherStatusTelemetry(true, null));
+    Assert.assertTrue(voucher.validate());
+
+    pledge.enrollWithServerKeyGeneration();
+    verifyPledge(pledge);
+    verifyEnroll(pledge);
+    // the LDevID is for the server-generated key, not for the IDevID key that signed the CSR.
+    Assert.assertNotEquals(
+        pledge.getIdevidCertificate().getPublicKey(), pledge.getOperationalCert().getPublicKey());
+    Assert.assertEquals(ResponseCode.CHANGED, pledge.sendEnrollStatusTelemetry(true, null));
+
+    // the received private key is usable: reenrollment signs its CSR with it.
+    pledge.reenroll();
+    verifyEnroll(pledge);
+  }
+
+  /** The response of server-side key generation holds a private key, so it is not recorded. */
+  @Test
+  public void testServerKeyGenerationResponseNotRecorded() throws Exception {
+    pledge.requestVoucher();
+    pledge.enrollWithServerKeyGeneration();
+    verifyEnroll(pledge);
+
+    String resource = ConstantsBrski.EST_PATH + "/" + ConstantsBrski.SERVER_KEYGEN;
+    awaitRecorded(resource);
+    ExchangeRecorder.Entry skg = null;
+    for (ExchangeRecorder.Entry entry : registrar.getExchangeRecorder().getEntries()) {
+      if (resource.equals(entry.getResource())) {
+        skg = entry;
+      }
+    }
+    Assert.assertNotNull(skg);
+    Assert.assertEquals("2.04", skg.getResult());
+    Assert.assertNotNull(skg.getRequest());
+    Assert.assertNull(skg.getResponse());
+    // the response held the key and the certificate.
+    Assert.assertTrue(
+        skg.getResponseSize() > pledge.getOperationalCert().getEncoded().length);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    registrar.getExchangeRecorder().writeTo(out);
+    for (CBORObject item : CBORObject.ReadSequence(new ByteArrayInputStream(out.toByteArray()))) {
+      if (resource.equals(item.get("resource").AsString())) {
+        Assert.assertNull(item.get("response"));
+      }
+    }
+  }
+
+  /**
+   * Reenrollment resumes the DTLS session of the voucher request and enrollment, with an
+   * abbreviated handshake, rather than doing a second full handshake on a new endpoint.
+   */
+  @Test
+  public void testReenrollResumesDtlsSession() throws Exception {
+    DtlsStatistics resumed = onboard(pledge);
+    Assert.assertEquals(1, resumed.getFullHandshakes());
+    Assert.assertEquals(1, resumed.getAbbreviatedHandshakes());
+
+    Pledge fullPledge = new Pledge(cg.getCredentials(CredentialsSet.PLEDGE_ALIAS), REGISTRAR_URI);
+    try {
+      fullPledge.setLightweightClientCertificates(true);
+      fullPledge.setSessionResumption(false);
+      DtlsStatistics full = onboard(fullPledge);
+      Assert.assertEquals(2, full.getFullHandshakes());
+      Assert.assertEquals(0, full.getAbbreviatedHandshakes());
+
+      long bytesSaved =
+          full.getBytesSent() + full.getBytesReceived()
+              - resumed.getBytesSent() - resumed.getBytesReceived();
+      logger.info(
+          "onboarding with session resumption: {}\nonboarding without: {}\n"
+              + "saved {} bytes and {} round trips",
+          resumed,
+          full,
+          bytesSaved,
+          full.getRoundTrips() - resumed.getRoundTrips());
+      Assert.assertTrue(bytesSaved > 0);
+      Assert.assertTrue(full.getRoundTrips() >= resumed.getRoundTrips());
+    } finally {
+      fullPledge.shutdown();
+    }
+  }
+
+  /**
+   * The Registrar assigns the Pledge an RFC 9146 Connection ID, which carries the Registrar's
+   * configured node ID.
+   */
+  @Test
+  public void testConnectionId() throws Exception {
+    int nodeId = 7;
+    registrar.stop();
+    registrar.destroy();
+    registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setTrustAllMasas(true)
+            .setDtlsSettings(new DtlsSettings().setConnectionIdNodeId(nodeId))
+            .build();
+    registrar.setDomainCA(domainCA);
+    registrar.start();
+
+    CoapResponse response = pledge.sayHello();
+    Assert.assertEquals(ResponseCode.CONTENT, response.getCode());
+    // the Pledge writes its records with the Connection ID that the Registrar assigned.
+    Bytes cid = response.advanced().getSourceContext().get(DtlsEndpointContext.KEY_WRITE_CONNECTION_ID);
+    Assert.assertNotNull(cid);
+    Assert.assertEquals(DtlsSettings.DEFAULT_CONNECTION_ID_LENGTH, cid.length());
+    Assert.assertEquals(
+        nodeId,
+        new MultiNodeConnectionIdGenerator(nodeId, DtlsSettings.DEFAULT_CONNECTION_ID_LENGTH)
+            .getNodeId(new ConnectionId(cid.getBytes())));
+  }
+
+  /**
+   * With a session store, the DTLS sessions survive a Registrar restart, so the Pledge can still
+   * resume its session afterwards.
+   */
+  @Test
+  public void testSessionStoreSurvivesRestart() throws Exception {
+    Path store = Files.createTempFile("registrar-sessions", ".bin");
+    Files.delete(store);
+    try {
+      registrar.setSessionStore(store);
+      Assert.assertTrue(pledge.requestVoucher().validate());
+      pledge.enroll();
+
+      restartRegistrar(store);
+      Assert.assertFalse("session store must be deleted once loaded", Files.exists(store));
+
+      pledge.reenroll();
+      verifyEnroll(pledge);
+      Assert.assertEquals(1, pledge.getDtlsStatistics().getFullHandshakes());
+      Assert.assertEquals(1, pledge.getDtlsStatistics().getAbbreviatedHandshakes());
+    } finally {
+      registrar.setSessionStore(null);
+      Files.deleteIfExists(store);
+    }
+  }
+
+  /** The session store holds session secrets, so only its owner may read it. */
+  @Test
+  public void testSessionStoreOwnerOnly() throws Exception {
+    Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Path dir = Files.createTempDirectory("registrar-sessions");
+    Path store = dir.resolve("sessions.bin");
+    try {
+      registrar.setSessionStore(store);
+      Assert.assertTrue(pledge.requestVoucher().validate());
+
+      // the stopped Registrar saves its sessions; the new one has no store.
+      restartRegistrar(null);
+      Assert.assertEquals(
+          PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(store));
+      try (Stream<Path> files = Files.list(dir)) {
+        Assert.assertEquals(List.of(store), files.collect(Collectors.toList()));
+      }
+    } finally {
+      Files.deleteIfExists(store);
+      Files.delete(dir);
+    }
+  }
+
+  /** Without a session store, a Registrar restart loses the sessions: the Pledge falls back. */
+  @Test
+  public void testRestartWithoutSessionStore() throws Exception {
+    Assert.assertTrue(pledge.requestVoucher().validate());
+    pledge.enroll();
+
+    restartRegistrar(null);
+
+    pledge.reenroll();
+    verifyEnroll(pledge);
+    Assert.assertEquals(2, pledge.getDtlsStatistics().getFullHandshakes());
+    Assert.assertEquals(0, pledge.getDtlsStatistics().getAbbreviatedHandshakes());
+  }
+
+  /**
+   * With several sockets, the Registrar serves the same resources on each, and its Pledges can
+   * resume their sessions after a Registrar restart, also when they come back from another port.
+   */
+  @Test
+  public void testMultipleSockets() throws Exception {
+    Path store = Files.createTempFile("registrar-sessions", ".bin");
+    Files.delete(store);
+    DtlsSettings settings = new DtlsSettings().setSockets(4);
+    List<Pledge> pledges = new ArrayList<>();
+    try {
+      restartRegistrar(null, settings);
+      Assert.assertEquals(4, registrar.getEndpoints().size());
+      for (Endpoint endpoint : registrar.getEndpoints()) {
+        Assert.assertEquals(
+            ConstantsBrski.DEFAULT_REGISTRAR_COAPS_PORT, endpoint.getAddress().getPort());
+      }
+
+      registrar.setSessionStore(store);
+      for (int i = 0; i < 4; i++) {
+        Pledge p = new Pledge(cg.getCredentials(CredentialsSet.PLEDGE_ALIAS), REGISTRAR_URI);
+        p.setLightweightClientCertificates(true);
+        pledges.add(p);
+        Assert.assertTrue(p.requestVoucher().validate());
+        p.enroll();
+        verifyEnroll(p);
+      }
+
+      restartRegistrar(store, settings);
+
+      for (Pledge p : pledges) {
+        p.reenroll();
+        verifyEnroll(p);
+        Assert.assertEquals(1, p.getDtlsStatistics().getFullHandshakes());
+        Assert.assertEquals(1, p.getDtlsStatistics().getAbbreviatedHandshakes());
+      }
+    } finally {
+      pledges.forEach(Pledge::shutdown);
+      registrar.setSessionStore(null);
+      Files.deleteIfExists(store);
+    }
+  }
+
+  /**
+   * At one handshake per second, the second Pledge's ClientHello that returns the cookie is dropped,
+   * and its retransmission gets through once the bucket has refilled.
+   */
+  @Test
+  public void testHandshakeRateLimit() throws Exception {
+    restartRegistrar(null, new DtlsSettings().setHandshakeRateLimit(1, 1));
+    Pledge other = new Pledge(cg.getCredentials(CredentialsSet.PLEDGE_ALIAS), REGISTRAR_URI);
+    try {
+      Assert.assertTrue(pledge.requestVoucher().validate());
+      Assert.assertTrue(other.requestVoucher().validate());
+    } finally {
+      other.shutdown();
+    }
+    Assert.assertTrue(
+        registrar.getMetrics().getCounters().get("registrar_dtls_handshakes_throttled_total") > 0);
+  }
+
+  /** Replaces the Registrar with a new instance on the same port, as a process restart would. */
+  private void restartRegistrar(Path sessionStore) throws Exception {
+    restartRegistrar(sessionStore, new DtlsSettings());
+  }
+
+  private void restartRegistrar(Path sessionStore, DtlsSettings settings) throws Exception {
+    registrar.stop();
+    registrar.destroy();
+    if (sessionStore != null) {
+      Assert.assertTrue(Files.exists(sessionStore));
+    }
+    registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setTrustAllMasas(true)
+            .setDtlsSettings(settings)
+            .setSessionStore(sessionStore)
+            .build();
+    registrar.setDomainCA(domainCA);
+    registrar.start();
+  }
+
+  private DtlsStatistics onboard(Pledge p) throws Exception {
+    Assert.assertTrue(p.requestVoucher().validate());
+    p.enroll();
+    verifyEnroll(p);
+    p.reenroll();
+    verifyEnroll(p);
+    return p.getDtlsStatistics();
+  }
+
+  /**
+   * The reenrollment scheduler renews the LDevID for a new key pair. Without renewal delay or
+   * jitter, the first renewal happens right away.
+   */
+  @Test
+  public void testScheduledReenroll() throws Exception {
+    Voucher voucher = pledge.requestVoucher();
+    Assert.assertTrue(voucher.validate());
+    pledge.enroll();
+    verifyEnroll(pledge);
+    X509Certificate oldCert = pledge.getOperationalCert();
+
+    BlockingQueue<X509Certificate> renewed = new LinkedBlockingQueue<>();
+    ReenrollmentScheduler scheduler =
+        new ReenrollmentScheduler(pledge, 0.0, 0.0, Duration.ofSeconds(1), Duration.ofSeconds(2));
+    scheduler.setListener(
+        new ReenrollmentScheduler.Listener() {
+          @Override
+          public void onRenewed(X509Certificate cert) {
+            renewed.add(cert);
+          }
+
+          @Override
+          public void onFailed(Exception e, Duration retryDelay) {
+            logger.warn("scheduled reenrollment failed", e);
+          }
+        });
+    scheduler.start();
+    X509Certificate newCert;
+    try {
+      newCert = renewed.poll(10, TimeUnit.SECONDS);
+    } finally {
+      scheduler.stop();
+    }
+
+    Assert.assertNotNull("no scheduled reenrollment", newCert);
+    Assert.assertNotEquals(oldCert.getSerialNumber(), newCert.getSerialNumber());
+    Assert.assertNotEquals(oldCert.getPublicKey(), newCert.getPublicKey());
+  }
+
   /**
    * Test various status telemetry messages, stand-alone (not associated to enrollment/voucher request). Current Registrar is implemented to just accept/log these.
    */
@@ -0,0 +1,154 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.Credentials;
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
+import com.google.openthread.pledge.Pledge;
+import com.google.openthread.tools.CredentialGenerator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.californium.core.CoapResponse;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+
+/**
+ * Measures how many DTLS handshakes/sec the Registrar completes when a storm of Pledges connects
+ * at once, for each of the {@link DtlsSettings} that bound the DTLS connector: the connector and
+ * receiver threads, the number of sockets, the maximum number of connections and the inbound queue. Each Pledge does one
+ * full handshake followed by a GET /hello; a Pledge that gets no answer within {@link #TIMEOUT} is
+ * counted as failed. Not a unit test; run its main() from the test classpath, e.g.:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.google.openthread.registrar.HandshakeStormBenchmark \
+ *     -Dexec.classpathScope=test
+ * </pre>
+ */
+public final class HandshakeStormBenchmark {
+
+  private static final int PORT = 5694;
+  private static final int PLEDGES = 128;
+  private static final int CONCURRENCY = 64;
+  private static final Duration TIMEOUT = Duration.ofSeconds(15);
+
+  private HandshakeStormBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    CredentialGenerator cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    Map<String, DtlsSettings> cases = new LinkedHashMap<>();
+    cases.put("profile=default", DtlsSettings.forProfile(DtlsSettings.Profile.DEFAULT));
+    cases.put("profile=embedded", DtlsSettings.forProfile(DtlsSettings.Profile.EMBEDDED));
+    cases.put("profile=server", DtlsSettings.forProfile(DtlsSettings.Profile.SERVER));
+    for (int threads = 2; threads <= 2 * cores; threads *= 2) {
+      cases.put("connector-threads=" + threads, new DtlsSettings().setConnectorThreads(threads));
+    }
+    cases.put("receiver-threads=2", new DtlsSettings().setReceiverThreads(2));
+    for (int sockets = 2; sockets <= Math.max(2, cores); sockets *= 2) {
+      cases.put("sockets=" + sockets, new DtlsSettings().setSockets(sockets));
+    }
+    cases.put("max-connections=" + PLEDGES / 2, new DtlsSettings().setMaxConnections(PLEDGES / 2));
+    cases.put(
+        "inbound-jobs=" + DtlsSettings.MIN_PENDING_JOBS,
+        new DtlsSettings().setMaxPendingInboundJobs(DtlsSettings.MIN_PENDING_JOBS));
+
+    run(cg, new DtlsSettings()); // warm-up
+    for (Map.Entry<String, DtlsSettings> c : cases.entrySet()) {
+      Result r = run(cg, c.getValue());
+      System.out.printf(
+          "%-22s: %6.1f handshakes/sec, %3d of %d failed%n",
+          c.getKey(), r.handshakesPerSec, r.failed, PLEDGES);
+    }
+  }
+
+  private static Result run(CredentialGenerator cg, DtlsSettings settings) throws Exception {
+    Registrar registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setTrustAllMasas(true)
+            .setPort(PORT)
+            .setDtlsSettings(settings)
+            .build();
+    registrar.start();
+
+    Credentials pledgeCreds = cg.getCredentials(CredentialsSet.PLEDGE_ALIAS);
+    List<Pledge> pledges = new ArrayList<>();
+    for (int i = 0; i < PLEDGES; i++) {
+      Pledge pledge = new Pledge(pledgeCreds, "coaps://[::1]:" + PORT);
+      pledge.setTimeout(TIMEOUT.toMillis());
+      pledges.add(pledge);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+    try {
+      long start = System.nanoTime();
+      List<Future<CoapResponse>> results = new ArrayList<>();
+      for (Pledge pledge : pledges) {
+        results.add(executor.submit(pledge::sayHello));
+      }
+      int failed = 0;
+      for (Future<CoapResponse> f : results) {
+        CoapResponse response;
+        try {
+          response = f.get();
+        } catch (Exception e) {
+          response = null;
+        }
+        if (response == null || response.getCode() != ResponseCode.CONTENT) {
+          failed++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      return new Result((PLEDGES - failed) / seconds, failed);
+    } finally {
+      executor.shutdown();
+      pledges.forEach(Pledge::shutdown);
+      registrar.stop();
+      registrar.destroy();
+    }
+  }
+
+  private static final class Result {
+    final double handshakesPerSec;
+    final int failed;
+
+    Result(double handshakesPerSec, int failed) {
+      this.handshakesPerSec = handshakesPerSec;
+      this.failed = failed;
+    }
+  }
+}
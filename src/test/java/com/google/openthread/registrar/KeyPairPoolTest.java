@@ -0,0 +1,97 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeyPairPoolTest {
+
+  private static void awaitSize(KeyPairPool pool, int size) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (pool.size() < size && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(size, pool.size());
+  }
+
+  @Test
+  public void testPrefillAndRefill() throws Exception {
+    KeyPairPool pool = new KeyPairPool(8, 2, 2);
+    Assert.assertEquals(0, pool.size());
+    pool.start();
+    try {
+      awaitSize(pool, 8);
+
+      // taking down to the low-water mark starts a refill up to capacity.
+      for (int i = 0; i < 6; i++) {
+        pool.take();
+      }
+      awaitSize(pool, 8);
+      Assert.assertEquals(0, pool.getMisses());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testTakeGeneratesWhenEmpty() throws Exception {
+    // not started: nothing is pooled, so each key pair is generated on request.
+    KeyPairPool pool = new KeyPairPool(4, 1, 1);
+    KeyPair keyPair = pool.take();
+    Assert.assertTrue(keyPair.getPublic() instanceof ECPublicKey);
+    Assert.assertEquals(
+        256, ((ECPublicKey) keyPair.getPublic()).getParams().getCurve().getField().getFieldSize());
+    Assert.assertEquals(1, pool.getMisses());
+    Assert.assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testKeyPairsAreUnique() throws Exception {
+    KeyPairPool pool = new KeyPairPool(4, 1, 1);
+    pool.start();
+    try {
+      Set<Object> keys = new HashSet<>();
+      for (int i = 0; i < 20; i++) {
+        Assert.assertTrue(keys.add(pool.take().getPublic()));
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLowWaterMarkBelowCapacity() {
+    new KeyPairPool(4, 4, 1);
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.DtlsSettings;
+import com.google.openthread.brski.ConstantsBrski;
+import com.google.openthread.domainca.DomainCA;
+import com.google.openthread.masa.MASA;
+import com.google.openthread.pledge.Pledge;
+import com.google.openthread.tools.CredentialGenerator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the onboarding latency distribution (voucher request and enrollment) of Pledges over an
+ * emulated lossy link, with the fixed 10 s DTLS retransmission timer used before and with the
+ * adaptive timers: a shorter initial DTLS timeout, an RTO learned from the handshake flights and
+ * CoCoA on the CoAP layer. Not a unit test; run its main() from the test classpath, e.g.:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.google.openthread.registrar.LossyLinkBenchmark \
+ *     -Dexec.classpathScope=test
+ * </pre>
+ */
+public final class LossyLinkBenchmark {
+
+  private static final int ONBOARDINGS = 30;
+  private static final Duration ONE_WAY_DELAY = Duration.ofMillis(50);
+
+  private LossyLinkBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    CredentialGenerator cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+    MASA masa =
+        new MASA(
+            cg.getCredentials(CredentialsSet.MASA_ALIAS),
+            cg.getCredentials(CredentialsSet.MASA_CA_ALIAS),
+            ConstantsBrski.DEFAULT_MASA_HTTPS_PORT);
+    Registrar registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setTrustAllMasas(true)
+            .build();
+    registrar.setDomainCA(
+        new DomainCA("Thread-Test", cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS)));
+    masa.start();
+    registrar.start();
+
+    DtlsSettings fixed =
+        new DtlsSettings()
+            .setRetransmissionTimeout(Duration.ofSeconds(10), Duration.ofSeconds(60))
+            .setEccTimeout(Duration.ZERO)
+            .setCongestionControl(false);
+    try {
+      for (double lossRate : new double[] {0.05, 0.10}) {
+        for (boolean isAdaptive : new boolean[] {false, true}) {
+          List<Duration> latencies = new ArrayList<>();
+          int failed = 0;
+          for (int seed = 0; seed < ONBOARDINGS; seed++) {
+            try (LossyLinkProxy proxy =
+                new LossyLinkProxy(registrar.getListenPort(), lossRate, ONE_WAY_DELAY, seed)) {
+              Pledge pledge =
+                  new Pledge(
+                      cg.getCredentials(CredentialsSet.PLEDGE_ALIAS),
+                      "coaps://127.0.0.1:" + proxy.getPort());
+              pledge.setLightweightClientCertificates(true);
+              if (!isAdaptive) {
+                pledge.setDtlsSettings(fixed);
+                pledge.reset();
+              }
+              try {
+                long start = System.nanoTime();
+                pledge.requestVoucher();
+                pledge.enroll();
+                latencies.add(Duration.ofNanos(System.nanoTime() - start));
+              } catch (Exception e) {
+                failed++;
+              } finally {
+                pledge.shutdown();
+              }
+            }
+          }
+          Collections.sort(latencies);
+          System.out.printf(
+              "loss=%4.1f%% %-8s: p50 %6d ms, p90 %6d ms, max %6d ms, %d failed%n",
+              lossRate * 100,
+              isAdaptive ? "adaptive" : "fixed",
+              latencies.get(latencies.size() / 2).toMillis(),
+              latencies.get(latencies.size() * 9 / 10).toMillis(),
+              latencies.get(latencies.size() - 1).toMillis(),
+              failed);
+        }
+      }
+    } finally {
+      registrar.stop();
+      masa.stop();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A UDP relay between one client and a server on the loopback interface that emulates a lossy
+ * link: each datagram is delayed by a fixed one-way delay and dropped with a given probability.
+ * Specific datagrams can be dropped as well, to reproduce a given loss pattern.
+ */
+final class LossyLinkProxy implements AutoCloseable {
+
+  private final DatagramSocket clientSide;
+  private final DatagramSocket serverSide;
+  private final InetSocketAddress server;
+  private final double lossRate;
+  private final Duration oneWayDelay;
+  private final Random random;
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(r -> newDaemon(r, "lossy-link-delay"));
+  private final AtomicInteger fromClientCount = new AtomicInteger();
+  private final AtomicInteger fromServerCount = new AtomicInteger();
+  private final AtomicInteger dropped = new AtomicInteger();
+  private volatile int[] dropFromClient = new int[0];
+  private volatile int[] dropFromServer = new int[0];
+  private volatile InetSocketAddress client;
+
+  LossyLinkProxy(int serverPort, double lossRate, Duration oneWayDelay, long seed)
+      throws SocketException {
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    this.clientSide = new DatagramSocket(new InetSocketAddress(loopback, 0));
+    this.serverSide = new DatagramSocket(new InetSocketAddress(loopback, 0));
+    this.server = new InetSocketAddress(loopback, serverPort);
+    this.lossRate = lossRate;
+    this.oneWayDelay = oneWayDelay;
+    this.random = new Random(seed);
+    newDaemon(() -> relay(clientSide, true), "lossy-link-up").start();
+    newDaemon(() -> relay(serverSide, false), "lossy-link-down").start();
+  }
+
+  /** The port for the client to send to. */
+  int getPort() {
+    return clientSide.getLocalPort();
+  }
+
+  /** Drop the datagrams from the client with the given indexes, counting from 0. */
+  void dropFromClient(int... indexes) {
+    dropFromClient = indexes.clone();
+  }
+
+  /** Drop the datagrams from the server with the given indexes, counting from 0. */
+  void dropFromServer(int... indexes) {
+    dropFromServer = indexes.clone();
+  }
+
+  /** The number of datagrams received from the client so far. */
+  int getFromClientCount() {
+    return fromClientCount.get();
+  }
+
+  int getDropped() {
+    return dropped.get();
+  }
+
+  private void relay(DatagramSocket in, boolean isFromClient) {
+    byte[] buf = new byte[2048];
+    while (!in.isClosed()) {
+      DatagramPacket packet = new DatagramPacket(buf, buf.length);
+      try {
+        in.receive(packet);
+      } catch (IOException e) {
+        return;
+      }
+      int index =
+          isFromClient ? fromClientCount.getAndIncrement() : fromServerCount.getAndIncrement();
+      if (isFromClient) {
+        client = (InetSocketAddress) packet.getSocketAddress();
+      }
+      int[] drops = isFromClient ? dropFromClient : dropFromServer;
+      boolean isLost;
+      synchronized (random) {
+        isLost = random.nextDouble() < lossRate;
+      }
+      if (isLost || Arrays.stream(drops).anyMatch(i -> i == index)) {
+        dropped.incrementAndGet();
+        continue;
+      }
+      byte[] data = Arrays.copyOf(packet.getData(), packet.getLength());
+      DatagramSocket out = isFromClient ? serverSide : clientSide;
+      InetSocketAddress to = isFromClient ? server : client;
+      scheduler.schedule(
+          () -> {
+            try {
+              out.send(new DatagramPacket(data, data.length, to));
+            } catch (IOException e) {
+              // the proxy is closing.
+            }
+          },
+          oneWayDelay.toNanos(),
+          TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static Thread newDaemon(Runnable r, String name) {
+    Thread t = new Thread(r, name);
+    t.setDaemon(true);
+    return t;
+  }
+
+  @Override
+  public void close() {
+    clientSide.close();
+    serverSide.close();
+    scheduler.shutdownNow();
+  }
+}
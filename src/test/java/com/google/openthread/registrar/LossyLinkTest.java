@@ -0,0 +1,187 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.CredentialsSet;
+import com.google.openthread.brski.ConstantsBrski;
+import com.google.openthread.domainca.DomainCA;
+import com.google.openthread.masa.MASA;
+import com.google.openthread.pledge.Pledge;
+import com.google.openthread.tools.CredentialGenerator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LossyLinkTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(LossyLinkTest.class);
+
+  private static final int ONBOARDINGS = 6;
+  private static final double LOSS_RATE = 0.05;
+
+  private static CredentialGenerator cg;
+
+  private MASA masa;
+  private Registrar registrar;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    cg = new CredentialGenerator();
+    cg.make(null, null, null, null, null);
+  }
+
+  @Before
+  public void init() throws Exception {
+    masa =
+        new MASA(
+            cg.getCredentials(CredentialsSet.MASA_ALIAS),
+            cg.getCredentials(CredentialsSet.MASA_CA_ALIAS),
+            ConstantsBrski.DEFAULT_MASA_HTTPS_PORT);
+    registrar =
+        new RegistrarBuilder()
+            .setCredentials(cg.getCredentials(CredentialsSet.REGISTRAR_ALIAS))
+            .setTrustAllMasas(true)
+            .build();
+    registrar.setDomainCA(
+        new DomainCA("Thread-Test", cg.getCredentials(CredentialsSet.DOMAIN_CA_ALIAS)));
+    masa.start();
+    registrar.start();
+  }
+
+  @After
+  public void shutdown() {
+    registrar.stop();
+    masa.stop();
+  }
+
+  private Pledge newPledge(LossyLinkProxy proxy) throws Exception {
+    Pledge pledge =
+        new Pledge(
+            cg.getCredentials(CredentialsSet.PLEDGE_ALIAS), "coaps://127.0.0.1:" + proxy.getPort());
+    pledge.setLightweightClientCertificates(true);
+    return pledge;
+  }
+
+  /**
+   * A lost first flight costs the initial retransmission timeout plus the Pledge's small ECC
+   * timeout, instead of the fixed 10 s used before.
+   */
+  @Test
+  public void testLostFlightIsRetransmittedEarly() throws Exception {
+    try (LossyLinkProxy proxy =
+        new LossyLinkProxy(registrar.getListenPort(), 0, Duration.ofMillis(20), 0)) {
+      // the Registrar's HelloVerifyRequest.
+      proxy.dropFromServer(0);
+      Pledge pledge = newPledge(proxy);
+      try {
+        long start = System.nanoTime();
+        Assert.assertNotNull(pledge.sayHello());
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        Assert.assertEquals(1, proxy.getDropped());
+        Assert.assertTrue("latency " + latency, latency.compareTo(Duration.ofSeconds(5)) < 0);
+      } finally {
+        pledge.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Once the handshake flight RTTs are measured, the learned RTO is the initial retransmission
+   * timeout of the next handshake: a lost flight of the resumption handshake costs about a second
+   * on a fast link, while the resumption itself is kept.
+   */
+  @Test
+  public void testLearnedRtoAppliesToResumption() throws Exception {
+    try (LossyLinkProxy proxy =
+        new LossyLinkProxy(registrar.getListenPort(), 0, Duration.ofMillis(20), 0)) {
+      Pledge pledge = newPledge(proxy);
+      try {
+        Assert.assertTrue(pledge.requestVoucher().validate());
+        pledge.enroll();
+        Assert.assertTrue(pledge.getRttEstimator().getSampleCount() > 0);
+        Assert.assertTrue(
+            pledge.getRttEstimator().getRto().compareTo(Duration.ofMillis(1500)) < 0);
+
+        // drop the first datagram of the resumption handshake.
+        proxy.dropFromClient(proxy.getFromClientCount());
+        long start = System.nanoTime();
+        pledge.reenroll();
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        Assert.assertEquals(1, proxy.getDropped());
+        Assert.assertEquals(1, pledge.getDtlsStatistics().getAbbreviatedHandshakes());
+        Assert.assertTrue("latency " + latency, latency.compareTo(Duration.ofMillis(2500)) < 0);
+      } finally {
+        pledge.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Monte Carlo simulation of onboarding (voucher request and enrollment) over a link that loses
+   * 5% of the datagrams: every onboarding completes, and the latency distribution stays well below
+   * what a single lost flight cost with the fixed 10 s timer.
+   */
+  @Test
+  public void testOnboardingLatencyDistribution() throws Exception {
+    List<Duration> latencies = new ArrayList<>();
+    int dropped = 0;
+    for (int seed = 0; seed < ONBOARDINGS; seed++) {
+      try (LossyLinkProxy proxy =
+          new LossyLinkProxy(registrar.getListenPort(), LOSS_RATE, Duration.ofMillis(20), seed)) {
+        Pledge pledge = newPledge(proxy);
+        try {
+          long start = System.nanoTime();
+          Assert.assertTrue(pledge.requestVoucher().validate());
+          pledge.enroll();
+          latencies.add(Duration.ofNanos(System.nanoTime() - start));
+          dropped += proxy.getDropped();
+        } finally {
+          pledge.shutdown();
+        }
+      }
+    }
+    Collections.sort(latencies);
+    Duration median = latencies.get(latencies.size() / 2);
+    logger.info(
+        "onboarding latency at {}% loss ({} datagrams lost): median {} ms, max {} ms",
+        LOSS_RATE * 100,
+        dropped,
+        median.toMillis(),
+        latencies.get(latencies.size() - 1).toMillis());
+    Assert.assertTrue("median " + median, median.compareTo(Duration.ofSeconds(5)) < 0);
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import com.google.openthread.brski.RestfulVoucherResponse;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MasaRouterTest {
+
+  private static final String MASA = "masa.example.com:9443";
+  private static final String ALTERNATE = "masa-2.example.com:9443";
+
+  private MasaRouter router;
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+  @Before
+  public void init() {
+    router = new MasaRouter(Duration.ofSeconds(5), 2, Duration.ofSeconds(60));
+    router.setAlternates(MASA, Arrays.asList(ALTERNATE));
+    router.start(Executors.newCachedThreadPool());
+  }
+
+  @After
+  public void finish() {
+    router.shutdown();
+  }
+
+  private static RestfulVoucherResponse voucher() {
+    return new RestfulVoucherResponse(ResponseCode.CHANGED, new byte[] {1}, 836);
+  }
+
+  /** A sender to endpoints that take the given time, and fail if negative. */
+  private MasaRouter.Sender sender(Map<String, Long> millis) {
+    return (endpoint, timeoutMillis) -> {
+      calls.computeIfAbsent(endpoint, e -> new AtomicInteger()).incrementAndGet();
+      long t = millis.get(endpoint);
+      if (t < 0) {
+        throw new ConnectException("refused");
+      }
+      Thread.sleep(Math.min(t, timeoutMillis));
+      if (t > timeoutMillis) {
+        throw new IOException("timeout");
+      }
+      return voucher();
+    };
+  }
+
+  private int calls(String endpoint) {
+    AtomicInteger count = calls.get(endpoint);
+    return count == null ? 0 : count.get();
+  }
+
+  @Test
+  public void testFailoverAndCircuitBreaker() throws Exception {
+    MasaRouter.Sender sender = sender(Map.of(MASA, -1L, ALTERNATE, 1L));
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(ResponseCode.CHANGED, router.request(MASA, sender).getCoapCode());
+    }
+    // the MASA URI failed twice, which opened its circuit.
+    Assert.assertEquals(2, calls(MASA));
+    Assert.assertEquals(5, calls(ALTERNATE));
+    Assert.assertEquals(1, router.getCircuitOpenedCount());
+    Assert.assertEquals(0, router.getRetryAfterSeconds(MASA));
+  }
+
+  @Test
+  public void testAllCircuitsOpen() throws Exception {
+    MasaRouter.Sender sender = sender(Map.of(MASA, -1L, ALTERNATE, -1L));
+    Assert.assertEquals(
+        ResponseCode.SERVICE_UNAVAILABLE, router.request(MASA, sender).getCoapCode());
+    Assert.assertEquals(
+        ResponseCode.SERVICE_UNAVAILABLE, router.request(MASA, sender).getCoapCode());
+    Assert.assertEquals(4, calls(MASA) + calls(ALTERNATE));
+
+    // failing fast now, with the time until the first probe.
+    RestfulVoucherResponse response = router.request(MASA, sender);
+    Assert.assertEquals(ResponseCode.SERVICE_UNAVAILABLE, response.getCoapCode());
+    Assert.assertEquals("MASA circuit open", response.getMessage());
+    Assert.assertEquals(4, calls(MASA) + calls(ALTERNATE));
+    int retryAfter = router.getRetryAfterSeconds(MASA);
+    Assert.assertTrue(retryAfter > 55 && retryAfter <= 60);
+  }
+
+  @Test
+  public void testServerErrorIsFailure() throws Exception {
+    MasaRouter.Sender sender =
+        (endpoint, timeoutMillis) ->
+            endpoint.equals(MASA)
+                ? new RestfulVoucherResponse(ResponseCode.INTERNAL_SERVER_ERROR, "oops")
+                : new RestfulVoucherResponse(ResponseCode.BAD_REQUEST, "bad voucher request");
+    // a 4.xx shows the MASA works: it is returned, as is.
+    Assert.assertEquals(ResponseCode.BAD_REQUEST, router.request(MASA, sender).getCoapCode());
+    Assert.assertEquals(
+        CircuitBreaker.State.CLOSED, router.getEndpoints(MASA).get(1).getBreaker().getState());
+  }
+
+  @Test
+  public void testTimeoutBudget() throws Exception {
+    router.setTimeout(Duration.ofMillis(300));
+    long start = System.nanoTime();
+    RestfulVoucherResponse response =
+        router.request(MASA, sender(Map.of(MASA, 10_000L, ALTERNATE, 10_000L)));
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    Assert.assertEquals(ResponseCode.GATEWAY_TIMEOUT, response.getCoapCode());
+    Assert.assertTrue(millis >= 300 && millis < 2000);
+  }
+
+  @Test
+  public void testFastestEndpointFirst() throws Exception {
+    MasaRouter.Sender sender = sender(Map.of(MASA, 200L, ALTERNATE, 10L));
+    // both unmeasured: the MASA URI first; then the alternate, not measured yet.
+    router.request(MASA, sender);
+    router.request(MASA, sender);
+    Assert.assertEquals(1, calls(MASA));
+    Assert.assertEquals(1, calls(ALTERNATE));
+
+    for (int i = 0; i < 3; i++) {
+      router.request(MASA, sender);
+    }
+    Assert.assertEquals(1, calls(MASA));
+    Assert.assertEquals(4, calls(ALTERNATE));
+  }
+
+  @Test
+  public void testHedging() throws Exception {
+    router.setHedgePercentile(90);
+    Map<String, Long> millis = new ConcurrentHashMap<>(Map.of(MASA, 20L, ALTERNATE, 50L));
+    MasaRouter.Sender sender = sender(millis);
+    // measure both; the MASA URI is faster.
+    router.request(MASA, sender);
+    router.request(MASA, sender);
+
+    // the MASA URI slows down: after its 90th percentile, the alternate gets the request too.
+    millis.put(MASA, 3000L);
+    long start = System.nanoTime();
+    Assert.assertEquals(ResponseCode.CHANGED, router.request(MASA, sender).getCoapCode());
+    Assert.assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+    Assert.assertEquals(1, router.getHedgedCount());
+  }
+
+  @Test
+  public void testCircuitBreaker() {
+    CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(10));
+    long now = 0;
+    Assert.assertTrue(breaker.tryAcquire(now));
+    breaker.onFailure(now);
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    breaker.onFailure(now);
+    Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    Assert.assertFalse(breaker.tryAcquire(now + 1));
+    Assert.assertEquals(10_000_000_000L - 1, breaker.getRetryAfterNanos(now + 1));
+
+    // after the open duration, a single probe.
+    now += 10_000_000_000L;
+    Assert.assertTrue(breaker.tryAcquire(now));
+    Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    Assert.assertFalse(breaker.tryAcquire(now));
+    breaker.onFailure(now);
+    Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    Assert.assertEquals(2, breaker.getOpenedCount());
+
+    now += 10_000_000_000L;
+    Assert.assertTrue(breaker.tryAcquire(now));
+    breaker.onSuccess();
+    Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    Assert.assertTrue(breaker.tryAcquire(now));
+  }
+
+  @Test
+  public void testEndpoints() {
+    List<MasaRouter.Endpoint> endpoints = router.getEndpoints(MASA);
+    Assert.assertEquals(2, endpoints.size());
+    Assert.assertEquals(MASA, endpoints.get(0).getUri());
+    Assert.assertEquals(ALTERNATE, endpoints.get(1).getUri());
+    Assert.assertEquals(1, router.getEndpoints("other.example.com").size());
+  }
+}
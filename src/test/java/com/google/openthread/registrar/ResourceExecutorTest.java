@@ -0,0 +1,148 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.registrar;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceExecutorTest {
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  public void testThreads() throws Exception {
+    ResourceExecutor executor = new ResourceExecutor("test-rv", 1, 1, Thread.NORM_PRIORITY + 1);
+    executor.start();
+    try {
+      AtomicReference<Thread> thread = new AtomicReference<>();
+      CountDownLatch done = new CountDownLatch(1);
+      executor.execute(
+          () -> {
+            thread.set(Thread.currentThread());
+            done.countDown();
+          });
+      Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+      Assert.assertEquals("test-rv-1", thread.get().getName());
+      Assert.assertEquals(Thread.NORM_PRIORITY + 1, thread.get().getPriority());
+      Assert.assertTrue(thread.get().isDaemon());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRejectsWhenFull() throws Exception {
+    ResourceExecutor executor = new ResourceExecutor("test", 2, 3, Thread.NORM_PRIORITY);
+    executor.start();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      for (int i = 0; i < 5; i++) {
+        executor.execute(() -> await(release));
+      }
+      Assert.assertEquals(3, executor.getQueueSize());
+      try {
+        executor.execute(() -> {});
+        Assert.fail("queue full, but task accepted");
+      } catch (RejectedExecutionException e) {
+        // expected.
+      }
+      Assert.assertEquals(1, executor.getRejectedCount());
+
+      // accepted again once the threads have caught up.
+      release.countDown();
+      CountDownLatch done = new CountDownLatch(1);
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (executor.getQueueSize() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      executor.execute(done::countDown);
+      Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testZeroQueue() throws Exception {
+    ResourceExecutor executor = new ResourceExecutor("test", 1, 0, Thread.NORM_PRIORITY);
+    executor.start();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      executor.execute(() -> await(release));
+      try {
+        executor.execute(() -> {});
+        Assert.fail("thread busy and no queue, but task accepted");
+      } catch (RejectedExecutionException e) {
+        // expected.
+      }
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testRetryAfter() throws Exception {
+    ResourceExecutor executor = new ResourceExecutor("test", 1, 1000, Thread.NORM_PRIORITY);
+    executor.start();
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      Assert.assertEquals(1, executor.getRetryAfterSeconds());
+      for (int i = 0; i < 1000; i++) {
+        executor.execute(() -> await(release));
+      }
+      // 1000 waiting, at the assumed 100 ms each, on one thread.
+      Assert.assertTrue(executor.getRetryAfterSeconds() > 1);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testNotStarted() {
+    new ResourceExecutor("test", 1, 1, Thread.NORM_PRIORITY).execute(() -> {});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPriority() {
+    new ResourceExecutor("test", 1, 1, Thread.MAX_PRIORITY + 1);
+  }
+}
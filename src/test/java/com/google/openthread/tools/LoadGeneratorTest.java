@@ -0,0 +1,77 @@
+/*
+ *    Copyright (c) 2026, The OpenThread Registrar Authors.
+ *    All rights reserved.
+ *
+ *    Redistribution and use in source and binary forms, with or without
+ *    modification, are permitted provided that the following conditions are met:
+ *    1. Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *    2. Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *    3. Neither the name of the copyright holder nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ *    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ *    AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ *    IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ *    ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ *    LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ *    CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ *    SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ *    INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ *    CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ *    ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ *    POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.google.openthread.tools;
+
+import com.google.openthread.tools.LoadGenerator.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadGeneratorTest {
+
+  @Test
+  public void testSmallFleet() throws Exception {
+    LoadGenerator generator = new LoadGenerator(4, 2);
+    generator.setWarmupPledges(1);
+    generator.setReenroll(true);
+    // not the default ports, which other tests' servers may still hold.
+    generator.setRegistrarPort(5794);
+    generator.setMasaPort(9553);
+
+    LoadGenerator.Report report = generator.run();
+    Assert.assertEquals(4, report.getJoined());
+    Assert.assertEquals(0, report.getFailed());
+    Assert.assertTrue(report.getJoinsPerSecond() > 0);
+    for (Phase phase : Phase.values()) {
+      Assert.assertTrue(phase.toString(), report.getLatencyMillis(phase, 50) > 0);
+      Assert.assertTrue(
+          report.getLatencyMillis(phase, 50) <= report.getLatencyMillis(phase, 99.9));
+    }
+    Assert.assertTrue(
+        report.getLatencyMillis(Phase.JOIN, 100) >= report.getLatencyMillis(Phase.ENROLL, 100));
+  }
+
+  @Test
+  public void testVirtualThreads() throws Exception {
+    // on JDKs without virtual threads, the servers fall back to their platform threads.
+    LoadGenerator generator = new LoadGenerator(4, 4);
+    generator.setWarmupPledges(0);
+    generator.setVirtualThreads(true);
+    generator.setRegistrarPort(5794);
+    generator.setMasaPort(9553);
+
+    LoadGenerator.Report report = generator.run();
+    Assert.assertEquals(4, report.getJoined());
+    Assert.assertEquals(0, report.getFailed());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoPledges() {
+    new LoadGenerator(0, 1);
+  }
+}